@@ -0,0 +1,318 @@
+package ushiosan.jvm;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Hexadecimal encoder and decoder.
+ * <p>
+ * All the operations use lookup tables, so every byte is converted with two array
+ * accesses and no intermediate objects are generated. The methods that write into
+ * a {@code char[]}, a {@link StringBuilder} or a {@link ByteBuffer} do not allocate
+ * any memory, and the methods that return a {@link String} only allocate the
+ * buffer used to build the string.
+ */
+public final class UHex {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Value returned by the decoding table when the character is not a hexadecimal digit
+	 */
+	private static final byte INVALID_DIGIT = -1;
+	
+	/**
+	 * Lowercase representation of every byte value (two characters per value)
+	 */
+	private static final byte[] LOWER_TABLE = encodingTable("0123456789abcdef");
+	
+	/**
+	 * Uppercase representation of every byte value (two characters per value)
+	 */
+	private static final byte[] UPPER_TABLE = encodingTable("0123456789ABCDEF");
+	
+	/**
+	 * Numeric value of every ASCII character or {@link #INVALID_DIGIT} if the
+	 * character is not a hexadecimal digit
+	 */
+	private static final byte[] DECODING_TABLE = decodingTable();
+	
+	/**
+	 * This class cannot be instantiated directly
+	 */
+	private UHex() {}
+	
+	/* -----------------------------------------------------
+	 * Encode methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Converts the given data into a hexadecimal string
+	 *
+	 * @param data      the data to convert
+	 * @param upperCase determines if the letters are uppercase or lowercase
+	 * @return the hexadecimal representation of the data
+	 */
+	public static @NotNull String toHexString(byte @NotNull [] data, boolean upperCase) {
+		UObject.requireNotNull(data, "data");
+		// Temporal variables
+		byte[] table = table(upperCase);
+		byte[] result = new byte[data.length << 1];
+		
+		for (int i = 0, j = 0; i < data.length; i++, j += 2) {
+			int index = (data[i] & 0xFF) << 1;
+			result[j] = table[index];
+			result[j + 1] = table[index + 1];
+		}
+		// All the characters are ASCII, so the string can use the compact representation
+		return new String(result, StandardCharsets.ISO_8859_1);
+	}
+	
+	/**
+	 * Converts the given data into a lowercase hexadecimal string
+	 *
+	 * @param data the data to convert
+	 * @return the hexadecimal representation of the data
+	 */
+	public static @NotNull String toHexString(byte @NotNull [] data) {
+		return toHexString(data, false);
+	}
+	
+	/**
+	 * Converts the given data into a hexadecimal representation
+	 *
+	 * @param data      the data to convert
+	 * @param upperCase determines if the letters are uppercase or lowercase
+	 * @return an array with the hexadecimal representation of the data
+	 */
+	public static char @NotNull [] encode(byte @NotNull [] data, boolean upperCase) {
+		UObject.requireNotNull(data, "data");
+		char[] result = new char[data.length << 1];
+		encode(data, 0, data.length, result, 0, upperCase);
+		return result;
+	}
+	
+	/**
+	 * Converts the given data into a lowercase hexadecimal representation
+	 *
+	 * @param data the data to convert
+	 * @return an array with the hexadecimal representation of the data
+	 */
+	public static char @NotNull [] encode(byte @NotNull [] data) {
+		return encode(data, false);
+	}
+	
+	/**
+	 * Writes the hexadecimal representation of the data into the given array
+	 *
+	 * @param data              the data to convert
+	 * @param offset            the position of the first byte to convert
+	 * @param length            the number of bytes to convert
+	 * @param destination       the array where the characters are written
+	 * @param destinationOffset the position where the first character is written
+	 * @param upperCase         determines if the letters are uppercase or lowercase
+	 * @throws IndexOutOfBoundsException error if the ranges are not valid or the destination is too small
+	 */
+	public static void encode(byte @NotNull [] data, int offset, int length, char @NotNull [] destination,
+		int destinationOffset, boolean upperCase) {
+		UObject.requireNotNull(data, "data");
+		UObject.requireNotNull(destination, "destination");
+		checkRange(data.length, offset, length);
+		checkRange(destination.length, destinationOffset, length << 1);
+		// Temporal variables
+		byte[] table = table(upperCase);
+		
+		for (int i = offset, j = destinationOffset; i < offset + length; i++, j += 2) {
+			int index = (data[i] & 0xFF) << 1;
+			destination[j] = (char) table[index];
+			destination[j + 1] = (char) table[index + 1];
+		}
+	}
+	
+	/**
+	 * Appends the hexadecimal representation of the data to the given builder
+	 *
+	 * @param data      the data to convert
+	 * @param builder   the builder where the characters are appended
+	 * @param upperCase determines if the letters are uppercase or lowercase
+	 * @return the same builder instance
+	 */
+	public static @NotNull StringBuilder encode(byte @NotNull [] data, @NotNull StringBuilder builder,
+		boolean upperCase) {
+		UObject.requireNotNull(data, "data");
+		UObject.requireNotNull(builder, "builder");
+		// Temporal variables
+		byte[] table = table(upperCase);
+		builder.ensureCapacity(builder.length() + (data.length << 1));
+		
+		for (byte item : data) {
+			int index = (item & 0xFF) << 1;
+			builder.append((char) table[index])
+				.append((char) table[index + 1]);
+		}
+		return builder;
+	}
+	
+	/**
+	 * Writes the hexadecimal representation of the data into the given buffer.
+	 * Every character is written as a single ASCII byte.
+	 *
+	 * @param data        the data to convert
+	 * @param destination the buffer where the characters are written
+	 * @param upperCase   determines if the letters are uppercase or lowercase
+	 * @throws BufferOverflowException error if the buffer does not have enough space
+	 */
+	public static void encode(@NotNull ByteBuffer data, @NotNull ByteBuffer destination, boolean upperCase) {
+		UObject.requireNotNull(data, "data");
+		UObject.requireNotNull(destination, "destination");
+		if (destination.remaining() < data.remaining() << 1) throw new BufferOverflowException();
+		// Temporal variables
+		byte[] table = table(upperCase);
+		
+		while (data.hasRemaining()) {
+			int index = (data.get() & 0xFF) << 1;
+			destination.put(table[index])
+				.put(table[index + 1]);
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Decode methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Converts a hexadecimal representation into the original data.
+	 * Uppercase and lowercase letters are accepted.
+	 *
+	 * @param content the hexadecimal representation
+	 * @return the original data
+	 * @throws IllegalArgumentException error if the content length is not even or
+	 *                                  contains characters that are not hexadecimal digits
+	 */
+	public static byte @NotNull [] decode(@NotNull CharSequence content) {
+		UObject.requireNotNull(content, "content");
+		if ((content.length() & 1) != 0) {
+			throw new IllegalArgumentException("The hexadecimal content must have an even length");
+		}
+		byte[] result = new byte[content.length() >> 1];
+		decode(content, result, 0);
+		return result;
+	}
+	
+	/**
+	 * Converts a hexadecimal representation into the original data and writes
+	 * it into the given array
+	 *
+	 * @param content           the hexadecimal representation
+	 * @param destination       the array where the data is written
+	 * @param destinationOffset the position where the first byte is written
+	 * @return the number of written bytes
+	 * @throws IllegalArgumentException  error if the content length is not even or
+	 *                                   contains characters that are not hexadecimal digits
+	 * @throws IndexOutOfBoundsException error if the destination is too small
+	 */
+	public static int decode(@NotNull CharSequence content, byte @NotNull [] destination, int destinationOffset) {
+		UObject.requireNotNull(content, "content");
+		UObject.requireNotNull(destination, "destination");
+		if ((content.length() & 1) != 0) {
+			throw new IllegalArgumentException("The hexadecimal content must have an even length");
+		}
+		// Temporal variables
+		int length = content.length() >> 1;
+		checkRange(destination.length, destinationOffset, length);
+		
+		for (int i = 0, j = 0; i < length; i++, j += 2) {
+			int high = digit(content.charAt(j), j);
+			int low = digit(content.charAt(j + 1), j + 1);
+			destination[destinationOffset + i] = (byte) ((high << 4) | low);
+		}
+		return length;
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the encoding table for the given letter case
+	 *
+	 * @param upperCase determines if the letters are uppercase or lowercase
+	 * @return the encoding table
+	 */
+	private static byte @NotNull [] table(boolean upperCase) {
+		return upperCase ? UPPER_TABLE : LOWER_TABLE;
+	}
+	
+	/**
+	 * Gets the numeric value of a hexadecimal digit
+	 *
+	 * @param character the digit to convert
+	 * @param index     the digit position (used only for the error message)
+	 * @return the digit value
+	 * @throws IllegalArgumentException error if the character is not a hexadecimal digit
+	 */
+	private static int digit(char character, int index) {
+		int value = character < DECODING_TABLE.length ? DECODING_TABLE[character] : INVALID_DIGIT;
+		if (value == INVALID_DIGIT) {
+			throw new IllegalArgumentException(
+				String.format("Invalid hexadecimal digit '%c' at position %d", character, index));
+		}
+		return value;
+	}
+	
+	/**
+	 * Verifies that a range is inside an array
+	 *
+	 * @param size   the array size
+	 * @param offset the range start
+	 * @param length the range length
+	 * @throws IndexOutOfBoundsException error if the range is not inside the array
+	 */
+	private static void checkRange(int size, int offset, int length) {
+		if (offset < 0 || length < 0 || offset > size - length) {
+			throw new IndexOutOfBoundsException(
+				String.format("Range [%d, %d) out of bounds for length %d", offset, offset + length, size));
+		}
+	}
+	
+	/**
+	 * Generates the table with the representation of every byte value
+	 *
+	 * @param digits all the hexadecimal digits
+	 * @return the encoding table
+	 */
+	private static byte @NotNull [] encodingTable(@NotNull String digits) {
+		byte[] result = new byte[512];
+		for (int i = 0; i < 256; i++) {
+			result[i << 1] = (byte) digits.charAt(i >>> 4);
+			result[(i << 1) + 1] = (byte) digits.charAt(i & 0x0F);
+		}
+		return result;
+	}
+	
+	/**
+	 * Generates the table with the numeric value of every ASCII character
+	 *
+	 * @return the decoding table
+	 */
+	private static byte @NotNull [] decodingTable() {
+		byte[] result = new byte[128];
+		Arrays.fill(result, INVALID_DIGIT);
+		
+		for (int i = 0; i < 10; i++) {
+			result['0' + i] = (byte) i;
+		}
+		for (int i = 0; i < 6; i++) {
+			result['a' + i] = (byte) (10 + i);
+			result['A' + i] = (byte) (10 + i);
+		}
+		return result;
+	}
+	
+}
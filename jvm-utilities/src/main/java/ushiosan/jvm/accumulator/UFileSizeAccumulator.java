@@ -1,13 +1,23 @@
 package ushiosan.jvm.accumulator;
 
 import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.filesystem.UResourceEntry;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.zip.ZipEntry;
 
+/**
+ * Accumulator of file sizes.
+ * <p>
+ * The accumulator is thread-safe and the sizes are stored in a {@link LongAdder}, so
+ * many threads (e.g. a parallel stream) can push sizes at the same time without
+ * contending on a single lock.
+ */
 public class UFileSizeAccumulator implements UAccumulator<Long, Long> {
 	
 	/* -----------------------------------------------------
@@ -17,7 +27,7 @@ public class UFileSizeAccumulator implements UAccumulator<Long, Long> {
 	/**
 	 * accumulator result
 	 */
-	private volatile long resultImpl = 0L;
+	private final LongAdder resultImpl = new LongAdder();
 	
 	/* -----------------------------------------------------
 	 * Methods
@@ -29,8 +39,8 @@ public class UFileSizeAccumulator implements UAccumulator<Long, Long> {
 	 * @return all accumulated content
 	 */
 	@Override
-	public synchronized @NotNull Long result() {
-		return resultImpl;
+	public @NotNull Long result() {
+		return resultImpl.sum();
 	}
 	
 	/**
@@ -39,8 +49,8 @@ public class UFileSizeAccumulator implements UAccumulator<Long, Long> {
 	 * @param item The item you want to accumulate
 	 */
 	@Override
-	public synchronized void push(@NotNull Long item) {
-		resultImpl += item;
+	public void push(@NotNull Long item) {
+		resultImpl.add(item);
 	}
 	
 	/**
@@ -63,19 +73,48 @@ public class UFileSizeAccumulator implements UAccumulator<Long, Long> {
 	}
 	
 	/**
-	 * Push more content to the current accumulator
+	 * Push more content to the current accumulator.
+	 * The size of any existing element is accumulated (the same as {@link #push(File)}),
+	 * and it is read with a single filesystem call.
 	 *
 	 * @param path The item you want to accumulate
+	 * @see Files#size(Path)
 	 */
 	public void push(@NotNull Path path) {
 		try {
-			if (Files.exists(path) || !Files.isDirectory(path)) {
-				push(Files.size(path));
-			}
+			push(Files.size(path));
 		} catch (IOException ignore) {
 		}
 	}
 	
+	/**
+	 * Push more content to the current accumulator.
+	 * Unlike {@link #push(Path)}, only regular files are accumulated, and the filesystem is not accessed.
+	 *
+	 * @param attributes The item you want to accumulate
+	 */
+	public void push(@NotNull BasicFileAttributes attributes) {
+		if (attributes.isRegularFile()) resultImpl.add(attributes.size());
+	}
+	
+	/**
+	 * Push more content to the current accumulator.
+	 * Unlike {@link #push(Path)}, only regular files are accumulated, and the size is
+	 * taken from the attributes stored in the entry, so the filesystem is not accessed.
+	 *
+	 * @param entry The item you want to accumulate
+	 */
+	public void push(@NotNull UResourceEntry entry) {
+		if (entry.isRegularFile()) resultImpl.add(entry.size());
+	}
+	
+	/**
+	 * Removes all the accumulated content
+	 */
+	public void reset() {
+		resultImpl.reset();
+	}
+	
 	/**
 	 * Push more content to the current accumulator
 	 *
@@ -0,0 +1,137 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UHex;
+import ushiosan.jvm.UObject;
+
+import java.util.Arrays;
+
+/**
+ * Block of content found by a {@link UContentChunker}
+ */
+public final class UContentChunk {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Position of the chunk inside the content
+	 */
+	private final long offset;
+	
+	/**
+	 * The chunk size in bytes
+	 */
+	private final int length;
+	
+	/**
+	 * The chunk content digest
+	 */
+	private final byte[] digest;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param offset position of the chunk inside the content
+	 * @param length the chunk size in bytes
+	 * @param digest the chunk content digest
+	 */
+	public UContentChunk(long offset, int length, byte @NotNull [] digest) {
+		UObject.requireNotNull(digest, "digest");
+		this.offset = offset;
+		this.length = length;
+		this.digest = digest;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Position of the chunk inside the content
+	 *
+	 * @return the chunk offset
+	 */
+	public long offset() {
+		return offset;
+	}
+	
+	/**
+	 * The chunk size in bytes
+	 *
+	 * @return the chunk size
+	 */
+	public int length() {
+		return length;
+	}
+	
+	/**
+	 * The chunk content digest
+	 *
+	 * @return a copy of the chunk digest
+	 */
+	public byte @NotNull [] digest() {
+		return digest.clone();
+	}
+	
+	/**
+	 * Compact identifier of the chunk content, generated with the first
+	 * bytes of the digest. Two chunks with the same content always have
+	 * the same fingerprint.
+	 *
+	 * @return the chunk fingerprint
+	 */
+	public long fingerprint() {
+		long result = 0L;
+		for (int i = 0; i < Math.min(Long.BYTES, digest.length); i++) {
+			result = (result << 8) | (digest[i] & 0xFF);
+		}
+		return result;
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Indicates whether some other object is "equal to" this one.
+	 *
+	 * @param obj the reference object with which to compare.
+	 * @return {@code true} if this object is the same as the obj
+	 * 	argument; {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		if (obj == null || !UObject.canCast(obj, getClass())) return false;
+		
+		UContentChunk other = UObject.cast(obj);
+		return offset == other.offset && length == other.length && Arrays.equals(digest, other.digest);
+	}
+	
+	/**
+	 * Returns a hash code value for the object.
+	 *
+	 * @return a hash code value for this object.
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * (31 * Long.hashCode(offset) + length) + Arrays.hashCode(digest);
+	}
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("[%d, %d) %s", offset, offset + length, UHex.toHexString(digest));
+	}
+	
+}
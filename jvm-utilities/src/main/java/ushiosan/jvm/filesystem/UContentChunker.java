@@ -0,0 +1,329 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.function.UEmptyFun;
+import ushiosan.jvm.internal.validators.UResourceValidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Content-defined chunker based on a rolling (gear) hash.
+ * <p>
+ * The boundaries of the chunks depend on the content and not on the position, so
+ * inserting or removing bytes only changes the chunks around the modification and
+ * the rest of the chunks keep the same digest. This allows finding the duplicated
+ * blocks between different files, even when the files are not exactly equal.
+ * <p>
+ * The content is read as a stream and only one read buffer is kept in memory, no
+ * matter the size of the content. The chunks are never shorter than {@link #minimumSize()}
+ * (except the last one) nor longer than {@link #maximumSize()}, and their average size
+ * is close to {@link #averageSize()}.
+ *
+ * <pre>{@code
+ * UContentChunker chunker = UContentChunker.generate()
+ *     .setAverageSize(64 * 1024);
+ *
+ * chunker.chunk(Path.of("artifact.jar"), chunk -> System.out.println(chunk));
+ * }</pre>
+ */
+public final class UContentChunker extends UResourceValidator {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default average size of the chunks
+	 */
+	public static final int DEFAULT_AVERAGE_SIZE = 64 * 1024;
+	
+	/**
+	 * Size of the buffer used to read the content
+	 */
+	private static final int READ_BUFFER_SIZE = 256 * 1024;
+	
+	/**
+	 * Random value assigned to every byte. The values are always generated with the
+	 * same seed, so the boundaries of the same content are equal between executions.
+	 */
+	private static final long[] GEAR = new SplittableRandom(0x5DEECE66DL).longs(256).toArray();
+	
+	/**
+	 * Number of bytes that affect the rolling hash. The hash is not needed
+	 * for the first bytes of the chunks, because they cannot be a boundary.
+	 */
+	private static final int GEAR_WINDOW = Long.SIZE;
+	
+	/**
+	 * Hash algorithm used to generate the chunk digests
+	 */
+	private String algorithm;
+	
+	/**
+	 * Expected average size of the chunks
+	 */
+	private int averageSize;
+	
+	/**
+	 * Minimum size of the chunks
+	 */
+	private int minimumSize;
+	
+	/**
+	 * Maximum size of the chunks
+	 */
+	private int maximumSize;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 */
+	private UContentChunker() {
+		algorithm = FS_DEFAULT_ALGORITHM;
+		setAverageSize(DEFAULT_AVERAGE_SIZE);
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a new chunker instance with the default configuration
+	 *
+	 * @return a new chunker instance
+	 */
+	@Contract(" -> new")
+	public static @NotNull UContentChunker generate() {
+		return new UContentChunker();
+	}
+	
+	/**
+	 * Hash algorithm used to generate the chunk digests
+	 *
+	 * @return the hash algorithm
+	 */
+	public @NotNull String algorithm() {
+		return algorithm;
+	}
+	
+	/**
+	 * Changes the hash algorithm on the current instance.
+	 *
+	 * @param algorithm the hash algorithm
+	 * @return the same current instance
+	 */
+	public @NotNull UContentChunker setAlgorithm(@NotNull String algorithm) {
+		UObject.requireNotNull(algorithm, "algorithm");
+		this.algorithm = algorithm;
+		return this;
+	}
+	
+	/**
+	 * Expected average size of the chunks
+	 *
+	 * @return the average size in bytes
+	 */
+	public int averageSize() {
+		return averageSize;
+	}
+	
+	/**
+	 * Changes the average size of the chunks on the current instance. The minimum
+	 * size is changed to a quarter and the maximum size to eight times the average size.
+	 *
+	 * @param averageSize the average size in bytes
+	 * @return the same current instance
+	 * @throws IllegalArgumentException error if the size is not a power of two or is less than {@code 256}
+	 */
+	public @NotNull UContentChunker setAverageSize(int averageSize) {
+		if (averageSize < 256 || Integer.bitCount(averageSize) != 1) {
+			throw new IllegalArgumentException("The average size must be a power of two greater than or equal to 256");
+		}
+		if (averageSize > Integer.MAX_VALUE / 8) {
+			throw new IllegalArgumentException("The average size is too large: " + averageSize);
+		}
+		this.averageSize = averageSize;
+		this.minimumSize = averageSize / 4;
+		this.maximumSize = averageSize * 8;
+		return this;
+	}
+	
+	/**
+	 * Minimum size of the chunks
+	 *
+	 * @return the minimum size in bytes
+	 */
+	public int minimumSize() {
+		return minimumSize;
+	}
+	
+	/**
+	 * Changes the minimum size of the chunks on the current instance.
+	 *
+	 * @param minimumSize the minimum size in bytes
+	 * @return the same current instance
+	 * @throws IllegalArgumentException error if the size is not positive or is not less than the average size
+	 */
+	public @NotNull UContentChunker setMinimumSize(int minimumSize) {
+		if (minimumSize <= 0 || minimumSize >= averageSize) {
+			throw new IllegalArgumentException("The minimum size must be between zero and the average size");
+		}
+		this.minimumSize = minimumSize;
+		return this;
+	}
+	
+	/**
+	 * Maximum size of the chunks
+	 *
+	 * @return the maximum size in bytes
+	 */
+	public int maximumSize() {
+		return maximumSize;
+	}
+	
+	/**
+	 * Changes the maximum size of the chunks on the current instance.
+	 *
+	 * @param maximumSize the maximum size in bytes
+	 * @return the same current instance
+	 * @throws IllegalArgumentException error if the size is not greater than the average size
+	 */
+	public @NotNull UContentChunker setMaximumSize(int maximumSize) {
+		if (maximumSize <= averageSize) {
+			throw new IllegalArgumentException("The maximum size must be greater than the average size");
+		}
+		this.maximumSize = maximumSize;
+		return this;
+	}
+	
+	/**
+	 * Splits the given content into chunks. The stream is not closed.
+	 *
+	 * @param stream   the content to split
+	 * @param consumer the action executed with every chunk, in order
+	 * @return the number of chunks
+	 * @throws IOException              error if the content cannot be read
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	public long chunk(@NotNull InputStream stream, UEmptyFun.@NotNull UEmptyFun1<UContentChunk> consumer)
+		throws IOException, NoSuchAlgorithmException {
+		return chunkImpl(stream, null, consumer);
+	}
+	
+	/**
+	 * Splits the content of the given file into chunks
+	 *
+	 * @param path     the file to split
+	 * @param consumer the action executed with every chunk, in order
+	 * @return the number of chunks
+	 * @throws IOException              error if the file cannot be read
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	public long chunk(@NotNull Path path, UEmptyFun.@NotNull UEmptyFun1<UContentChunk> consumer)
+		throws IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(path, "path");
+		try (InputStream stream = Files.newInputStream(path)) {
+			return chunk(stream, consumer);
+		}
+	}
+	
+	/**
+	 * Splits the content of the given file into chunks
+	 *
+	 * @param path the file to split
+	 * @return all the file chunks, in order
+	 * @throws IOException              error if the file cannot be read
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	public @NotNull List<UContentChunk> chunks(@NotNull Path path) throws IOException, NoSuchAlgorithmException {
+		List<UContentChunk> result = new ArrayList<>();
+		chunk(path, result::add);
+		return result;
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Splits the given content into chunks and optionally hashes the complete content
+	 * in the same pass. The stream is not closed.
+	 *
+	 * @param stream      the content to split
+	 * @param fileDigest  the digest updated with the complete content or {@code null} if it is not required
+	 * @param consumer    the action executed with every chunk, in order
+	 * @return the number of chunks
+	 * @throws IOException              error if the content cannot be read
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	long chunkImpl(@NotNull InputStream stream, @Nullable MessageDigest fileDigest,
+		UEmptyFun.@NotNull UEmptyFun1<UContentChunk> consumer) throws IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(stream, "stream");
+		UObject.requireNotNull(consumer, "consumer");
+		// Temporal variables
+		final int minimum = minimumSize;
+		final int maximum = maximumSize;
+		final int skip = Math.max(0, minimum - GEAR_WINDOW);
+		final int bits = Integer.numberOfTrailingZeros(averageSize);
+		final long mask = ((1L << bits) - 1) << (Long.SIZE - bits);
+		MessageDigest digest = MessageDigest.getInstance(algorithm);
+		byte[] buffer = new byte[READ_BUFFER_SIZE];
+		long offset = 0L;
+		long count = 0L;
+		long hash = 0L;
+		int length = 0;
+		int read;
+		
+		while ((read = stream.read(buffer)) != -1) {
+			if (fileDigest != null) fileDigest.update(buffer, 0, read);
+			int segment = 0;
+			int index = 0;
+			
+			while (index < read) {
+				// The first bytes of a chunk can never be a boundary
+				if (length < skip) {
+					int jump = Math.min(read - index, skip - length);
+					index += jump;
+					length += jump;
+					continue;
+				}
+				
+				hash = (hash << 1) + GEAR[buffer[index++] & 0xFF];
+				length++;
+				if ((length < minimum || (hash & mask) != 0) && length < maximum) continue;
+				
+				// Chunk boundary
+				digest.update(buffer, segment, index - segment);
+				consumer.invoke(new UContentChunk(offset, length, digest.digest()));
+				offset += length;
+				count++;
+				segment = index;
+				length = 0;
+				hash = 0L;
+			}
+			digest.update(buffer, segment, read - segment);
+		}
+		
+		// The last chunk can be shorter than the minimum size
+		if (length > 0) {
+			consumer.invoke(new UContentChunk(offset, length, digest.digest()));
+			count++;
+		}
+		return count;
+	}
+	
+}
@@ -0,0 +1,756 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.ULogger;
+import ushiosan.jvm.UObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Live in-memory index of a directory tree.
+ * <p>
+ * The tree is scanned in parallel only once, when the index is opened. After that,
+ * the index is updated incrementally with the events of a {@link WatchService}:
+ * the events are accumulated during the debounce time and applied together (a
+ * continuous stream of events is applied at least once every maximum latency), and
+ * when the events of a directory are lost ({@link StandardWatchEventKinds#OVERFLOW})
+ * only that directory is scanned again. The queries by name, extension or pattern
+ * are resolved with the index, without accessing the disk.
+ * <p>
+ * The updates are applied by a daemon thread, so the queries can be done from any
+ * thread at any time. The listeners registered with {@link #addListener(Consumer)} are
+ * notified every time that the index changes. The index must be closed when it is no
+ * longer needed.
+ *
+ * <pre>{@code
+ * try (UDirectoryIndex index = UDirectoryIndex.open(configDirectory)) {
+ *     Stream<UResourceEntry> properties = index.extensions("properties");
+ * }
+ * }</pre>
+ */
+public final class UDirectoryIndex implements AutoCloseable {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Current instance logger
+	 */
+	private static final Logger LOG = Logger.getLogger(ULogger.loggerName(UDirectoryIndex.class));
+	
+	/**
+	 * Default time (in milliseconds) used to group the filesystem events
+	 */
+	public static final long DEFAULT_DEBOUNCE = 100L;
+	
+	/**
+	 * Default maximum time (in milliseconds) that an event can wait before it is applied
+	 */
+	public static final long DEFAULT_MAX_LATENCY = 1000L;
+	
+	/**
+	 * Maximum number of accumulated locations. When this number is reached, the
+	 * events are applied without waiting for the debounce time.
+	 */
+	public static final int MAX_BATCH_SIZE = 4096;
+	
+	/**
+	 * Number of times that a directory is walked again when some of its elements
+	 * disappear during the scan
+	 */
+	private static final int SCAN_ATTEMPTS = 3;
+	
+	/**
+	 * The indexed directory
+	 */
+	private final Path root;
+	
+	/**
+	 * Time (in nanoseconds) used to group the filesystem events
+	 */
+	private final long debounce;
+	
+	/**
+	 * Maximum time (in nanoseconds) that an event can wait before it is applied
+	 */
+	private final long maxLatency;
+	
+	/**
+	 * Service that notifies the changes of every indexed directory
+	 */
+	private final WatchService watchService;
+	
+	/**
+	 * Thread that applies the filesystem events
+	 */
+	private final Thread watcher;
+	
+	/**
+	 * All the indexed elements keyed by their location
+	 */
+	private final Map<Path, UResourceEntry> entries = new ConcurrentHashMap<>();
+	
+	/**
+	 * The elements located directly inside every directory
+	 */
+	private final Map<Path, Set<Path>> children = new ConcurrentHashMap<>();
+	
+	/**
+	 * The elements grouped by their name
+	 */
+	private final Map<String, Set<Path>> names = new ConcurrentHashMap<>();
+	
+	/**
+	 * The files grouped by their last extension
+	 */
+	private final Map<String, Set<Path>> extensions = new ConcurrentHashMap<>();
+	
+	/**
+	 * The directories registered in the watch service
+	 */
+	private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+	
+	/**
+	 * Number of times that the index has been updated
+	 */
+	private final AtomicLong generation = new AtomicLong();
+	
+	/**
+	 * Actions executed every time that the index is updated
+	 */
+	private final List<Consumer<UDirectoryIndex>> listeners = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Determines if the index was closed
+	 */
+	private volatile boolean closed;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param root       the indexed directory
+	 * @param debounce   time (in nanoseconds) used to group the filesystem events
+	 * @param maxLatency maximum time (in nanoseconds) that an event can wait before it is applied
+	 * @throws IOException error if the directory cannot be watched
+	 */
+	private UDirectoryIndex(@NotNull Path root, long debounce, long maxLatency) throws IOException {
+		this.root = root;
+		this.debounce = debounce;
+		this.maxLatency = maxLatency;
+		this.watchService = root.getFileSystem().newWatchService();
+		this.watcher = new Thread(this::watchImpl, "UDirectoryIndex-" + root.getFileName());
+		this.watcher.setDaemon(true);
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Scans the given directory and keeps the index updated until it is closed
+	 *
+	 * @param root       the directory to index
+	 * @param debounce   the time used to group the filesystem events
+	 * @param maxLatency the maximum time that an event can wait before it is applied,
+	 *                   even if new events continue arriving
+	 * @param unit       the time unit of both times
+	 * @return a new index of the directory
+	 * @throws IOException              error if the directory cannot be read or watched
+	 * @throws IllegalArgumentException error if the location is not a directory, the debounce is negative
+	 *                                  or the maximum latency is less than the debounce
+	 */
+	@Contract("_, _, _, _ -> new")
+	public static @NotNull UDirectoryIndex open(@NotNull Path root, long debounce, long maxLatency,
+		@NotNull TimeUnit unit) throws IOException {
+		UObject.requireNotNull(root, "root");
+		UObject.requireNotNull(unit, "unit");
+		if (!Files.isDirectory(root)) throw new IllegalArgumentException("The location is not a directory: " + root);
+		if (debounce < 0) throw new IllegalArgumentException("The debounce time cannot be negative");
+		if (maxLatency < debounce) {
+			throw new IllegalArgumentException("The maximum latency cannot be less than the debounce time");
+		}
+		// Temporal variables
+		UDirectoryIndex index = new UDirectoryIndex(root.toAbsolutePath().normalize(), unit.toNanos(debounce),
+													unit.toNanos(maxLatency));
+		
+		try {
+			index.scanImpl(index.root);
+		} catch (IOException e) {
+			index.watchService.close();
+			throw e;
+		}
+		index.watcher.start();
+		return index;
+	}
+	
+	/**
+	 * Scans the given directory and keeps the index updated until it is closed
+	 *
+	 * @param root     the directory to index
+	 * @param debounce the time used to group the filesystem events
+	 * @param unit     the debounce time unit
+	 * @return a new index of the directory
+	 * @throws IOException              error if the directory cannot be read or watched
+	 * @throws IllegalArgumentException error if the location is not a directory or the debounce is negative
+	 * @see #DEFAULT_MAX_LATENCY
+	 */
+	@Contract("_, _, _ -> new")
+	public static @NotNull UDirectoryIndex open(@NotNull Path root, long debounce, @NotNull TimeUnit unit)
+		throws IOException {
+		UObject.requireNotNull(unit, "unit");
+		return open(root, debounce, Math.max(debounce, unit.convert(DEFAULT_MAX_LATENCY, TimeUnit.MILLISECONDS)),
+					unit);
+	}
+	
+	/**
+	 * Scans the given directory and keeps the index updated until it is closed
+	 *
+	 * @param root the directory to index
+	 * @return a new index of the directory
+	 * @throws IOException              error if the directory cannot be read or watched
+	 * @throws IllegalArgumentException error if the location is not a directory
+	 * @see #DEFAULT_DEBOUNCE
+	 */
+	@Contract("_ -> new")
+	public static @NotNull UDirectoryIndex open(@NotNull Path root) throws IOException {
+		return open(root, DEFAULT_DEBOUNCE, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * The indexed directory
+	 *
+	 * @return the absolute location of the directory
+	 */
+	public @NotNull Path root() {
+		return root;
+	}
+	
+	/**
+	 * Number of indexed elements, including the root directory
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Number of times that the index has been updated. The value changes every
+	 * time that a group of events is applied, so it can be used to detect changes.
+	 *
+	 * @return the index generation
+	 */
+	public long generation() {
+		return generation.get();
+	}
+	
+	/**
+	 * Determines if the index was closed
+	 *
+	 * @return {@code true} if the index is no longer updated or {@code false} otherwise
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	/**
+	 * Registers an action that is executed every time that the index is updated.
+	 * The action is executed by the thread that updated the index (usually the
+	 * watcher thread), after the new generation is visible.
+	 *
+	 * @param listener the action to execute
+	 */
+	public void addListener(@NotNull Consumer<UDirectoryIndex> listener) {
+		UObject.requireNotNull(listener, "listener");
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Removes a registered action
+	 *
+	 * @param listener the action to remove
+	 * @return {@code true} if the action was registered or {@code false} otherwise
+	 */
+	public boolean removeListener(@NotNull Consumer<UDirectoryIndex> listener) {
+		UObject.requireNotNull(listener, "listener");
+		return listeners.remove(listener);
+	}
+	
+	/**
+	 * Gets the indexed element of the given location
+	 *
+	 * @param path the element location, absolute or relative to the root directory
+	 * @return the indexed element or {@link Optional#empty()} if the element is not indexed
+	 */
+	public @NotNull Optional<UResourceEntry> entry(@NotNull Path path) {
+		UObject.requireNotNull(path, "path");
+		return Optional.ofNullable(entries.get(root.resolve(path).normalize()));
+	}
+	
+	/**
+	 * Gets all the indexed elements
+	 *
+	 * @return a stream with all the elements
+	 */
+	public @NotNull Stream<UResourceEntry> entries() {
+		return entries.values().stream();
+	}
+	
+	/**
+	 * Gets the indexed elements that meet all the given filters
+	 *
+	 * @param predicates filters applied to the elements
+	 * @return a stream with all the valid elements
+	 * @see UResource#regexResourceEntryOf(Pattern, boolean, boolean)
+	 */
+	@SafeVarargs
+	public final @NotNull Stream<UResourceEntry> entries(Predicate<UResourceEntry> @NotNull ... predicates) {
+		return entries().filter(UResource.allOf(predicates));
+	}
+	
+	/**
+	 * Gets the indexed elements with any of the given names
+	 *
+	 * @param names the element names
+	 * @return a stream with all the valid elements
+	 */
+	public @NotNull Stream<UResourceEntry> named(String @NotNull ... names) {
+		UObject.requireNotNull(names, "names");
+		return lookupImpl(this.names, names);
+	}
+	
+	/**
+	 * Gets the indexed files with any of the given extensions. Only the last
+	 * extension of every file is considered, and the directories are ignored.
+	 *
+	 * @param extensions the file extensions
+	 * @return a stream with all the valid elements
+	 */
+	public @NotNull Stream<UResourceEntry> extensions(String @NotNull ... extensions) {
+		UObject.requireNotNull(extensions, "extensions");
+		return lookupImpl(this.extensions, extensions);
+	}
+	
+	/**
+	 * Gets the indexed elements whose location meets the given pattern
+	 *
+	 * @param pattern  the pattern to evaluate
+	 * @param fullPath determines if the pattern is evaluated with the full location or only with the name
+	 * @return a stream with all the valid elements
+	 */
+	public @NotNull Stream<UResourceEntry> matching(@NotNull Pattern pattern, boolean fullPath) {
+		UObject.requireNotNull(pattern, "pattern");
+		return entries().filter(UResource.regexResourceEntryOf(pattern, fullPath, false));
+	}
+	
+	/**
+	 * Gets the indexed elements whose location, relative to the root directory,
+	 * meets the given matcher. The directories where no element can match are skipped.
+	 *
+	 * @param matcher the matcher applied to the relative locations
+	 * @return a stream with all the valid elements
+	 */
+	public @NotNull Stream<UResourceEntry> matching(@NotNull UPathMatcher matcher) {
+		UObject.requireNotNull(matcher, "matcher");
+		// Temporal variables
+		List<UResourceEntry> result = new ArrayList<>();
+		Deque<Path> pending = new ArrayDeque<>();
+		pending.push(root);
+		
+		while (!pending.isEmpty()) {
+			for (Path child : children.getOrDefault(pending.pop(), Collections.emptySet())) {
+				UResourceEntry entry = entries.get(child);
+				if (entry == null) continue;
+				
+				Path relative = root.relativize(child);
+				if (matcher.matches(relative)) result.add(entry);
+				if (entry.isDirectory() && matcher.mayMatchUnder(relative)) pending.push(child);
+			}
+		}
+		return result.stream();
+	}
+	
+	/**
+	 * Scans the given directory again, replacing all its indexed elements.
+	 * This method is called automatically when the events of a directory are lost.
+	 *
+	 * @param directory the directory location, absolute or relative to the root directory
+	 * @throws IOException              error if the directory cannot be read
+	 * @throws IllegalArgumentException error if the directory is outside the index
+	 */
+	public void rescan(@NotNull Path directory) throws IOException {
+		UObject.requireNotNull(directory, "directory");
+		// Temporal variables
+		Path location = root.resolve(directory).normalize();
+		if (!location.startsWith(root)) {
+			throw new IllegalArgumentException("The location is outside the index: " + directory);
+		}
+		
+		synchronized (this) {
+			scanImpl(location);
+		}
+		generation.incrementAndGet();
+		notifyImpl();
+	}
+	
+	/**
+	 * Scans the whole directory tree again
+	 *
+	 * @throws IOException error if the directory cannot be read
+	 */
+	public void rescan() throws IOException {
+		rescan(root);
+	}
+	
+	/**
+	 * Stops the index updates and releases the watch service.
+	 * The indexed elements can still be queried after the index is closed.
+	 *
+	 * @throws IOException error if the watch service cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		closed = true;
+		watchService.close();
+		
+		try {
+			watcher.join(TimeUnit.NANOSECONDS.toMillis(debounce) + 1000L);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Loop executed by the watcher thread. The events are accumulated until no new
+	 * event arrives during the debounce time, the oldest event reaches the maximum
+	 * latency or the batch reaches its maximum size, and then they are applied.
+	 */
+	private void watchImpl() {
+		// Temporal variables
+		Set<Path> changed = new LinkedHashSet<>();
+		Set<Path> lost = new LinkedHashSet<>();
+		long batchStart = 0L;
+		
+		try {
+			while (!closed) {
+				WatchKey key;
+				if (changed.isEmpty() && lost.isEmpty()) {
+					key = watchService.take();
+					batchStart = System.nanoTime();
+				} else {
+					long remaining = maxLatency - (System.nanoTime() - batchStart);
+					key = remaining <= 0 ? null : watchService.poll(Math.min(debounce, remaining), TimeUnit.NANOSECONDS);
+				}
+				
+				// The debounce time (or the maximum latency) finished without new events
+				if (key == null) {
+					applyImpl(changed, lost);
+					continue;
+				}
+				collectImpl(key, changed, lost);
+				if (changed.size() + lost.size() >= MAX_BATCH_SIZE) applyImpl(changed, lost);
+			}
+		} catch (ClosedWatchServiceException ignored) {
+			// The index was closed
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Registers all the events of a watch key
+	 *
+	 * @param key     the key with the events
+	 * @param changed the locations that must be verified
+	 * @param lost    the directories that must be scanned again
+	 */
+	private void collectImpl(@NotNull WatchKey key, @NotNull Set<Path> changed, @NotNull Set<Path> lost) {
+		Path directory = directories.get(key);
+		if (directory == null) {
+			key.cancel();
+			return;
+		}
+		
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				lost.add(directory);
+			} else {
+				changed.add(directory.resolve((Path) event.context()));
+			}
+		}
+		// The directory is no longer accessible
+		if (!key.reset()) {
+			directories.remove(key);
+			changed.add(directory);
+		}
+	}
+	
+	/**
+	 * Applies all the accumulated events to the index
+	 *
+	 * @param changed the locations that must be verified
+	 * @param lost    the directories that must be scanned again
+	 */
+	private void applyImpl(@NotNull Set<Path> changed, @NotNull Set<Path> lost) {
+		synchronized (this) {
+			for (Path directory : lost) {
+				try {
+					scanImpl(directory);
+				} catch (IOException e) {
+					LOG.log(ULogger.logWarning(e));
+				}
+			}
+			for (Path location : changed) {
+				try {
+					updateImpl(location);
+				} catch (IOException e) {
+					LOG.log(ULogger.logWarning(e));
+				}
+			}
+		}
+		changed.clear();
+		lost.clear();
+		generation.incrementAndGet();
+		notifyImpl();
+	}
+	
+	/**
+	 * Executes all the registered actions. An action that fails does not stop the others.
+	 */
+	private void notifyImpl() {
+		for (Consumer<UDirectoryIndex> listener : listeners) {
+			try {
+				listener.accept(this);
+			} catch (RuntimeException e) {
+				LOG.log(ULogger.logWarning(e));
+			}
+		}
+	}
+	
+	/**
+	 * Verifies the current state of a location and updates the index
+	 *
+	 * @param location the location to verify
+	 * @throws IOException error if the location cannot be read
+	 */
+	private void updateImpl(@NotNull Path location) throws IOException {
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(location, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		} catch (NoSuchFileException e) {
+			removeImpl(location);
+			return;
+		}
+		
+		// New directories may already contain elements created before they were registered
+		UResourceEntry previous = entries.get(location);
+		if (attributes.isDirectory() && (previous == null || !previous.isDirectory())) {
+			removeImpl(location);
+			scanImpl(location);
+		} else {
+			if (previous != null && previous.isDirectory() != attributes.isDirectory()) removeImpl(location);
+			addImpl(UResourceEntry.make(location, attributes));
+		}
+	}
+	
+	/**
+	 * Scans a directory tree, registers all its directories in the watch service
+	 * and replaces its indexed elements
+	 *
+	 * @param directory the directory to scan
+	 * @throws IOException error if the directory cannot be read
+	 */
+	private void scanImpl(@NotNull Path directory) throws IOException {
+		// The directory is registered before the scan, so no event is lost
+		if (Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) registerImpl(directory);
+		// Temporal variables
+		List<UResourceEntry> found = null;
+		
+		for (int attempt = 1; found == null; attempt++) {
+			try (Stream<UResourceEntry> stream = UResource.resourceWalkAttributesParallel(directory, true)) {
+				found = stream.collect(Collectors.toList());
+			} catch (IOException | UncheckedIOException e) {
+				// The errors of the subdirectories are thrown while the stream is consumed
+				IOException error = e instanceof UncheckedIOException ?
+					((UncheckedIOException) e).getCause() : (IOException) e;
+				if (!(error instanceof NoSuchFileException)) throw error;
+				
+				// Only the directory itself is removed, a nested element that disappeared during the
+				// walk just invalidates this scan
+				if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+					removeImpl(directory);
+					return;
+				}
+				if (attempt >= SCAN_ATTEMPTS) throw error;
+			}
+		}
+		Set<Path> locations = new HashSet<>(found.size() * 2);
+		
+		for (UResourceEntry entry : found) {
+			locations.add(entry.path());
+			if (entry.isDirectory()) registerImpl(entry.path());
+			
+			UResourceEntry previous = entries.get(entry.path());
+			if (previous != null && previous.isDirectory() != entry.isDirectory()) removeImpl(entry.path());
+			addImpl(entry);
+		}
+		// Remove the elements that no longer exist
+		removeMissingImpl(directory, locations);
+	}
+	
+	/**
+	 * Registers a directory in the watch service
+	 *
+	 * @param directory the directory to register
+	 * @throws IOException error if the directory cannot be watched
+	 */
+	private void registerImpl(@NotNull Path directory) throws IOException {
+		WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+										  StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+		directories.put(key, directory);
+	}
+	
+	/**
+	 * Adds or replaces an element of the index
+	 *
+	 * @param entry the element to index
+	 */
+	private void addImpl(@NotNull UResourceEntry entry) {
+		// Temporal variables
+		Path location = entry.path();
+		UResourceEntry previous = entries.put(location, entry);
+		if (previous != null) return;
+		
+		Path parent = location.getParent();
+		if (!location.equals(root) && parent != null) {
+			children.computeIfAbsent(parent, it -> ConcurrentHashMap.newKeySet()).add(location);
+		}
+		names.computeIfAbsent(UResource.resourceName(entry), it -> ConcurrentHashMap.newKeySet()).add(location);
+		if (!entry.isDirectory()) {
+			UResource.extension(entry).ifPresent(extension ->
+													 extensions.computeIfAbsent(extension, it -> ConcurrentHashMap.newKeySet())
+														 .add(location));
+		}
+	}
+	
+	/**
+	 * Removes an element of the index and all its content
+	 *
+	 * @param location the element location
+	 */
+	private void removeImpl(@NotNull Path location) {
+		UResourceEntry entry = entries.remove(location);
+		if (entry == null) return;
+		
+		Path parent = location.getParent();
+		if (parent != null) {
+			Set<Path> siblings = children.get(parent);
+			if (siblings != null) siblings.remove(location);
+		}
+		unlinkImpl(names, UResource.resourceName(entry), location);
+		if (!entry.isDirectory()) {
+			UResource.extension(entry).ifPresent(extension -> unlinkImpl(extensions, extension, location));
+		}
+		
+		if (!entry.isDirectory()) return;
+		
+		// Stop watching the directory and remove all its content
+		directories.entrySet().removeIf(it -> {
+			if (!it.getValue().equals(location)) return false;
+			it.getKey().cancel();
+			return true;
+		});
+		Set<Path> content = children.remove(location);
+		if (content == null) return;
+		for (Path child : content) {
+			removeImpl(child);
+		}
+	}
+	
+	/**
+	 * Removes the indexed elements of a directory tree that were not found in the last scan
+	 *
+	 * @param directory the scanned directory
+	 * @param locations all the locations found in the scan
+	 */
+	private void removeMissingImpl(@NotNull Path directory, @NotNull Set<Path> locations) {
+		Set<Path> content = children.get(directory);
+		if (content == null) return;
+		
+		for (Path child : content.toArray(Path[]::new)) {
+			if (!locations.contains(child)) removeImpl(child);
+			else removeMissingImpl(child, locations);
+		}
+	}
+	
+	/**
+	 * Removes a location of a group index
+	 *
+	 * @param index    the group index
+	 * @param key      the group key
+	 * @param location the location to remove
+	 */
+	private static void unlinkImpl(@NotNull Map<String, Set<Path>> index, @NotNull String key,
+		@NotNull Path location) {
+		index.computeIfPresent(key, (it, group) -> {
+			group.remove(location);
+			return group.isEmpty() ? null : group;
+		});
+	}
+	
+	/**
+	 * Gets the indexed elements of multiple groups
+	 *
+	 * @param index the group index
+	 * @param keys  the group keys
+	 * @return a stream with all the elements of the groups
+	 */
+	private @NotNull Stream<UResourceEntry> lookupImpl(@NotNull Map<String, Set<Path>> index, String @NotNull [] keys) {
+		return Arrays.stream(keys)
+			.filter(Objects::nonNull)
+			.distinct()
+			.flatMap(it -> index.getOrDefault(it, Collections.emptySet()).stream())
+			.map(entries::get)
+			.filter(Objects::nonNull);
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("UDirectoryIndex(root=%s, size=%d, generation=%d)", root, size(), generation());
+	}
+	
+}
@@ -0,0 +1,182 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable object that contains the disk usage of a directory and all its subdirectories
+ *
+ * @see UResource#resourceSizeTree(Path, int)
+ */
+public final class UDirectorySize {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The directory location
+	 */
+	private final Path path;
+	
+	/**
+	 * Size of the regular files located directly inside the directory
+	 */
+	private final long ownSize;
+	
+	/**
+	 * Size of all the regular files inside the directory tree
+	 */
+	private final long size;
+	
+	/**
+	 * Number of regular files inside the directory tree
+	 */
+	private final long files;
+	
+	/**
+	 * Number of subdirectories inside the directory tree
+	 */
+	private final long directories;
+	
+	/**
+	 * Usage of every direct subdirectory
+	 */
+	private final List<UDirectorySize> children;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param path     the directory location
+	 * @param ownSize  size of the regular files located directly inside the directory
+	 * @param ownFiles number of regular files located directly inside the directory
+	 * @param children usage of every direct subdirectory
+	 */
+	public UDirectorySize(@NotNull Path path, long ownSize, long ownFiles, @NotNull List<UDirectorySize> children) {
+		UObject.requireNotNull(path, "path");
+		UObject.requireNotNull(children, "children");
+		// Temporal variables
+		long size = ownSize;
+		long files = ownFiles;
+		long directories = children.size();
+		
+		for (var child : children) {
+			size += child.size;
+			files += child.files;
+			directories += child.directories;
+		}
+		
+		this.path = path;
+		this.ownSize = ownSize;
+		this.size = size;
+		this.files = files;
+		this.directories = directories;
+		this.children = List.copyOf(children);
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The directory location
+	 *
+	 * @return the directory location
+	 */
+	public @NotNull Path path() {
+		return path;
+	}
+	
+	/**
+	 * Size of the regular files located directly inside the directory
+	 *
+	 * @return the size in bytes without the subdirectories
+	 */
+	public long ownSize() {
+		return ownSize;
+	}
+	
+	/**
+	 * Size of all the regular files inside the directory tree
+	 *
+	 * @return the size in bytes including the subdirectories
+	 */
+	public long size() {
+		return size;
+	}
+	
+	/**
+	 * Number of regular files inside the directory tree
+	 *
+	 * @return the number of files including the subdirectories
+	 */
+	public long files() {
+		return files;
+	}
+	
+	/**
+	 * Number of subdirectories inside the directory tree
+	 *
+	 * @return the number of subdirectories at any level
+	 */
+	public long directories() {
+		return directories;
+	}
+	
+	/**
+	 * Usage of every direct subdirectory, sorted by location
+	 *
+	 * @return all the direct subdirectories
+	 */
+	public @NotNull List<UDirectorySize> children() {
+		return children;
+	}
+	
+	/**
+	 * Searches the usage of a subdirectory
+	 *
+	 * @param relative the location relative to this directory
+	 * @return the subdirectory usage or empty if the location is not a walked directory
+	 */
+	public @NotNull Optional<UDirectorySize> find(@NotNull Path relative) {
+		UObject.requireNotNull(relative, "relative");
+		UDirectorySize current = this;
+		
+		for (Path name : relative) {
+			Path location = current.path.resolve(name.toString());
+			UDirectorySize next = null;
+			for (var child : current.children) {
+				if (child.path.equals(location)) {
+					next = child;
+					break;
+				}
+			}
+			if (next == null) return Optional.empty();
+			current = next;
+		}
+		return Optional.of(current);
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("%s (size=%d, files=%d, directories=%d)", path, size, files, directories);
+	}
+	
+}
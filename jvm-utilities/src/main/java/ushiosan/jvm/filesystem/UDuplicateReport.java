@@ -0,0 +1,209 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable object used to store the result of a duplicate scan
+ *
+ * @see UDuplicateScanner
+ */
+public final class UDuplicateReport {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Groups of files with exactly the same content
+	 */
+	private final List<List<Path>> duplicates;
+	
+	/**
+	 * Number of bytes that can be reclaimed by keeping only one file of every group
+	 */
+	private final long duplicateBytes;
+	
+	/**
+	 * Number of analyzed files
+	 */
+	private final long scannedFiles;
+	
+	/**
+	 * Total size of the analyzed files
+	 */
+	private final long scannedBytes;
+	
+	/**
+	 * Number of files whose content was read
+	 */
+	private final long hashedFiles;
+	
+	/**
+	 * Number of chunks found in all the files
+	 */
+	private final long chunkCount;
+	
+	/**
+	 * Number of chunks with different content
+	 */
+	private final long uniqueChunkCount;
+	
+	/**
+	 * Total size of the chunks whose content was already found in another chunk
+	 */
+	private final long duplicateChunkBytes;
+	
+	/**
+	 * Number of distinct chunks represented by every stored fingerprint
+	 */
+	private final long chunkSampleRate;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param duplicates          groups of files with exactly the same content
+	 * @param duplicateBytes      number of bytes that can be reclaimed with the duplicated files
+	 * @param scannedFiles        number of analyzed files
+	 * @param scannedBytes        total size of the analyzed files
+	 * @param hashedFiles         number of files whose content was read
+	 * @param chunkCount          number of chunks found in all the files
+	 * @param uniqueChunkCount    number of chunks with different content
+	 * @param duplicateChunkBytes total size of the duplicated chunks
+	 * @param chunkSampleRate     number of distinct chunks represented by every stored fingerprint
+	 */
+	public UDuplicateReport(@NotNull List<List<Path>> duplicates, long duplicateBytes, long scannedFiles,
+		long scannedBytes, long hashedFiles, long chunkCount, long uniqueChunkCount, long duplicateChunkBytes,
+		long chunkSampleRate) {
+		UObject.requireNotNull(duplicates, "duplicates");
+		this.duplicates = duplicates.stream()
+			.map(List::copyOf)
+			.collect(Collectors.toUnmodifiableList());
+		this.duplicateBytes = duplicateBytes;
+		this.scannedFiles = scannedFiles;
+		this.scannedBytes = scannedBytes;
+		this.hashedFiles = hashedFiles;
+		this.chunkCount = chunkCount;
+		this.uniqueChunkCount = uniqueChunkCount;
+		this.duplicateChunkBytes = duplicateChunkBytes;
+		this.chunkSampleRate = chunkSampleRate;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Groups of files with exactly the same content. Every group contains at least two files.
+	 *
+	 * @return all the groups of duplicated files
+	 */
+	public @NotNull List<List<Path>> duplicates() {
+		return duplicates;
+	}
+	
+	/**
+	 * Number of bytes that can be reclaimed by keeping only one file of every group
+	 *
+	 * @return the size of the duplicated files
+	 */
+	public long duplicateBytes() {
+		return duplicateBytes;
+	}
+	
+	/**
+	 * Number of analyzed files
+	 *
+	 * @return the number of files
+	 */
+	public long scannedFiles() {
+		return scannedFiles;
+	}
+	
+	/**
+	 * Total size of the analyzed files
+	 *
+	 * @return the size of all the files
+	 */
+	public long scannedBytes() {
+		return scannedBytes;
+	}
+	
+	/**
+	 * Number of files whose content was read. Without chunking, only the
+	 * files that have the same size as another file are read.
+	 *
+	 * @return the number of read files
+	 */
+	public long hashedFiles() {
+		return hashedFiles;
+	}
+	
+	/**
+	 * Number of chunks found in all the files
+	 *
+	 * @return the number of chunks or {@code 0} if the scan did not use chunking
+	 */
+	public long chunkCount() {
+		return chunkCount;
+	}
+	
+	/**
+	 * Number of chunks with different content. The value is an estimate when
+	 * {@link #chunkSampleRate()} is greater than {@code 1}.
+	 *
+	 * @return the number of unique chunks or {@code 0} if the scan did not use chunking
+	 */
+	public long uniqueChunkCount() {
+		return uniqueChunkCount;
+	}
+	
+	/**
+	 * Total size of the chunks whose content was already found in another chunk.
+	 * This is the storage that a chunk-level deduplication can reclaim. The value is
+	 * an estimate when {@link #chunkSampleRate()} is greater than {@code 1}.
+	 *
+	 * @return the size of the duplicated chunks or {@code 0} if the scan did not use chunking
+	 */
+	public long duplicateChunkBytes() {
+		return duplicateChunkBytes;
+	}
+	
+	/**
+	 * Number of distinct chunks represented by every fingerprint kept by the scanner.
+	 * When the tree contains more distinct chunks than the scanner can store, only a
+	 * sample of the chunks is compared and the chunk statistics are extrapolated.
+	 *
+	 * @return {@code 1} if all the chunks were compared or the sample rate otherwise
+	 * @see UDuplicateScanner#setChunkCapacity(int)
+	 */
+	public long chunkSampleRate() {
+		return chunkSampleRate;
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("UDuplicateReport(files=%d, bytes=%d, groups=%d, duplicateBytes=%d, " +
+							 "chunks=%d, uniqueChunks=%d, duplicateChunkBytes=%d, sampleRate=%d)", scannedFiles,
+							 scannedBytes, duplicates.size(), duplicateBytes, chunkCount, uniqueChunkCount,
+							 duplicateChunkBytes, chunkSampleRate);
+	}
+	
+}
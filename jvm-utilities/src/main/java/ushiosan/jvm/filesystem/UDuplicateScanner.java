@@ -0,0 +1,354 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UHex;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.internal.filesystem.UBoundedTaskIterator;
+import ushiosan.jvm.internal.filesystem.UChunkIndex;
+import ushiosan.jvm.internal.filesystem.UResourceTreeIterator;
+import ushiosan.jvm.internal.filesystem.UScannedResource;
+import ushiosan.jvm.internal.validators.UResourceValidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Service used to find duplicated content in a directory tree.
+ * <p>
+ * The tree is read twice. The first pass only reads the size of the files, and the second
+ * pass only hashes the files whose size is shared with another file, because a file with
+ * a unique size cannot have a duplicate. Only the candidates are kept in memory, so large
+ * trees with few duplicates can be analyzed with little memory.
+ * <p>
+ * When a {@link UContentChunker} is configured, the content of every file is also split
+ * into chunks to find the duplicated blocks between files that are not exactly equal. The
+ * chunks are stored as 64-bit fingerprints in a table limited by {@link #chunkCapacity()}. When
+ * the tree contains more distinct chunks than the table can store, only a uniform sample of the
+ * fingerprints is kept, so the memory is bounded and the chunk statistics of the report become
+ * estimates (see {@link UDuplicateReport#chunkSampleRate()}). Empty files are ignored, and the
+ * files removed while the tree is scanned are skipped.
+ *
+ * <pre>{@code
+ * UDuplicateReport report = UDuplicateScanner.generate()
+ *     .setChunker(UContentChunker.generate())
+ *     .scan(Path.of("artifacts"));
+ *
+ * report.duplicates().forEach(System.out::println);
+ * }</pre>
+ */
+public final class UDuplicateScanner extends UResourceValidator {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default maximum number of chunk fingerprints kept in memory (16 MiB of fingerprints)
+	 */
+	public static final int DEFAULT_CHUNK_CAPACITY = 2 * 1024 * 1024;
+	
+	/**
+	 * Hash algorithm used to compare the complete files
+	 */
+	private String algorithm;
+	
+	/**
+	 * Number of workers used to read the files
+	 */
+	private int parallelism;
+	
+	/**
+	 * Chunker used to find duplicated blocks or {@code null} if only complete files are compared
+	 */
+	private UContentChunker chunker;
+	
+	/**
+	 * Maximum number of chunk fingerprints kept in memory
+	 */
+	private int chunkCapacity;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 */
+	private UDuplicateScanner() {
+		algorithm = FS_DEFAULT_ALGORITHM;
+		parallelism = FS_DEFAULT_PARALLELISM;
+		chunkCapacity = DEFAULT_CHUNK_CAPACITY;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a new scanner instance with the default configuration
+	 *
+	 * @return a new scanner instance
+	 */
+	@Contract(" -> new")
+	public static @NotNull UDuplicateScanner generate() {
+		return new UDuplicateScanner();
+	}
+	
+	/**
+	 * Hash algorithm used to compare the complete files
+	 *
+	 * @return the hash algorithm
+	 */
+	public @NotNull String algorithm() {
+		return algorithm;
+	}
+	
+	/**
+	 * Changes the hash algorithm on the current instance.
+	 *
+	 * @param algorithm the hash algorithm
+	 * @return the same current instance
+	 */
+	public @NotNull UDuplicateScanner setAlgorithm(@NotNull String algorithm) {
+		UObject.requireNotNull(algorithm, "algorithm");
+		this.algorithm = algorithm;
+		return this;
+	}
+	
+	/**
+	 * Number of workers used to read the files
+	 *
+	 * @return the number of workers
+	 */
+	public int parallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * Changes the number of workers on the current instance.
+	 *
+	 * @param parallelism the number of workers
+	 * @return the same current instance
+	 * @throws IllegalArgumentException error if {@code parallelism} is less than or equal to zero
+	 */
+	public @NotNull UDuplicateScanner setParallelism(int parallelism) {
+		if (parallelism <= 0) throw new IllegalArgumentException("The parallelism must be greater than zero");
+		this.parallelism = parallelism;
+		return this;
+	}
+	
+	/**
+	 * Chunker used to find duplicated blocks
+	 *
+	 * @return the chunker or empty if only complete files are compared
+	 */
+	public @NotNull Optional<UContentChunker> chunker() {
+		return Optional.ofNullable(chunker);
+	}
+	
+	/**
+	 * Changes the chunker on the current instance. Chunking requires reading
+	 * all the files, not only the ones with the same size.
+	 *
+	 * @param chunker the chunker or {@code null} to only compare complete files
+	 * @return the same current instance
+	 */
+	public @NotNull UDuplicateScanner setChunker(@Nullable UContentChunker chunker) {
+		this.chunker = chunker;
+		return this;
+	}
+	
+	/**
+	 * Maximum number of chunk fingerprints kept in memory
+	 *
+	 * @return the number of fingerprints
+	 */
+	public int chunkCapacity() {
+		return chunkCapacity;
+	}
+	
+	/**
+	 * Changes the maximum number of chunk fingerprints kept in memory on the current instance.
+	 * Every fingerprint uses 8 bytes, and the table can use up to twice that space.
+	 *
+	 * @param chunkCapacity the number of fingerprints
+	 * @return the same current instance
+	 * @throws IllegalArgumentException error if {@code chunkCapacity} is less than or equal to zero
+	 */
+	public @NotNull UDuplicateScanner setChunkCapacity(int chunkCapacity) {
+		if (chunkCapacity <= 0) throw new IllegalArgumentException("The chunk capacity must be greater than zero");
+		this.chunkCapacity = chunkCapacity;
+		return this;
+	}
+	
+	/**
+	 * Finds all the duplicated content inside a directory tree
+	 *
+	 * @param root       the directory to analyze
+	 * @param predicates filters applied to the files of the tree
+	 * @return the scan result
+	 * @throws IOException              error if the tree cannot be read
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	@SafeVarargs
+	public final @NotNull UDuplicateReport scan(@NotNull Path root,
+		Predicate<UResourceEntry> @NotNull ... predicates) throws IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(root, "root");
+		UObject.requireNotNull(predicates, "predicates");
+		// Verify the algorithms before any file is read
+		MessageDigest.getInstance(algorithm);
+		if (chunker != null) MessageDigest.getInstance(chunker.algorithm());
+		
+		try {
+			// First pass: only the sizes are counted
+			Map<Long, Integer> sizes = new HashMap<>();
+			long scannedFiles = 0L;
+			long scannedBytes = 0L;
+			try (Stream<UResourceEntry> stream = walkImpl(root, predicates)) {
+				for (var it = stream.iterator(); it.hasNext(); ) {
+					UResourceEntry entry = it.next();
+					sizes.merge(entry.size(), 1, Integer::sum);
+					scannedFiles++;
+					scannedBytes += entry.size();
+				}
+			}
+			
+			// Second pass: only the candidates are hashed (or all the files when chunking)
+			sizes.values().removeIf(count -> count < 2);
+			Map<String, List<Path>> groups = new HashMap<>();
+			UChunkIndex index = new UChunkIndex(chunkCapacity);
+			long hashedFiles = 0L;
+			long chunkCount = 0L;
+			long duplicateChunkBytes = 0L;
+			
+			try (Stream<UResourceEntry> stream = walkImpl(root, predicates)) {
+				Iterator<UResourceEntry> source = stream
+					.filter(it -> chunker != null || sizes.containsKey(it.size()))
+					.iterator();
+				var iterator = new UBoundedTaskIterator<UResourceEntry, UScannedResource>(source,
+					entry -> scanFileImpl(entry, sizes.containsKey(entry.size())), parallelism, parallelism * 4);
+				
+				try {
+					while (iterator.hasNext()) {
+						UScannedResource resource = iterator.next();
+						// The file was removed after the first pass
+						if (resource == null) continue;
+						hashedFiles++;
+						
+						// The chunks are registered by a single thread. Only the sampled
+						// fingerprints are compared, and each one represents the whole sample.
+						for (int i = 0; i < resource.chunks(); i++) {
+							long fingerprint = resource.fingerprint(i);
+							chunkCount++;
+							if (index.sampled(fingerprint) && !index.add(fingerprint)) {
+								duplicateChunkBytes += resource.length(i) * index.sampleRate();
+							}
+						}
+						if (resource.digest() == null) continue;
+						
+						String key = resource.size() + ":" + UHex.toHexString(resource.digest());
+						groups.computeIfAbsent(key, k -> new ArrayList<>(2))
+							.add(resource.path());
+					}
+				} finally {
+					iterator.close();
+				}
+			}
+			
+			// Only the groups with more than one file are duplicates
+			List<List<Path>> duplicates = new ArrayList<>();
+			long duplicateBytes = 0L;
+			for (var entry : groups.entrySet()) {
+				List<Path> group = entry.getValue();
+				if (group.size() < 2) continue;
+				
+				String key = entry.getKey();
+				long size = Long.parseLong(key.substring(0, key.indexOf(':')));
+				group.sort(Comparator.naturalOrder());
+				duplicates.add(group);
+				duplicateBytes += size * (group.size() - 1);
+			}
+			duplicates.sort(Comparator.comparing(it -> it.get(0)));
+			
+			long sampleRate = chunker == null ? 1L : index.sampleRate();
+			long uniqueChunkCount = chunker == null ? 0L : Math.min(chunkCount, index.size() * sampleRate);
+			duplicateChunkBytes = Math.min(duplicateChunkBytes, scannedBytes);
+			return new UDuplicateReport(duplicates, duplicateBytes, scannedFiles, scannedBytes, hashedFiles,
+										chunkCount, uniqueChunkCount, duplicateChunkBytes, sampleRate);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Walks lazily all the non-empty regular files of a tree. The files
+	 * removed while the tree is walked are skipped.
+	 *
+	 * @param root       the directory to walk
+	 * @param predicates filters applied to the files
+	 * @return a stream with all the valid files
+	 * @throws IOException error if the directory cannot be opened
+	 */
+	private static @NotNull Stream<UResourceEntry> walkImpl(@NotNull Path root,
+		Predicate<UResourceEntry> @NotNull [] predicates) throws IOException {
+		UResourceTreeIterator iterator = new UResourceTreeIterator(root);
+		var spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false)
+			.onClose(iterator::close)
+			.filter(it -> it.isRegularFile() && it.size() > 0)
+			.filter(it -> {
+				for (var predicate : predicates) {
+					if (!predicate.test(it)) return false;
+				}
+				return true;
+			});
+	}
+	
+	/**
+	 * Reads the content of a single file. The file is read only once,
+	 * even when both the digest and the chunks are required.
+	 *
+	 * @param entry     the file to read
+	 * @param candidate determines if the complete file must be hashed
+	 * @return the file analysis or {@code null} if the file was removed
+	 * @throws IOException              error if the file cannot be read
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	private @Nullable UScannedResource scanFileImpl(@NotNull UResourceEntry entry, boolean candidate)
+		throws IOException, NoSuchAlgorithmException {
+		UScannedResource result = new UScannedResource(entry.path(), entry.size());
+		try {
+			if (chunker == null) {
+				result.setDigest(UResource.resourceHash(entry.path(), algorithm));
+				return result;
+			}
+			
+			MessageDigest digest = candidate ? MessageDigest.getInstance(algorithm) : null;
+			try (InputStream stream = Files.newInputStream(entry.path())) {
+				chunker.chunkImpl(stream, digest, chunk -> result.addChunk(chunk.fingerprint(), chunk.length()));
+			}
+			if (digest != null) result.setDigest(digest.digest());
+			return result;
+		} catch (NoSuchFileException e) {
+			// The file was removed after the first pass
+			return null;
+		}
+	}
+	
+}
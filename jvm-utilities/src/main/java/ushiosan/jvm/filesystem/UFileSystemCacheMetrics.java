@@ -0,0 +1,127 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Immutable snapshot of the usage information of the virtual filesystems
+ * cached by {@link UResource#fileSystem(java.net.URI)}.
+ *
+ * @see UResource#filesystemCacheMetrics()
+ */
+public final class UFileSystemCacheMetrics {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Number of requests resolved with an already opened filesystem
+	 */
+	private final long hits;
+	
+	/**
+	 * Number of requests that required a new filesystem
+	 */
+	private final long misses;
+	
+	/**
+	 * Number of filesystems opened by the cache
+	 */
+	private final long opened;
+	
+	/**
+	 * Number of filesystems closed by the cache (disposed or evicted)
+	 */
+	private final long closed;
+	
+	/**
+	 * Number of filesystems currently cached
+	 */
+	private final int cached;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param hits   number of requests resolved with an already opened filesystem
+	 * @param misses number of requests that required a new filesystem
+	 * @param opened number of filesystems opened by the cache
+	 * @param closed number of filesystems closed by the cache
+	 * @param cached number of filesystems currently cached
+	 */
+	public UFileSystemCacheMetrics(long hits, long misses, long opened, long closed, int cached) {
+		this.hits = hits;
+		this.misses = misses;
+		this.opened = opened;
+		this.closed = closed;
+		this.cached = cached;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Number of requests resolved with an already opened filesystem
+	 *
+	 * @return the number of hits
+	 */
+	public long hits() {
+		return hits;
+	}
+	
+	/**
+	 * Number of requests that required a new filesystem
+	 *
+	 * @return the number of misses
+	 */
+	public long misses() {
+		return misses;
+	}
+	
+	/**
+	 * Number of filesystems opened by the cache
+	 *
+	 * @return the number of opened filesystems
+	 */
+	public long opened() {
+		return opened;
+	}
+	
+	/**
+	 * Number of filesystems closed by the cache (disposed or evicted)
+	 *
+	 * @return the number of closed filesystems
+	 */
+	public long closed() {
+		return closed;
+	}
+	
+	/**
+	 * Number of filesystems currently cached
+	 *
+	 * @return the number of cached filesystems
+	 */
+	public int cached() {
+		return cached;
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("hits=%d, misses=%d, opened=%d, closed=%d, cached=%d",
+							 hits, misses, opened, closed, cached);
+	}
+	
+}
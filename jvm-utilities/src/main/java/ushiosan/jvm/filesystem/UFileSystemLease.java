@@ -0,0 +1,112 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Reference to a virtual filesystem cached by {@link UResource#acquireFileSystem(java.net.URI)}.
+ * <p>
+ * While the lease is open, the filesystem is never closed because of the idle timeout.
+ * Closing the lease only removes the reference, the filesystem remains in the cache
+ * until it exceeds the idle timeout or is disposed.
+ *
+ * <pre>{@code
+ * try (UFileSystemLease lease = UResource.acquireFileSystem(uri)) {
+ *     Path root = lease.getPath("/");
+ *     // ...
+ * }
+ * }</pre>
+ */
+public final class UFileSystemLease implements AutoCloseable {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The referenced filesystem
+	 */
+	private final FileSystem fileSystem;
+	
+	/**
+	 * Action used to remove the reference
+	 */
+	private final Consumer<FileSystem> releaseAction;
+	
+	/**
+	 * Determines if the reference was already removed
+	 */
+	private final AtomicBoolean released = new AtomicBoolean(false);
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param fileSystem    the referenced filesystem
+	 * @param releaseAction action used to remove the reference
+	 */
+	UFileSystemLease(@NotNull FileSystem fileSystem, @NotNull Consumer<FileSystem> releaseAction) {
+		UObject.requireNotNull(fileSystem, "fileSystem");
+		UObject.requireNotNull(releaseAction, "releaseAction");
+		this.fileSystem = fileSystem;
+		this.releaseAction = releaseAction;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The referenced filesystem
+	 *
+	 * @return the referenced filesystem
+	 */
+	public @NotNull FileSystem fileSystem() {
+		return fileSystem;
+	}
+	
+	/**
+	 * Converts a path string, or a sequence of strings, to a path inside the referenced filesystem
+	 *
+	 * @param first the path string or initial part of the path string
+	 * @param more  additional strings to be joined to form the path string
+	 * @return the resulting path
+	 * @see FileSystem#getPath(String, String...)
+	 */
+	public @NotNull Path getPath(@NotNull String first, String @NotNull ... more) {
+		return fileSystem.getPath(first, more);
+	}
+	
+	/**
+	 * Checks if the reference is still active
+	 *
+	 * @return {@code true} if the lease was not closed or {@code false} otherwise
+	 */
+	public boolean isActive() {
+		return !released.get();
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Removes the reference of the filesystem. Calling this method more than
+	 * once has no effect.
+	 */
+	@Override
+	public void close() {
+		if (released.compareAndSet(false, true)) {
+			releaseAction.accept(fileSystem);
+		}
+	}
+	
+}
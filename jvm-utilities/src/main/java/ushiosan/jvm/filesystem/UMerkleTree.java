@@ -0,0 +1,492 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.content.UPair;
+import ushiosan.jvm.internal.filesystem.UMerkleNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Digest of a complete directory tree.
+ * <p>
+ * Every regular file is a leaf that contains the hash of its content, and every directory
+ * contains a hash generated from the names and hashes of all its children. Two trees with
+ * the same root hash have exactly the same structure and content.
+ * <p>
+ * The file hashes are calculated concurrently with a {@link UResourceHasher}. When some
+ * resources change, {@link #update(Collection)} only hashes those resources and recalculates
+ * the directories that contain them. Two trees can be compared with {@link #diff(UMerkleTree)},
+ * which only visits the branches whose hashes are different.
+ */
+public final class UMerkleTree {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Lock used to compare two trees when the order of their locks cannot be determined
+	 */
+	private static final Object TIE_LOCK = new Object();
+	
+	/**
+	 * The base directory of the tree
+	 */
+	private final Path root;
+	
+	/**
+	 * Hasher used to calculate the hashes of all the files
+	 */
+	private final UResourceHasher hasher;
+	
+	/**
+	 * Node that represents the base directory
+	 */
+	private final UMerkleNode rootNode;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param root   the base directory of the tree
+	 * @param hasher hasher used to calculate the hashes of all the files
+	 */
+	private UMerkleTree(@NotNull Path root, @NotNull UResourceHasher hasher) {
+		this.root = root;
+		this.hasher = hasher;
+		this.rootNode = new UMerkleNode("", true);
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates the tree of the given directory
+	 *
+	 * @param root   the base directory
+	 * @param hasher hasher used to calculate the hashes of all the files. The same
+	 *               instance is used every time the tree is updated.
+	 * @return the directory tree
+	 * @throws NotDirectoryException    error if the location is not a directory
+	 * @throws IOException              error if some resource cannot be read
+	 * @throws NoSuchAlgorithmException error if the hasher algorithm not exists
+	 */
+	public static @NotNull UMerkleTree build(@NotNull Path root, @NotNull UResourceHasher hasher) throws IOException,
+		NoSuchAlgorithmException {
+		UObject.requireNotNull(root, "root");
+		UObject.requireNotNull(hasher, "hasher");
+		if (!Files.isDirectory(root)) throw new NotDirectoryException(root.toString());
+		
+		UMerkleTree tree = new UMerkleTree(root, hasher);
+		tree.buildBranch(tree.rootNode, root);
+		tree.rootNode.recalculate(hasher.algorithm());
+		return tree;
+	}
+	
+	/**
+	 * Generates the tree of the given directory
+	 *
+	 * @param root      the base directory
+	 * @param algorithm hash algorithm
+	 * @return the directory tree
+	 * @throws NotDirectoryException    error if the location is not a directory
+	 * @throws IOException              error if some resource cannot be read
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 */
+	public static @NotNull UMerkleTree build(@NotNull Path root, @NotNull String algorithm) throws IOException,
+		NoSuchAlgorithmException {
+		return build(root, UResourceHasher.generate().setAlgorithm(algorithm));
+	}
+	
+	/**
+	 * Generates the tree of the given directory with the default configuration
+	 *
+	 * @param root the base directory
+	 * @return the directory tree
+	 * @throws NotDirectoryException    error if the location is not a directory
+	 * @throws IOException              error if some resource cannot be read
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 */
+	public static @NotNull UMerkleTree build(@NotNull Path root) throws IOException, NoSuchAlgorithmException {
+		return build(root, UResourceHasher.generate());
+	}
+	
+	/**
+	 * The base directory of the tree
+	 *
+	 * @return the base directory
+	 */
+	public @NotNull Path root() {
+		return root;
+	}
+	
+	/**
+	 * Hash algorithm used by the tree
+	 *
+	 * @return the hash algorithm
+	 */
+	public @NotNull String algorithm() {
+		return hasher.algorithm();
+	}
+	
+	/**
+	 * The hash of the complete tree
+	 *
+	 * @return the tree hash
+	 */
+	public synchronized byte @NotNull [] hash() {
+		// Temporal variables
+		byte[] result = rootNode.hash();
+		
+		UObject.requireNotNull(result, "hash");
+		return result.clone();
+	}
+	
+	/**
+	 * The hash of the complete tree.
+	 * This method returns the hash as hexadecimal string.
+	 *
+	 * @return hash as hexadecimal string
+	 */
+	public @NotNull String hashStr() {
+		return UResource.resourceHashStr(hash());
+	}
+	
+	/**
+	 * Get the hash of a resource inside the tree
+	 *
+	 * @param resource the resource location (absolute or relative to the tree root)
+	 * @return the resource hash or {@link Optional#empty()} if the resource is not in the tree
+	 */
+	public synchronized @NotNull Optional<byte[]> hash(@NotNull Path resource) {
+		UObject.requireNotNull(resource, "resource");
+		UMerkleNode node = findNode(relativize(resource));
+		return node == null || node.hash() == null ? Optional.empty() : Optional.of(node.hash().clone());
+	}
+	
+	/**
+	 * Number of files inside the tree
+	 *
+	 * @return the number of files
+	 */
+	public synchronized int resourceCount() {
+		return rootNode.leafCount();
+	}
+	
+	/**
+	 * Updates the given resources and recalculates only the directories that contain them.
+	 * <p>
+	 * Every location is verified again: regular files are hashed again, new directories
+	 * are added with all their content and the resources that no longer exist are removed.
+	 *
+	 * @param resources the modified resources (absolute or relative to the tree root)
+	 * @throws IOException              error if some resource cannot be read
+	 * @throws NoSuchAlgorithmException error if the hasher algorithm not exists
+	 */
+	public synchronized void update(@NotNull Collection<Path> resources) throws IOException,
+		NoSuchAlgorithmException {
+		UObject.requireNotNull(resources, "resources");
+		// Temporal variables
+		Map<Path, UMerkleNode> files = new HashMap<>();
+		
+		for (var resource : resources) {
+			Path relative = relativize(resource);
+			if (relative.getNameCount() == 0 || relative.toString().isEmpty()) {
+				throw new IllegalArgumentException("The tree root cannot be updated, build a new tree instead");
+			}
+			Path location = root.resolve(relative);
+			String name = relative.getFileName().toString();
+			
+			// Verify the current state of the resource
+			BasicFileAttributes attributes;
+			try {
+				attributes = Files.readAttributes(location, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+			} catch (NoSuchFileException e) {
+				UMerkleNode parent = findNode(parentOf(relative));
+				if (parent != null) parent.removeChild(name);
+				continue;
+			}
+			UMerkleNode parent = makeParents(relative);
+			
+			if (attributes.isDirectory()) {
+				UMerkleNode directory = new UMerkleNode(name, true);
+				parent.putChild(directory);
+				buildBranch(directory, location);
+			} else if (attributes.isRegularFile()) {
+				UMerkleNode file = new UMerkleNode(name, false);
+				parent.putChild(file);
+				files.put(location, file);
+			} else {
+				parent.removeChild(name);
+			}
+		}
+		
+		hashFiles(files);
+		rootNode.recalculate(hasher.algorithm());
+	}
+	
+	/**
+	 * Updates the given resources and recalculates only the directories that contain them.
+	 *
+	 * @param resources the modified resources (absolute or relative to the tree root)
+	 * @throws IOException              error if some resource cannot be read
+	 * @throws NoSuchAlgorithmException error if the hasher algorithm not exists
+	 * @see #update(Collection)
+	 */
+	public void update(Path @NotNull ... resources) throws IOException, NoSuchAlgorithmException {
+		update(List.of(resources));
+	}
+	
+	/**
+	 * Compares this tree (old version) with another tree (new version). Only the
+	 * branches with different hashes are visited, so the cost of the operation
+	 * depends on the number of changes and not on the size of the trees.
+	 * <p>
+	 * When a complete directory was added or removed, only the directory is reported.
+	 *
+	 * @param other the new version of the tree
+	 * @return all the changed resources (relative to the tree roots) sorted by location
+	 * @throws IllegalArgumentException error if both trees use different algorithms
+	 */
+	public @NotNull Map<Path, UResourceChange> diff(@NotNull UMerkleTree other) {
+		UObject.requireNotNull(other, "other");
+		if (!algorithm().equals(other.algorithm())) {
+			throw new IllegalArgumentException("Both trees must use the same hash algorithm");
+		}
+		// Temporal variables
+		Map<Path, UResourceChange> result = new TreeMap<>();
+		Path base = root.getFileSystem().getPath("");
+		
+		// The locks are always taken in the same order, so two opposite comparisons cannot deadlock
+		int order = Integer.compare(System.identityHashCode(this), System.identityHashCode(other));
+		UMerkleTree first = order <= 0 ? this : other;
+		UMerkleTree second = order <= 0 ? other : this;
+		
+		if (order == 0 && this != other) {
+			synchronized (TIE_LOCK) {
+				lockedDiffImpl(first, second, other, base, result);
+			}
+		} else {
+			lockedDiffImpl(first, second, other, base, result);
+		}
+		return result;
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("%s (%s: %s)", root, algorithm(), hashStr());
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Adds all the content of a directory to the given node
+	 *
+	 * @param node      the directory node
+	 * @param directory the directory location
+	 * @throws IOException              error if some resource cannot be read
+	 * @throws NoSuchAlgorithmException error if the hasher algorithm not exists
+	 */
+	private void buildBranch(@NotNull UMerkleNode node, @NotNull Path directory) throws IOException,
+		NoSuchAlgorithmException {
+		// Temporal variables
+		Map<Path, UMerkleNode> files = new HashMap<>();
+		Map<Path, UMerkleNode> directories = new HashMap<>();
+		List<UResourceEntry> entries;
+		directories.put(directory, node);
+		
+		// The walk returns every directory before its content
+		try (Stream<UResourceEntry> stream = UResource.resourceWalkAttributes(directory, true)) {
+			entries = stream.collect(Collectors.toList());
+		}
+		for (var entry : entries) {
+			Path path = entry.path();
+			if (path.equals(directory)) continue;
+			if (!entry.isDirectory() && !entry.isRegularFile()) continue;
+			
+			UMerkleNode parent = directories.get(path.getParent());
+			UMerkleNode child = new UMerkleNode(path.getFileName().toString(), entry.isDirectory());
+			parent.putChild(child);
+			
+			if (entry.isDirectory()) {
+				directories.put(path, child);
+			} else {
+				files.put(path, child);
+			}
+		}
+		
+		hashFiles(files);
+	}
+	
+	/**
+	 * Hashes all the given files concurrently and updates their nodes
+	 *
+	 * @param files all the files and their nodes
+	 * @throws IOException              error if some resource cannot be read
+	 * @throws NoSuchAlgorithmException error if the hasher algorithm not exists
+	 */
+	private void hashFiles(@NotNull Map<Path, UMerkleNode> files) throws IOException, NoSuchAlgorithmException {
+		if (files.isEmpty()) return;
+		// Temporal variables
+		List<UPair<Path, byte[]>> hashes;
+		
+		try (var stream = hasher.hash(files.keySet())) {
+			hashes = stream.collect(Collectors.toList());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		// Nodes are not thread-safe, so they are updated by the current thread
+		for (var hash : hashes) {
+			files.get(hash.first).setHash(hash.second);
+		}
+	}
+	
+	/**
+	 * Compares this tree with another tree while the locks of both trees are held
+	 *
+	 * @param first  the tree whose lock is taken first
+	 * @param second the tree whose lock is taken second
+	 * @param other  the new version of the tree
+	 * @param base   the location of the tree roots
+	 * @param result the container where the differences are stored
+	 */
+	private void lockedDiffImpl(@NotNull UMerkleTree first, @NotNull UMerkleTree second, @NotNull UMerkleTree other,
+		@NotNull Path base, @NotNull Map<Path, UResourceChange> result) {
+		synchronized (first) {
+			synchronized (second) {
+				diffImpl(rootNode, other.rootNode, base, result);
+			}
+		}
+	}
+	
+	/**
+	 * Compares two nodes and adds all the differences to the result
+	 *
+	 * @param oldNode  the old version of the node
+	 * @param newNode  the new version of the node
+	 * @param location the node location relative to the tree root
+	 * @param result   the container where the differences are stored
+	 */
+	private static void diffImpl(@NotNull UMerkleNode oldNode, @NotNull UMerkleNode newNode, @NotNull Path location,
+		@NotNull Map<Path, UResourceChange> result) {
+		if (Arrays.equals(oldNode.hash(), newNode.hash())) return;
+		
+		// A file replaced by a directory (or vice versa) is a different resource
+		if (oldNode.isDirectory() != newNode.isDirectory()) {
+			result.put(location, UResourceChange.MODIFIED);
+			return;
+		}
+		if (!oldNode.isDirectory()) {
+			result.put(location, UResourceChange.MODIFIED);
+			return;
+		}
+		
+		// Both children lists are sorted by name
+		for (var oldChild : oldNode.children()) {
+			UMerkleNode newChild = newNode.child(oldChild.name());
+			Path childLocation = location.resolve(oldChild.name());
+			
+			if (newChild == null) {
+				result.put(childLocation, UResourceChange.REMOVED);
+			} else {
+				diffImpl(oldChild, newChild, childLocation, result);
+			}
+		}
+		for (var newChild : newNode.children()) {
+			if (oldNode.child(newChild.name()) == null) {
+				result.put(location.resolve(newChild.name()), UResourceChange.ADDED);
+			}
+		}
+	}
+	
+	/**
+	 * Creates (if necessary) all the parent directories of the given resource
+	 *
+	 * @param relative the resource location relative to the tree root
+	 * @return the parent node of the resource
+	 */
+	private @NotNull UMerkleNode makeParents(@NotNull Path relative) {
+		UMerkleNode current = rootNode;
+		for (int i = 0; i < relative.getNameCount() - 1; i++) {
+			String name = relative.getName(i).toString();
+			UMerkleNode next = current.child(name);
+			
+			if (next == null || !next.isDirectory()) {
+				next = new UMerkleNode(name, true);
+				current.putChild(next);
+			}
+			current = next;
+		}
+		return current;
+	}
+	
+	/**
+	 * Searches the node of the given resource
+	 *
+	 * @param relative the resource location relative to the tree root
+	 * @return the resource node or {@code null} if the resource is not in the tree
+	 */
+	private UMerkleNode findNode(@NotNull Path relative) {
+		UMerkleNode current = rootNode;
+		if (relative.toString().isEmpty()) return current;
+		
+		for (var name : relative) {
+			current = current.child(name.toString());
+			if (current == null) return null;
+		}
+		return current;
+	}
+	
+	/**
+	 * Gets the parent of a location relative to the tree root
+	 *
+	 * @param relative the resource location relative to the tree root
+	 * @return the parent location (an empty location if the parent is the tree root)
+	 */
+	private @NotNull Path parentOf(@NotNull Path relative) {
+		Path parent = relative.getParent();
+		return parent == null ? root.getFileSystem().getPath("") : parent;
+	}
+	
+	/**
+	 * Converts a location into a location relative to the tree root
+	 *
+	 * @param resource the resource location (absolute or relative to the tree root)
+	 * @return the location relative to the tree root
+	 * @throws IllegalArgumentException error if the resource is not inside the tree
+	 */
+	private @NotNull Path relativize(@NotNull Path resource) {
+		Path relative = resource.isAbsolute() ?
+			root.toAbsolutePath().normalize().relativize(resource.normalize()) :
+			resource.normalize();
+		
+		if (relative.startsWith("..")) {
+			throw new IllegalArgumentException(String.format("\"%s\" is not inside \"%s\"", resource, root));
+		}
+		return relative;
+	}
+	
+}
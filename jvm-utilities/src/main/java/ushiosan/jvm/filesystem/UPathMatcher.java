@@ -0,0 +1,399 @@
+package ushiosan.jvm.filesystem;
+
+import org.intellij.lang.annotations.RegExp;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled matcher that combines multiple glob and regular expression patterns.
+ * <p>
+ * All the patterns are joined into a single {@link Pattern}, so every location is
+ * evaluated only once regardless of the number of patterns. The regular expressions
+ * with back references or named groups are compiled separately, because their group
+ * numbers and names would change inside the combined expression. The matcher also
+ * answers if any element inside a directory can match ({@link #mayMatchUnder(Path)}),
+ * which allows the walkers to skip whole subtrees that are not relevant.
+ * <p>
+ * The locations are always relative to the walked directory and use {@code /} as
+ * separator on every platform. The supported glob syntax is the same as
+ * {@link java.nio.file.FileSystem#getPathMatcher(String)}: {@code *}, {@code **},
+ * {@code ?}, {@code [...]} and {@code {a,b}}.
+ *
+ * <pre>{@code
+ * UPathMatcher matcher = UPathMatcher.globs("src/main/**.java", "docs/*.md");
+ *
+ * matcher.matches("src/main/java/Main.java"); // true
+ * matcher.mayMatchUnder("src/main");          // true
+ * matcher.mayMatchUnder("build");             // false (the directory can be skipped)
+ * }</pre>
+ */
+public final class UPathMatcher {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Characters that must be escaped in a regular expression
+	 */
+	private static final String REGEX_SPECIAL_CHARS = "\\^$.|?*+()[]{}";
+	
+	/**
+	 * All the patterns combined in a single expression
+	 */
+	private final Pattern pattern;
+	
+	/**
+	 * Regular expressions that cannot be combined with the other patterns
+	 */
+	private final List<Pattern> isolated;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param pattern  the combined expression
+	 * @param isolated the expressions that cannot be combined
+	 */
+	private UPathMatcher(@NotNull Pattern pattern, @NotNull List<Pattern> isolated) {
+		this.pattern = pattern;
+		this.isolated = List.copyOf(isolated);
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a matcher with all the given glob and regular expression patterns.
+	 * A location matches if it meets any of the patterns.
+	 *
+	 * @param globs   the glob patterns
+	 * @param regexes the regular expression patterns
+	 * @return a new matcher with all the patterns
+	 * @throws IllegalArgumentException error if some glob is not valid
+	 * @throws java.util.regex.PatternSyntaxException error if some regular expression is not valid
+	 */
+	@Contract("_, _ -> new")
+	public static @NotNull UPathMatcher of(@NotNull Collection<String> globs, @NotNull Collection<String> regexes) {
+		UObject.requireNotNull(globs, "globs");
+		UObject.requireNotNull(regexes, "regexes");
+		// Temporal variables
+		StringJoiner expression = new StringJoiner("|");
+		List<Pattern> isolated = new ArrayList<>();
+		
+		for (String glob : globs) {
+			expression.add("(?:" + globToRegexImpl(glob) + ")");
+		}
+		for (String regex : regexes) {
+			// Validate every expression separately to report the invalid one
+			Pattern compiled = Pattern.compile(regex);
+			if (isGroupDependentImpl(regex)) isolated.add(compiled);
+			else expression.add("(?:" + regex + ")");
+		}
+		// An empty matcher never matches
+		return new UPathMatcher(Pattern.compile(expression.length() == 0 ? "(?!)" : expression.toString()),
+								isolated);
+	}
+	
+	/**
+	 * Generates a matcher with all the given glob patterns
+	 *
+	 * @param globs the glob patterns
+	 * @return a new matcher with all the patterns
+	 * @throws IllegalArgumentException error if some glob is not valid
+	 */
+	@Contract("_ -> new")
+	public static @NotNull UPathMatcher globs(String @NotNull ... globs) {
+		UObject.requireNotNull(globs, "globs");
+		return of(List.of(globs), List.of());
+	}
+	
+	/**
+	 * Generates a matcher with all the given regular expression patterns
+	 *
+	 * @param regexes the regular expression patterns
+	 * @return a new matcher with all the patterns
+	 * @throws java.util.regex.PatternSyntaxException error if some regular expression is not valid
+	 */
+	@Contract("_ -> new")
+	public static @NotNull UPathMatcher regexes(@RegExp String @NotNull ... regexes) {
+		UObject.requireNotNull(regexes, "regexes");
+		return of(List.of(), List.of(regexes));
+	}
+	
+	/**
+	 * The expression that combines all the patterns. The regular expressions with
+	 * back references or named groups are not included.
+	 *
+	 * @return the combined expression
+	 */
+	public @NotNull Pattern pattern() {
+		return pattern;
+	}
+	
+	/**
+	 * Checks if the given relative location meets any of the patterns
+	 *
+	 * @param location the location relative to the walked directory, using {@code /} as separator
+	 * @return {@code true} if the location matches or {@code false} otherwise
+	 */
+	public boolean matches(@NotNull CharSequence location) {
+		UObject.requireNotNull(location, "location");
+		if (pattern.matcher(location).matches()) return true;
+		
+		for (Pattern current : isolated) {
+			if (current.matcher(location).matches()) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Checks if the given relative location meets any of the patterns
+	 *
+	 * @param location the location relative to the walked directory
+	 * @return {@code true} if the location matches or {@code false} otherwise
+	 */
+	public boolean matches(@NotNull Path location) {
+		UObject.requireNotNull(location, "location");
+		return matches(locationOf(location));
+	}
+	
+	/**
+	 * Checks if any element inside the given directory can meet the patterns.
+	 * The result is conservative: {@code false} means that no element inside the
+	 * directory can match, so the whole subtree can be skipped.
+	 *
+	 * @param directory the directory relative to the walked directory, using {@code /} as separator
+	 * @return {@code true} if some element inside the directory can match or {@code false} otherwise
+	 */
+	public boolean mayMatchUnder(@NotNull CharSequence directory) {
+		UObject.requireNotNull(directory, "directory");
+		// The walked directory contains all the relative locations
+		if (directory.length() == 0) return true;
+		
+		// If the engine reaches the end of the prefix, a longer location can still match
+		String prefix = directory + "/";
+		if (mayMatchImpl(pattern, prefix)) return true;
+		
+		for (Pattern other : isolated) {
+			if (mayMatchImpl(other, prefix)) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Checks if any element inside the given directory can meet the patterns.
+	 *
+	 * @param directory the directory relative to the walked directory
+	 * @return {@code true} if some element inside the directory can match or {@code false} otherwise
+	 * @see #mayMatchUnder(CharSequence)
+	 */
+	public boolean mayMatchUnder(@NotNull Path directory) {
+		UObject.requireNotNull(directory, "directory");
+		return mayMatchUnder(locationOf(directory));
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Converts a path to a location with {@code /} as separator
+	 *
+	 * @param path the path to convert
+	 * @return the path location
+	 */
+	private static @NotNull String locationOf(@NotNull Path path) {
+		String location = path.toString();
+		return File.separatorChar == '/' ? location : location.replace(File.separatorChar, '/');
+	}
+	
+	/**
+	 * Checks if the given prefix matches the expression or if a longer input could match it
+	 *
+	 * @param expression the expression to check
+	 * @param prefix     the location prefix
+	 * @return {@code true} if some location with the prefix can match or {@code false} otherwise
+	 */
+	private static boolean mayMatchImpl(@NotNull Pattern expression, @NotNull String prefix) {
+		Matcher matcher = expression.matcher(prefix);
+		return matcher.matches() || matcher.hitEnd();
+	}
+	
+	/**
+	 * Checks if a regular expression depends on its own groups, this is, if it uses
+	 * back references or defines named groups. The check is conservative, so some
+	 * expressions are compiled separately without need.
+	 *
+	 * @param regex the regular expression to check
+	 * @return {@code true} if the expression cannot be combined or {@code false} otherwise
+	 */
+	private static boolean isGroupDependentImpl(@NotNull String regex) {
+		// Temporal variables
+		int index = 0;
+		
+		while (index < regex.length() - 1) {
+			char current = regex.charAt(index++);
+			char next = regex.charAt(index);
+			if (current == '\\') {
+				// Quoted sections do not contain back references
+				if (next == 'Q') {
+					int end = regex.indexOf("\\E", index);
+					if (end == -1) return false;
+					index = end + 2;
+					continue;
+				}
+				if ((next >= '1' && next <= '9') || next == 'k') return true;
+				index++;
+			} else if (current == '(' && regex.startsWith("?<", index) && index + 2 < regex.length()) {
+				// Named group, but not a look behind
+				char kind = regex.charAt(index + 2);
+				if (kind != '=' && kind != '!') return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Converts a glob pattern to a regular expression
+	 *
+	 * @param glob the glob pattern
+	 * @return the equivalent regular expression
+	 * @throws IllegalArgumentException error if the glob is not valid
+	 */
+	private static @NotNull String globToRegexImpl(@NotNull String glob) {
+		UObject.requireNotNull(glob, "glob");
+		// Temporal variables
+		StringBuilder regex = new StringBuilder(glob.length() * 2);
+		int groups = 0;
+		int index = 0;
+		
+		while (index < glob.length()) {
+			char current = glob.charAt(index++);
+			switch (current) {
+				case '*':
+					if (index < glob.length() && glob.charAt(index) == '*') {
+						// "**" crosses directory boundaries
+						regex.append(".*");
+						index++;
+					} else {
+						regex.append("[^/]*");
+					}
+					break;
+				case '?':
+					regex.append("[^/]");
+					break;
+				case '[':
+					index = appendClassImpl(glob, index, regex);
+					break;
+				case '{':
+					if (groups > 0) throw new IllegalArgumentException("Nested groups are not supported: " + glob);
+					regex.append("(?:");
+					groups++;
+					break;
+				case '}':
+					if (groups == 0) {
+						appendLiteralImpl(current, regex);
+						break;
+					}
+					regex.append(')');
+					groups--;
+					break;
+				case ',':
+					if (groups > 0) regex.append('|');
+					else appendLiteralImpl(current, regex);
+					break;
+				case '\\':
+					if (index == glob.length()) throw new IllegalArgumentException("Invalid escape at the end: " + glob);
+					appendLiteralImpl(glob.charAt(index++), regex);
+					break;
+				default:
+					appendLiteralImpl(current, regex);
+			}
+		}
+		
+		if (groups > 0) throw new IllegalArgumentException("Missing '}' in glob: " + glob);
+		return regex.toString();
+	}
+	
+	/**
+	 * Appends a bracket expression of a glob pattern
+	 *
+	 * @param glob  the glob pattern
+	 * @param index the position after the opening bracket
+	 * @param regex the expression where the result is stored
+	 * @return the position after the closing bracket
+	 * @throws IllegalArgumentException error if the bracket expression is not closed
+	 */
+	private static int appendClassImpl(@NotNull String glob, int index, @NotNull StringBuilder regex) {
+		regex.append("[[^/]&&[");
+		if (index < glob.length() && glob.charAt(index) == '!') {
+			regex.append('^');
+			index++;
+		}
+		
+		boolean empty = true;
+		while (index < glob.length()) {
+			char current = glob.charAt(index++);
+			if (current == ']' && !empty) {
+				regex.append("]]");
+				return index;
+			}
+			if (current == '\\' || current == '[' || current == '&' || current == ']' ||
+				(current == '^' && empty)) {
+				regex.append('\\');
+			}
+			regex.append(current);
+			empty = false;
+		}
+		throw new IllegalArgumentException("Missing ']' in glob: " + glob);
+	}
+	
+	/**
+	 * Appends a literal character to a regular expression
+	 *
+	 * @param character the character to append
+	 * @param regex     the expression where the result is stored
+	 */
+	private static void appendLiteralImpl(char character, @NotNull StringBuilder regex) {
+		if (REGEX_SPECIAL_CHARS.indexOf(character) != -1) regex.append('\\');
+		regex.append(character);
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		if (isolated.isEmpty()) return pattern.pattern();
+		// Temporal variables
+		StringJoiner result = new StringJoiner("|");
+		
+		result.add(pattern.pattern());
+		for (Pattern current : isolated) {
+			result.add("(?:" + current.pattern() + ")");
+		}
+		return result.toString();
+	}
+	
+}
@@ -2,27 +2,32 @@ package ushiosan.jvm.filesystem;
 
 import org.jetbrains.annotations.NotNull;
 import ushiosan.jvm.UAction;
+import ushiosan.jvm.UHex;
 import ushiosan.jvm.ULogger;
 import ushiosan.jvm.UObject;
-import ushiosan.jvm.collections.UArray;
 import ushiosan.jvm.error.UCommonErrorMessages;
 import ushiosan.jvm.internal.collections.arrays.UArraysConstants;
+import ushiosan.jvm.internal.filesystem.UFileSystemCache;
 import ushiosan.jvm.internal.filesystem.UResourceImpl;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.Checksum;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -33,14 +38,22 @@ public final class UResource extends UResourceImpl {
 	 */
 	private static final Logger LOG = Logger.getLogger(ULogger.loggerName(UResource.class));
 	
+	/**
+	 * Idle timeout used to disable the idle eviction of the cached file systems (the default value)
+	 *
+	 * @see #setFilesystemIdleTimeout(long, TimeUnit)
+	 */
+	public static final long FILESYSTEM_IDLE_DISABLED = UFileSystemCache.IDLE_DISABLED;
+	
 	/* -----------------------------------------------------
 	 * Internal properties
 	 * ----------------------------------------------------- */
 	/**
 	 * Container that holds all the file systems created by the jar or jrt files virtually.
-	 * These filesystems can be released with the {@link #disposeFilesystems()} method when they are no longer needed.
+	 * Every archive is opened only once and the filesystems can be released with the
+	 * {@link #disposeFilesystems()} method when they are no longer needed.
 	 */
-	private static final Set<FileSystem> cachedFileSystems = Collections.synchronizedSet(new HashSet<>());
+	private static final UFileSystemCache cachedFileSystems = new UFileSystemCache();
 	
 	/**
 	 * This class cannot be instantiated directly
@@ -87,6 +100,200 @@ public final class UResource extends UResourceImpl {
 		});
 	}
 	
+	/**
+	 * Generates a stream with all the elements within the given destination. Unlike
+	 * {@link #resourceWalk(Path, boolean, Predicate[])}, every subdirectory is walked in
+	 * parallel by a {@link java.util.concurrent.ForkJoinPool} with the given number of workers.
+	 * <p>
+	 * The filters are applied while the tree is walked, and the elements are returned as soon
+	 * as they are found, so the complete tree is never stored in memory. The order of the elements
+	 * is not guaranteed. Like {@link Files#walk(Path, java.nio.file.FileVisitOption...)}, the stream
+	 * must be closed if it is not consumed completely, and the errors found in the subdirectories
+	 * are thrown as {@link java.io.UncheckedIOException} while the stream is consumed.
+	 *
+	 * @param path        base directory
+	 * @param recursive   determines if the stream is required to be recursive or just the first directory
+	 * @param parallelism the number of workers used to walk the tree
+	 * @param predicates  filters applied to the stream
+	 * @return a parallel stream with all the given settings
+	 * @throws IOException              error if directory not exists or location is not a valid directory
+	 * @throws IllegalArgumentException error if {@code parallelism} is less than or equal to zero
+	 * @see Predicate
+	 */
+	@SafeVarargs
+	public static @NotNull Stream<Path> resourceWalkParallel(@NotNull Path path, boolean recursive, int parallelism,
+		Predicate<Path> @NotNull ... predicates) throws IOException {
+		int maxDepth = recursive ? Integer.MAX_VALUE : 1;
+		return resourceWalkParallelImpl(path, maxDepth, parallelism, (it, attributes) -> it, combineFilters(predicates));
+	}
+	
+	/**
+	 * Generates a stream with all the elements within the given destination. Unlike
+	 * {@link #resourceWalk(Path, boolean, Predicate[])}, every subdirectory is walked in
+	 * parallel using all the available processors.
+	 *
+	 * @param path       base directory
+	 * @param recursive  determines if the stream is required to be recursive or just the first directory
+	 * @param predicates filters applied to the stream
+	 * @return a parallel stream with all the given settings
+	 * @throws IOException error if directory not exists or location is not a valid directory
+	 * @see #resourceWalkParallel(Path, boolean, int, Predicate[])
+	 */
+	@SafeVarargs
+	public static @NotNull Stream<Path> resourceWalkParallel(@NotNull Path path, boolean recursive,
+		Predicate<Path> @NotNull ... predicates) throws IOException {
+		return resourceWalkParallel(path, recursive, FS_DEFAULT_PARALLELISM, predicates);
+	}
+	
+	/**
+	 * Generates a stream with the elements within the given destination whose location, relative to
+	 * the destination, meets the given matcher. The subdirectories where no element can match are
+	 * never read, so the scans of huge trees with an include list only touch the relevant directories.
+	 *
+	 * <pre>{@code
+	 * UPathMatcher matcher = UPathMatcher.globs("src/main/**.java", "docs/*.md");
+	 * Stream<Path> sources = UResource.resourceWalk(root, true, matcher);
+	 * }</pre>
+	 *
+	 * @param path       base directory
+	 * @param recursive  determines if the stream is required to be recursive or just the first directory
+	 * @param matcher    the matcher applied to the relative locations
+	 * @param predicates filters applied to the matched elements
+	 * @return a stream with all the given settings
+	 * @throws IOException error if directory not exists or location is not a valid directory
+	 * @see UPathMatcher
+	 */
+	@SafeVarargs
+	public static @NotNull Stream<Path> resourceWalk(@NotNull Path path, boolean recursive, @NotNull UPathMatcher matcher,
+		Predicate<Path> @NotNull ... predicates) throws IOException {
+		int maxDepth = recursive ? Integer.MAX_VALUE : 1;
+		return resourceWalkMatcherImpl(path, maxDepth, matcher, combineFilters(predicates))
+			.stream();
+	}
+	
+	/**
+	 * Generates a stream with the elements within the given destination whose location, relative to
+	 * the destination, meets the given matcher. Every subdirectory is walked in parallel by a
+	 * {@link java.util.concurrent.ForkJoinPool} with the given number of workers, and the
+	 * subdirectories where no element can match are never read. The order of the elements is not guaranteed.
+	 * The stream must be closed if it is not consumed completely.
+	 *
+	 * @param path        base directory
+	 * @param recursive   determines if the stream is required to be recursive or just the first directory
+	 * @param parallelism the number of workers used to walk the tree
+	 * @param matcher     the matcher applied to the relative locations
+	 * @param predicates  filters applied to the matched elements
+	 * @return a parallel stream with all the given settings
+	 * @throws IOException              error if directory not exists or location is not a valid directory
+	 * @throws IllegalArgumentException error if {@code parallelism} is less than or equal to zero
+	 * @see UPathMatcher
+	 */
+	@SafeVarargs
+	public static @NotNull Stream<Path> resourceWalkParallel(@NotNull Path path, boolean recursive, int parallelism,
+		@NotNull UPathMatcher matcher, Predicate<Path> @NotNull ... predicates) throws IOException {
+		UObject.requireNotNull(matcher, "matcher");
+		// Temporal variables
+		int maxDepth = recursive ? Integer.MAX_VALUE : 1;
+		Predicate<Path> filter = combineFilters(predicates);
+		
+		return resourceWalkParallelImpl(path, maxDepth, parallelism, (it, attributes) -> it,
+										it -> matcher.matches(path.relativize(it)) && filter.test(it),
+										it -> matcher.mayMatchUnder(path.relativize(it)));
+	}
+	
+	/**
+	 * Generates a stream where it recursively iterates through all the directories within the given destination.
+	 * Each element contains its location and its attributes, which are read only once while the tree is walked,
+	 * so it is not necessary to access the filesystem again to get the resource metadata.
+	 *
+	 * @param path       base directory
+	 * @param recursive  determines if the stream is required to be recursive or just the first directory
+	 * @param predicates filters applied to the stream
+	 * @return a stream with all the given settings
+	 * @throws IOException error if directory not exists or location is not a valid directory
+	 * @see UResourceEntry
+	 */
+	@SafeVarargs
+	public static @NotNull Stream<UResourceEntry> resourceWalkAttributes(@NotNull Path path, boolean recursive,
+		Predicate<UResourceEntry> @NotNull ... predicates) throws IOException {
+		int maxDepth = recursive ? Integer.MAX_VALUE : 1;
+		return resourceWalkAttributesImpl(path, maxDepth, combineFilters(predicates))
+			.stream();
+	}
+	
+	/**
+	 * Generates a stream with all the elements within the given destination and their attributes.
+	 * Every subdirectory is walked in parallel by a {@link java.util.concurrent.ForkJoinPool} with
+	 * the given number of workers. The order of the elements is not guaranteed, and the stream
+	 * must be closed if it is not consumed completely.
+	 *
+	 * @param path        base directory
+	 * @param recursive   determines if the stream is required to be recursive or just the first directory
+	 * @param parallelism the number of workers used to walk the tree
+	 * @param predicates  filters applied to the stream
+	 * @return a parallel stream with all the given settings
+	 * @throws IOException              error if directory not exists or location is not a valid directory
+	 * @throws IllegalArgumentException error if {@code parallelism} is less than or equal to zero
+	 * @see UResourceEntry
+	 */
+	@SafeVarargs
+	public static @NotNull Stream<UResourceEntry> resourceWalkAttributesParallel(@NotNull Path path, boolean recursive,
+		int parallelism, Predicate<UResourceEntry> @NotNull ... predicates) throws IOException {
+		int maxDepth = recursive ? Integer.MAX_VALUE : 1;
+		return resourceWalkParallelImpl(path, maxDepth, parallelism, UResourceEntry::make, combineFilters(predicates));
+	}
+	
+	/**
+	 * Generates a stream with all the elements within the given destination and their attributes.
+	 * Every subdirectory is walked in parallel using all the available processors.
+	 *
+	 * @param path       base directory
+	 * @param recursive  determines if the stream is required to be recursive or just the first directory
+	 * @param predicates filters applied to the stream
+	 * @return a parallel stream with all the given settings
+	 * @throws IOException error if directory not exists or location is not a valid directory
+	 * @see #resourceWalkAttributesParallel(Path, boolean, int, Predicate[])
+	 */
+	@SafeVarargs
+	public static @NotNull Stream<UResourceEntry> resourceWalkAttributesParallel(@NotNull Path path, boolean recursive,
+		Predicate<UResourceEntry> @NotNull ... predicates) throws IOException {
+		return resourceWalkAttributesParallel(path, recursive, FS_DEFAULT_PARALLELISM, predicates);
+	}
+	
+	/* -----------------------------------------------------
+	 * Size methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Calculates the disk usage of a directory tree, with the subtotal of every
+	 * subdirectory (similar to the {@code du} command).
+	 * <p>
+	 * Every subdirectory is read by its own task, and the attributes of every element
+	 * are read with a single filesystem call. Only regular files are counted and the
+	 * symbolic links are not followed.
+	 *
+	 * @param path        base directory
+	 * @param parallelism the number of workers used to walk the tree
+	 * @return the usage of the directory and all its subdirectories
+	 * @throws IOException              error if the location is not a directory or some subdirectory cannot be read
+	 * @throws IllegalArgumentException error if {@code parallelism} is less than or equal to zero
+	 */
+	public static @NotNull UDirectorySize resourceSizeTree(@NotNull Path path, int parallelism) throws IOException {
+		return resourceSizeTreeImpl(path, parallelism);
+	}
+	
+	/**
+	 * Calculates the disk usage of a directory tree using all the available processors
+	 *
+	 * @param path base directory
+	 * @return the usage of the directory and all its subdirectories
+	 * @throws IOException error if the location is not a directory or some subdirectory cannot be read
+	 * @see #resourceSizeTree(Path, int)
+	 */
+	public static @NotNull UDirectorySize resourceSizeTree(@NotNull Path path) throws IOException {
+		return resourceSizeTree(path, FS_DEFAULT_PARALLELISM);
+	}
+	
 	/* -----------------------------------------------------
 	 * Resource name methods
 	 * ----------------------------------------------------- */
@@ -124,6 +331,17 @@ public final class UResource extends UResourceImpl {
 		return nameWithoutSlashesImpl(entry.getName());
 	}
 	
+	/**
+	 * Gets the resource name without the slashes and the absolute path
+	 *
+	 * @param entry the resource location to analyze
+	 * @return the resource without the slashes
+	 */
+	public static @NotNull String resourceName(@NotNull UResourceEntry entry) {
+		UObject.requireNotNull(entry, "entry");
+		return resourceName(entry.path());
+	}
+	
 	/* -----------------------------------------------------
 	 * Basename methods
 	 * ----------------------------------------------------- */
@@ -197,6 +415,31 @@ public final class UResource extends UResourceImpl {
 		return basename(entry, true);
 	}
 	
+	/**
+	 * Gets the resource basename, without any extension.
+	 * This method uses the attributes stored in the entry, so the filesystem is not accessed.
+	 *
+	 * @param entry   the resource location to analyze
+	 * @param partial returns the full or partial name
+	 * @return the resource basename
+	 */
+	public static @NotNull String basename(@NotNull UResourceEntry entry, boolean partial) {
+		UObject.requireNotNull(entry, "entry");
+		return basenameImpl(entry.path().getFileName().toString(),
+							entry.isDirectory(), partial);
+	}
+	
+	/**
+	 * Gets the resource basename, without any extension.
+	 * This method uses the attributes stored in the entry, so the filesystem is not accessed.
+	 *
+	 * @param entry the resource location to analyze
+	 * @return the resource basename
+	 */
+	public static @NotNull String basename(@NotNull UResourceEntry entry) {
+		return basename(entry, true);
+	}
+	
 	/* -----------------------------------------------------
 	 * All extensions methods
 	 * ----------------------------------------------------- */
@@ -258,6 +501,26 @@ public final class UResource extends UResourceImpl {
 		return allExtensionsImpl(entry.getName());
 	}
 	
+	/**
+	 * Gets all existing extensions in a resource location.
+	 * This method uses the attributes stored in the entry, so the filesystem is not accessed.
+	 *
+	 * @param entry the resource location to analyze
+	 * @return all resource extensions
+	 * @throws IllegalArgumentException error if resource is an invalid
+	 *                                  regular file
+	 * @see UResourceEntry#isDirectory()
+	 */
+	public static String @NotNull [] allExtensions(@NotNull UResourceEntry entry) {
+		UObject.requireNotNull(entry, "entry");
+		// Check if resource is a directory
+		if (entry.isDirectory()) {
+			String errorMsg = UCommonErrorMessages.resourceTypeError("Regular File", "Directory");
+			throw new IllegalArgumentException(errorMsg);
+		}
+		return allExtensionsImpl(entry.path().getFileName().toString());
+	}
+	
 	/* -----------------------------------------------------
 	 * Extension methods
 	 * ----------------------------------------------------- */
@@ -301,6 +564,20 @@ public final class UResource extends UResourceImpl {
 		return extensionImpl(allExtensions(entry));
 	}
 	
+	/**
+	 * Gets the resource extension.
+	 * This method uses the attributes stored in the entry, so the filesystem is not accessed.
+	 *
+	 * @param entry the resource location to analyze
+	 * @return returns the resource extension or {@link Optional#empty()} if the extension not exists
+	 * @throws IllegalArgumentException error if resource is an invalid
+	 *                                  regular file
+	 * @see UResourceEntry#isDirectory()
+	 */
+	public static @NotNull Optional<String> extension(@NotNull UResourceEntry entry) {
+		return extensionImpl(allExtensions(entry));
+	}
+	
 	/* -----------------------------------------------------
 	 * Hash methods
 	 * ----------------------------------------------------- */
@@ -342,9 +619,30 @@ public final class UResource extends UResourceImpl {
 	 * @throws IOException              error to read stream content
 	 */
 	public static byte[] resourceHash(@NotNull Path path, @NotNull String algorithm) throws IOException,
+		NoSuchAlgorithmException {
+		return resourceHash(path, algorithm, FS_RESOURCE_BUFFER_SIZE_CHANNEL);
+	}
+	
+	/**
+	 * Get the hash of the given resource.
+	 * <p>
+	 * The resources of the default file system are read through a {@link FileChannel}. Large
+	 * resources are read into reusable direct buffers in chunks of (at most) {@code bufferSize} bytes
+	 * and each chunk is passed directly to the digest, so the content is never copied into the java heap.
+	 * Resources of other file systems (zip archives, {@code jrt:/} images) are read as a stream.
+	 *
+	 * @param path       the resource location
+	 * @param algorithm  hash algorithm
+	 * @param bufferSize the size of each chunk read from the resource
+	 * @return the resource hash
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @throws IOException              error to read stream content
+	 * @throws IllegalArgumentException error if {@code bufferSize} is less than or equal to zero
+	 */
+	public static byte[] resourceHash(@NotNull Path path, @NotNull String algorithm, int bufferSize) throws IOException,
 		NoSuchAlgorithmException {
 		UObject.requireNotNull(path, "path");
-		return resourceHashImpl(Files.newInputStream(path), algorithm);
+		return resourceHashImpl(path, algorithm, bufferSize);
 	}
 	
 	/**
@@ -371,7 +669,7 @@ public final class UResource extends UResourceImpl {
 	public static byte[] resourceHash(@NotNull File file, @NotNull String algorithm) throws IOException,
 		NoSuchAlgorithmException {
 		UObject.requireNotNull(file, "file");
-		return resourceHashImpl(new FileInputStream(file), algorithm);
+		return resourceHash(file.toPath(), algorithm);
 	}
 	
 	/**
@@ -417,6 +715,187 @@ public final class UResource extends UResourceImpl {
 		return resourceHash(file, entry, FS_DEFAULT_ALGORITHM);
 	}
 	
+	/* -----------------------------------------------------
+	 * Asynchronous hash methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Get the hash of the given resource without blocking the current thread.
+	 * <p>
+	 * The resource is read through an {@link AsynchronousFileChannel} with pooled direct buffers.
+	 * The next block is requested while the current block is being hashed, so the reads and the
+	 * digest overlap, and no thread is blocked waiting for the content. Many resources can be
+	 * hashed at the same time without dedicating a thread to each one.
+	 * <p>
+	 * The errors to open or read the resource (including an invalid algorithm) complete
+	 * the returned future exceptionally, this method never throws them. The file systems
+	 * without asynchronous channels (like zip or jrt) complete the future with an
+	 * {@link UnsupportedOperationException}. Cancelling the future stops the reads.
+	 *
+	 * @param path      the resource location
+	 * @param algorithm hash algorithm
+	 * @param executor  the executor that runs the read handlers
+	 * @return a future completed with the resource hash
+	 */
+	public static @NotNull CompletableFuture<byte[]> resourceHashAsync(@NotNull Path path, @NotNull String algorithm,
+		@NotNull ExecutorService executor) {
+		UObject.requireNotNull(executor, "executor");
+		return resourceHashAsyncImpl(path, algorithm, executor);
+	}
+	
+	/**
+	 * Get the hash of the given resource without blocking the current thread.
+	 * The read handlers are executed by the default thread pool of the channels.
+	 *
+	 * @param path      the resource location
+	 * @param algorithm hash algorithm
+	 * @return a future completed with the resource hash
+	 * @see #resourceHashAsync(Path, String, ExecutorService)
+	 */
+	public static @NotNull CompletableFuture<byte[]> resourceHashAsync(@NotNull Path path, @NotNull String algorithm) {
+		return resourceHashAsyncImpl(path, algorithm, null);
+	}
+	
+	/**
+	 * Get the hash of the given resource without blocking the current thread
+	 *
+	 * @param path the resource location
+	 * @return a future completed with the resource hash
+	 * @see #resourceHashAsync(Path, String, ExecutorService)
+	 */
+	public static @NotNull CompletableFuture<byte[]> resourceHashAsync(@NotNull Path path) {
+		return resourceHashAsync(path, FS_DEFAULT_ALGORITHM);
+	}
+	
+	/**
+	 * Get the hash of the given resource without blocking the current thread
+	 *
+	 * @param file      the resource location
+	 * @param algorithm hash algorithm
+	 * @return a future completed with the resource hash
+	 * @see #resourceHashAsync(Path, String, ExecutorService)
+	 */
+	public static @NotNull CompletableFuture<byte[]> resourceHashAsync(@NotNull File file, @NotNull String algorithm) {
+		UObject.requireNotNull(file, "file");
+		return resourceHashAsync(file.toPath(), algorithm);
+	}
+	
+	/**
+	 * Get the hash of the given resource without blocking the current thread
+	 *
+	 * @param file the resource location
+	 * @return a future completed with the resource hash
+	 * @see #resourceHashAsync(Path, String, ExecutorService)
+	 */
+	public static @NotNull CompletableFuture<byte[]> resourceHashAsync(@NotNull File file) {
+		return resourceHashAsync(file, FS_DEFAULT_ALGORITHM);
+	}
+	
+	/* -----------------------------------------------------
+	 * Multiple hash methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Get the hashes of the given stream. The stream content is read only once
+	 * and every chunk is used to update all the algorithms and checksums.
+	 *
+	 * @param stream     the content stream
+	 * @param algorithms all the hash algorithms
+	 * @param checksums  all the checksums to update (e.g. {@link java.util.zip.CRC32C})
+	 * @return an object with all the generated hashes
+	 * @throws NoSuchAlgorithmException error if some algorithm not exists
+	 * @throws IOException              error to read stream content
+	 * @throws IllegalArgumentException error if no algorithm or checksum is given or
+	 *                                  if two checksums have the same type
+	 */
+	public static @NotNull UResourceHashResult resourceHashes(@NotNull InputStream stream,
+		@NotNull Collection<String> algorithms, Checksum @NotNull ... checksums) throws IOException,
+		NoSuchAlgorithmException {
+		UObject.requireNotNull(stream, "stream");
+		return resourceHashesImpl(stream, algorithms, List.of(checksums), FS_RESOURCE_BUFFER_SIZE_STANDARD);
+	}
+	
+	/**
+	 * Get the hashes of the given resource. The resource content is read only once
+	 * and every chunk is used to update all the algorithms and checksums.
+	 *
+	 * @param path       the resource location
+	 * @param algorithms all the hash algorithms
+	 * @param checksums  all the checksums to update (e.g. {@link java.util.zip.CRC32C})
+	 * @param bufferSize the size of each chunk read from the resource
+	 * @return an object with all the generated hashes
+	 * @throws NoSuchAlgorithmException error if some algorithm not exists
+	 * @throws IOException              error to read resource content
+	 * @throws IllegalArgumentException error if no algorithm or checksum is given, if two
+	 *                                  checksums have the same type or if {@code bufferSize}
+	 *                                  is less than or equal to zero
+	 * @see #resourceHash(Path, String, int)
+	 */
+	public static @NotNull UResourceHashResult resourceHashes(@NotNull Path path, @NotNull Collection<String> algorithms,
+		@NotNull Collection<? extends Checksum> checksums, int bufferSize) throws IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(path, "path");
+		return resourceHashesImpl(path, algorithms, checksums, bufferSize);
+	}
+	
+	/**
+	 * Get the hashes of the given resource. The resource content is read only once
+	 * and every chunk is used to update all the algorithms and checksums.
+	 *
+	 * @param path       the resource location
+	 * @param algorithms all the hash algorithms
+	 * @param checksums  all the checksums to update (e.g. {@link java.util.zip.CRC32C})
+	 * @return an object with all the generated hashes
+	 * @throws NoSuchAlgorithmException error if some algorithm not exists
+	 * @throws IOException              error to read resource content
+	 * @throws IllegalArgumentException error if no algorithm or checksum is given or
+	 *                                  if two checksums have the same type
+	 */
+	public static @NotNull UResourceHashResult resourceHashes(@NotNull Path path, @NotNull Collection<String> algorithms,
+		Checksum @NotNull ... checksums) throws IOException, NoSuchAlgorithmException {
+		return resourceHashes(path, algorithms, List.of(checksums), FS_RESOURCE_BUFFER_SIZE_CHANNEL);
+	}
+	
+	/**
+	 * Get the hashes of the given resource. The resource content is read only once
+	 * and every chunk is used to update all the algorithms and checksums.
+	 *
+	 * @param file       the resource location
+	 * @param algorithms all the hash algorithms
+	 * @param checksums  all the checksums to update (e.g. {@link java.util.zip.CRC32C})
+	 * @return an object with all the generated hashes
+	 * @throws NoSuchAlgorithmException error if some algorithm not exists
+	 * @throws IOException              error to read resource content
+	 * @throws IllegalArgumentException error if no algorithm or checksum is given or
+	 *                                  if two checksums have the same type
+	 */
+	public static @NotNull UResourceHashResult resourceHashes(@NotNull File file, @NotNull Collection<String> algorithms,
+		Checksum @NotNull ... checksums) throws IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(file, "file");
+		return resourceHashes(file.toPath(), algorithms, checksums);
+	}
+	
+	/**
+	 * Get the hashes of the given resource. The resource content is read only once
+	 * and every chunk is used to update all the algorithms and checksums.
+	 *
+	 * @param file       the root zip file
+	 * @param entry      the resource location
+	 * @param algorithms all the hash algorithms
+	 * @param checksums  all the checksums to update (e.g. {@link java.util.zip.CRC32C})
+	 * @return an object with all the generated hashes
+	 * @throws NoSuchAlgorithmException error if some algorithm not exists
+	 * @throws IOException              error to read resource content
+	 * @throws IllegalArgumentException error if no algorithm or checksum is given or
+	 *                                  if two checksums have the same type
+	 */
+	public static @NotNull UResourceHashResult resourceHashes(@NotNull ZipFile file, @NotNull ZipEntry entry,
+		@NotNull Collection<String> algorithms, Checksum @NotNull ... checksums) throws IOException,
+		NoSuchAlgorithmException {
+		UObject.requireNotNull(file, "file");
+		UObject.requireNotNull(entry, "entry");
+		return resourceHashes(file.getInputStream(entry), algorithms, checksums);
+	}
+	
 	/* -----------------------------------------------------
 	 * Hash string methods
 	 * ----------------------------------------------------- */
@@ -430,9 +909,7 @@ public final class UResource extends UResourceImpl {
 	 */
 	public static @NotNull String resourceHashStr(byte[] hash) {
 		UObject.requireNotNull(hash, "hash");
-		return Arrays.stream(UArray.toObjectArray(hash))
-			.map(it -> String.format("%02x", it))
-			.collect(Collectors.joining());
+		return UHex.toHexString(hash);
 	}
 	
 	/**
@@ -484,11 +961,18 @@ public final class UResource extends UResourceImpl {
 	}
 	
 	/**
-	 * Gets a valid file system depending on the scheme of the given url
+	 * Gets a valid file system depending on the scheme of the given url.
+	 * <p>
+	 * Virtual file systems (such as jar files) are cached by archive, so each archive is opened only
+	 * once and remains open until it is disposed. This method does not add a reference to the file
+	 * system, so when an idle timeout is defined, the file system is closed once it is not accessed
+	 * during that time. If the file system must remain open in that case, use
+	 * {@link #acquireFileSystem(URI)} instead.
 	 *
 	 * @param uri the url to inspect
 	 * @return valid filesystem
 	 * @throws IOException error if url schema is not supported
+	 * @see #setFilesystemIdleTimeout(long, TimeUnit)
 	 */
 	public static @NotNull FileSystem fileSystem(@NotNull URI uri) throws IOException {
 		String resourceScheme = uri.getScheme();
@@ -497,26 +981,77 @@ public final class UResource extends UResourceImpl {
 			case "file":
 				return Path.of(uri).getFileSystem();
 			case "jar":
-				FileSystem fs = FileSystems.newFileSystem(uri, Collections.emptyMap());
-				// Check if filesystem is defined
-				Optional<FileSystem> fsExists = cachedFileSystems.stream()
-					.filter(fs::equals)
-					.findFirst();
-				
-				// Close the newest filesystem
-				if (fsExists.isPresent()) {
-					fs.close();
-					return fsExists.get();
-				}
-				
-				cachedFileSystems.add(fs);
-				return fs;
+				return cachedFileSystems.access(uri);
 			default:
 				String messageError = UCommonErrorMessages.schemeNotSupportedError(resourceScheme);
 				throw new IOException(messageError);
 		}
 	}
 	
+	/**
+	 * Gets a valid file system depending on the scheme of the given url and adds a reference to it.
+	 * <p>
+	 * Virtual file systems (such as jar files) are never closed because of the idle timeout while the
+	 * returned lease is open. Closing the lease removes the reference, but the file system remains
+	 * cached until it exceeds the idle timeout (if defined) or it is disposed.
+	 *
+	 * @param uri the url to inspect
+	 * @return a lease of the filesystem
+	 * @throws IOException error if url schema is not supported
+	 * @see #fileSystem(URI)
+	 */
+	public static @NotNull UFileSystemLease acquireFileSystem(@NotNull URI uri) throws IOException {
+		String resourceScheme = uri.getScheme();
+		
+		if ("jar".equals(resourceScheme)) {
+			return new UFileSystemLease(cachedFileSystems.acquire(uri), cachedFileSystems::release);
+		}
+		// Non-cached file systems do not need references
+		return new UFileSystemLease(fileSystem(uri), it -> {});
+	}
+	
+	/**
+	 * Maximum time that a cached file system without references is kept open
+	 *
+	 * @param unit the time unit of the result
+	 * @return the idle timeout or {@link #FILESYSTEM_IDLE_DISABLED} if the idle eviction is disabled
+	 */
+	public static long filesystemIdleTimeout(@NotNull TimeUnit unit) {
+		return cachedFileSystems.idleTimeout(unit);
+	}
+	
+	/**
+	 * Changes the maximum time that a cached file system without references is kept open.
+	 * The idle eviction is disabled by default, so the cached file systems remain open until
+	 * they are disposed.
+	 *
+	 * @param timeout the idle timeout or {@link #FILESYSTEM_IDLE_DISABLED} to disable the idle eviction
+	 * @param unit    the time unit of the timeout
+	 * @throws IllegalArgumentException error if {@code timeout} is negative and is not
+	 *                                  {@link #FILESYSTEM_IDLE_DISABLED}
+	 */
+	public static void setFilesystemIdleTimeout(long timeout, @NotNull TimeUnit unit) {
+		cachedFileSystems.setIdleTimeout(timeout, unit);
+	}
+	
+	/**
+	 * Closes all the cached file systems without references that exceeded the idle timeout
+	 *
+	 * @return the number of closed file systems
+	 */
+	public static int evictIdleFilesystems() {
+		return cachedFileSystems.evictIdle();
+	}
+	
+	/**
+	 * Gets the usage information of the cached file systems
+	 *
+	 * @return the cache metrics
+	 */
+	public static @NotNull UFileSystemCacheMetrics filesystemCacheMetrics() {
+		return cachedFileSystems.metrics();
+	}
+	
 	/**
 	 * Releases connections to all virtual file systems created by the {@link #pathOf(URI)} method for jar or jrt files.
 	 * <p>
@@ -528,27 +1063,12 @@ public final class UResource extends UResourceImpl {
 	
 	/**
 	 * Releases connections to all virtual file systems created by the {@link #pathOf(URI)} method for jar or jrt files.
+	 * The file systems are released even if they have active references.
 	 *
 	 * @param filter The action responsible for filtering the elements that must be deleted.
 	 */
 	public static void disposeFilesystemsIf(@NotNull Function<FileSystem, Boolean> filter) {
-		// Generate iterator
-		var iterator = cachedFileSystems.iterator();
-		
-		// We iterate all the elements in this way because it is easier to eliminate
-		// elements at the same time as iterating.
-		while (iterator.hasNext()) {
-			FileSystem fs = iterator.next();
-			
-			if (filter.apply(fs)) {
-				try {
-					if (fs.isOpen()) fs.close();
-				} catch (Exception e) {
-					LOG.log(ULogger.logError(e));
-				}
-				iterator.remove();
-			}
-		}
+		cachedFileSystems.disposeIf(filter);
 	}
 	
 	/* -----------------------------------------------------
@@ -576,6 +1096,8 @@ public final class UResource extends UResourceImpl {
 	 * Gets the path of an uri in the file system (if the scheme is supported).
 	 * <p>
 	 * If the schema is a jar file, the virtual representation of the file as a directory will be returned.
+	 * The archive is opened only once and the path remains valid until its file system is disposed
+	 * or, if an idle timeout is defined, exceeds that time without being accessed (see {@link #fileSystem(URI)}).
 	 * <p>
 	 * <strong>Important</strong><p>
 	 * For files within a {@code "jrt"} file system it is necessary to recreate the URI object for it to work correctly. If it is
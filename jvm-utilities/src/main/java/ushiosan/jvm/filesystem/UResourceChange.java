@@ -0,0 +1,22 @@
+package ushiosan.jvm.filesystem;
+
+/**
+ * Enumerated type for listing the changes found when
+ * two versions of the same resource tree are compared
+ */
+public enum UResourceChange {
+	/**
+	 * The resource only exists in the new version
+	 */
+	ADDED,
+	
+	/**
+	 * The resource only exists in the old version
+	 */
+	REMOVED,
+	
+	/**
+	 * The resource exists in both versions, but its content is different
+	 */
+	MODIFIED
+}
@@ -0,0 +1,24 @@
+package ushiosan.jvm.filesystem;
+
+/**
+ * Enumerated type for listing the strategies used to decide
+ * if a resource must be copied again
+ *
+ * @see UResourceCopier
+ */
+public enum UResourceComparison {
+	/**
+	 * The resource is always copied
+	 */
+	ALWAYS,
+	
+	/**
+	 * The resource is skipped when the destination has the same size and modification time
+	 */
+	METADATA,
+	
+	/**
+	 * The resource is skipped when the destination has the same size and content digest
+	 */
+	DIGEST
+}
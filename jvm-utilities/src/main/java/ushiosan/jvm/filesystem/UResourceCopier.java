@@ -0,0 +1,816 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.internal.validators.UResourceValidator;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service used to copy and mirror resources.
+ * <p>
+ * The content is moved with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * so the operating system copies the bytes directly between the files without passing them
+ * through the java heap. The files of a directory tree are copied concurrently, starting
+ * with the largest ones, and the files that did not change since the last copy are skipped
+ * according to the {@link #comparison()} strategy.
+ * <p>
+ * Every file is written into a temporary file of the destination directory and moved
+ * into place once it is complete (and verified), so a failed copy never leaves a
+ * truncated destination behind.
+ * <p>
+ * Symbolic links are never followed: they are copied as links with the same target.
+ * Other special elements (devices, sockets, etc.) are ignored, but they are never
+ * removed from the destination by {@link #mirror(Path, Path)}. The instance also
+ * collects statistics of all the operations.
+ *
+ * <pre>{@code
+ * UResourceCopier copier = UResourceCopier.generate()
+ *     .setComparison(UResourceComparison.METADATA)
+ *     .setVerify(true);
+ *
+ * copier.mirror(Path.of("build/dist"), Path.of("/srv/app"));
+ * System.out.println(copier.resourcesCopied() + " copied, " + copier.resourcesSkipped() + " skipped");
+ * }</pre>
+ */
+public final class UResourceCopier extends UResourceValidator {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Total number of copied bytes
+	 */
+	private final LongAdder bytesCopied = new LongAdder();
+	
+	/**
+	 * Total number of copied files
+	 */
+	private final LongAdder resourcesCopied = new LongAdder();
+	
+	/**
+	 * Total number of files skipped because they did not change
+	 */
+	private final LongAdder resourcesSkipped = new LongAdder();
+	
+	/**
+	 * Total number of elements removed from the destinations
+	 */
+	private final LongAdder resourcesDeleted = new LongAdder();
+	
+	/**
+	 * Total time (in nanoseconds) spent by all the finished operations
+	 */
+	private final LongAdder elapsedTime = new LongAdder();
+	
+	/**
+	 * Strategy used to skip the files that did not change
+	 */
+	private UResourceComparison comparison;
+	
+	/**
+	 * Hash algorithm used to compare and verify the files
+	 */
+	private String algorithm;
+	
+	/**
+	 * Number of workers used to copy the files
+	 */
+	private int parallelism;
+	
+	/**
+	 * Determines if every copied file is verified with its digest
+	 */
+	private boolean verify;
+	
+	/**
+	 * Determines if the copied files keep the modification time of the original files
+	 */
+	private boolean preserveTimes;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 */
+	private UResourceCopier() {
+		comparison = UResourceComparison.METADATA;
+		algorithm = FS_DEFAULT_ALGORITHM;
+		parallelism = FS_DEFAULT_PARALLELISM;
+		preserveTimes = true;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a new copier instance with the default configuration
+	 *
+	 * @return a new copier instance
+	 */
+	@Contract(" -> new")
+	public static @NotNull UResourceCopier generate() {
+		return new UResourceCopier();
+	}
+	
+	/**
+	 * Strategy used to skip the files that did not change
+	 *
+	 * @return the comparison strategy
+	 */
+	public @NotNull UResourceComparison comparison() {
+		return comparison;
+	}
+	
+	/**
+	 * Changes the comparison strategy on the current instance.
+	 *
+	 * @param comparison the comparison strategy
+	 * @return the same current instance
+	 */
+	public @NotNull UResourceCopier setComparison(@NotNull UResourceComparison comparison) {
+		UObject.requireNotNull(comparison, "comparison");
+		this.comparison = comparison;
+		return this;
+	}
+	
+	/**
+	 * Hash algorithm used to compare and verify the files
+	 *
+	 * @return the hash algorithm
+	 */
+	public @NotNull String algorithm() {
+		return algorithm;
+	}
+	
+	/**
+	 * Changes the hash algorithm on the current instance.
+	 *
+	 * @param algorithm the hash algorithm
+	 * @return the same current instance
+	 */
+	public @NotNull UResourceCopier setAlgorithm(@NotNull String algorithm) {
+		UObject.requireNotNull(algorithm, "algorithm");
+		this.algorithm = algorithm;
+		return this;
+	}
+	
+	/**
+	 * Number of workers used to copy the files
+	 *
+	 * @return the number of workers
+	 */
+	public int parallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * Changes the number of workers on the current instance.
+	 *
+	 * @param parallelism the number of workers
+	 * @return the same current instance
+	 * @throws IllegalArgumentException error if {@code parallelism} is less than or equal to zero
+	 */
+	public @NotNull UResourceCopier setParallelism(int parallelism) {
+		if (parallelism <= 0) throw new IllegalArgumentException("The parallelism must be greater than zero");
+		this.parallelism = parallelism;
+		return this;
+	}
+	
+	/**
+	 * Determines if every copied file is verified with its digest
+	 *
+	 * @return {@code true} if the copies are verified or {@code false} otherwise
+	 */
+	public boolean verify() {
+		return verify;
+	}
+	
+	/**
+	 * Changes the verification of the copies on the current instance. When it is enabled,
+	 * the source digest is calculated while the content is copied (or reused from the
+	 * {@link UResourceComparison#DIGEST} strategy), and the copy is read once more to
+	 * compare its digest before it is moved into place.
+	 *
+	 * @param verify the verification state
+	 * @return the same current instance
+	 */
+	public @NotNull UResourceCopier setVerify(boolean verify) {
+		this.verify = verify;
+		return this;
+	}
+	
+	/**
+	 * Determines if the copied files keep the modification time of the original files
+	 *
+	 * @return {@code true} if the modification time is preserved or {@code false} otherwise
+	 */
+	public boolean preserveTimes() {
+		return preserveTimes;
+	}
+	
+	/**
+	 * Changes the preservation of the modification time on the current instance. The
+	 * {@link UResourceComparison#METADATA} strategy only skips the files when the times are preserved.
+	 *
+	 * @param preserveTimes the preservation state
+	 * @return the same current instance
+	 */
+	public @NotNull UResourceCopier setPreserveTimes(boolean preserveTimes) {
+		this.preserveTimes = preserveTimes;
+		return this;
+	}
+	
+	/**
+	 * Copies a file or a complete directory tree. The existing elements of the
+	 * destination that do not exist in the source are kept.
+	 *
+	 * @param source the file or directory to copy
+	 * @param target the destination location
+	 * @return the number of copied files and links (the skipped elements are not included)
+	 * @throws IOException              error if some element cannot be read, written or verified
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 * @throws IllegalArgumentException error if the source and the destination are the same element
+	 */
+	public long copy(@NotNull Path source, @NotNull Path target) throws IOException, NoSuchAlgorithmException {
+		return transferImpl(source, target, false);
+	}
+	
+	/**
+	 * Copies a file or a complete directory tree and removes all the elements of the
+	 * destination that do not exist in the source, so both trees end up being equal.
+	 *
+	 * @param source the file or directory to copy
+	 * @param target the destination location
+	 * @return the number of copied files and links (the skipped elements are not included)
+	 * @throws IOException              error if some element cannot be read, written, verified or removed
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 * @throws IllegalArgumentException error if the source and the destination are the same element
+	 *                                  or if the destination is inside the source directory
+	 */
+	public long mirror(@NotNull Path source, @NotNull Path target) throws IOException, NoSuchAlgorithmException {
+		return transferImpl(source, target, true);
+	}
+	
+	/**
+	 * Total number of copied bytes
+	 *
+	 * @return the number of copied bytes
+	 */
+	public long bytesCopied() {
+		return bytesCopied.sum();
+	}
+	
+	/**
+	 * Total number of copied files and symbolic links
+	 *
+	 * @return the number of copied elements
+	 */
+	public long resourcesCopied() {
+		return resourcesCopied.sum();
+	}
+	
+	/**
+	 * Total number of files skipped because they did not change
+	 *
+	 * @return the number of skipped files
+	 */
+	public long resourcesSkipped() {
+		return resourcesSkipped.sum();
+	}
+	
+	/**
+	 * Total number of elements removed from the destinations by the mirror operations
+	 *
+	 * @return the number of removed elements
+	 */
+	public long resourcesDeleted() {
+		return resourcesDeleted.sum();
+	}
+	
+	/**
+	 * Total time (in nanoseconds) spent by all the finished operations
+	 *
+	 * @return the spent time
+	 */
+	public long elapsedTime() {
+		return elapsedTime.sum();
+	}
+	
+	/**
+	 * Removes all the collected statistics
+	 */
+	public void resetStatistics() {
+		bytesCopied.reset();
+		resourcesCopied.reset();
+		resourcesSkipped.reset();
+		resourcesDeleted.reset();
+		elapsedTime.reset();
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Copies or mirrors a file or a directory tree
+	 *
+	 * @param source the file or directory to copy
+	 * @param target the destination location
+	 * @param mirror determines if the extraneous elements of the destination are removed
+	 * @return the number of copied files
+	 * @throws IOException              error if some element cannot be read, written, verified or removed
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	private long transferImpl(@NotNull Path source, @NotNull Path target, boolean mirror) throws IOException,
+		NoSuchAlgorithmException {
+		UObject.requireNotNull(source, "source");
+		UObject.requireNotNull(target, "target");
+		// Verify the algorithm before any element is copied
+		if (verify || comparison == UResourceComparison.DIGEST) MessageDigest.getInstance(algorithm);
+		
+		// Temporal variables
+		final long start = System.nanoTime();
+		long copiedBefore = resourcesCopied();
+		
+		try {
+			var attributes = Files.readAttributes(source, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+			checkLocationsImpl(source, target, mirror && attributes.isDirectory());
+			if (!attributes.isDirectory()) {
+				if (mirror) deleteMismatchImpl(target, false);
+				if (target.getParent() != null) Files.createDirectories(target.getParent());
+				copyElementImpl(source, attributes, target);
+				return resourcesCopied() - copiedBefore;
+			}
+			
+			// Read the complete source tree with its attributes. The special elements
+			// are not copied, but they are kept to protect them from the mirror.
+			List<UResourceEntry> entries;
+			try (Stream<UResourceEntry> stream = UResource.resourceWalkAttributesParallel(source, true, parallelism)) {
+				entries = stream.collect(Collectors.toList());
+			}
+			if (mirror) deleteExtraneousImpl(source, target, entries);
+			
+			// The directories are created before any file, parents first
+			List<UResourceEntry> files = new ArrayList<>(entries.size());
+			entries.stream()
+				.filter(UResourceEntry::isDirectory)
+				.sorted(Comparator.comparingInt(it -> it.path().getNameCount()))
+				.forEach(it -> createDirectoryImpl(target, source.relativize(it.path())));
+			for (var entry : entries) {
+				if (entry.isRegularFile() || entry.isSymbolicLink()) files.add(entry);
+			}
+			
+			copyFilesImpl(source, target, files);
+			return resourcesCopied() - copiedBefore;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			elapsedTime.add(System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Copies all the given files concurrently. The largest files are copied first,
+	 * so a single large file does not delay the rest.
+	 *
+	 * @param source the source directory
+	 * @param target the destination directory
+	 * @param files  all the files to copy
+	 * @throws IOException              error if some file cannot be copied
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	private void copyFilesImpl(@NotNull Path source, @NotNull Path target, @NotNull List<UResourceEntry> files)
+		throws IOException, NoSuchAlgorithmException {
+		if (files.isEmpty()) return;
+		// Temporal variables
+		int workers = Math.max(1, Math.min(parallelism, files.size()));
+		List<UResourceEntry> ordered = new ArrayList<>(files);
+		ordered.sort(Comparator.comparingLong(UResourceEntry::size).reversed());
+		Queue<UResourceEntry> queue = new ConcurrentLinkedQueue<>(ordered);
+		
+		// Every worker takes files from the shared queue until it is empty
+		Callable<Void> worker = () -> {
+			try {
+				UResourceEntry entry;
+				while ((entry = queue.poll()) != null) {
+					Path destination = resolveImpl(target, source.relativize(entry.path()));
+					copyElementImpl(entry.path(), entry.attributes(), destination);
+				}
+			} catch (Exception e) {
+				// The rest of the workers stop as soon as possible
+				queue.clear();
+				throw e;
+			}
+			return null;
+		};
+		
+		ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+			Thread thread = new Thread(runnable, "resource-copier");
+			thread.setDaemon(true);
+			return thread;
+		});
+		CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+		try {
+			for (int i = 0; i < workers; i++) {
+				completion.submit(worker);
+			}
+			// The first failure is reported without waiting for the rest of the workers
+			for (int i = 0; i < workers; i++) {
+				completion.take().get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.getMessage());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof NoSuchAlgorithmException) throw (NoSuchAlgorithmException) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} finally {
+			queue.clear();
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Copies a single file or symbolic link if it is different from the destination
+	 *
+	 * @param source     the element to copy
+	 * @param attributes the element attributes
+	 * @param target     the destination location
+	 * @throws IOException              error if the element cannot be copied or verified
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	private void copyElementImpl(@NotNull Path source, @NotNull BasicFileAttributes attributes, @NotNull Path target)
+		throws IOException, NoSuchAlgorithmException {
+		if (attributes.isSymbolicLink()) {
+			copyLinkImpl(source, target);
+		} else if (attributes.isRegularFile()) {
+			copyFileImpl(source, attributes, target);
+		}
+	}
+	
+	/**
+	 * Copies a symbolic link if its target is different from the destination link.
+	 * The link is copied as it is, the element that it references is not copied.
+	 *
+	 * @param source the link to copy
+	 * @param target the destination location
+	 * @throws IOException error if the link cannot be read or created
+	 */
+	private void copyLinkImpl(@NotNull Path source, @NotNull Path target) throws IOException {
+		// Temporal variables
+		Path reference = Files.readSymbolicLink(source);
+		BasicFileAttributes targetAttributes = readAttributesImpl(target);
+		
+		if (targetAttributes != null && targetAttributes.isSymbolicLink() &&
+			Files.readSymbolicLink(target).toString().equals(reference.toString())) {
+			resourcesSkipped.increment();
+			return;
+		}
+		
+		// The link is created with a temporary name and moved into place
+		Path temporal = temporalFileImpl(target);
+		try {
+			Files.createSymbolicLink(temporal, target.getFileSystem().getPath(reference.toString()));
+			moveImpl(temporal, target);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temporal);
+			throw e;
+		}
+		resourcesCopied.increment();
+	}
+	
+	/**
+	 * Copies a single file if it is different from the destination
+	 *
+	 * @param source     the file to copy
+	 * @param attributes the file attributes
+	 * @param target     the destination file
+	 * @throws IOException              error if the file cannot be copied or verified
+	 * @throws NoSuchAlgorithmException error if the hash algorithm not exists
+	 */
+	private void copyFileImpl(@NotNull Path source, @NotNull BasicFileAttributes attributes, @NotNull Path target)
+		throws IOException, NoSuchAlgorithmException {
+		// Temporal variables
+		byte[] sourceDigest = null;
+		BasicFileAttributes targetAttributes = readAttributesImpl(target);
+		
+		if (targetAttributes != null && targetAttributes.isRegularFile() && targetAttributes.size() == attributes.size()) {
+			switch (comparison) {
+				case METADATA:
+					if (targetAttributes.lastModifiedTime().equals(attributes.lastModifiedTime())) {
+						resourcesSkipped.increment();
+						return;
+					}
+					break;
+				case DIGEST:
+					sourceDigest = UResource.resourceHash(source, algorithm);
+					if (MessageDigest.isEqual(sourceDigest, UResource.resourceHash(target, algorithm))) {
+						resourcesSkipped.increment();
+						return;
+					}
+					break;
+				default:
+					break;
+			}
+		}
+		
+		// The content is written into a temporary file and moved into place when it is complete
+		long copied;
+		Path temporal = temporalFileImpl(target);
+		try {
+			// The source digest is calculated while the content is copied, unless it is already known
+			MessageDigest digest = verify && sourceDigest == null ? MessageDigest.getInstance(algorithm) : null;
+			try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+				 FileChannel output = FileChannel.open(temporal, StandardOpenOption.CREATE_NEW,
+													   StandardOpenOption.WRITE)) {
+				copied = digest == null ? transferChannelImpl(input, output) :
+					transferBufferedImpl(input, output, 0L, digest);
+			}
+			
+			if (verify) {
+				if (sourceDigest == null) sourceDigest = digest.digest();
+				if (!MessageDigest.isEqual(sourceDigest, UResource.resourceHash(temporal, algorithm))) {
+					throw new IOException("The copy of \"" + source + "\" is corrupted: " + target);
+				}
+			}
+			if (preserveTimes) Files.setLastModifiedTime(temporal, attributes.lastModifiedTime());
+			moveImpl(temporal, target);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temporal);
+			throw e;
+		}
+		bytesCopied.add(copied);
+		resourcesCopied.increment();
+	}
+	
+	/**
+	 * Copies the content of a channel into another channel. The operating system moves
+	 * the bytes between both files, and if it stops making progress before the end of
+	 * the source, the rest of the content is copied through a buffer.
+	 *
+	 * @param input  the source channel
+	 * @param output the destination channel
+	 * @return the number of copied bytes
+	 * @throws IOException error if the content cannot be copied
+	 */
+	private static long transferChannelImpl(@NotNull FileChannel input, @NotNull FileChannel output)
+		throws IOException {
+		// Temporal variables
+		long copied = 0L;
+		long size = input.size();
+		
+		while (copied < size) {
+			long transferred = input.transferTo(copied, size - copied, output);
+			if (transferred <= 0) {
+				return copied + transferBufferedImpl(input, output, copied, null);
+			}
+			copied += transferred;
+		}
+		return copied;
+	}
+	
+	/**
+	 * Copies the content of a channel into another channel through a pooled buffer. The copy
+	 * ends when the end of the source is reached, even if the source was truncated.
+	 *
+	 * @param input    the source channel
+	 * @param output   the destination channel
+	 * @param position the first byte of the source to copy
+	 * @param digest   the digest updated with the copied content or {@code null} to ignore it
+	 * @return the number of copied bytes
+	 * @throws IOException error if the content cannot be copied
+	 */
+	private static long transferBufferedImpl(@NotNull FileChannel input, @NotNull FileChannel output, long position,
+		@Nullable MessageDigest digest) throws IOException {
+		// Temporal variables
+		ByteBuffer buffer = channelBufferPool.acquire();
+		long copied = 0L;
+		int read;
+		
+		try {
+			while ((read = input.read(buffer, position + copied)) != -1) {
+				buffer.flip();
+				if (digest != null) {
+					digest.update(buffer);
+					buffer.rewind();
+				}
+				while (buffer.hasRemaining()) output.write(buffer, position + copied + buffer.position());
+				copied += read;
+				buffer.clear();
+			}
+		} finally {
+			channelBufferPool.release(buffer);
+		}
+		return copied;
+	}
+	
+	/**
+	 * Removes all the elements of the destination tree that do not exist in the
+	 * source tree or whose type is different
+	 *
+	 * @param source  the source directory
+	 * @param target  the destination directory
+	 * @param entries all the elements of the source tree
+	 * @throws IOException error if some element cannot be removed
+	 */
+	private void deleteExtraneousImpl(@NotNull Path source, @NotNull Path target,
+		@NotNull List<UResourceEntry> entries) throws IOException {
+		if (deleteMismatchImpl(target, true)) return;
+		// Temporal variables
+		Map<String, Boolean> expected = new HashMap<>(Math.max(16, entries.size() * 2));
+		for (var entry : entries) {
+			expected.put(source.relativize(entry.path()).toString(), entry.isDirectory());
+		}
+		
+		List<Path> extraneous;
+		try (Stream<UResourceEntry> stream = UResource.resourceWalkAttributes(target, true)) {
+			extraneous = stream.filter(it -> !it.path().equals(target))
+				.filter(it -> {
+					Boolean directory = expected.get(target.relativize(it.path()).toString());
+					return directory == null || directory != it.isDirectory();
+				})
+				.map(UResourceEntry::path)
+				.collect(Collectors.toList());
+		}
+		for (Path path : extraneous) {
+			deleteTreeImpl(path);
+		}
+	}
+	
+	/**
+	 * Removes the destination if its type is different from the expected type
+	 *
+	 * @param target    the destination location
+	 * @param directory determines if the destination must be a directory
+	 * @return {@code true} if the destination not exists (or was removed) or {@code false} otherwise
+	 * @throws IOException error if the destination cannot be removed
+	 */
+	private boolean deleteMismatchImpl(@NotNull Path target, boolean directory) throws IOException {
+		BasicFileAttributes attributes = readAttributesImpl(target);
+		if (attributes == null) return true;
+		if (attributes.isDirectory() == directory) return false;
+		
+		deleteTreeImpl(target);
+		return true;
+	}
+	
+	/**
+	 * Removes an element and all its content
+	 *
+	 * @param path the element to remove
+	 * @throws IOException error if some element cannot be removed
+	 */
+	private void deleteTreeImpl(@NotNull Path path) throws IOException {
+		List<Path> elements;
+		try (Stream<Path> stream = Files.walk(path)) {
+			elements = stream.sorted(Comparator.reverseOrder())
+				.collect(Collectors.toList());
+		} catch (NoSuchFileException e) {
+			// Already removed with its parent
+			return;
+		}
+		for (Path element : elements) {
+			if (Files.deleteIfExists(element)) resourcesDeleted.increment();
+		}
+	}
+	
+	/**
+	 * Checks that the destination can be written without destroying the source
+	 *
+	 * @param source the file or directory to copy
+	 * @param target the destination location
+	 * @param nested determines if a destination inside the source is rejected
+	 * @throws IOException              error if the locations cannot be resolved
+	 * @throws IllegalArgumentException error if the source and the destination are the same element
+	 *                                  or if the destination is inside the source
+	 */
+	private static void checkLocationsImpl(@NotNull Path source, @NotNull Path target, boolean nested)
+		throws IOException {
+		if (Files.exists(target, LinkOption.NOFOLLOW_LINKS) && Files.isSameFile(source, target)) {
+			throw new IllegalArgumentException("The source and the target are the same element: " + source);
+		}
+		if (!nested || source.getFileSystem() != target.getFileSystem()) return;
+		
+		if (realPathImpl(target).startsWith(source.toRealPath())) {
+			throw new IllegalArgumentException("The target \"" + target + "\" is inside the source: " + source);
+		}
+	}
+	
+	/**
+	 * Resolves the real location of an element that may not exist yet. The deepest
+	 * existing parent is resolved and the rest of the location is appended to it.
+	 *
+	 * @param path the element location
+	 * @return the real location of the element
+	 * @throws IOException error if the location cannot be resolved
+	 */
+	private static @NotNull Path realPathImpl(@NotNull Path path) throws IOException {
+		// Temporal variables
+		Path absolute = path.toAbsolutePath().normalize();
+		Path existing = absolute;
+		
+		while (existing != null && !Files.exists(existing)) {
+			existing = existing.getParent();
+		}
+		if (existing == null) return absolute;
+		return existing.toRealPath().resolve(existing.relativize(absolute));
+	}
+	
+	/**
+	 * Generates a new location for the temporary copy of a file. The location is placed
+	 * in the same directory as the destination, so it can be moved without copying it again.
+	 *
+	 * @param target the destination file
+	 * @return the temporary location
+	 */
+	private static @NotNull Path temporalFileImpl(@NotNull Path target) {
+		// Temporal variables
+		Path absolute = target.toAbsolutePath();
+		String name = absolute.getFileName() == null ? "" : absolute.getFileName().toString();
+		String suffix = Long.toHexString(ThreadLocalRandom.current().nextLong());
+		
+		return absolute.resolveSibling("." + name + "." + suffix + ".tmp");
+	}
+	
+	/**
+	 * Moves a complete copy into its destination, replacing the previous file
+	 *
+	 * @param temporal the temporary copy
+	 * @param target   the destination file
+	 * @throws IOException error if the copy cannot be moved
+	 */
+	private static void moveImpl(@NotNull Path temporal, @NotNull Path target) throws IOException {
+		try {
+			Files.move(temporal, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporal, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	/**
+	 * Creates a directory of the destination tree
+	 *
+	 * @param target   the destination directory
+	 * @param relative the directory location relative to the source directory
+	 * @throws UncheckedIOException error if the directory cannot be created
+	 */
+	private static void createDirectoryImpl(@NotNull Path target, @NotNull Path relative) {
+		try {
+			Files.createDirectories(resolveImpl(target, relative));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Resolves a relative location inside the destination. The location is resolved as
+	 * text, so the source and the destination can belong to different filesystems.
+	 *
+	 * @param target   the destination directory
+	 * @param relative the location relative to the source directory
+	 * @return the destination location
+	 */
+	private static @NotNull Path resolveImpl(@NotNull Path target, @NotNull Path relative) {
+		return target.resolve(relative.toString());
+	}
+	
+	/**
+	 * Reads the attributes of an element without following symbolic links
+	 *
+	 * @param path the element location
+	 * @return the element attributes or {@code null} if the element not exists
+	 * @throws IOException error if the attributes cannot be read
+	 */
+	private static @Nullable BasicFileAttributes readAttributesImpl(@NotNull Path path) throws IOException {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+	
+}
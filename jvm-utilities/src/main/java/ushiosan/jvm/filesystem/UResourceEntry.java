@@ -0,0 +1,189 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Immutable object used to represent a resource location together with its attributes.
+ * The attributes are read only once (usually while the directory tree is walked), so
+ * all the operations that require the resource metadata do not need to access the
+ * filesystem again.
+ */
+public final class UResourceEntry {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The resource location
+	 */
+	private final Path path;
+	
+	/**
+	 * The resource attributes
+	 */
+	private final BasicFileAttributes attributes;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param path       the resource location
+	 * @param attributes the resource attributes
+	 */
+	public UResourceEntry(@NotNull Path path, @NotNull BasicFileAttributes attributes) {
+		UObject.requireNotNull(path, "path");
+		UObject.requireNotNull(attributes, "attributes");
+		this.path = path;
+		this.attributes = attributes;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Shortcut entry instance
+	 *
+	 * @param path       the resource location
+	 * @param attributes the resource attributes
+	 * @return instance of {@link UResourceEntry} class
+	 */
+	@Contract(value = "_, _ -> new", pure = true)
+	public static @NotNull UResourceEntry make(@NotNull Path path, @NotNull BasicFileAttributes attributes) {
+		return new UResourceEntry(path, attributes);
+	}
+	
+	/**
+	 * Reads the attributes of the given location and generates a new entry.
+	 *
+	 * @param path    the resource location
+	 * @param options options indicating how symbolic links are handled
+	 * @return instance of {@link UResourceEntry} class
+	 * @throws IOException error if the resource attributes cannot be read
+	 */
+	@Contract("_, _ -> new")
+	public static @NotNull UResourceEntry of(@NotNull Path path, LinkOption @NotNull ... options) throws IOException {
+		UObject.requireNotNull(path, "path");
+		return make(path, Files.readAttributes(path, BasicFileAttributes.class, options));
+	}
+	
+	/**
+	 * The resource location
+	 *
+	 * @return the resource location
+	 */
+	public @NotNull Path path() {
+		return path;
+	}
+	
+	/**
+	 * The resource attributes
+	 *
+	 * @return the resource attributes
+	 */
+	public @NotNull BasicFileAttributes attributes() {
+		return attributes;
+	}
+	
+	/**
+	 * Checks if the resource is a directory
+	 *
+	 * @return {@code true} if the resource is a directory or {@code false} otherwise
+	 */
+	public boolean isDirectory() {
+		return attributes.isDirectory();
+	}
+	
+	/**
+	 * Checks if the resource is a regular file
+	 *
+	 * @return {@code true} if the resource is a regular file or {@code false} otherwise
+	 */
+	public boolean isRegularFile() {
+		return attributes.isRegularFile();
+	}
+	
+	/**
+	 * Checks if the resource is a symbolic link. It is only possible when
+	 * the attributes were read without following the links.
+	 *
+	 * @return {@code true} if the resource is a symbolic link or {@code false} otherwise
+	 */
+	public boolean isSymbolicLink() {
+		return attributes.isSymbolicLink();
+	}
+	
+	/**
+	 * The resource size (in bytes)
+	 *
+	 * @return the resource size
+	 */
+	public long size() {
+		return attributes.size();
+	}
+	
+	/**
+	 * The resource last modification time
+	 *
+	 * @return the last modification time
+	 */
+	public @NotNull FileTime lastModifiedTime() {
+		return attributes.lastModifiedTime();
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Indicates whether some other object is "equal to" this one.
+	 * Two entries are equal when both refer to the same location.
+	 *
+	 * @param obj the reference object with which to compare.
+	 * @return {@code true} if this object is the same as the obj
+	 * 	argument; {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		if (obj == null || !UObject.canCast(obj, getClass())) return false;
+		
+		UResourceEntry entry = UObject.cast(obj);
+		return path.equals(entry.path);
+	}
+	
+	/**
+	 * Returns a hash code value for the object.
+	 *
+	 * @return a hash code value for this object.
+	 */
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("%s (%s, %d bytes)", path,
+							 isDirectory() ? "directory" : "file", size());
+	}
+	
+}
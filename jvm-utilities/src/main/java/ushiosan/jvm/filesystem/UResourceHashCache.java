@@ -0,0 +1,344 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.content.UPair;
+import ushiosan.jvm.internal.filesystem.UResourceHashCacheEntry;
+import ushiosan.jvm.internal.validators.UResourceValidator;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache used to avoid hashing resources that were not modified.
+ * <p>
+ * Every hash is stored together with the resource size, last modification time and
+ * file key (when the filesystem supports it). When the same resource is requested
+ * again, only its attributes are read; if they did not change, the stored hash is
+ * returned without reading the resource content.
+ * <p>
+ * The cache keeps at most {@link #capacity()} entries in memory and removes the least
+ * recently used entries first. The content can be persisted to a compact local file with
+ * {@link #save(Path)} and restored with {@link #load(Path)}, so the hashes survive
+ * between executions.
+ */
+public final class UResourceHashCache extends UResourceValidator {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default number of entries stored in memory
+	 */
+	public static final int DEFAULT_CAPACITY = 100_000;
+	
+	/**
+	 * Identifier written at the beginning of every persisted cache ("UHC" + format version)
+	 */
+	private static final int CACHE_FILE_MAGIC = 0x55484301;
+	
+	/**
+	 * All the stored entries. The map is ordered by access, so the first
+	 * entry is always the least recently used.
+	 */
+	private final LinkedHashMap<UPair<Path, String>, UResourceHashCacheEntry> entries;
+	
+	/**
+	 * Maximum number of entries stored in memory
+	 */
+	private final int capacity;
+	
+	/**
+	 * Number of requests resolved by the cache
+	 */
+	private final LongAdder hits = new LongAdder();
+	
+	/**
+	 * Number of requests that required reading the resource
+	 */
+	private final LongAdder misses = new LongAdder();
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param capacity maximum number of entries stored in memory
+	 */
+	private UResourceHashCache(int capacity) {
+		if (capacity <= 0) throw new IllegalArgumentException("The capacity must be greater than zero");
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UPair<Path, String>, UResourceHashCacheEntry> eldest) {
+				return size() > UResourceHashCache.this.capacity;
+			}
+		};
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a new empty cache
+	 *
+	 * @param capacity maximum number of entries stored in memory
+	 * @return a new cache instance
+	 * @throws IllegalArgumentException error if {@code capacity} is less than or equal to zero
+	 */
+	@Contract("_ -> new")
+	public static @NotNull UResourceHashCache make(int capacity) {
+		return new UResourceHashCache(capacity);
+	}
+	
+	/**
+	 * Generates a new empty cache with the default capacity
+	 *
+	 * @return a new cache instance
+	 * @see #DEFAULT_CAPACITY
+	 */
+	@Contract(" -> new")
+	public static @NotNull UResourceHashCache make() {
+		return make(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Get the hash of the given resource. The resource is only read if it is
+	 * not in the cache or if it was modified since it was hashed.
+	 *
+	 * @param path      the resource location
+	 * @param algorithm hash algorithm
+	 * @return the resource hash
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @throws IOException              error to read resource content
+	 */
+	public byte @NotNull [] hash(@NotNull Path path, @NotNull String algorithm) throws IOException,
+		NoSuchAlgorithmException {
+		return hash(path, algorithm, FS_RESOURCE_BUFFER_SIZE_CHANNEL, null);
+	}
+	
+	/**
+	 * Get the hash of the given resource. The resource is only read if it is
+	 * not in the cache or if it was modified since it was hashed.
+	 *
+	 * @param path the resource location
+	 * @return the resource hash
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @throws IOException              error to read resource content
+	 */
+	public byte @NotNull [] hash(@NotNull Path path) throws IOException, NoSuchAlgorithmException {
+		return hash(path, FS_DEFAULT_ALGORITHM);
+	}
+	
+	/**
+	 * Removes all the hashes of the given resource
+	 *
+	 * @param path the resource location
+	 */
+	public synchronized void invalidate(@NotNull Path path) {
+		UObject.requireNotNull(path, "path");
+		Path key = cacheKey(path);
+		entries.keySet().removeIf(it -> it.first.equals(key));
+	}
+	
+	/**
+	 * Removes all the stored entries
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+	
+	/**
+	 * Number of stored entries
+	 *
+	 * @return the number of stored entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Maximum number of entries stored in memory
+	 *
+	 * @return the cache capacity
+	 */
+	public int capacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Number of requests resolved by the cache
+	 *
+	 * @return the number of hits
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * Number of requests that required reading the resource
+	 *
+	 * @return the number of misses
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * Writes all the stored entries to the given file. The file is written
+	 * completely before replacing the previous one, so an interrupted operation
+	 * never leaves a corrupted cache.
+	 * <p>
+	 * Only the resources of the default filesystem are persisted.
+	 *
+	 * @param file the destination file
+	 * @throws IOException error if the file cannot be written
+	 */
+	public void save(@NotNull Path file) throws IOException {
+		UObject.requireNotNull(file, "file");
+		// Temporal variables
+		Map<UPair<Path, String>, UResourceHashCacheEntry> snapshot = new LinkedHashMap<>();
+		synchronized (this) {
+			for (var entry : entries.entrySet()) {
+				if (entry.getKey().first.getFileSystem() == FileSystems.getDefault()) {
+					snapshot.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		Path parent = file.toAbsolutePath().getParent();
+		Path temporal = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		
+		try (var output = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(temporal)))) {
+			output.writeInt(CACHE_FILE_MAGIC);
+			output.writeInt(snapshot.size());
+			
+			// The entries are written from the least to the most recently used,
+			// so the access order is preserved when the file is loaded.
+			for (var entry : snapshot.entrySet()) {
+				Path path = entry.getKey().first;
+				UResourceHashCacheEntry value = entry.getValue();
+				
+				output.writeUTF(path.toString());
+				output.writeUTF(entry.getKey().second);
+				output.writeLong(value.size());
+				output.writeLong(value.lastModified());
+				output.writeBoolean(value.fileKey() != null);
+				if (value.fileKey() != null) output.writeUTF(value.fileKey());
+				output.writeShort(value.hash().length);
+				output.write(value.hash());
+			}
+		} catch (IOException e) {
+			Files.deleteIfExists(temporal);
+			throw e;
+		}
+		Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	/**
+	 * Reads all the entries stored in the given file and adds them to the cache.
+	 * If the file does not exist, the cache is not modified.
+	 *
+	 * @param file the file generated by {@link #save(Path)}
+	 * @return the number of loaded entries
+	 * @throws IOException error if the file cannot be read or is not a valid cache file
+	 */
+	public int load(@NotNull Path file) throws IOException {
+		UObject.requireNotNull(file, "file");
+		if (!Files.exists(file)) return 0;
+		
+		try (var input = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+			if (input.readInt() != CACHE_FILE_MAGIC) {
+				throw new IOException(String.format("\"%s\" is not a valid cache file", file));
+			}
+			// Temporal variables
+			int count = input.readInt();
+			Map<UPair<Path, String>, UResourceHashCacheEntry> loaded = new LinkedHashMap<>();
+			
+			for (int i = 0; i < count; i++) {
+				Path path = Path.of(input.readUTF());
+				String algorithm = input.readUTF();
+				long size = input.readLong();
+				long lastModified = input.readLong();
+				String fileKey = input.readBoolean() ? input.readUTF() : null;
+				byte[] hash = new byte[input.readUnsignedShort()];
+				input.readFully(hash);
+				
+				loaded.put(UPair.make(path, algorithm), new UResourceHashCacheEntry(size, lastModified, fileKey, hash));
+			}
+			
+			synchronized (this) {
+				entries.putAll(loaded);
+			}
+			return count;
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Get the hash of the given resource. The resource is only read if it is
+	 * not in the cache or if it was modified since it was hashed.
+	 *
+	 * @param path       the resource location
+	 * @param algorithm  hash algorithm
+	 * @param bufferSize the size of each chunk read from the resource
+	 * @param bytesRead  counter updated with the number of bytes read from the resource
+	 * @return the resource hash
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @throws IOException              error to read resource content
+	 */
+	byte @NotNull [] hash(@NotNull Path path, @NotNull String algorithm, int bufferSize, LongAdder bytesRead) throws
+		IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(path, "path");
+		UObject.requireNotNull(algorithm, "algorithm");
+		// Temporal variables
+		var key = UPair.make(cacheKey(path), algorithm);
+		var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		UResourceHashCacheEntry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+		}
+		
+		// The resource was not modified
+		if (entry != null && entry.matches(attributes)) {
+			hits.increment();
+			return entry.hash().clone();
+		}
+		
+		// The attributes are read before the content, so if the resource is modified
+		// while it is being hashed, the next request detects the change.
+		misses.increment();
+		byte[] hash = resourceHashImpl(path, algorithm, bufferSize);
+		if (bytesRead != null) bytesRead.add(attributes.size());
+		
+		synchronized (this) {
+			entries.put(key, UResourceHashCacheEntry.of(attributes, hash));
+		}
+		return hash.clone();
+	}
+	
+	/**
+	 * Gets the location used to identify a resource in the cache
+	 *
+	 * @param path the resource location
+	 * @return the absolute and normalized resource location
+	 */
+	private static @NotNull Path cacheKey(@NotNull Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+	
+}
@@ -0,0 +1,139 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.collections.USet;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * Immutable object used to store the result of hashing a resource with multiple
+ * algorithms at the same time. The hashes are keyed by the algorithm name
+ * (the same name used by {@link java.security.MessageDigest#getInstance(String)}) and
+ * the checksums are keyed by the simple name of the checksum class (e.g. {@code CRC32C}).
+ * Both keep the order in which they were requested.
+ *
+ * @see UResource#resourceHashes(java.nio.file.Path, java.util.Collection, java.util.zip.Checksum...)
+ */
+public final class UResourceHashResult {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * All the generated hashes
+	 */
+	private final Map<String, byte[]> hashes;
+	
+	/**
+	 * All the generated checksums
+	 */
+	private final Map<String, Long> checksums;
+	
+	/**
+	 * Number of bytes read from the resource
+	 */
+	private final long size;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param hashes    all the generated hashes
+	 * @param checksums all the generated checksums
+	 * @param size      number of bytes read from the resource
+	 */
+	public UResourceHashResult(@NotNull Map<String, byte[]> hashes, @NotNull Map<String, Long> checksums, long size) {
+		UObject.requireNotNull(hashes, "hashes");
+		UObject.requireNotNull(checksums, "checksums");
+		this.hashes = Collections.unmodifiableMap(new LinkedHashMap<>(hashes));
+		this.checksums = Collections.unmodifiableMap(new LinkedHashMap<>(checksums));
+		this.size = size;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Get the hash generated with the given algorithm
+	 *
+	 * @param algorithm hash algorithm
+	 * @return the resource hash or {@link Optional#empty()} if the algorithm was not requested
+	 */
+	public @NotNull Optional<byte[]> hash(@NotNull String algorithm) {
+		UObject.requireNotNull(algorithm, "algorithm");
+		byte[] hash = hashes.get(algorithm);
+		return hash == null ? Optional.empty() : Optional.of(hash.clone());
+	}
+	
+	/**
+	 * Get the hash generated with the given algorithm.
+	 * This method returns the hash as hexadecimal string.
+	 *
+	 * @param algorithm hash algorithm
+	 * @return hash as hexadecimal string or {@link Optional#empty()} if the algorithm was not requested
+	 */
+	public @NotNull Optional<String> hashStr(@NotNull String algorithm) {
+		UObject.requireNotNull(algorithm, "algorithm");
+		byte[] hash = hashes.get(algorithm);
+		return hash == null ? Optional.empty() : Optional.of(UResource.resourceHashStr(hash));
+	}
+	
+	/**
+	 * Get the checksum generated with the given checksum type
+	 *
+	 * @param name the simple name of the checksum class (e.g. {@code CRC32C})
+	 * @return the resource checksum or {@link OptionalLong#empty()} if the checksum was not requested
+	 */
+	public @NotNull OptionalLong checksum(@NotNull String name) {
+		UObject.requireNotNull(name, "name");
+		Long checksum = checksums.get(name);
+		return checksum == null ? OptionalLong.empty() : OptionalLong.of(checksum);
+	}
+	
+	/**
+	 * Get the names of all the generated hashes and checksums. The hashes are
+	 * returned first, in the order in which they were requested.
+	 *
+	 * @return all the names stored in this result
+	 */
+	public @NotNull Set<String> algorithms() {
+		Set<String> result = USet.makeLinked(hashes.keySet());
+		result.addAll(checksums.keySet());
+		return Collections.unmodifiableSet(result);
+	}
+	
+	/**
+	 * Number of bytes read from the resource
+	 *
+	 * @return the resource size
+	 */
+	public long size() {
+		return size;
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("%s (%d bytes)", algorithms(), size);
+	}
+	
+}
@@ -0,0 +1,520 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.content.UPair;
+import ushiosan.jvm.internal.filesystem.UBoundedTaskIterator;
+import ushiosan.jvm.internal.validators.UResourceValidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Service used to hash many resources concurrently.
+ * <p>
+ * Every resource is hashed by a bounded pool of workers, and the results are returned
+ * as a stream in the order in which they are completed. The workers never get ahead of
+ * the consumer by more than {@link #queueCapacity()} resources, so large trees can be
+ * processed without keeping all the results in memory.
+ * <p>
+ * The instance also collects statistics of all the processed resources, which can be
+ * used to calculate the throughput of the operations.
+ *
+ * <pre>{@code
+ * UResourceHasher hasher = UResourceHasher.generate()
+ *     .setAlgorithm("SHA-256")
+ *     .setParallelism(8);
+ *
+ * try (var stream = hasher.hashTree(Path.of("directory"), true)) {
+ *     stream.forEach(it -> System.out.println(it.first + " -> " + UResource.resourceHashStr(it.second)));
+ * }
+ * System.out.println(hasher.throughput() + " MB/s");
+ * }</pre>
+ */
+public final class UResourceHasher extends UResourceValidator {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Number of bytes in a megabyte
+	 */
+	private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+	
+	/**
+	 * Maximum size of the buffer used to read the compressed entries. The entries are
+	 * inflated in small blocks, so larger buffers do not improve the throughput.
+	 */
+	private static final int ARCHIVE_BUFFER_SIZE = 64 * 1024;
+	
+	/**
+	 * Total number of processed bytes
+	 */
+	private final LongAdder bytesProcessed = new LongAdder();
+	
+	/**
+	 * Total number of processed resources
+	 */
+	private final LongAdder resourcesProcessed = new LongAdder();
+	
+	/**
+	 * Total time (in nanoseconds) spent by all the finished operations
+	 */
+	private final LongAdder elapsedTime = new LongAdder();
+	
+	/**
+	 * Hash algorithm
+	 */
+	private String algorithm;
+	
+	/**
+	 * Number of workers used to hash the resources
+	 */
+	private int parallelism;
+	
+	/**
+	 * Maximum number of resources being processed or waiting to be consumed
+	 */
+	private int queueCapacity;
+	
+	/**
+	 * The size of each chunk read from the resources
+	 */
+	private int bufferSize;
+	
+	/**
+	 * Cache used to skip the resources that were not modified
+	 */
+	private UResourceHashCache cache;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 */
+	private UResourceHasher() {
+		algorithm = FS_DEFAULT_ALGORITHM;
+		parallelism = FS_DEFAULT_PARALLELISM;
+		queueCapacity = FS_DEFAULT_PARALLELISM * 2;
+		bufferSize = FS_RESOURCE_BUFFER_SIZE_CHANNEL;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a new hasher instance with the default configuration
+	 *
+	 * @return a new hasher instance
+	 */
+	@Contract(" -> new")
+	public static @NotNull UResourceHasher generate() {
+		return new UResourceHasher();
+	}
+	
+	/**
+	 * Hash algorithm
+	 *
+	 * @return the hash algorithm
+	 */
+	public @NotNull String algorithm() {
+		return algorithm;
+	}
+	
+	/**
+	 * Changes the hash algorithm on the current instance.
+	 *
+	 * @param algorithm the hash algorithm
+	 * @return the same current instance
+	 */
+	public @NotNull UResourceHasher setAlgorithm(@NotNull String algorithm) {
+		UObject.requireNotNull(algorithm, "algorithm");
+		this.algorithm = algorithm;
+		return this;
+	}
+	
+	/**
+	 * Number of workers used to hash the resources
+	 *
+	 * @return the number of workers
+	 */
+	public int parallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * Changes the number of workers on the current instance.
+	 *
+	 * @param parallelism the number of workers
+	 * @return the same current instance
+	 * @throws IllegalArgumentException error if {@code parallelism} is less than or equal to zero
+	 */
+	public @NotNull UResourceHasher setParallelism(int parallelism) {
+		if (parallelism <= 0) throw new IllegalArgumentException("The parallelism must be greater than zero");
+		this.parallelism = parallelism;
+		return this;
+	}
+	
+	/**
+	 * Maximum number of resources being processed or waiting to be consumed
+	 *
+	 * @return the maximum number of pending resources
+	 */
+	public int queueCapacity() {
+		return queueCapacity;
+	}
+	
+	/**
+	 * Changes the maximum number of pending resources on the current instance.
+	 * When the limit is reached, the workers wait until the consumer takes more results.
+	 *
+	 * @param queueCapacity the maximum number of pending resources
+	 * @return the same current instance
+	 * @throws IllegalArgumentException error if {@code queueCapacity} is less than or equal to zero
+	 */
+	public @NotNull UResourceHasher setQueueCapacity(int queueCapacity) {
+		if (queueCapacity <= 0) throw new IllegalArgumentException("The queue capacity must be greater than zero");
+		this.queueCapacity = queueCapacity;
+		return this;
+	}
+	
+	/**
+	 * The size of each chunk read from the resources
+	 *
+	 * @return the chunk size
+	 */
+	public int bufferSize() {
+		return bufferSize;
+	}
+	
+	/**
+	 * Changes the size of each chunk read from the resources on the current instance.
+	 *
+	 * @param bufferSize the chunk size
+	 * @return the same current instance
+	 * @throws IllegalArgumentException error if {@code bufferSize} is less than or equal to zero
+	 * @see UResource#resourceHash(Path, String, int)
+	 */
+	public @NotNull UResourceHasher setBufferSize(int bufferSize) {
+		if (bufferSize <= 0) throw new IllegalArgumentException("The buffer size must be greater than zero");
+		this.bufferSize = bufferSize;
+		return this;
+	}
+	
+	/**
+	 * Cache used to skip the resources that were not modified
+	 *
+	 * @return the hash cache or {@link Optional#empty()} if the instance does not use a cache
+	 */
+	public @NotNull Optional<UResourceHashCache> cache() {
+		return Optional.ofNullable(cache);
+	}
+	
+	/**
+	 * Changes the cache used to skip the resources that were not modified on the current instance.
+	 * The resources resolved by the cache are not counted in {@link #bytesProcessed()}.
+	 *
+	 * @param cache the hash cache or {@code null} to hash all the resources
+	 * @return the same current instance
+	 */
+	public @NotNull UResourceHasher setCache(@Nullable UResourceHashCache cache) {
+		this.cache = cache;
+		return this;
+	}
+	
+	/**
+	 * Hashes all the given resources concurrently. The resulting stream must be closed
+	 * if it is not fully consumed, so the workers are released.
+	 * <p>
+	 * The source stream is consumed lazily, and it is closed when the resulting stream is closed.
+	 *
+	 * @param resources all the resources to hash
+	 * @return a stream with every resource and its hash, in the order in which they are completed
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @throws java.io.UncheckedIOException error (while the stream is consumed) if some resource cannot be read
+	 */
+	public @NotNull Stream<UPair<Path, byte[]>> hash(@NotNull Stream<Path> resources) throws NoSuchAlgorithmException {
+		UObject.requireNotNull(resources, "resources");
+		// Verify the algorithm before any worker is started
+		MessageDigest.getInstance(algorithm);
+		
+		// Temporal variables
+		final String currentAlgorithm = algorithm;
+		final int currentBufferSize = bufferSize;
+		final UResourceHashCache currentCache = cache;
+		final long start = System.nanoTime();
+		AtomicBoolean finished = new AtomicBoolean();
+		Iterator<Path> source = resources.iterator();
+		var iterator = new UBoundedTaskIterator<Path, UPair<Path, byte[]>>(source, path -> {
+			if (currentCache != null) {
+				byte[] hash = currentCache.hash(path, currentAlgorithm, currentBufferSize, bytesProcessed);
+				resourcesProcessed.increment();
+				return UPair.make(path, hash);
+			}
+			long size = Files.size(path);
+			byte[] hash = resourceHashImpl(path, currentAlgorithm, currentBufferSize);
+			
+			bytesProcessed.add(size);
+			resourcesProcessed.increment();
+			return UPair.make(path, hash);
+		}, parallelism, queueCapacity);
+		
+		// The statistics are updated only once per operation
+		Runnable onFinish = () -> {
+			iterator.close();
+			if (finished.compareAndSet(false, true)) elapsedTime.add(System.nanoTime() - start);
+		};
+		Iterator<UPair<Path, byte[]>> result = new Iterator<>() {
+			@Override
+			public boolean hasNext() {
+				boolean next = iterator.hasNext();
+				if (!next) onFinish.run();
+				return next;
+			}
+			
+			@Override
+			public UPair<Path, byte[]> next() {
+				return iterator.next();
+			}
+		};
+		
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(result, Spliterator.NONNULL), false)
+			.onClose(onFinish)
+			.onClose(resources::close);
+	}
+	
+	/**
+	 * Hashes all the given resources concurrently. The resulting stream must be closed
+	 * if it is not fully consumed, so the workers are released.
+	 *
+	 * @param resources all the resources to hash
+	 * @return a stream with every resource and its hash, in the order in which they are completed
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @throws java.io.UncheckedIOException error (while the stream is consumed) if some resource cannot be read
+	 */
+	public @NotNull Stream<UPair<Path, byte[]>> hash(@NotNull Collection<Path> resources) throws
+		NoSuchAlgorithmException {
+		UObject.requireNotNull(resources, "resources");
+		return hash(resources.stream());
+	}
+	
+	/**
+	 * Hashes all the regular files within the given directory concurrently. The resulting
+	 * stream must be closed, so the workers and the directory walk are released.
+	 *
+	 * @param path       base directory
+	 * @param recursive  determines if the subdirectories are also hashed or just the first directory
+	 * @param predicates filters applied to the resources
+	 * @return a stream with every resource and its hash, in the order in which they are completed
+	 * @throws IOException              error if directory not exists or location is not a valid directory
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @throws java.io.UncheckedIOException error (while the stream is consumed) if some resource cannot be read
+	 * @see UResource#resourceWalk(Path, boolean, Predicate[])
+	 */
+	@SafeVarargs
+	public final @NotNull Stream<UPair<Path, byte[]>> hashTree(@NotNull Path path, boolean recursive,
+		Predicate<Path> @NotNull ... predicates) throws IOException, NoSuchAlgorithmException {
+		Stream<Path> walk = UResource.resourceWalk(path, recursive, predicates)
+			.filter(Files::isRegularFile);
+		try {
+			return hash(walk);
+		} catch (NoSuchAlgorithmException e) {
+			walk.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Hashes all the entries of the given archive concurrently and waits for the result.
+	 * <p>
+	 * Every worker opens its own handle of the archive, so the entries are inflated in
+	 * parallel instead of sharing the same stream. The entries are distributed dynamically,
+	 * starting with the largest ones, so a single large entry does not delay the rest.
+	 * Directories are never hashed.
+	 *
+	 * @param archive    the archive location
+	 * @param predicates filters applied to the archive entries
+	 * @return a map with the name of every entry and its hash, in the original order of the archive
+	 * @throws IOException              error if the archive or some entry cannot be read
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @see UResource#extensionsEntryOf(boolean, String...)
+	 * @see UResource#regexEntryOf(String, boolean, int...)
+	 */
+	@SafeVarargs
+	public final @NotNull Map<String, byte[]> hashArchive(@NotNull Path archive,
+		Predicate<ZipEntry> @NotNull ... predicates) throws IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(archive, "archive");
+		UObject.requireNotNull(predicates, "predicates");
+		// Verify the algorithm before the archive is indexed
+		MessageDigest.getInstance(algorithm);
+		
+		// Temporal variables
+		Stream<ZipEntry> entries = UZipIndex.of(archive).entries()
+			.filter(it -> !it.isDirectory());
+		for (var predicate : predicates) {
+			entries = entries.filter(predicate);
+		}
+		return hashArchiveImpl(archive, entries.toArray(ZipEntry[]::new));
+	}
+	
+	/**
+	 * Hashes all the entries of the given archive concurrently and waits for the result.
+	 * The given instance is only used to locate the archive, every worker opens its own handle.
+	 *
+	 * @param file       the archive to hash
+	 * @param predicates filters applied to the archive entries
+	 * @return a map with the name of every entry and its hash, in the original order of the archive
+	 * @throws IOException              error if the archive or some entry cannot be read
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @see #hashArchive(Path, Predicate[])
+	 */
+	@SafeVarargs
+	public final @NotNull Map<String, byte[]> hashArchive(@NotNull ZipFile file,
+		Predicate<ZipEntry> @NotNull ... predicates) throws IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(file, "file");
+		return hashArchive(Path.of(file.getName()), predicates);
+	}
+	
+	/**
+	 * Total number of processed bytes
+	 *
+	 * @return the number of processed bytes
+	 */
+	public long bytesProcessed() {
+		return bytesProcessed.sum();
+	}
+	
+	/**
+	 * Total number of processed resources
+	 *
+	 * @return the number of processed resources
+	 */
+	public long resourcesProcessed() {
+		return resourcesProcessed.sum();
+	}
+	
+	/**
+	 * Total time (in nanoseconds) spent by all the finished operations
+	 *
+	 * @return the spent time
+	 */
+	public long elapsedTime() {
+		return elapsedTime.sum();
+	}
+	
+	/**
+	 * Average throughput of all the finished operations
+	 *
+	 * @return the throughput in megabytes per second
+	 */
+	public double throughput() {
+		long elapsed = elapsedTime();
+		if (elapsed == 0L) return 0.0;
+		return (bytesProcessed() / BYTES_PER_MEGABYTE) / (elapsed / 1e9);
+	}
+	
+	/**
+	 * Removes all the collected statistics
+	 */
+	public void resetStatistics() {
+		bytesProcessed.reset();
+		resourcesProcessed.reset();
+		elapsedTime.reset();
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Hashes the given entries with a handle of the archive per worker
+	 *
+	 * @param archive the archive location
+	 * @param entries all the entries to hash
+	 * @return a map with the name of every entry and its hash, in the given order
+	 * @throws IOException error if the archive or some entry cannot be read
+	 */
+	private @NotNull Map<String, byte[]> hashArchiveImpl(@NotNull Path archive, ZipEntry @NotNull [] entries) throws
+		IOException {
+		// Temporal variables
+		final String currentAlgorithm = algorithm;
+		final int currentBufferSize = Math.min(bufferSize, ARCHIVE_BUFFER_SIZE);
+		final long start = System.nanoTime();
+		int workers = Math.max(1, Math.min(parallelism, entries.length));
+		Map<String, byte[]> hashes = new ConcurrentHashMap<>(Math.max(16, entries.length * 2));
+		
+		// The largest entries are processed first
+		ZipEntry[] ordered = entries.clone();
+		Arrays.sort(ordered, Comparator.comparingLong(ZipEntry::getSize).reversed());
+		Queue<ZipEntry> queue = new ConcurrentLinkedQueue<>(Arrays.asList(ordered));
+		
+		var iterator = new UBoundedTaskIterator<Integer, Integer>(IntStream.range(0, workers).iterator(), worker -> {
+			// Every worker reuses the same handle, digest and buffer for all its entries
+			MessageDigest digest = MessageDigest.getInstance(currentAlgorithm);
+			byte[] buffer = new byte[currentBufferSize];
+			int processed = 0;
+			
+			try (ZipFile file = new ZipFile(archive.toFile())) {
+				ZipEntry entry;
+				while ((entry = queue.poll()) != null) {
+					try (InputStream stream = file.getInputStream(entry)) {
+						long size = 0L;
+						int read;
+						while ((read = stream.read(buffer)) != -1) {
+							digest.update(buffer, 0, read);
+							size += read;
+						}
+						hashes.put(entry.getName(), digest.digest());
+						bytesProcessed.add(size);
+						resourcesProcessed.increment();
+						processed++;
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				// The rest of the workers stop as soon as possible
+				queue.clear();
+				throw e;
+			}
+			return processed;
+		}, workers, workers);
+		
+		try {
+			while (iterator.hasNext()) iterator.next();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			iterator.close();
+			elapsedTime.add(System.nanoTime() - start);
+		}
+		
+		// The result keeps the original order of the archive
+		Map<String, byte[]> result = new LinkedHashMap<>(Math.max(16, (int) (entries.length / 0.75f) + 1));
+		for (var entry : entries) {
+			result.putIfAbsent(entry.getName(), hashes.get(entry.getName()));
+		}
+		return Collections.unmodifiableMap(result);
+	}
+	
+}
@@ -0,0 +1,238 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.collections.UArray;
+import ushiosan.jvm.internal.validators.UResourceValidator;
+
+import java.util.Optional;
+
+/**
+ * Immutable view of the name of a resource location.
+ * <p>
+ * The location is parsed with a single pass and the view only stores the positions
+ * of the name, the base name and the extensions inside the original text, so no
+ * intermediate string is generated. The methods that return strings keep the same
+ * behavior as the {@link UResource} methods, and they only allocate the result.
+ *
+ * <pre>{@code
+ * UResourceName name = UResourceName.of("/home/user/build.gradle.kts");
+ *
+ * name.name();                            // "build.gradle.kts"
+ * name.basename(true);                    // "build"
+ * name.extension();                       // Optional["kts"]
+ * name.hasExtension("kts");               // true (without allocations)
+ * name.nameStart();                       // 11
+ * }</pre>
+ */
+public final class UResourceName extends UResourceValidator {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The original resource location
+	 */
+	private final CharSequence location;
+	
+	/**
+	 * Region of the name inside the location
+	 */
+	private final long name;
+	
+	/**
+	 * Region of the last extension inside the location or {@link UArray#INDEX_NOT_FOUND}
+	 * if the name does not contain extensions
+	 */
+	private final long extension;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param location the resource location
+	 */
+	private UResourceName(@NotNull CharSequence location) {
+		this.location = location;
+		this.name = nameRegionImpl(location);
+		this.extension = extensionRegionImpl(location, regionStart(name), regionEnd(name));
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Parses the name of the given location
+	 *
+	 * @param location the resource location
+	 * @return a new view of the resource name
+	 */
+	@Contract("_ -> new")
+	public static @NotNull UResourceName of(@NotNull CharSequence location) {
+		UObject.requireNotNull(location, "location");
+		return new UResourceName(location);
+	}
+	
+	/**
+	 * The original resource location
+	 *
+	 * @return the resource location
+	 */
+	public @NotNull CharSequence location() {
+		return location;
+	}
+	
+	/**
+	 * Position where the name starts inside the location
+	 *
+	 * @return the name start (inclusive)
+	 */
+	public int nameStart() {
+		return regionStart(name);
+	}
+	
+	/**
+	 * Position where the name ends inside the location
+	 *
+	 * @return the name end (exclusive)
+	 */
+	public int nameEnd() {
+		return regionEnd(name);
+	}
+	
+	/**
+	 * Position where the base name ends inside the location. The base name
+	 * always starts at {@link #nameStart()}.
+	 *
+	 * @param partial determines if the base name ends at the first or the last extension
+	 * @return the base name end (exclusive)
+	 */
+	public int basenameEnd(boolean partial) {
+		return basenameEndImpl(location, name, partial);
+	}
+	
+	/**
+	 * Number of extensions in the name
+	 *
+	 * @return the number of extensions
+	 * @see UResource#allExtensions(java.nio.file.Path)
+	 */
+	public int extensionCount() {
+		return extension == UArray.INDEX_NOT_FOUND ? 0 : extensionCountImpl(location, name);
+	}
+	
+	/**
+	 * Position where an extension starts inside the location
+	 *
+	 * @param index the extension index
+	 * @return the extension start (inclusive)
+	 * @throws IndexOutOfBoundsException error if the extension not exists
+	 */
+	public int extensionStart(int index) {
+		return regionStart(extensionRegionImpl(location, name, index));
+	}
+	
+	/**
+	 * Position where an extension ends inside the location
+	 *
+	 * @param index the extension index
+	 * @return the extension end (exclusive)
+	 * @throws IndexOutOfBoundsException error if the extension not exists
+	 */
+	public int extensionEnd(int index) {
+		return regionEnd(extensionRegionImpl(location, name, index));
+	}
+	
+	/**
+	 * Checks if the last extension of the name is equal to the given extension.
+	 * The comparison is done inside the location, so no string is generated.
+	 *
+	 * @param extension the extension to compare
+	 * @return {@code true} if the name ends with the given extension or {@code false} otherwise
+	 */
+	public boolean hasExtension(@NotNull CharSequence extension) {
+		UObject.requireNotNull(extension, "extension");
+		if (this.extension == UArray.INDEX_NOT_FOUND) return false;
+		// Temporal variables
+		int start = regionStart(this.extension);
+		int length = regionEnd(this.extension) - start;
+		if (length != extension.length()) return false;
+		
+		for (int i = 0; i < length; i++) {
+			if (location.charAt(start + i) != extension.charAt(i)) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Gets the resource name without the slashes and the absolute path
+	 *
+	 * @return the resource name
+	 * @see UResource#resourceName(java.nio.file.Path)
+	 */
+	public @NotNull String name() {
+		return location.subSequence(regionStart(name), regionEnd(name)).toString();
+	}
+	
+	/**
+	 * Gets the resource basename, without any extension.
+	 *
+	 * @param partial returns the full or partial name
+	 * @return the resource basename
+	 * @see UResource#basename(java.nio.file.Path, boolean)
+	 */
+	public @NotNull String basename(boolean partial) {
+		return location.subSequence(regionStart(name), basenameEnd(partial)).toString();
+	}
+	
+	/**
+	 * Gets the last extension of the name
+	 *
+	 * @return the resource extension or {@link Optional#empty()} if the extension not exists
+	 * @see UResource#extension(java.nio.file.Path)
+	 */
+	public @NotNull Optional<String> extension() {
+		if (extension == UArray.INDEX_NOT_FOUND) return Optional.empty();
+		return Optional.of(location.subSequence(regionStart(extension), regionEnd(extension)).toString());
+	}
+	
+	/**
+	 * Gets all existing extensions in the name
+	 *
+	 * @return all resource extensions
+	 * @see UResource#allExtensions(java.nio.file.Path)
+	 */
+	public String @NotNull [] allExtensions() {
+		// Temporal variables
+		int count = extensionCount();
+		if (count == 0) return FS_EMPTY_EXTENSIONS;
+		String[] result = new String[count];
+		
+		for (int i = 0; i < count; i++) {
+			long region = extensionRegionImpl(location, name, i);
+			result[i] = location.subSequence(regionStart(region), regionEnd(region)).toString();
+		}
+		return result;
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return name();
+	}
+	
+}
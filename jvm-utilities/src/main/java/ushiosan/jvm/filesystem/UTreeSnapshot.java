@@ -0,0 +1,322 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.function.UEmptyFun;
+import ushiosan.jvm.internal.filesystem.UTreeSnapshotFormat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Compact binary snapshot of a directory tree.
+ * <p>
+ * A snapshot contains the location (relative to the directory), the size, the last
+ * modification time and optionally the content digest of every element. The elements
+ * are written while the tree is walked in depth-first order with the children of every
+ * directory sorted by name, so the snapshot is always sorted by location and the memory
+ * used only depends on the size of the largest directory, not on the size of the tree.
+ * <p>
+ * Because both snapshots are sorted, {@link #diff(InputStream, InputStream, UEmptyFun.UEmptyFun2)}
+ * compares them with a single linear merge, reading one element at a time from each snapshot.
+ *
+ * <pre>{@code
+ * UTreeSnapshot.write(deployDirectory, Path.of("deploy.snapshot"), null);
+ * // ... later ...
+ * UTreeSnapshot.write(deployDirectory, Path.of("deploy-new.snapshot"), null);
+ * Map<String, UResourceChange> changes = UTreeSnapshot.diff(Path.of("deploy.snapshot"),
+ *                                                           Path.of("deploy-new.snapshot"));
+ * }</pre>
+ */
+public final class UTreeSnapshot {
+	
+	/**
+	 * This class cannot be instantiated directly
+	 */
+	private UTreeSnapshot() {}
+	
+	/* -----------------------------------------------------
+	 * Write methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Writes the snapshot of a directory tree. The stream is not closed.
+	 *
+	 * @param root      the directory to analyze
+	 * @param output    the stream where the snapshot is written
+	 * @param algorithm the digest algorithm used to hash the regular files or
+	 *                  {@code null} to only store the size and modification time
+	 * @return the number of elements written
+	 * @throws IOException              error if the directory cannot be read or the snapshot cannot be written
+	 * @throws NoSuchAlgorithmException error if the digest algorithm not exists
+	 */
+	public static long write(@NotNull Path root, @NotNull OutputStream output, @Nullable String algorithm)
+		throws IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(root, "root");
+		UObject.requireNotNull(output, "output");
+		// Validate the algorithm before the walk begins
+		if (algorithm != null) MessageDigest.getInstance(algorithm);
+		
+		// Temporal variables
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, 64 * 1024));
+		Deque<Iterator<Path>> pending = new ArrayDeque<>();
+		Deque<String> prefixes = new ArrayDeque<>();
+		String previous = "";
+		long count = 0;
+		
+		data.writeInt(UTreeSnapshotFormat.MAGIC);
+		data.writeByte(UTreeSnapshotFormat.VERSION);
+		data.writeUTF(algorithm == null ? "" : algorithm);
+		
+		pending.push(sortedChildrenImpl(root));
+		prefixes.push("");
+		while (!pending.isEmpty()) {
+			Iterator<Path> children = pending.peek();
+			if (!children.hasNext()) {
+				pending.pop();
+				prefixes.pop();
+				continue;
+			}
+			
+			Path child = children.next();
+			String location = prefixes.peek() + child.getFileName().toString();
+			BasicFileAttributes attributes;
+			Iterator<Path> content = null;
+			byte[] digest;
+			try {
+				attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				digest = digestImpl(child, attributes, algorithm);
+				if (attributes.isDirectory()) content = sortedChildrenImpl(child);
+			} catch (NoSuchFileException e) {
+				// The element was removed while the tree was walked
+				continue;
+			}
+			
+			writeEntryImpl(data, previous, location, attributes, digest);
+			previous = location;
+			count++;
+			
+			if (content != null) {
+				pending.push(content);
+				prefixes.push(location + "/");
+			}
+		}
+		
+		data.writeByte(UTreeSnapshotFormat.KIND_END);
+		UTreeSnapshotFormat.writeVarLong(data, count);
+		data.flush();
+		return count;
+	}
+	
+	/**
+	 * Writes the snapshot of a directory tree into a file
+	 *
+	 * @param root      the directory to analyze
+	 * @param target    the file where the snapshot is written
+	 * @param algorithm the digest algorithm used to hash the regular files or
+	 *                  {@code null} to only store the size and modification time
+	 * @return the number of elements written
+	 * @throws IOException              error if the directory cannot be read or the snapshot cannot be written
+	 * @throws NoSuchAlgorithmException error if the digest algorithm not exists
+	 */
+	public static long write(@NotNull Path root, @NotNull Path target, @Nullable String algorithm)
+		throws IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(target, "target");
+		try (OutputStream output = Files.newOutputStream(target)) {
+			return write(root, output, algorithm);
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Read methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Opens a snapshot file
+	 *
+	 * @param snapshot the snapshot file
+	 * @return a reader of all the snapshot elements
+	 * @throws IOException error if the file cannot be read or is not a snapshot
+	 */
+	public static @NotNull UTreeSnapshotReader read(@NotNull Path snapshot) throws IOException {
+		UObject.requireNotNull(snapshot, "snapshot");
+		// Temporal variables
+		InputStream input = Files.newInputStream(snapshot);
+		try {
+			return UTreeSnapshotReader.of(input);
+		} catch (IOException e) {
+			input.close();
+			throw e;
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Diff methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Compares two snapshots of the same tree. Both snapshots are read only once and
+	 * at the same time, and every change is reported to the consumer in location order.
+	 * The digests are only compared when both snapshots were generated with the same
+	 * algorithm, otherwise the modification times are compared. The streams are not closed.
+	 *
+	 * @param previous the old snapshot
+	 * @param current  the new snapshot
+	 * @param consumer the action executed with every changed location
+	 * @return the number of changes found
+	 * @throws IOException error if some snapshot cannot be read or is not valid
+	 * @see UTreeSnapshotEntry#isModified(UTreeSnapshotEntry, boolean)
+	 */
+	public static long diff(@NotNull InputStream previous, @NotNull InputStream current,
+		UEmptyFun.@NotNull UEmptyFun2<String, UResourceChange> consumer) throws IOException {
+		UObject.requireNotNull(previous, "previous");
+		UObject.requireNotNull(current, "current");
+		UObject.requireNotNull(consumer, "consumer");
+		// Temporal variables
+		UTreeSnapshotReader oldReader = UTreeSnapshotReader.of(previous);
+		UTreeSnapshotReader newReader = UTreeSnapshotReader.of(current);
+		
+		try {
+			return diffImpl(oldReader, newReader, consumer);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	/**
+	 * Compares two snapshot files of the same tree
+	 *
+	 * @param previous the old snapshot file
+	 * @param current  the new snapshot file
+	 * @return all the changed locations sorted by location
+	 * @throws IOException error if some snapshot cannot be read or is not valid
+	 * @see #diff(InputStream, InputStream, UEmptyFun.UEmptyFun2)
+	 */
+	public static @NotNull Map<String, UResourceChange> diff(@NotNull Path previous, @NotNull Path current)
+		throws IOException {
+		UObject.requireNotNull(previous, "previous");
+		UObject.requireNotNull(current, "current");
+		// Temporal variables
+		Map<String, UResourceChange> result = new LinkedHashMap<>();
+		
+		try (InputStream oldInput = Files.newInputStream(previous);
+			 InputStream newInput = Files.newInputStream(current)) {
+			diff(oldInput, newInput, result::put);
+		}
+		return Collections.unmodifiableMap(result);
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Merges two sorted snapshots and reports all the differences
+	 *
+	 * @param previous the old snapshot
+	 * @param current  the new snapshot
+	 * @param consumer the action executed with every changed location
+	 * @return the number of changes found
+	 */
+	private static long diffImpl(@NotNull UTreeSnapshotReader previous, @NotNull UTreeSnapshotReader current,
+		UEmptyFun.@NotNull UEmptyFun2<String, UResourceChange> consumer) {
+		// Temporal variables
+		UTreeSnapshotEntry oldEntry = previous.hasNext() ? previous.next() : null;
+		UTreeSnapshotEntry newEntry = current.hasNext() ? current.next() : null;
+		boolean digests = previous.algorithm().equals(current.algorithm());
+		long changes = 0;
+		
+		while (oldEntry != null || newEntry != null) {
+			int order = oldEntry == null ? 1 : newEntry == null ? -1 :
+				UTreeSnapshotFormat.compareLocations(oldEntry.location(), newEntry.location());
+			
+			if (order < 0) {
+				consumer.invoke(oldEntry.location(), UResourceChange.REMOVED);
+				changes++;
+			} else if (order > 0) {
+				consumer.invoke(newEntry.location(), UResourceChange.ADDED);
+				changes++;
+			} else if (oldEntry.isModified(newEntry, digests)) {
+				consumer.invoke(newEntry.location(), UResourceChange.MODIFIED);
+				changes++;
+			}
+			
+			// Advance the snapshots with the lowest location
+			if (order <= 0) oldEntry = previous.hasNext() ? previous.next() : null;
+			if (order >= 0) newEntry = current.hasNext() ? current.next() : null;
+		}
+		return changes;
+	}
+	
+	/**
+	 * Calculates the digest of a snapshot element. Only the regular files are hashed,
+	 * the rest of the elements use an empty digest.
+	 *
+	 * @param path       the element path
+	 * @param attributes the element attributes
+	 * @param algorithm  the digest algorithm or {@code null} if digests are not used
+	 * @return the element digest or {@code null} if digests are not used
+	 * @throws IOException              error if the element cannot be read
+	 * @throws NoSuchAlgorithmException error if the digest algorithm not exists
+	 */
+	private static byte @Nullable [] digestImpl(@NotNull Path path, @NotNull BasicFileAttributes attributes,
+		@Nullable String algorithm) throws IOException, NoSuchAlgorithmException {
+		if (algorithm == null) return null;
+		return attributes.isRegularFile() ? UResource.resourceHash(path, algorithm) : new byte[0];
+	}
+	
+	/**
+	 * Writes a single snapshot element
+	 *
+	 * @param data       the snapshot output
+	 * @param previous   the location of the previous element
+	 * @param location   the location of the current element
+	 * @param attributes the element attributes
+	 * @param digest     the element digest or {@code null} if digests are not used
+	 * @throws IOException error if the element cannot be written
+	 */
+	private static void writeEntryImpl(@NotNull DataOutputStream data, @NotNull String previous,
+		@NotNull String location, @NotNull BasicFileAttributes attributes, byte @Nullable [] digest)
+		throws IOException {
+		// Temporal variables
+		int shared = UTreeSnapshotFormat.sharedPrefix(previous, location);
+		byte[] suffix = location.substring(shared).getBytes(StandardCharsets.UTF_8);
+		int kind = attributes.isDirectory() ? UTreeSnapshotFormat.KIND_DIRECTORY :
+			attributes.isRegularFile() ? UTreeSnapshotFormat.KIND_FILE : UTreeSnapshotFormat.KIND_OTHER;
+		
+		data.writeByte(kind);
+		UTreeSnapshotFormat.writeVarLong(data, shared);
+		UTreeSnapshotFormat.writeVarLong(data, suffix.length);
+		data.write(suffix);
+		UTreeSnapshotFormat.writeVarLong(data, attributes.isDirectory() ? 0L : attributes.size());
+		UTreeSnapshotFormat.writeSignedVarLong(data, attributes.lastModifiedTime().toMillis());
+		
+		if (digest == null) return;
+		UTreeSnapshotFormat.writeVarLong(data, digest.length);
+		data.write(digest);
+	}
+	
+	/**
+	 * Gets the children of a directory sorted by name
+	 *
+	 * @param directory the directory to read
+	 * @return an iterator with the sorted children
+	 * @throws IOException error if the directory cannot be read
+	 */
+	private static @NotNull Iterator<Path> sortedChildrenImpl(@NotNull Path directory) throws IOException {
+		// Temporal variables
+		List<Path> children = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path child : stream) children.add(child);
+		}
+		children.sort(Comparator.comparing(it -> it.getFileName().toString()));
+		return children.iterator();
+	}
+	
+}
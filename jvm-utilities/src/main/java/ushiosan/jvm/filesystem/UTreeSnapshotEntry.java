@@ -0,0 +1,205 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UHex;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.internal.filesystem.UTreeSnapshotFormat;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Element stored in a tree snapshot
+ *
+ * @see UTreeSnapshot
+ */
+public final class UTreeSnapshotEntry {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The element location, relative to the snapshot directory and with {@code /} as separator
+	 */
+	private final String location;
+	
+	/**
+	 * The element kind
+	 */
+	private final int kind;
+	
+	/**
+	 * The element size in bytes
+	 */
+	private final long size;
+	
+	/**
+	 * The last modification time in milliseconds
+	 */
+	private final long lastModified;
+	
+	/**
+	 * The content digest or {@code null} if the snapshot does not contain digests
+	 */
+	private final byte[] digest;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param location     the element location
+	 * @param kind         the element kind
+	 * @param size         the element size in bytes
+	 * @param lastModified the last modification time in milliseconds
+	 * @param digest       the content digest or {@code null} if not exists
+	 */
+	public UTreeSnapshotEntry(@NotNull String location, int kind, long size, long lastModified,
+		byte @Nullable [] digest) {
+		UObject.requireNotNull(location, "location");
+		this.location = location;
+		this.kind = kind;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.digest = digest;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The element location, relative to the snapshot directory and with {@code /} as separator
+	 *
+	 * @return the element location
+	 */
+	public @NotNull String location() {
+		return location;
+	}
+	
+	/**
+	 * Determines if the element is a directory
+	 *
+	 * @return {@code true} if the element is a directory or {@code false} otherwise
+	 */
+	public boolean isDirectory() {
+		return kind == UTreeSnapshotFormat.KIND_DIRECTORY;
+	}
+	
+	/**
+	 * Determines if the element is a regular file
+	 *
+	 * @return {@code true} if the element is a regular file or {@code false} otherwise
+	 */
+	public boolean isRegularFile() {
+		return kind == UTreeSnapshotFormat.KIND_FILE;
+	}
+	
+	/**
+	 * The element size in bytes
+	 *
+	 * @return the element size
+	 */
+	public long size() {
+		return size;
+	}
+	
+	/**
+	 * The last modification time
+	 *
+	 * @return the modification time in milliseconds since the epoch
+	 */
+	public long lastModified() {
+		return lastModified;
+	}
+	
+	/**
+	 * The content digest of the element. Only the regular files of the snapshots
+	 * generated with a digest algorithm contain a digest.
+	 *
+	 * @return the content digest or {@code null} if not exists
+	 */
+	public byte @Nullable [] digest() {
+		return digest == null ? null : digest.clone();
+	}
+	
+	/**
+	 * Checks if the element was modified in another version of the tree.
+	 * When both elements contain a digest, the content is compared with the digests
+	 * and the modification time is ignored. Directories are only compared by their kind.
+	 * Both digests must be generated with the same algorithm.
+	 *
+	 * @param other the element of the other version
+	 * @return {@code true} if the element is different or {@code false} otherwise
+	 * @see #isModified(UTreeSnapshotEntry, boolean)
+	 */
+	public boolean isModified(@NotNull UTreeSnapshotEntry other) {
+		return isModified(other, true);
+	}
+	
+	/**
+	 * Checks if the element was modified in another version of the tree.
+	 * Directories are only compared by their kind.
+	 *
+	 * @param other   the element of the other version
+	 * @param digests determines if the digests can be compared (both digests were generated
+	 *                with the same algorithm). When the digests are not compared, the
+	 *                modification time is compared instead
+	 * @return {@code true} if the element is different or {@code false} otherwise
+	 */
+	public boolean isModified(@NotNull UTreeSnapshotEntry other, boolean digests) {
+		UObject.requireNotNull(other, "other");
+		if (kind != other.kind) return true;
+		if (kind == UTreeSnapshotFormat.KIND_DIRECTORY) return false;
+		if (size != other.size) return true;
+		
+		if (digests && digest != null && other.digest != null) return !Arrays.equals(digest, other.digest);
+		return lastModified != other.lastModified;
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Indicates whether some other object is "equal to" this one.
+	 *
+	 * @param obj the reference object with which to compare.
+	 * @return {@code true} if this object is the same as the obj
+	 * 	argument; {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		if (obj == null || !UObject.canCast(obj, getClass())) return false;
+		
+		UTreeSnapshotEntry other = UObject.cast(obj);
+		return kind == other.kind && size == other.size && lastModified == other.lastModified &&
+			   location.equals(other.location) && Arrays.equals(digest, other.digest);
+	}
+	
+	/**
+	 * Returns a hash code value for the object.
+	 *
+	 * @return a hash code value for this object.
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * Objects.hash(location, kind, size, lastModified) + Arrays.hashCode(digest);
+	}
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("%s(size=%d, lastModified=%d%s)", location, size, lastModified,
+							 digest == null ? "" : ", digest=" + UHex.toHexString(digest));
+	}
+	
+}
@@ -0,0 +1,213 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.internal.filesystem.UTreeSnapshotFormat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Sequential reader of a tree snapshot.
+ * <p>
+ * The elements are decoded one by one while the snapshot is iterated, so the memory
+ * used by the reader does not depend on the size of the snapshot. The elements are
+ * returned in the same order in which they were written (sorted by location).
+ * The errors found while the snapshot is iterated are thrown as {@link UncheckedIOException}.
+ *
+ * @see UTreeSnapshot
+ */
+public final class UTreeSnapshotReader implements Iterator<UTreeSnapshotEntry>, AutoCloseable {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The snapshot content
+	 */
+	private final DataInputStream input;
+	
+	/**
+	 * Digest algorithm used to generate the snapshot or {@code null} if the snapshot does not contain digests
+	 */
+	private final String algorithm;
+	
+	/**
+	 * The last decoded location, used to restore the compressed locations
+	 */
+	private String location = "";
+	
+	/**
+	 * The next element or {@code null} if it has not been decoded
+	 */
+	private UTreeSnapshotEntry next;
+	
+	/**
+	 * Number of decoded elements
+	 */
+	private long count;
+	
+	/**
+	 * Determines if the end of the snapshot was reached
+	 */
+	private boolean finished;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param input the snapshot content
+	 * @throws IOException error if the snapshot header is not valid
+	 */
+	private UTreeSnapshotReader(@NotNull DataInputStream input) throws IOException {
+		this.input = input;
+		if (input.readInt() != UTreeSnapshotFormat.MAGIC) {
+			throw new StreamCorruptedException("The content is not a tree snapshot");
+		}
+		int version = input.readUnsignedByte();
+		if (version != UTreeSnapshotFormat.VERSION) {
+			throw new StreamCorruptedException("Unsupported snapshot version: " + version);
+		}
+		String algorithm = input.readUTF();
+		this.algorithm = algorithm.isEmpty() ? null : algorithm;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Opens a snapshot and reads its header. The stream is closed when the reader is closed.
+	 *
+	 * @param input the snapshot content
+	 * @return a new reader of the snapshot
+	 * @throws IOException error if the snapshot header is not valid
+	 */
+	@Contract("_ -> new")
+	public static @NotNull UTreeSnapshotReader of(@NotNull InputStream input) throws IOException {
+		UObject.requireNotNull(input, "input");
+		// Temporal variables
+		InputStream buffered = input instanceof BufferedInputStream ? input : new BufferedInputStream(input);
+		return new UTreeSnapshotReader(new DataInputStream(buffered));
+	}
+	
+	/**
+	 * Digest algorithm used to generate the snapshot
+	 *
+	 * @return the digest algorithm or {@link Optional#empty()} if the snapshot does not contain digests
+	 */
+	public @NotNull Optional<String> algorithm() {
+		return Optional.ofNullable(algorithm);
+	}
+	
+	/**
+	 * Number of elements decoded until now
+	 *
+	 * @return the number of elements
+	 */
+	public long count() {
+		return count;
+	}
+	
+	/**
+	 * Returns {@code true} if the iteration has more elements.
+	 *
+	 * @return {@code true} if the iteration has more elements
+	 * @throws UncheckedIOException error if the snapshot is not valid
+	 */
+	@Override
+	public boolean hasNext() {
+		if (next != null) return true;
+		if (finished) return false;
+		
+		try {
+			next = readImpl();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return next != null;
+	}
+	
+	/**
+	 * Returns the next element in the iteration.
+	 *
+	 * @return the next element in the iteration
+	 * @throws NoSuchElementException if the iteration has no more elements
+	 * @throws UncheckedIOException   error if the snapshot is not valid
+	 */
+	@Override
+	public @NotNull UTreeSnapshotEntry next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		// Temporal variables
+		UTreeSnapshotEntry result = next;
+		next = null;
+		return result;
+	}
+	
+	/**
+	 * Closes the snapshot content
+	 *
+	 * @throws IOException error if the content cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Decodes the next element of the snapshot
+	 *
+	 * @return the next element or {@code null} if the end of the snapshot was reached
+	 * @throws IOException error if the snapshot is not valid
+	 */
+	private @Nullable UTreeSnapshotEntry readImpl() throws IOException {
+		int kind = input.readUnsignedByte();
+		if (kind == UTreeSnapshotFormat.KIND_END) {
+			long expected = UTreeSnapshotFormat.readVarLong(input);
+			if (expected != count) throw new StreamCorruptedException("Incomplete snapshot: " + count + "/" + expected);
+			finished = true;
+			return null;
+		}
+		if (kind > UTreeSnapshotFormat.KIND_OTHER) throw new StreamCorruptedException("Invalid element kind: " + kind);
+		
+		// Restore the compressed location
+		int shared = UTreeSnapshotFormat.readVarInt(input);
+		byte[] suffix = new byte[UTreeSnapshotFormat.readVarInt(input)];
+		input.readFully(suffix);
+		if (shared > location.length()) throw new StreamCorruptedException("Invalid location prefix: " + shared);
+		String current = location.substring(0, shared) + new String(suffix, StandardCharsets.UTF_8);
+		// The diff requires the elements in order
+		if (count > 0 && UTreeSnapshotFormat.compareLocations(location, current) >= 0) {
+			throw new StreamCorruptedException("The snapshot elements are not sorted: " + current);
+		}
+		location = current;
+		
+		long size = UTreeSnapshotFormat.readVarLong(input);
+		long lastModified = UTreeSnapshotFormat.readSignedVarLong(input);
+		byte[] digest = null;
+		if (algorithm != null) {
+			int length = UTreeSnapshotFormat.readVarInt(input);
+			if (length > 0) {
+				digest = new byte[length];
+				input.readFully(digest);
+			}
+		}
+		
+		count++;
+		return new UTreeSnapshotEntry(location, kind, size, lastModified, digest);
+	}
+	
+}
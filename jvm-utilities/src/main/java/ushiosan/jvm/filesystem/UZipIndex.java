@@ -0,0 +1,516 @@
+package ushiosan.jvm.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.internal.filesystem.UZipIndexNode;
+import ushiosan.jvm.internal.validators.UResourceValidator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Immutable index of all the entries of a zip (or jar) archive.
+ * <p>
+ * The index is built with a single pass over the archive central directory and
+ * allows to find entries by their full name, by their directory and by their
+ * extension without scanning all the archive entries. The result of the
+ * prefix and extension queries keeps the original order of the archive.
+ * <p>
+ * Indexes are cached by archive location, so every archive is only indexed once
+ * (or again when its size or modification time changes), and the same instance
+ * can be shared between multiple threads. Only the {@link #CACHE_CAPACITY} most
+ * recently used indexes are kept in the cache.
+ * <p>
+ * The returned entries are copies of the indexed entries, so they can be modified
+ * without affecting the index.
+ *
+ * @see ZipFile#stream()
+ */
+public final class UZipIndex extends UResourceValidator {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Maximum number of indexes stored in the cache
+	 */
+	public static final int CACHE_CAPACITY = 64;
+	
+	/**
+	 * Separator used by the zip entries
+	 */
+	private static final char ENTRY_SEPARATOR = '/';
+	
+	/**
+	 * Empty entry positions
+	 */
+	private static final int[] EMPTY_POSITIONS = new int[0];
+	
+	/**
+	 * All the cached indexes. The map is ordered by access, so the first
+	 * index is always the least recently used.
+	 */
+	private static final Map<Path, UZipIndex> cachedIndexes = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, UZipIndex> eldest) {
+			return size() > CACHE_CAPACITY;
+		}
+	};
+	
+	/**
+	 * The indexed archive location
+	 */
+	private final Path archive;
+	
+	/**
+	 * The archive size when it was indexed
+	 */
+	private final long archiveSize;
+	
+	/**
+	 * The archive last modification time (in milliseconds) when it was indexed
+	 */
+	private final long archiveLastModified;
+	
+	/**
+	 * All the archive entries in their original order
+	 */
+	private final ZipEntry[] entries;
+	
+	/**
+	 * Entry positions keyed by the entry full name
+	 */
+	private final Map<String, Integer> names;
+	
+	/**
+	 * Entry positions grouped by the entry extension
+	 */
+	private final Map<String, int[]> extensions;
+	
+	/**
+	 * Root directory of the archive
+	 */
+	private final UZipIndexNode root;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param archive    the indexed archive location
+	 * @param attributes the archive attributes
+	 * @param file       the archive to index
+	 */
+	private UZipIndex(@NotNull Path archive, @NotNull BasicFileAttributes attributes, @NotNull ZipFile file) {
+		this.archive = archive;
+		this.archiveSize = attributes.size();
+		this.archiveLastModified = attributes.lastModifiedTime().toMillis();
+		this.entries = file.stream().toArray(ZipEntry[]::new);
+		this.names = new HashMap<>(Math.max(16, (int) (entries.length / 0.75f) + 1));
+		this.root = new UZipIndexNode();
+		// Temporal variables
+		Map<String, List<Integer>> groups = new HashMap<>();
+		
+		for (int i = 0; i < entries.length; i++) {
+			ZipEntry entry = entries[i];
+			names.putIfAbsent(entry.getName(), i);
+			registerEntry(entry.getName(), i);
+			
+			// Directories never contain extensions
+			if (entry.isDirectory()) continue;
+			Optional<String> extension = extensionImpl(allExtensionsImpl(entry.getName()));
+			if (extension.isEmpty()) continue;
+			
+			final int position = i;
+			groups.computeIfAbsent(extension.get(), it -> new ArrayList<>())
+				.add(position);
+		}
+		
+		// Compact the extension groups
+		Map<String, int[]> compactGroups = new HashMap<>();
+		for (var group : groups.entrySet()) {
+			compactGroups.put(group.getKey(), group.getValue()
+				.stream()
+				.mapToInt(Integer::intValue)
+				.toArray());
+		}
+		this.extensions = compactGroups;
+		this.root.trim();
+	}
+	
+	/* -----------------------------------------------------
+	 * Static methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the index of the given archive. The archive is only indexed if there is
+	 * no cached index or the archive was modified after it was indexed.
+	 *
+	 * @param archive the archive location
+	 * @return the archive index
+	 * @throws IOException error if the archive cannot be read
+	 */
+	public static @NotNull UZipIndex of(@NotNull Path archive) throws IOException {
+		UObject.requireNotNull(archive, "archive");
+		return ofImpl(archive.toAbsolutePath().normalize(), null);
+	}
+	
+	/**
+	 * Gets the index of the given archive. If the archive must be indexed, the entries
+	 * are read from the given instance, so the archive is not opened again.
+	 *
+	 * @param file the archive to index
+	 * @return the archive index
+	 * @throws IOException error if the archive attributes cannot be read
+	 */
+	public static @NotNull UZipIndex of(@NotNull ZipFile file) throws IOException {
+		UObject.requireNotNull(file, "file");
+		return ofImpl(Path.of(file.getName()).toAbsolutePath().normalize(), file);
+	}
+	
+	/**
+	 * Removes the cached index of the given archive
+	 *
+	 * @param archive the archive location
+	 * @return {@code true} if the index was removed or {@code false} otherwise
+	 */
+	public static boolean invalidate(@NotNull Path archive) {
+		UObject.requireNotNull(archive, "archive");
+		synchronized (cachedIndexes) {
+			return cachedIndexes.remove(archive.toAbsolutePath().normalize()) != null;
+		}
+	}
+	
+	/**
+	 * Removes all the cached indexes
+	 */
+	public static void clear() {
+		synchronized (cachedIndexes) {
+			cachedIndexes.clear();
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The indexed archive location
+	 *
+	 * @return the archive location
+	 */
+	public @NotNull Path archive() {
+		return archive;
+	}
+	
+	/**
+	 * Number of indexed entries
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return entries.length;
+	}
+	
+	/**
+	 * All the archive entries in their original order
+	 *
+	 * @return a stream with all the entries
+	 */
+	public @NotNull Stream<ZipEntry> entries() {
+		return Arrays.stream(entries)
+			.map(ZipEntry::new);
+	}
+	
+	/**
+	 * Gets the entry with the given full name
+	 *
+	 * @param name the entry full name (e.g. {@code META-INF/MANIFEST.MF})
+	 * @return the entry or {@link Optional#empty()} if not exists
+	 */
+	public @NotNull Optional<ZipEntry> entry(@NotNull String name) {
+		UObject.requireNotNull(name, "name");
+		Integer position = names.get(name);
+		return position == null ? Optional.empty() : Optional.of(new ZipEntry(entries[position]));
+	}
+	
+	/**
+	 * Checks if an entry with the given full name exists
+	 *
+	 * @param name the entry full name (e.g. {@code META-INF/MANIFEST.MF})
+	 * @return {@code true} if the entry exists or {@code false} otherwise
+	 */
+	public boolean contains(@NotNull String name) {
+		UObject.requireNotNull(name, "name");
+		return names.containsKey(name);
+	}
+	
+	/**
+	 * Gets all the entries inside the given directory. The directory does not need
+	 * to exist as an entry of the archive.
+	 *
+	 * @param directory the directory location (e.g. {@code META-INF/services})
+	 * @param recursive determines if the entries of the subdirectories are also included
+	 * @return a stream with all the directory entries
+	 */
+	public @NotNull Stream<ZipEntry> directory(@NotNull String directory, boolean recursive) {
+		UObject.requireNotNull(directory, "directory");
+		return toStream(directoryImpl(directory, recursive));
+	}
+	
+	/**
+	 * Gets all the entries with any of the given extensions.
+	 * Directories never contain extensions, so they are never included.
+	 *
+	 * @param extensions the entry possible extensions
+	 * @return a stream with all the entries that have the extensions
+	 * @see UResource#extension(ZipEntry)
+	 */
+	public @NotNull Stream<ZipEntry> extensions(String @NotNull ... extensions) {
+		UObject.requireNotNull(extensions, "extensions");
+		return toStream(extensionsImpl(extensions));
+	}
+	
+	/**
+	 * Gets all the entries inside the given directory with any of the given extensions
+	 *
+	 * @param directory  the directory location (e.g. {@code META-INF/services})
+	 * @param recursive  determines if the entries of the subdirectories are also included
+	 * @param extensions the entry possible extensions
+	 * @return a stream with all the entries that meet both restrictions
+	 */
+	public @NotNull Stream<ZipEntry> directory(@NotNull String directory, boolean recursive,
+		String @NotNull ... extensions) {
+		UObject.requireNotNull(directory, "directory");
+		UObject.requireNotNull(extensions, "extensions");
+		return toStream(intersectImpl(directoryImpl(directory, recursive), extensionsImpl(extensions)));
+	}
+	
+	/**
+	 * All the extensions found in the archive
+	 *
+	 * @return an unmodifiable set with all the extensions
+	 */
+	public @NotNull Set<String> allExtensions() {
+		return Collections.unmodifiableSet(extensions.keySet());
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the cached index of the given archive or generates a new one
+	 *
+	 * @param archive the normalized archive location
+	 * @param file    the opened archive or {@code null} to open it if necessary
+	 * @return the archive index
+	 * @throws IOException error if the archive cannot be read
+	 */
+	private static @NotNull UZipIndex ofImpl(@NotNull Path archive, @Nullable ZipFile file) throws IOException {
+		// Temporal variables
+		BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+		UZipIndex current;
+		
+		synchronized (cachedIndexes) {
+			current = cachedIndexes.get(archive);
+		}
+		if (current != null && current.isValid(attributes)) return current;
+		
+		// The archive is indexed outside the lock, so the lookups of other archives are never blocked
+		UZipIndex created;
+		try {
+			created = build(archive, attributes, file);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		
+		synchronized (cachedIndexes) {
+			current = cachedIndexes.get(archive);
+			if (current != null && current.isValid(attributes)) return current;
+			cachedIndexes.put(archive, created);
+		}
+		return created;
+	}
+	
+	/**
+	 * Generates the index of the given archive
+	 *
+	 * @param archive    the archive location
+	 * @param attributes the archive attributes
+	 * @param file       the opened archive or {@code null} to open it
+	 * @return the archive index
+	 * @throws UncheckedIOException error if the archive cannot be opened
+	 */
+	private static @NotNull UZipIndex build(@NotNull Path archive, @NotNull BasicFileAttributes attributes,
+		@Nullable ZipFile file) {
+		if (file != null) return new UZipIndex(archive, attributes, file);
+		
+		try (ZipFile opened = new ZipFile(archive.toFile())) {
+			return new UZipIndex(archive, attributes, opened);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Checks if the index still represents the archive
+	 *
+	 * @param attributes the current archive attributes
+	 * @return {@code true} if the archive was not modified or {@code false} otherwise
+	 */
+	private boolean isValid(@NotNull BasicFileAttributes attributes) {
+		return archiveSize == attributes.size() &&
+			   archiveLastModified == attributes.lastModifiedTime().toMillis();
+	}
+	
+	/**
+	 * Registers the entry in the node of its parent directory, creating
+	 * all the intermediate directories if necessary
+	 *
+	 * @param name     the entry full name
+	 * @param position the entry position
+	 */
+	private void registerEntry(@NotNull String name, int position) {
+		// Temporal variables
+		UZipIndexNode current = root;
+		int end = name.length();
+		int start = 0;
+		
+		// Directory entries end with a separator
+		while (end > 0 && name.charAt(end - 1) == ENTRY_SEPARATOR) end--;
+		
+		int separator = name.indexOf(ENTRY_SEPARATOR, start);
+		while (separator != -1 && separator < end) {
+			if (separator > start) current = current.child(name.substring(start, separator));
+			start = separator + 1;
+			separator = name.indexOf(ENTRY_SEPARATOR, start);
+		}
+		current.add(position);
+		
+		// Directories also generate their own node, even if they are empty
+		if (end < name.length() && start < end) current.child(name.substring(start, end));
+	}
+	
+	/**
+	 * Gets the positions of all the entries inside the given directory
+	 *
+	 * @param directory the directory location
+	 * @param recursive determines if the entries of the subdirectories are also included
+	 * @return the positions of the directory entries, in ascending order
+	 */
+	private int @NotNull [] directoryImpl(@NotNull String directory, boolean recursive) {
+		// Temporal variables
+		UZipIndexNode current = root;
+		int start = 0;
+		
+		while (current != null && start < directory.length()) {
+			int separator = directory.indexOf(ENTRY_SEPARATOR, start);
+			if (separator == -1) separator = directory.length();
+			if (separator > start) current = current.find(directory.substring(start, separator));
+			start = separator + 1;
+		}
+		
+		if (current == null) return EMPTY_POSITIONS;
+		return recursive ? current.subtreePositions() : current.positions();
+	}
+	
+	/**
+	 * Gets the positions of all the entries with any of the given extensions
+	 *
+	 * @param extensions the entry possible extensions
+	 * @return the positions of the entries, in ascending order
+	 */
+	private int @NotNull [] extensionsImpl(String @NotNull [] extensions) {
+		// A single extension uses its group directly
+		if (extensions.length == 1) return this.extensions.getOrDefault(extensions[0], EMPTY_POSITIONS);
+		
+		// Temporal variables
+		Set<String> unique = new HashSet<>(Arrays.asList(extensions));
+		int[][] groups = new int[unique.size()][];
+		int count = 0;
+		int size = 0;
+		
+		for (String extension : unique) {
+			int[] group = this.extensions.get(extension);
+			if (group == null) continue;
+			groups[count++] = group;
+			size += group.length;
+		}
+		if (count == 0) return EMPTY_POSITIONS;
+		if (count == 1) return groups[0];
+		
+		// Every entry has only one extension, so the groups never share positions
+		int[] result = new int[size];
+		int offset = 0;
+		for (int i = 0; i < count; i++) {
+			System.arraycopy(groups[i], 0, result, offset, groups[i].length);
+			offset += groups[i].length;
+		}
+		Arrays.sort(result);
+		return result;
+	}
+	
+	/**
+	 * Gets the positions that are included in both arrays
+	 *
+	 * @param first  the first positions, in ascending order
+	 * @param second the second positions, in ascending order
+	 * @return the common positions, in ascending order
+	 */
+	private static int @NotNull [] intersectImpl(int @NotNull [] first, int @NotNull [] second) {
+		// Temporal variables
+		int[] result = new int[Math.min(first.length, second.length)];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		
+		while (i < first.length && j < second.length) {
+			if (first[i] < second[j]) i++;
+			else if (first[i] > second[j]) j++;
+			else {
+				result[count++] = first[i];
+				i++;
+				j++;
+			}
+		}
+		return count == result.length ? result : Arrays.copyOf(result, count);
+	}
+	
+	/**
+	 * Converts the positions into a stream of entries
+	 *
+	 * @param positions the positions of the entries, in ascending order
+	 * @return a stream with copies of the entries in their original order
+	 */
+	private @NotNull Stream<ZipEntry> toStream(int @NotNull [] positions) {
+		return Arrays.stream(positions)
+			.mapToObj(it -> new ZipEntry(entries[it]));
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("%s (%d entries)", archive, entries.length);
+	}
+	
+}
@@ -0,0 +1,139 @@
+package ushiosan.jvm.internal.collections;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Immutable hash set of strings that can be queried with a region of another string.
+ * <p>
+ * The lookups calculate the hash directly from the region and compare the characters
+ * in place, so no intermediate string is generated for every query. This is useful
+ * to check names or extensions that are only a part of a larger location.
+ */
+public final class UStringRegionSet {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * All the elements distributed by their hash (open addressing)
+	 */
+	private final String[] table;
+	
+	/**
+	 * The hash of every element in the table
+	 */
+	private final int[] hashes;
+	
+	/**
+	 * Number of valid elements
+	 */
+	private final int size;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor. The {@code null} elements are ignored.
+	 *
+	 * @param elements all the set elements
+	 */
+	public UStringRegionSet(String @NotNull ... elements) {
+		UObject.requireNotNull(elements, "elements");
+		// Temporal variables
+		Set<String> unique = new LinkedHashSet<>();
+		for (String element : elements) {
+			if (element != null) unique.add(element);
+		}
+		
+		// The table is at most half full, so the probe sequences are short
+		int capacity = Integer.highestOneBit(Math.max(2, unique.size()) * 2 - 1) << 1;
+		this.table = new String[capacity];
+		this.hashes = new int[capacity];
+		this.size = unique.size();
+		
+		for (String element : unique) {
+			int hash = hash(element, 0, element.length());
+			int index = hash & (capacity - 1);
+			while (table[index] != null) index = (index + 1) & (capacity - 1);
+			
+			table[index] = element;
+			hashes[index] = hash;
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Checks if the given region is an element of the set
+	 *
+	 * @param text  the text that contains the region
+	 * @param start the region start (inclusive)
+	 * @param end   the region end (exclusive)
+	 * @return {@code true} if the region is an element of the set or {@code false} otherwise
+	 */
+	public boolean contains(@NotNull String text, int start, int end) {
+		if (size == 0) return false;
+		// Temporal variables
+		int length = end - start;
+		int hash = hash(text, start, end);
+		int mask = table.length - 1;
+		
+		for (int index = hash & mask; table[index] != null; index = (index + 1) & mask) {
+			String element = table[index];
+			if (hashes[index] == hash && element.length() == length &&
+				element.regionMatches(0, text, start, length)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Checks if the given text is an element of the set
+	 *
+	 * @param text the text to check
+	 * @return {@code true} if the text is an element of the set or {@code false} otherwise
+	 */
+	public boolean contains(@NotNull String text) {
+		return contains(text, 0, text.length());
+	}
+	
+	/**
+	 * Number of elements in the set
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Calculates the hash of a text region
+	 *
+	 * @param text  the text that contains the region
+	 * @param start the region start (inclusive)
+	 * @param end   the region end (exclusive)
+	 * @return the region hash
+	 */
+	private static int hash(@NotNull String text, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+		// Spread the high bits, because only the low bits are used as index
+		return hash ^ (hash >>> 16);
+	}
+	
+}
@@ -0,0 +1,216 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.security.MessageDigest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous operation that hashes the content of a file.
+ * <p>
+ * The reads are pipelined: the next block is requested before the current block is
+ * passed to the digest, so the disk and the digest work at the same time. No thread
+ * is blocked waiting for the content, and the buffers are taken from a shared pool.
+ * The channel is closed when the operation finishes, fails or is cancelled.
+ */
+public final class UAsyncHashTask implements CompletionHandler<Integer, ByteBuffer> {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The file content
+	 */
+	private final AsynchronousFileChannel channel;
+	
+	/**
+	 * The digest updated with every block
+	 */
+	private final MessageDigest digest;
+	
+	/**
+	 * The pool used to get the read buffers
+	 */
+	private final UDirectBufferPool pool;
+	
+	/**
+	 * The operation result
+	 */
+	private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+	
+	/**
+	 * Number of events (read completed and previous block digested) that
+	 * must happen before the next block can be processed
+	 */
+	private final AtomicInteger gate = new AtomicInteger();
+	
+	/**
+	 * Position of the next read
+	 */
+	private long position;
+	
+	/**
+	 * Buffer of the last completed read
+	 */
+	private ByteBuffer completedBuffer;
+	
+	/**
+	 * Number of bytes of the last completed read
+	 */
+	private int completedBytes;
+	
+	/**
+	 * Error of the last read or {@code null} if the read was successful
+	 */
+	private Throwable completedError;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param channel the file content
+	 * @param digest  the digest updated with every block
+	 * @param pool    the pool used to get the read buffers
+	 */
+	private UAsyncHashTask(@NotNull AsynchronousFileChannel channel, @NotNull MessageDigest digest,
+		@NotNull UDirectBufferPool pool) {
+		this.channel = channel;
+		this.digest = digest;
+		this.pool = pool;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Starts hashing the content of a channel
+	 *
+	 * @param channel the file content
+	 * @param digest  the digest updated with every block
+	 * @param pool    the pool used to get the read buffers
+	 * @return a future completed with the content digest
+	 */
+	public static @NotNull CompletableFuture<byte[]> start(@NotNull AsynchronousFileChannel channel,
+		@NotNull MessageDigest digest, @NotNull UDirectBufferPool pool) {
+		UObject.requireNotNull(channel, "channel");
+		UObject.requireNotNull(digest, "digest");
+		UObject.requireNotNull(pool, "pool");
+		UAsyncHashTask task = new UAsyncHashTask(channel, digest, pool);
+		
+		// The first block does not wait for a previous digest
+		task.gate.set(1);
+		task.read(pool.acquire());
+		return task.result;
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Invoked when a read has completed.
+	 *
+	 * @param read   the number of bytes read or {@code -1} at the end of the file
+	 * @param buffer the buffer that contains the block
+	 */
+	@Override
+	public void completed(Integer read, ByteBuffer buffer) {
+		completedBuffer = buffer;
+		completedBytes = read;
+		if (gate.decrementAndGet() == 0) process();
+	}
+	
+	/**
+	 * Invoked when a read fails.
+	 *
+	 * @param error  the error that caused the failure
+	 * @param buffer the buffer used by the read
+	 */
+	@Override
+	public void failed(Throwable error, ByteBuffer buffer) {
+		completedBuffer = buffer;
+		completedError = error;
+		if (gate.decrementAndGet() == 0) process();
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Requests the next block of the file
+	 *
+	 * @param buffer the buffer where the block is stored
+	 */
+	private void read(@NotNull ByteBuffer buffer) {
+		try {
+			channel.read(buffer, position, buffer, this);
+		} catch (RuntimeException e) {
+			failed(e, buffer);
+		}
+	}
+	
+	/**
+	 * Processes all the completed blocks. The method is executed by the thread that
+	 * opens the gate, so only one thread at a time updates the digest. A loop is used
+	 * instead of recursion, because the reads can complete faster than the digest.
+	 */
+	private void process() {
+		do {
+			// Temporal variables
+			ByteBuffer buffer = completedBuffer;
+			int read = completedBytes;
+			Throwable error = completedError;
+			
+			if (error != null || read < 0 || result.isDone()) {
+				pool.release(buffer);
+				finish(error);
+				return;
+			}
+			
+			// The next block is requested before the current one is digested
+			position += read;
+			gate.set(2);
+			read(pool.acquire());
+			
+			try {
+				digest.update(buffer.flip());
+			} catch (RuntimeException e) {
+				completedError = e;
+			} finally {
+				pool.release(buffer);
+			}
+		} while (gate.decrementAndGet() == 0);
+	}
+	
+	/**
+	 * Closes the channel and completes the result
+	 *
+	 * @param error the error of the operation or {@code null} if the operation was successful
+	 */
+	private void finish(Throwable error) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			if (error == null) error = e;
+		}
+		
+		if (error != null) {
+			result.completeExceptionally(error);
+		} else {
+			result.complete(digest.digest());
+		}
+	}
+	
+}
@@ -0,0 +1,172 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.function.UFunErr;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+
+/**
+ * Iterator that transforms the elements of another iterator concurrently.
+ * <p>
+ * The source elements are only consumed when there is room for new tasks, so
+ * there are never more than {@code capacity} elements being processed or waiting
+ * to be consumed. This way a slow consumer stops the workers instead of filling
+ * the memory with results (back-pressure). The results are returned in the
+ * order in which they are completed, not in the order of the source.
+ *
+ * @param <T> the source element type
+ * @param <R> the result type
+ */
+public final class UBoundedTaskIterator<T, R> implements Iterator<R>, AutoCloseable {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The source elements
+	 */
+	private final Iterator<T> source;
+	
+	/**
+	 * Function applied to every source element
+	 */
+	private final UFunErr.UFunErr1<R, T, Exception> mapper;
+	
+	/**
+	 * Maximum number of elements being processed at the same time
+	 */
+	private final int capacity;
+	
+	/**
+	 * Workers used to process all the elements
+	 */
+	private final ExecutorService executor;
+	
+	/**
+	 * Service used to receive the tasks in the order in which they are completed
+	 */
+	private final CompletionService<R> completion;
+	
+	/**
+	 * Number of submitted tasks that have not been consumed
+	 */
+	private int pending;
+	
+	/**
+	 * Determines if the workers were already released
+	 */
+	private boolean closed;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param source      the source elements
+	 * @param mapper      function applied to every source element
+	 * @param parallelism the number of workers
+	 * @param capacity    maximum number of elements being processed at the same time
+	 * @throws IllegalArgumentException error if {@code parallelism} or {@code capacity}
+	 *                                  are less than or equal to zero
+	 */
+	public UBoundedTaskIterator(@NotNull Iterator<T> source, @NotNull UFunErr.UFunErr1<R, T, Exception> mapper,
+		int parallelism, int capacity) {
+		UObject.requireNotNull(source, "source");
+		UObject.requireNotNull(mapper, "mapper");
+		if (parallelism <= 0) throw new IllegalArgumentException("The parallelism must be greater than zero");
+		if (capacity <= 0) throw new IllegalArgumentException("The capacity must be greater than zero");
+		
+		this.source = source;
+		this.mapper = mapper;
+		this.capacity = capacity;
+		this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			// Workers must not keep the application alive if the iterator is abandoned
+			Thread thread = new Thread(runnable, "resource-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.completion = new ExecutorCompletionService<>(executor);
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns {@code true} if the iteration has more elements.
+	 *
+	 * @return {@code true} if the iteration has more elements
+	 */
+	@Override
+	public boolean hasNext() {
+		fill();
+		boolean result = pending > 0;
+		
+		// All the elements were consumed
+		if (!result) close();
+		return result;
+	}
+	
+	/**
+	 * Returns the next completed element in the iteration.
+	 *
+	 * @return the next completed element
+	 * @throws UncheckedIOException error if the element cannot be processed
+	 */
+	@Override
+	public R next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		try {
+			Future<R> future = completion.take();
+			pending--;
+			return future.get();
+		} catch (InterruptedException e) {
+			close();
+			Thread.currentThread().interrupt();
+			throw new UncheckedIOException(new InterruptedIOException(e.getMessage()));
+		} catch (ExecutionException e) {
+			close();
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) throw new UncheckedIOException((IOException) cause);
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+	
+	/**
+	 * Stops all the workers. The tasks that have not been completed are cancelled
+	 * and the iterator does not return more elements.
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		pending = 0;
+		executor.shutdownNow();
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Submits new tasks until the maximum capacity is reached or the source has no more elements
+	 */
+	private void fill() {
+		while (!closed && pending < capacity && source.hasNext()) {
+			T element = source.next();
+			completion.submit(() -> mapper.invoke(element));
+			pending++;
+		}
+	}
+	
+}
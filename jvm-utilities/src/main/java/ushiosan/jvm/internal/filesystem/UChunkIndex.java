@@ -0,0 +1,182 @@
+package ushiosan.jvm.internal.filesystem;
+
+/**
+ * Compact set of chunk fingerprints used to detect duplicated chunks.
+ * <p>
+ * The fingerprints are stored in primitive arrays with open addressing, so every
+ * distinct chunk only uses a few bytes of memory and no object is created per chunk.
+ * The fingerprint {@code 0} is reserved to mark the empty slots, so it is stored
+ * separately.
+ * <p>
+ * The number of stored fingerprints is limited. When the limit is reached, the index
+ * only keeps a sample of the fingerprints (the ones whose low bits are zero) and the
+ * sample is halved every time the limit is reached again. Because the fingerprints are
+ * digests, the sample is uniform and every stored fingerprint represents
+ * {@link #sampleRate()} distinct chunks. This class is not thread-safe.
+ */
+public final class UChunkIndex {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Initial number of slots
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	/**
+	 * Maximum number of stored fingerprints
+	 */
+	private final int capacity;
+	
+	/**
+	 * All the stored fingerprints distributed by their value
+	 */
+	private long[] fingerprints = new long[INITIAL_CAPACITY];
+	
+	/**
+	 * Number of stored fingerprints (including the reserved one)
+	 */
+	private int size;
+	
+	/**
+	 * Determines if the reserved fingerprint ({@code 0}) was stored
+	 */
+	private boolean containsZero;
+	
+	/**
+	 * Number of low bits that must be zero to store a fingerprint
+	 */
+	private int sampleBits;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param capacity maximum number of stored fingerprints
+	 * @throws IllegalArgumentException error if {@code capacity} is less than or equal to zero
+	 */
+	public UChunkIndex(int capacity) {
+		if (capacity <= 0) throw new IllegalArgumentException("The capacity must be greater than zero");
+		this.capacity = capacity;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Checks if a fingerprint belongs to the current sample. The fingerprints
+	 * outside the sample are ignored by {@link #add(long)}.
+	 *
+	 * @param fingerprint the chunk fingerprint
+	 * @return {@code true} if the fingerprint is sampled or {@code false} otherwise
+	 */
+	public boolean sampled(long fingerprint) {
+		return (fingerprint & ((1L << sampleBits) - 1L)) == 0L;
+	}
+	
+	/**
+	 * Stores a fingerprint in the index. The fingerprint must be part of the
+	 * current sample (see {@link #sampled(long)}).
+	 *
+	 * @param fingerprint the chunk fingerprint
+	 * @return {@code true} if the fingerprint is new or {@code false} if it was already stored
+	 */
+	public boolean add(long fingerprint) {
+		if (!sampled(fingerprint)) return false;
+		if (fingerprint == 0L) {
+			if (containsZero) return false;
+			containsZero = true;
+			size++;
+			return true;
+		}
+		
+		// The table is at most half full, so the probe sequences are short
+		if ((size + 1) * 2 > fingerprints.length) resize();
+		if (!insert(fingerprints, fingerprint)) return false;
+		size++;
+		
+		// The sample is reduced until there is room for new fingerprints
+		while (size >= capacity && sampleBits < Long.SIZE - 1) {
+			sampleBits++;
+			discardUnsampled();
+		}
+		return true;
+	}
+	
+	/**
+	 * Number of distinct chunks represented by every stored fingerprint
+	 *
+	 * @return the current sample rate
+	 */
+	public long sampleRate() {
+		return 1L << sampleBits;
+	}
+	
+	/**
+	 * Number of distinct fingerprints
+	 *
+	 * @return the number of stored fingerprints
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Stores a fingerprint in the given table
+	 *
+	 * @param table       the table where the fingerprint is stored
+	 * @param fingerprint the chunk fingerprint
+	 * @return {@code true} if the fingerprint is new or {@code false} if it was already stored
+	 */
+	private static boolean insert(long[] table, long fingerprint) {
+		int mask = table.length - 1;
+		// The fingerprints are digests, so the low bits are already distributed
+		int index = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+		
+		while (table[index] != 0L) {
+			if (table[index] == fingerprint) return false;
+			index = (index + 1) & mask;
+		}
+		table[index] = fingerprint;
+		return true;
+	}
+	
+	/**
+	 * Doubles the number of slots and distributes all the fingerprints again
+	 */
+	private void resize() {
+		long[] table = new long[fingerprints.length << 1];
+		for (long fingerprint : fingerprints) {
+			if (fingerprint != 0L) insert(table, fingerprint);
+		}
+		fingerprints = table;
+	}
+	
+	/**
+	 * Removes all the fingerprints that are not part of the current sample.
+	 * The number of slots is preserved.
+	 */
+	private void discardUnsampled() {
+		long[] table = new long[fingerprints.length];
+		int count = containsZero ? 1 : 0;
+		for (long fingerprint : fingerprints) {
+			if (fingerprint != 0L && sampled(fingerprint)) {
+				insert(table, fingerprint);
+				count++;
+			}
+		}
+		fingerprints = table;
+		size = count;
+	}
+	
+}
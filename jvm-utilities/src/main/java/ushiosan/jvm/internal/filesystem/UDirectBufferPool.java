@@ -0,0 +1,113 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe pool of direct buffers with the same size.
+ * <p>
+ * Allocating a direct buffer is expensive and its memory is only released when the buffer
+ * is collected, so the buffers are reused between operations. The pool never blocks: when
+ * it is empty a new buffer is allocated, and when it is full the returned buffers are discarded.
+ */
+public final class UDirectBufferPool {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * All the available buffers
+	 */
+	private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+	
+	/**
+	 * Number of available buffers
+	 */
+	private final AtomicInteger available = new AtomicInteger();
+	
+	/**
+	 * Size of every buffer
+	 */
+	private final int bufferSize;
+	
+	/**
+	 * Maximum number of available buffers
+	 */
+	private final int capacity;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param bufferSize size of every buffer
+	 * @param capacity   maximum number of available buffers
+	 * @throws IllegalArgumentException error if {@code bufferSize} or {@code capacity}
+	 *                                  are less than or equal to zero
+	 */
+	public UDirectBufferPool(int bufferSize, int capacity) {
+		if (bufferSize <= 0) throw new IllegalArgumentException("The buffer size must be greater than zero");
+		if (capacity <= 0) throw new IllegalArgumentException("The capacity must be greater than zero");
+		this.bufferSize = bufferSize;
+		this.capacity = capacity;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Size of every buffer
+	 *
+	 * @return the buffer size in bytes
+	 */
+	public int bufferSize() {
+		return bufferSize;
+	}
+	
+	/**
+	 * Number of available buffers
+	 *
+	 * @return the number of pooled buffers
+	 */
+	public int available() {
+		return available.get();
+	}
+	
+	/**
+	 * Takes a buffer from the pool or allocates a new one if the pool is empty
+	 *
+	 * @return an empty buffer ready to be written
+	 */
+	public @NotNull ByteBuffer acquire() {
+		ByteBuffer buffer = buffers.poll();
+		if (buffer == null) return ByteBuffer.allocateDirect(bufferSize);
+		
+		available.decrementAndGet();
+		return buffer.clear();
+	}
+	
+	/**
+	 * Returns a buffer to the pool. The buffer must not be used after this call.
+	 *
+	 * @param buffer the buffer to return
+	 */
+	public void release(@Nullable ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) return;
+		// The pool is full, so the buffer is left to the garbage collector
+		if (available.incrementAndGet() > capacity) {
+			available.decrementAndGet();
+			return;
+		}
+		buffers.offer(buffer.clear());
+	}
+	
+}
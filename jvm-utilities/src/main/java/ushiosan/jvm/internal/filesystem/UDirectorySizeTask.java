@@ -0,0 +1,95 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.filesystem.UDirectorySize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Task used to calculate the disk usage of a directory tree in parallel. Each
+ * subdirectory is processed by its own task, so the work is distributed through
+ * the {@link java.util.concurrent.ForkJoinPool} that executes the root task.
+ * <p>
+ * Every task only sums the files of its own directory and the subtotals are
+ * combined when the subtasks finish, so the workers never share a counter.
+ */
+public final class UDirectorySizeTask extends RecursiveTask<UDirectorySize> {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The directory analyzed by this task
+	 */
+	private final Path directory;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param directory the directory to analyze
+	 */
+	public UDirectorySizeTask(@NotNull Path directory) {
+		UObject.requireNotNull(directory, "directory");
+		this.directory = directory;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The main computation performed by this task.
+	 *
+	 * @return the usage of the directory tree
+	 */
+	@Override
+	protected UDirectorySize compute() {
+		// Temporal variables
+		List<UDirectorySizeTask> children = new ArrayList<>();
+		long ownSize = 0L;
+		long ownFiles = 0L;
+		
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path child : stream) {
+				// Symbolic links are not followed, so they are never counted twice
+				var attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				if (attributes.isDirectory()) {
+					children.add(new UDirectorySizeTask(child));
+				} else if (attributes.isRegularFile()) {
+					ownSize += attributes.size();
+					ownFiles++;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		// Process all subdirectories
+		List<UDirectorySize> result = new ArrayList<>(children.size());
+		if (!children.isEmpty()) {
+			invokeAll(children);
+			for (var child : children) {
+				result.add(child.join());
+			}
+			result.sort(Comparator.comparing(UDirectorySize::path));
+		}
+		return new UDirectorySize(directory, ownSize, ownFiles, result);
+	}
+	
+}
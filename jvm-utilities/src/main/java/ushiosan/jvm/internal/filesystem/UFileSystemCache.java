@@ -0,0 +1,358 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.ULogger;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.collections.UList;
+import ushiosan.jvm.filesystem.UFileSystemCacheMetrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Cache of virtual filesystems (such as zip or jar files) keyed by the archive location.
+ * <p>
+ * Every archive is opened only once, no matter how many resources inside it are
+ * requested. Plain accesses only update the last access time, while explicit
+ * acquisitions add a reference to the filesystem. The filesystems without references
+ * that were not used during the idle timeout are closed automatically the next time
+ * the cache is accessed. The idle eviction is disabled by default, so the filesystems
+ * remain open until they are disposed, and it is only enabled when an idle timeout
+ * is defined.
+ */
+public final class UFileSystemCache {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Current instance logger
+	 */
+	private static final Logger LOG = Logger.getLogger(ULogger.loggerName(UFileSystemCache.class));
+	
+	/**
+	 * Idle timeout used to disable the idle eviction
+	 */
+	public static final long IDLE_DISABLED = -1L;
+	
+	/**
+	 * Separator between the archive location and the entry location in a jar URI
+	 */
+	private static final String ARCHIVE_SEPARATOR = "!/";
+	
+	/**
+	 * All the cached filesystems
+	 */
+	private final Map<URI, UFileSystemCacheEntry> entries = new ConcurrentHashMap<>();
+	
+	/**
+	 * Number of requests resolved with an already opened filesystem
+	 */
+	private final LongAdder hits = new LongAdder();
+	
+	/**
+	 * Number of requests that required a new filesystem
+	 */
+	private final LongAdder misses = new LongAdder();
+	
+	/**
+	 * Number of filesystems opened by the cache
+	 */
+	private final LongAdder opened = new LongAdder();
+	
+	/**
+	 * Number of filesystems closed by the cache
+	 */
+	private final LongAdder closed = new LongAdder();
+	
+	/**
+	 * Time (in nanoseconds) of the last idle verification
+	 */
+	private final AtomicLong lastEviction = new AtomicLong(System.nanoTime());
+	
+	/**
+	 * Maximum time (in nanoseconds) that a filesystem without references is kept open
+	 * or {@link #IDLE_DISABLED} if the filesystems are never evicted
+	 */
+	private volatile long idleTimeout = IDLE_DISABLED;
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the filesystem of the given archive without adding a reference to it.
+	 * The archive is only opened if it is not already in the cache, and the filesystem
+	 * can be closed once it is not accessed during the idle timeout.
+	 *
+	 * @param uri the archive location (e.g. {@code jar:file:/library.jar!/resource})
+	 * @return the archive filesystem
+	 * @throws IOException error if the archive cannot be opened
+	 */
+	public @NotNull FileSystem access(@NotNull URI uri) throws IOException {
+		return resolve(uri, false);
+	}
+	
+	/**
+	 * Gets the filesystem of the given archive and adds a reference to it.
+	 * The archive is only opened if it is not already in the cache, and the filesystem
+	 * is never evicted while the reference is not removed with {@link #release(FileSystem)}.
+	 *
+	 * @param uri the archive location (e.g. {@code jar:file:/library.jar!/resource})
+	 * @return the archive filesystem
+	 * @throws IOException error if the archive cannot be opened
+	 */
+	public @NotNull FileSystem acquire(@NotNull URI uri) throws IOException {
+		return resolve(uri, true);
+	}
+	
+	/**
+	 * Removes a reference of the given filesystem. When the filesystem has no
+	 * references, it can be closed once the idle timeout expires.
+	 *
+	 * @param fileSystem the filesystem to release
+	 * @return {@code true} if the filesystem is in the cache or {@code false} otherwise
+	 */
+	public boolean release(@NotNull FileSystem fileSystem) {
+		UObject.requireNotNull(fileSystem, "fileSystem");
+		for (var item : entries.entrySet()) {
+			if (item.getValue().fileSystem() != fileSystem) continue;
+			
+			entries.computeIfPresent(item.getKey(), (key, entry) -> {
+				entry.release();
+				return entry;
+			});
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Closes and removes all the filesystems that meet the given condition,
+	 * even if they have active references.
+	 *
+	 * @param filter the action responsible for filtering the elements that must be removed
+	 * @return the number of removed filesystems
+	 */
+	public int disposeIf(@NotNull Function<FileSystem, Boolean> filter) {
+		UObject.requireNotNull(filter, "filter");
+		return removeIf(entry -> filter.apply(entry.fileSystem()));
+	}
+	
+	/**
+	 * Closes and removes all the filesystems without references that were
+	 * not used during the idle timeout. Nothing is removed if the idle eviction
+	 * is disabled.
+	 *
+	 * @return the number of removed filesystems
+	 */
+	public int evictIdle() {
+		// Temporal variables
+		long now = System.nanoTime();
+		long timeout = idleTimeout;
+		
+		lastEviction.set(now);
+		if (timeout == IDLE_DISABLED) return 0;
+		return removeIf(entry -> entry.isIdle(now, timeout));
+	}
+	
+	/**
+	 * Maximum time that a filesystem without references is kept open
+	 *
+	 * @param unit the time unit of the result
+	 * @return the idle timeout or {@link #IDLE_DISABLED} if the idle eviction is disabled
+	 */
+	public long idleTimeout(@NotNull TimeUnit unit) {
+		long timeout = idleTimeout;
+		return timeout == IDLE_DISABLED ? IDLE_DISABLED : unit.convert(timeout, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Changes the maximum time that a filesystem without references is kept open
+	 *
+	 * @param timeout the idle timeout or {@link #IDLE_DISABLED} to disable the idle eviction
+	 * @param unit    the time unit of the timeout
+	 * @throws IllegalArgumentException error if {@code timeout} is negative and is not {@link #IDLE_DISABLED}
+	 */
+	public void setIdleTimeout(long timeout, @NotNull TimeUnit unit) {
+		UObject.requireNotNull(unit, "unit");
+		if (timeout == IDLE_DISABLED) {
+			idleTimeout = IDLE_DISABLED;
+			return;
+		}
+		if (timeout < 0) throw new IllegalArgumentException("The idle timeout cannot be negative");
+		idleTimeout = unit.toNanos(timeout);
+	}
+	
+	/**
+	 * Generates a snapshot of the cache usage information
+	 *
+	 * @return the cache metrics
+	 */
+	public @NotNull UFileSystemCacheMetrics metrics() {
+		return new UFileSystemCacheMetrics(hits.sum(), misses.sum(), opened.sum(), closed.sum(), entries.size());
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the filesystem of the given archive and updates its usage information
+	 *
+	 * @param uri       the archive location
+	 * @param reference determines if a reference must be added to the filesystem
+	 * @return the archive filesystem
+	 * @throws IOException error if the archive cannot be opened
+	 */
+	private @NotNull FileSystem resolve(@NotNull URI uri, boolean reference) throws IOException {
+		UObject.requireNotNull(uri, "uri");
+		// Temporal variables
+		URI key = archiveKey(uri);
+		UFileSystemCacheEntry entry;
+		
+		while (true) {
+			// The usage information is updated inside the atomic operation, so the
+			// filesystem cannot be evicted before the caller receives it.
+			entry = entries.computeIfPresent(key, (k, current) -> {
+				if (!current.fileSystem().isOpen()) return null;
+				hits.increment();
+				if (reference) current.acquire();
+				else current.touch();
+				return current;
+			});
+			if (entry != null) break;
+			
+			// The archive is opened outside the atomic operations, so the slow
+			// operations never block the lookups of other archives
+			UFileSystemCacheEntry created = open(key);
+			if (reference) created.acquire();
+			
+			UFileSystemCacheEntry previous = entries.putIfAbsent(key, created);
+			if (previous == null) {
+				misses.increment();
+				entry = created;
+				break;
+			}
+			discard(created, previous);
+		}
+		
+		evictIdleIfNecessary();
+		return entry.fileSystem();
+	}
+	
+	/**
+	 * Opens the filesystem of the given archive
+	 *
+	 * @param key the archive location
+	 * @return a new cache entry
+	 * @throws IOException error if the archive cannot be opened
+	 */
+	private @NotNull UFileSystemCacheEntry open(@NotNull URI key) throws IOException {
+		try {
+			FileSystem fs = FileSystems.newFileSystem(key, Collections.emptyMap());
+			opened.increment();
+			return new UFileSystemCacheEntry(fs, true);
+		} catch (FileSystemAlreadyExistsException e) {
+			// The archive was opened by another component, so the cache only shares it
+			return new UFileSystemCacheEntry(FileSystems.getFileSystem(key), false);
+		}
+	}
+	
+	/**
+	 * Discards an entry that was opened at the same time as the cached entry
+	 *
+	 * @param created the discarded entry
+	 * @param cached  the entry stored in the cache
+	 */
+	private void discard(@NotNull UFileSystemCacheEntry created, @NotNull UFileSystemCacheEntry cached) {
+		if (!created.owned()) return;
+		
+		// Both entries share the filesystem opened by the discarded entry,
+		// so the cached entry becomes responsible for closing it
+		if (created.fileSystem() == cached.fileSystem()) {
+			cached.claimOwnership();
+			return;
+		}
+		try {
+			created.fileSystem().close();
+			closed.increment();
+		} catch (Exception e) {
+			LOG.log(ULogger.logError(e));
+		}
+	}
+	
+	/**
+	 * Closes and removes all the filesystems that meet the given condition
+	 *
+	 * @param condition the condition to verify
+	 * @return the number of removed filesystems
+	 */
+	private int removeIf(@NotNull Function<UFileSystemCacheEntry, Boolean> condition) {
+		// Temporal variables
+		List<UFileSystemCacheEntry> removed = UList.makeMutable();
+		
+		for (var key : entries.keySet()) {
+			// The condition is verified inside the atomic operation, so no
+			// reference can be added while the entry is being removed.
+			entries.computeIfPresent(key, (k, entry) -> {
+				if (!condition.apply(entry)) return entry;
+				removed.add(entry);
+				return null;
+			});
+		}
+		
+		// Filesystems are closed outside the atomic operations
+		for (var entry : removed) {
+			if (!entry.owned()) continue;
+			try {
+				if (entry.fileSystem().isOpen()) entry.fileSystem().close();
+				closed.increment();
+			} catch (Exception e) {
+				LOG.log(ULogger.logError(e));
+			}
+		}
+		return removed.size();
+	}
+	
+	/**
+	 * Verifies the idle filesystems if the idle timeout has passed since the last verification
+	 */
+	private void evictIdleIfNecessary() {
+		long last = lastEviction.get();
+		long now = System.nanoTime();
+		
+		long timeout = idleTimeout;
+		
+		// Only one thread performs the verification
+		if (timeout != IDLE_DISABLED && now - last >= timeout && lastEviction.compareAndSet(last, now)) {
+			evictIdle();
+		}
+	}
+	
+	/**
+	 * Gets the location of the archive that contains the given resource
+	 *
+	 * @param uri the resource location (e.g. {@code jar:file:/library.jar!/resource})
+	 * @return the archive location (e.g. {@code jar:file:/library.jar})
+	 */
+	private static @NotNull URI archiveKey(@NotNull URI uri) {
+		String content = uri.toString();
+		int index = content.indexOf(ARCHIVE_SEPARATOR);
+		return index < 0 ? uri : URI.create(content.substring(0, index));
+	}
+	
+}
@@ -0,0 +1,131 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+
+import java.nio.file.FileSystem;
+
+/**
+ * Object used to store a cached filesystem together with its usage information.
+ * <p>
+ * The mutable properties are only modified inside the atomic operations of the
+ * {@link UFileSystemCache} map, so they do not need additional synchronization.
+ */
+public final class UFileSystemCacheEntry {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The cached filesystem
+	 */
+	private final FileSystem fileSystem;
+	
+	/**
+	 * Determines if the filesystem was opened by the cache. Filesystems opened by
+	 * other components are never closed by the cache.
+	 */
+	private volatile boolean owned;
+	
+	/**
+	 * Number of active references
+	 */
+	private volatile int references;
+	
+	/**
+	 * Time (in nanoseconds) of the last access
+	 */
+	private volatile long lastAccess;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param fileSystem the cached filesystem
+	 * @param owned      determines if the filesystem was opened by the cache
+	 */
+	public UFileSystemCacheEntry(@NotNull FileSystem fileSystem, boolean owned) {
+		UObject.requireNotNull(fileSystem, "fileSystem");
+		this.fileSystem = fileSystem;
+		this.owned = owned;
+		this.lastAccess = System.nanoTime();
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The cached filesystem
+	 *
+	 * @return the cached filesystem
+	 */
+	public @NotNull FileSystem fileSystem() {
+		return fileSystem;
+	}
+	
+	/**
+	 * Determines if the filesystem was opened by the cache
+	 *
+	 * @return {@code true} if the cache must close the filesystem or {@code false} otherwise
+	 */
+	public boolean owned() {
+		return owned;
+	}
+	
+	/**
+	 * Marks the filesystem as opened by the cache. It is used when the filesystem
+	 * is opened by the cache at the same time as it is shared by another entry.
+	 */
+	public void claimOwnership() {
+		owned = true;
+	}
+	
+	/**
+	 * Number of active references
+	 *
+	 * @return the number of active references
+	 */
+	public int references() {
+		return references;
+	}
+	
+	/**
+	 * Updates the last access time without adding a reference
+	 */
+	public void touch() {
+		lastAccess = System.nanoTime();
+	}
+	
+	/**
+	 * Adds a new reference and updates the last access time
+	 */
+	public void acquire() {
+		references++;
+		lastAccess = System.nanoTime();
+	}
+	
+	/**
+	 * Removes a reference (if exists) and updates the last access time
+	 */
+	public void release() {
+		if (references > 0) references--;
+		lastAccess = System.nanoTime();
+	}
+	
+	/**
+	 * Checks if the filesystem was not used during the given time
+	 *
+	 * @param now     the current time (in nanoseconds)
+	 * @param timeout the maximum idle time (in nanoseconds)
+	 * @return {@code true} if the entry has no references and exceeded the idle time
+	 */
+	public boolean isIdle(long now, long timeout) {
+		return references == 0 && now - lastAccess >= timeout;
+	}
+	
+}
@@ -0,0 +1,237 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Node of a merkle tree. Files are represented by leaves that contain the hash of
+ * their content, and directories by nodes whose hash is calculated from the names,
+ * types and hashes of all their children.
+ * <p>
+ * When a node changes, all its ancestors are marked as outdated, so only the
+ * modified branches are calculated again.
+ */
+public final class UMerkleNode {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Marker used to identify file nodes in the directory hashes
+	 */
+	private static final byte FILE_MARKER = 0;
+	
+	/**
+	 * Marker used to identify directory nodes in the directory hashes
+	 */
+	private static final byte DIRECTORY_MARKER = 1;
+	
+	/**
+	 * The node name (the last element of the resource location)
+	 */
+	private final String name;
+	
+	/**
+	 * All the node children sorted by name or {@code null} if the node is a file
+	 */
+	private final NavigableMap<String, UMerkleNode> children;
+	
+	/**
+	 * The parent node or {@code null} if the node is the root
+	 */
+	private UMerkleNode parent;
+	
+	/**
+	 * The node hash
+	 */
+	private byte[] hash;
+	
+	/**
+	 * Determines if the hash must be calculated again
+	 */
+	private boolean outdated;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param name      the node name
+	 * @param directory determines if the node represents a directory
+	 */
+	public UMerkleNode(@NotNull String name, boolean directory) {
+		UObject.requireNotNull(name, "name");
+		this.name = name;
+		this.children = directory ? new TreeMap<>() : null;
+		this.outdated = true;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The node name
+	 *
+	 * @return the node name
+	 */
+	public @NotNull String name() {
+		return name;
+	}
+	
+	/**
+	 * Checks if the node represents a directory
+	 *
+	 * @return {@code true} if the node is a directory or {@code false} otherwise
+	 */
+	public boolean isDirectory() {
+		return children != null;
+	}
+	
+	/**
+	 * The node hash. The returned array is shared and must not be modified.
+	 *
+	 * @return the node hash or {@code null} if it was not calculated yet
+	 */
+	public byte @Nullable [] hash() {
+		return hash;
+	}
+	
+	/**
+	 * Changes the hash of a file node and marks all its ancestors as outdated
+	 *
+	 * @param hash the file content hash
+	 */
+	public void setHash(byte @NotNull [] hash) {
+		UObject.requireNotNull(hash, "hash");
+		this.hash = hash;
+		this.outdated = false;
+		if (parent != null) parent.invalidate();
+	}
+	
+	/**
+	 * All the node children sorted by name
+	 *
+	 * @return the node children or an empty collection if the node is a file
+	 */
+	public @NotNull Collection<UMerkleNode> children() {
+		return children == null ? Collections.emptyList() : children.values();
+	}
+	
+	/**
+	 * Gets the child with the given name
+	 *
+	 * @param childName the child name
+	 * @return the child node or {@code null} if it does not exist
+	 */
+	public @Nullable UMerkleNode child(@NotNull String childName) {
+		return children == null ? null : children.get(childName);
+	}
+	
+	/**
+	 * Adds (or replaces) a child and marks this node as outdated
+	 *
+	 * @param child the child node
+	 */
+	public void putChild(@NotNull UMerkleNode child) {
+		UObject.requireNotNull(child, "child");
+		if (children == null) throw new IllegalStateException("A file node cannot contain children");
+		
+		child.parent = this;
+		children.put(child.name, child);
+		invalidate();
+	}
+	
+	/**
+	 * Removes a child and marks this node as outdated
+	 *
+	 * @param childName the child name
+	 */
+	public void removeChild(@NotNull String childName) {
+		if (children == null || children.remove(childName) == null) return;
+		invalidate();
+	}
+	
+	/**
+	 * Number of file nodes contained in this node (including itself)
+	 *
+	 * @return the number of file nodes
+	 */
+	public int leafCount() {
+		if (children == null) return 1;
+		int count = 0;
+		for (var child : children.values()) {
+			count += child.leafCount();
+		}
+		return count;
+	}
+	
+	/**
+	 * Calculates again the hashes of all the outdated nodes. The branches
+	 * that were not modified are not visited.
+	 *
+	 * @param algorithm hash algorithm
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 */
+	public void recalculate(@NotNull String algorithm) throws NoSuchAlgorithmException {
+		if (!outdated || children == null) return;
+		// Temporal variables
+		MessageDigest digest = MessageDigest.getInstance(algorithm);
+		
+		for (var child : children.values()) {
+			child.recalculate(algorithm);
+			byte[] childName = child.name.getBytes(StandardCharsets.UTF_8);
+			
+			// The length of the name is included, so different combinations
+			// of names and hashes never generate the same content.
+			digest.update(child.isDirectory() ? DIRECTORY_MARKER : FILE_MARKER);
+			digest.update(intBytes(childName.length));
+			digest.update(childName);
+			digest.update(child.hash == null ? new byte[0] : child.hash);
+		}
+		hash = digest.digest();
+		outdated = false;
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Marks this node and all its ancestors as outdated. The ancestors of an
+	 * outdated node are always outdated, so the loop stops at the first one.
+	 */
+	private void invalidate() {
+		for (UMerkleNode current = this; current != null && !current.outdated; current = current.parent) {
+			current.outdated = true;
+		}
+	}
+	
+	/**
+	 * Converts an integer into its big-endian representation
+	 *
+	 * @param value the value to convert
+	 * @return the value bytes
+	 */
+	private static byte @NotNull [] intBytes(int value) {
+		return new byte[]{
+			(byte) (value >>> 24),
+			(byte) (value >>> 16),
+			(byte) (value >>> 8),
+			(byte) value
+		};
+	}
+	
+}
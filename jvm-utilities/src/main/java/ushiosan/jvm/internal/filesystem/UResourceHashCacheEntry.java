@@ -0,0 +1,152 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable object used to store a resource hash together with the metadata
+ * the resource had when it was hashed. If the metadata does not change, the
+ * stored hash is still valid and the resource does not need to be read again.
+ */
+public final class UResourceHashCacheEntry {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The resource size
+	 */
+	private final long size;
+	
+	/**
+	 * The resource last modification time (in nanoseconds)
+	 */
+	private final long lastModified;
+	
+	/**
+	 * The resource file key or {@code null} if the filesystem does not support file keys
+	 */
+	private final String fileKey;
+	
+	/**
+	 * The resource hash
+	 */
+	private final byte[] hash;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param size         the resource size
+	 * @param lastModified the resource last modification time (in nanoseconds)
+	 * @param fileKey      the resource file key
+	 * @param hash         the resource hash
+	 */
+	public UResourceHashCacheEntry(long size, long lastModified, @Nullable String fileKey, byte @NotNull [] hash) {
+		UObject.requireNotNull(hash, "hash");
+		this.size = size;
+		this.lastModified = lastModified;
+		this.fileKey = fileKey;
+		this.hash = hash;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a new entry with the metadata of the given attributes
+	 *
+	 * @param attributes the resource attributes
+	 * @param hash       the resource hash
+	 * @return a new entry instance
+	 */
+	public static @NotNull UResourceHashCacheEntry of(@NotNull BasicFileAttributes attributes, byte @NotNull [] hash) {
+		UObject.requireNotNull(attributes, "attributes");
+		return new UResourceHashCacheEntry(attributes.size(), lastModified(attributes),
+										   fileKey(attributes), hash);
+	}
+	
+	/**
+	 * Checks if the stored metadata is the same as the given attributes
+	 *
+	 * @param attributes the current resource attributes
+	 * @return {@code true} if the resource was not modified or {@code false} otherwise
+	 */
+	public boolean matches(@NotNull BasicFileAttributes attributes) {
+		return size == attributes.size() &&
+			   lastModified == lastModified(attributes) &&
+			   Objects.equals(fileKey, fileKey(attributes));
+	}
+	
+	/**
+	 * The resource size
+	 *
+	 * @return the resource size
+	 */
+	public long size() {
+		return size;
+	}
+	
+	/**
+	 * The resource last modification time (in nanoseconds)
+	 *
+	 * @return the last modification time
+	 */
+	public long lastModified() {
+		return lastModified;
+	}
+	
+	/**
+	 * The resource file key
+	 *
+	 * @return the resource file key or {@code null} if the filesystem does not support file keys
+	 */
+	public @Nullable String fileKey() {
+		return fileKey;
+	}
+	
+	/**
+	 * The resource hash. The returned array is shared and must not be modified.
+	 *
+	 * @return the resource hash
+	 */
+	public byte @NotNull [] hash() {
+		return hash;
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the last modification time with the maximum precision available
+	 *
+	 * @param attributes the resource attributes
+	 * @return the last modification time (in nanoseconds)
+	 */
+	private static long lastModified(@NotNull BasicFileAttributes attributes) {
+		return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Gets the file key as a string, so it can be compared and persisted
+	 *
+	 * @param attributes the resource attributes
+	 * @return the file key or {@code null} if the filesystem does not support file keys
+	 */
+	private static @Nullable String fileKey(@NotNull BasicFileAttributes attributes) {
+		Object key = attributes.fileKey();
+		return key == null ? null : key.toString();
+	}
+	
+}
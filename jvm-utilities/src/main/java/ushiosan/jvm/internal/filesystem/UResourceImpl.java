@@ -3,27 +3,56 @@ package ushiosan.jvm.internal.filesystem;
 import org.intellij.lang.annotations.MagicConstant;
 import org.intellij.lang.annotations.RegExp;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import ushiosan.jvm.UNumber;
 import ushiosan.jvm.UObject;
 import ushiosan.jvm.collections.UArray;
+import ushiosan.jvm.collections.UList;
 import ushiosan.jvm.error.UCommonErrorMessages;
-import ushiosan.jvm.filesystem.UResource;
+import ushiosan.jvm.filesystem.UDirectorySize;
+import ushiosan.jvm.filesystem.UResourceEntry;
+import ushiosan.jvm.filesystem.UPathMatcher;
+import ushiosan.jvm.filesystem.UResourceHashResult;
+import ushiosan.jvm.function.UEmptyFunErr;
+import ushiosan.jvm.function.UFun;
+import ushiosan.jvm.internal.collections.UStringRegionSet;
 import ushiosan.jvm.internal.validators.UResourceValidator;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.Optional;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.Checksum;
 import java.util.zip.ZipEntry;
 
-import static ushiosan.jvm.UObject.isNotNull;
-
 public abstract class UResourceImpl extends UResourceValidator {
 	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Direct buffers shared by all the asynchronous reads
+	 */
+	private static final UDirectBufferPool asyncBufferPool =
+		new UDirectBufferPool(FS_RESOURCE_BUFFER_SIZE_ASYNC, FS_DEFAULT_PARALLELISM * 4);
+	
 	/* -----------------------------------------------------
 	 * Path methods
 	 * ----------------------------------------------------- */
@@ -41,7 +70,8 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 */
 	public static <T extends Path> @NotNull Predicate<T> regexPathOf(@NotNull @RegExp String pattern, boolean fullPath,
 		boolean inverted, @MagicConstant(flagsFromClass = Pattern.class) int @NotNull ... flags) {
-		return regexResourceOfImpl(pattern, fullPath, inverted, flags);
+		return regexImpl(fullPath ? Path::toString : UResourceImpl::fileNameImpl, compilePatternImpl(pattern, flags),
+						 inverted);
 	}
 	
 	/**
@@ -71,7 +101,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 */
 	public static <T extends Path> @NotNull Predicate<T> regexPathOf(@NotNull Pattern pattern, boolean fullPath,
 		boolean inverted) {
-		return regexResourceOfImpl(pattern, fullPath, inverted);
+		return regexImpl(fullPath ? Path::toString : UResourceImpl::fileNameImpl, pattern, inverted);
 	}
 	
 	/**
@@ -83,7 +113,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 * @return the filter instance with the desired behavior
 	 */
 	public static <T extends Path> @NotNull Predicate<T> namedPathOf(boolean inverted, String @NotNull ... names) {
-		return namedImpl(inverted, names);
+		return namedImpl(UResourceImpl::fileNameImpl, inverted, names);
 	}
 	
 	/**
@@ -95,7 +125,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 * @return the filter instance with the desired behavior
 	 */
 	public static @NotNull <T extends Path> Predicate<T> extensionsPathOf(boolean inverted, String @NotNull ... extensions) {
-		return extensionsImpl(inverted, extensions);
+		return extensionsImpl(Path::toString, Files::isDirectory, inverted, extensions);
 	}
 	
 	/* -----------------------------------------------------
@@ -115,7 +145,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 */
 	public static <T extends File> @NotNull Predicate<T> regexFileOf(@NotNull @RegExp String pattern, boolean fullPath,
 		boolean inverted, @MagicConstant(flagsFromClass = Pattern.class) int @NotNull ... flags) {
-		return regexResourceOfImpl(pattern, fullPath, inverted, flags);
+		return regexImpl(fullPath ? File::getAbsolutePath : File::getName, compilePatternImpl(pattern, flags), inverted);
 	}
 	
 	/**
@@ -145,7 +175,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 */
 	public static <T extends File> @NotNull Predicate<T> regexFileOf(@NotNull Pattern pattern, boolean fullPath,
 		boolean inverted) {
-		return regexResourceOfImpl(pattern, fullPath, inverted);
+		return regexImpl(fullPath ? File::getAbsolutePath : File::getName, pattern, inverted);
 	}
 	
 	/**
@@ -157,7 +187,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 * @return the filter instance with the desired behavior
 	 */
 	public static <T extends File> @NotNull Predicate<T> namedFileOf(boolean inverted, String @NotNull ... names) {
-		return namedImpl(inverted, names);
+		return namedImpl(File::getAbsolutePath, inverted, names);
 	}
 	
 	/**
@@ -169,7 +199,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 * @return the filter instance with the desired behavior
 	 */
 	public static @NotNull <T extends File> Predicate<T> extensionsFileOf(boolean inverted, String @NotNull ... extensions) {
-		return namedImpl(inverted, extensions);
+		return extensionsImpl(File::getPath, File::isDirectory, inverted, extensions);
 	}
 	
 	/* -----------------------------------------------------
@@ -189,7 +219,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 */
 	public static <T extends ZipEntry> @NotNull Predicate<T> regexEntryOf(@NotNull @RegExp String pattern, boolean fullPath,
 		boolean inverted, @MagicConstant(flagsFromClass = Pattern.class) int @NotNull ... flags) {
-		return regexResourceOfImpl(pattern, fullPath, inverted, flags);
+		return regexImpl(ZipEntry::getName, compilePatternImpl(pattern, flags), inverted);
 	}
 	
 	/**
@@ -219,7 +249,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 */
 	public static <T extends ZipEntry> @NotNull Predicate<T> regexEntryOf(@NotNull Pattern pattern, boolean fullPath,
 		boolean inverted) {
-		return regexResourceOfImpl(pattern, fullPath, inverted);
+		return regexImpl(ZipEntry::getName, pattern, inverted);
 	}
 	
 	/**
@@ -231,7 +261,7 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 * @return the filter instance with the desired behavior
 	 */
 	public static <T extends ZipEntry> @NotNull Predicate<T> namedEntryOf(boolean inverted, String @NotNull ... names) {
-		return namedImpl(inverted, names);
+		return namedImpl(ZipEntry::getName, inverted, names);
 	}
 	
 	/**
@@ -244,127 +274,578 @@ public abstract class UResourceImpl extends UResourceValidator {
 	 */
 	public static @NotNull <T extends ZipEntry> Predicate<T> extensionsEntryOf(boolean inverted,
 		String @NotNull ... extensions) {
-		return extensionsImpl(inverted, extensions);
+		return extensionsImpl(ZipEntry::getName, ZipEntry::isDirectory, inverted, extensions);
 	}
 	
 	/* -----------------------------------------------------
-	 * Internal methods
+	 * Resource entry methods
 	 * ----------------------------------------------------- */
 	
 	/**
 	 * Generates a filter to capture the elements that meet said restriction
 	 *
 	 * @param pattern  regular expression to apply
+	 * @param fullPath property used to parse the full path or just the file name for matches
 	 * @param inverted option to perform the action inverted
 	 * @param flags    regular expression configuration flags
 	 * @param <T>      generic member type
 	 * @return the filter instance with the desired behavior
 	 * @see Pattern
 	 */
-	@SuppressWarnings("MagicConstant")
-	private static <T> @NotNull Predicate<T> regexResourceOfImpl(@NotNull @RegExp String pattern, boolean fullPath,
-		boolean inverted, @MagicConstant(flagsFromClass = Pattern.class) int @NotNull ... flags) {
-		UObject.requireNotNull(pattern, "pattern");
-		// Generate pattern instance
-		Pattern patternInstance = Pattern.compile(pattern, UNumber.asFlags(flags));
-		return regexResourceOfImpl(patternInstance, fullPath, inverted);
+	public static <T extends UResourceEntry> @NotNull Predicate<T> regexResourceEntryOf(@NotNull @RegExp String pattern,
+		boolean fullPath, boolean inverted, @MagicConstant(flagsFromClass = Pattern.class) int @NotNull ... flags) {
+		return regexImpl(fullPath ? it -> it.path().toString() : it -> fileNameImpl(it.path()),
+						 compilePatternImpl(pattern, flags), inverted);
 	}
 	
 	/**
 	 * Generates a filter to capture the elements that meet said restriction
 	 *
 	 * @param pattern  regular expression to apply
+	 * @param fullPath property used to parse the full path or just the file name for matches
+	 * @param flags    regular expression configuration flags
+	 * @param <T>      generic member type
+	 * @return the filter instance with the desired behavior
+	 * @see Pattern
+	 */
+	public static <T extends UResourceEntry> @NotNull Predicate<T> regexResourceEntryOf(@NotNull @RegExp String pattern,
+		boolean fullPath, @MagicConstant(flagsFromClass = Pattern.class) int @NotNull ... flags) {
+		return regexResourceEntryOf(pattern, fullPath, false, flags);
+	}
+	
+	/**
+	 * Generates a filter to capture the elements that meet said restriction
+	 *
+	 * @param pattern  regular expression to apply
+	 * @param fullPath property used to parse the full path or just the file name for matches
 	 * @param inverted option to perform the action inverted
 	 * @param <T>      generic member type
 	 * @return the filter instance with the desired behavior
 	 * @see Pattern
 	 */
-	private static @NotNull <T> Predicate<T> regexResourceOfImpl(@NotNull Pattern pattern, boolean fullPath, boolean inverted) {
-		UObject.requireNotNull(pattern, "pattern");
+	public static <T extends UResourceEntry> @NotNull Predicate<T> regexResourceEntryOf(@NotNull Pattern pattern,
+		boolean fullPath, boolean inverted) {
+		return regexImpl(fullPath ? it -> it.path().toString() : it -> fileNameImpl(it.path()), pattern, inverted);
+	}
+	
+	/**
+	 * Generates a filter to capture the elements that meet said restriction
+	 *
+	 * @param names    the resource possible names
+	 * @param inverted option to perform the action inverted
+	 * @param <T>      generic member type
+	 * @return the filter instance with the desired behavior
+	 */
+	public static <T extends UResourceEntry> @NotNull Predicate<T> namedResourceEntryOf(boolean inverted,
+		String @NotNull ... names) {
+		return namedImpl(it -> fileNameImpl(it.path()), inverted, names);
+	}
+	
+	/**
+	 * Generates a filter to capture the elements that meet said restriction.
+	 * Directories never contain extensions, so they are treated as elements without extension.
+	 *
+	 * @param extensions the resource possible extensions
+	 * @param inverted   option to perform the action inverted
+	 * @param <T>        generic member type
+	 * @return the filter instance with the desired behavior
+	 */
+	public static @NotNull <T extends UResourceEntry> Predicate<T> extensionsResourceEntryOf(boolean inverted,
+		String @NotNull ... extensions) {
+		return extensionsImpl(it -> it.path().toString(), UResourceEntry::isDirectory, inverted, extensions);
+	}
+	
+	/* -----------------------------------------------------
+	 * Combination methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a filter that captures the elements that meet all the given restrictions.
+	 * The filters are evaluated in order and the evaluation stops at the first failure.
+	 * Unlike {@link Predicate#and(Predicate)}, the filters are stored in a flat array,
+	 * so large combinations do not generate nested calls.
+	 *
+	 * @param predicates all the restrictions to combine
+	 * @param <T>        generic member type
+	 * @return the filter instance with the desired behavior
+	 */
+	@SafeVarargs
+	public static <T> @NotNull Predicate<T> allOf(Predicate<? super T> @NotNull ... predicates) {
+		UObject.requireNotNull(predicates, "predicates");
+		final Predicate<? super T>[] filters = predicates.clone();
+		
 		return it -> {
-			Matcher matcher = null;
-			// Check the object class type
-			if (UObject.canCastNotNull(it, Path.class)) {
-				Path path = UObject.cast(it);
-				matcher = pattern.matcher((fullPath ? path : path.getFileName()).toString());
+			for (var filter : filters) {
+				if (!filter.test(it)) return false;
 			}
-			if (UObject.canCastNotNull(it, File.class)) {
-				File file = UObject.cast(it);
-				matcher = pattern.matcher(fullPath ? file.getAbsolutePath() : file.getName());
+			return true;
+		};
+	}
+	
+	/**
+	 * Generates a filter that captures the elements that meet any of the given restrictions.
+	 * The filters are evaluated in order and the evaluation stops at the first success.
+	 *
+	 * @param predicates all the restrictions to combine
+	 * @param <T>        generic member type
+	 * @return the filter instance with the desired behavior
+	 */
+	@SafeVarargs
+	public static <T> @NotNull Predicate<T> anyOf(Predicate<? super T> @NotNull ... predicates) {
+		UObject.requireNotNull(predicates, "predicates");
+		final Predicate<? super T>[] filters = predicates.clone();
+		
+		return it -> {
+			for (var filter : filters) {
+				if (filter.test(it)) return true;
 			}
-			if (UObject.canCastNotNull(it, ZipEntry.class)) {
-				ZipEntry entry = UObject.cast(it);
-				matcher = pattern.matcher(entry.getName());
+			return false;
+		};
+	}
+	
+	/**
+	 * Generates a filter that captures the elements that do not meet any of the given restrictions.
+	 * The filters are evaluated in order and the evaluation stops at the first success.
+	 *
+	 * @param predicates all the restrictions to combine
+	 * @param <T>        generic member type
+	 * @return the filter instance with the desired behavior
+	 */
+	@SafeVarargs
+	public static <T> @NotNull Predicate<T> noneOf(Predicate<? super T> @NotNull ... predicates) {
+		UObject.requireNotNull(predicates, "predicates");
+		final Predicate<? super T>[] filters = predicates.clone();
+		
+		return it -> {
+			for (var filter : filters) {
+				if (filter.test(it)) return false;
 			}
-			
-			return inverted != (isNotNull(matcher) && matcher.find());
+			return true;
 		};
 	}
 	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
 	/**
-	 * Generates a filter to capture the elements that meet said restriction
+	 * Compiles the given regular expression
 	 *
-	 * @param names    the resource possible names
+	 * @param pattern regular expression to compile
+	 * @param flags   regular expression configuration flags
+	 * @return the compiled pattern
+	 * @see Pattern
+	 */
+	@SuppressWarnings("MagicConstant")
+	private static @NotNull Pattern compilePatternImpl(@NotNull @RegExp String pattern,
+		@MagicConstant(flagsFromClass = Pattern.class) int @NotNull ... flags) {
+		UObject.requireNotNull(pattern, "pattern");
+		return Pattern.compile(pattern, UNumber.asFlags(flags));
+	}
+	
+	/**
+	 * Generates a filter to capture the elements that meet said restriction.
+	 * The resource type is resolved when the filter is generated, so every
+	 * evaluation only extracts the location and matches it.
+	 *
+	 * @param location function used to get the matched text (the full location or only the name)
+	 * @param pattern  regular expression to apply
 	 * @param inverted option to perform the action inverted
 	 * @param <T>      generic member type
 	 * @return the filter instance with the desired behavior
 	 * @see Pattern
 	 */
-	private static @NotNull <T> Predicate<T> namedImpl(boolean inverted, String @NotNull ... names) {
+	private static <T> @NotNull Predicate<T> regexImpl(@NotNull Function<? super T, String> location,
+		@NotNull Pattern pattern, boolean inverted) {
+		UObject.requireNotNull(pattern, "pattern");
+		// Matchers are not thread-safe, so every evaluation uses its own instance
+		return it -> inverted != pattern.matcher(location.apply(it)).find();
+	}
+	
+	/**
+	 * Gets the last segment of a location, the same segment used by
+	 * {@code UResource.resourceName(Path)}. The locations without segments
+	 * (like the root directory) are returned complete.
+	 *
+	 * @param path the resource location
+	 * @return the last segment of the location
+	 */
+	private static @NotNull String fileNameImpl(@NotNull Path path) {
+		Path name = path.getFileName();
+		return name == null ? path.toString() : name.toString();
+	}
+	
+	/**
+	 * Generates a filter to capture the elements that meet said restriction.
+	 * The names are stored in a hash set, and the resource name is compared
+	 * directly inside the text used by {@code UResource.resourceName(...)},
+	 * without generating new strings.
+	 *
+	 * @param location function used to get the text that contains the resource name
+	 * @param inverted option to perform the action inverted
+	 * @param names    the resource possible names
+	 * @param <T>      generic member type
+	 * @return the filter instance with the desired behavior
+	 */
+	private static <T> @NotNull Predicate<T> namedImpl(@NotNull Function<? super T, String> location, boolean inverted,
+		String @NotNull ... names) {
+		UObject.requireNotNull(names, "names");
+		UStringRegionSet validNames = new UStringRegionSet(names);
+		
 		return it -> {
-			String resourceName = null;
-			// Check the object class type
-			if (UObject.canCastNotNull(it, Path.class)) {
-				Path path = UObject.cast(it);
-				resourceName = UResource.resourceName(path);
-			}
-			if (UObject.canCastNotNull(it, File.class)) {
-				File file = UObject.cast(it);
-				resourceName = UResource.resourceName(file);
-			}
-			if (UObject.canCastNotNull(it, ZipEntry.class)) {
-				ZipEntry entry = UObject.cast(it);
-				resourceName = UResource.resourceName(entry);
-			}
-			
-			return inverted != (isNotNull(resourceName) && UArray.contains(names, resourceName));
+			String content = location.apply(it);
+			long region = nameRegionImpl(content);
+			return inverted != validNames.contains(content, regionStart(region), regionEnd(region));
 		};
 	}
 	
 	/**
-	 * Generates a filter to capture the elements that meet said restriction
+	 * Generates a filter to capture the elements that meet said restriction.
+	 * The extensions are stored in a hash set, and the resource extension is compared
+	 * directly inside its location, without generating new strings. Directories never
+	 * contain extensions, and they are only verified when the extension matches.
 	 *
-	 * @param extensions the resource possible extensions
+	 * @param location   function used to get the resource location
+	 * @param directory  function used to check if the resource is a directory
 	 * @param inverted   option to perform the action inverted
+	 * @param extensions the resource possible extensions
 	 * @param <T>        generic member type
 	 * @return the filter instance with the desired behavior
-	 * @see Pattern
 	 */
-	@SuppressWarnings("OptionalGetWithoutIsPresent")
-	private static @NotNull <T> Predicate<T> extensionsImpl(boolean inverted, String @NotNull ... extensions) {
+	private static <T> @NotNull Predicate<T> extensionsImpl(@NotNull Function<? super T, String> location,
+		@NotNull Predicate<? super T> directory, boolean inverted, String @NotNull ... extensions) {
+		UObject.requireNotNull(extensions, "extensions");
+		UStringRegionSet validExtensions = new UStringRegionSet(extensions);
+		
 		return it -> {
-			Optional<String> resourceExtension = Optional.empty();
-			// Check the object class type
-			if (UObject.canCastNotNull(it, Path.class)) {
-				Path path = UObject.cast(it);
-				resourceExtension = UResource.extension(path);
+			String content = location.apply(it);
+			long name = nameRegionImpl(content);
+			long region = extensionRegionImpl(content, regionStart(name), regionEnd(name));
+			
+			boolean valid = region != UArray.INDEX_NOT_FOUND &&
+							validExtensions.contains(content, regionStart(region), regionEnd(region)) &&
+							!directory.test(it);
+			return inverted != valid;
+		};
+	}
+	
+	/**
+	 * Walks a directory tree in parallel, distributing every subdirectory across the
+	 * workers of a {@link ForkJoinPool}.
+	 *
+	 * @param path        base directory
+	 * @param maxDepth    the maximum number of directory levels to visit
+	 * @param parallelism the number of workers used to walk the tree
+	 * @param mapper      function used to convert every found element
+	 * @param filter      filter applied to every found element
+	 * @param <T>         generic result type
+	 * @return a parallel stream with the found elements
+	 * @throws IOException error if the base directory not exists
+	 * @see #resourceWalkParallelImpl(Path, int, int, UFun.UFun2, Predicate, Predicate)
+	 */
+	protected static <T> @NotNull Stream<T> resourceWalkParallelImpl(@NotNull Path path, int maxDepth, int parallelism,
+		UFun.@NotNull UFun2<T, Path, BasicFileAttributes> mapper, @NotNull Predicate<T> filter) throws IOException {
+		return resourceWalkParallelImpl(path, maxDepth, parallelism, mapper, filter, it -> true);
+	}
+	
+	/**
+	 * Walks a directory tree in parallel, distributing every subdirectory across the
+	 * workers of a {@link ForkJoinPool}. The subdirectories rejected by the {@code descend}
+	 * filter are not walked, but they are still passed to the {@code filter}.
+	 * <p>
+	 * The stream is lazy: the elements are returned while the tree is being walked, and
+	 * the workers wait when the consumer does not keep up, so the complete tree is never
+	 * stored in memory. The errors found in the subdirectories are thrown as
+	 * {@link UncheckedIOException} when the stream is consumed. The stream must be closed
+	 * if it is not consumed completely.
+	 *
+	 * @param path        base directory
+	 * @param maxDepth    the maximum number of directory levels to visit
+	 * @param parallelism the number of workers used to walk the tree
+	 * @param mapper      function used to convert every found element
+	 * @param filter      filter applied to every found element
+	 * @param descend     filter that determines which subdirectories are walked
+	 * @param <T>         generic result type
+	 * @return a parallel stream with the found elements
+	 * @throws IOException              error if the base directory not exists
+	 * @throws IllegalArgumentException error if {@code parallelism} is less than or equal to zero
+	 */
+	protected static <T> @NotNull Stream<T> resourceWalkParallelImpl(@NotNull Path path, int maxDepth, int parallelism,
+		UFun.@NotNull UFun2<T, Path, BasicFileAttributes> mapper, @NotNull Predicate<T> filter,
+		@NotNull Predicate<Path> descend) throws IOException {
+		UObject.requireNotNull(path, "path");
+		if (parallelism <= 0) throw new IllegalArgumentException("The parallelism must be greater than zero");
+		// Temporal variables
+		var attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		List<T> root = UList.makeMutable();
+		T element = mapper.invoke(path, attributes);
+		if (filter.test(element)) root.add(element);
+		
+		// Regular files do not contain any element
+		if (!attributes.isDirectory() || maxDepth <= 0) return root.parallelStream();
+		
+		// Walk all subdirectories while the stream is consumed
+		var iterator = new UResourceWalkIterator<>(root, path, maxDepth, parallelism, mapper, filter, descend);
+		var spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, true)
+			.onClose(iterator::close);
+	}
+	
+	/**
+	 * Calculates the disk usage of a directory tree, distributing every subdirectory
+	 * across the workers of a {@link ForkJoinPool}.
+	 *
+	 * @param path        base directory
+	 * @param parallelism the number of workers used to walk the tree
+	 * @return the usage of the directory and all its subdirectories
+	 * @throws IOException error if the location is not a directory or some subdirectory cannot be read
+	 */
+	protected static @NotNull UDirectorySize resourceSizeTreeImpl(@NotNull Path path, int parallelism)
+		throws IOException {
+		UObject.requireNotNull(path, "path");
+		if (parallelism <= 0) throw new IllegalArgumentException("The parallelism must be greater than zero");
+		if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) throw new NotDirectoryException(path.toString());
+		
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.invoke(new UDirectorySizeTask(path));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Walks a directory tree and collects the elements whose relative location meets
+	 * the given matcher. The subdirectories where no element can match are skipped
+	 * completely, so only the relevant part of the tree is read.
+	 *
+	 * @param path     base directory
+	 * @param maxDepth the maximum number of directory levels to visit
+	 * @param matcher  the matcher applied to the locations relative to the base directory
+	 * @param filter   filter applied to every matched element
+	 * @return a list with all the found elements
+	 * @throws IOException error if directory not exists or some subdirectory cannot be read
+	 */
+	protected static @NotNull List<Path> resourceWalkMatcherImpl(@NotNull Path path, int maxDepth,
+		@NotNull UPathMatcher matcher, @NotNull Predicate<Path> filter) throws IOException {
+		UObject.requireNotNull(path, "path");
+		UObject.requireNotNull(matcher, "matcher");
+		// Temporal variables
+		List<Path> result = UList.makeMutable();
+		
+		Files.walkFileTree(path, Collections.emptySet(), maxDepth, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+				Path relative = path.relativize(dir);
+				visitFile(dir, attrs);
+				return matcher.mayMatchUnder(relative) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
 			}
-			if (UObject.canCastNotNull(it, File.class)) {
-				File file = UObject.cast(it);
-				resourceExtension = UResource.extension(file);
+			
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (matcher.matches(path.relativize(file)) && filter.test(file)) result.add(file);
+				return FileVisitResult.CONTINUE;
 			}
-			if (UObject.canCastNotNull(it, ZipEntry.class)) {
-				ZipEntry entry = UObject.cast(it);
-				resourceExtension = UResource.extension(entry);
+		});
+		return result;
+	}
+	
+	/**
+	 * Walks a directory tree reading the attributes of every element only once.
+	 *
+	 * @param path     base directory
+	 * @param maxDepth the maximum number of directory levels to visit
+	 * @param filter   filter applied to every found element
+	 * @return a list with all the found elements
+	 * @throws IOException error if directory not exists or some subdirectory cannot be read
+	 */
+	protected static @NotNull List<UResourceEntry> resourceWalkAttributesImpl(@NotNull Path path, int maxDepth,
+		@NotNull Predicate<UResourceEntry> filter) throws IOException {
+		UObject.requireNotNull(path, "path");
+		// Temporal variables
+		List<UResourceEntry> result = UList.makeMutable();
+		
+		// The visitor receives the attributes already read by the walker
+		Files.walkFileTree(path, Collections.emptySet(), maxDepth, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+				return visitFile(dir, attrs);
 			}
 			
-			// The "isNotNull" method verifies that an "Optional" object is present,
-			// but the IDE doesn't know about this, and for this reason you should put
-			// the @SuppressWarnings("OptionalGetWithoutIsPresent") annotation.
-			return inverted != (isNotNull(resourceExtension) && UArray.contains(extensions, resourceExtension.get()));
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				UResourceEntry entry = UResourceEntry.make(file, attrs);
+				if (filter.test(entry)) result.add(entry);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * Hashes a resource with multiple algorithms reading its content only once
+	 *
+	 * @param path       the resource location
+	 * @param algorithms all the hash algorithms
+	 * @param checksums  all the checksums to update
+	 * @param bufferSize the size of each chunk read from the resource
+	 * @return an object with all the generated hashes
+	 * @throws NoSuchAlgorithmException error if some algorithm not exists
+	 * @throws IOException              error to read resource content
+	 * @see #readResourceImpl(Path, int, UEmptyFunErr.UEmptyFunErr1)
+	 */
+	protected static @NotNull UResourceHashResult resourceHashesImpl(@NotNull Path path,
+		@NotNull Collection<String> algorithms, @NotNull Collection<? extends Checksum> checksums, int bufferSize) throws
+		IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(path, "path");
+		return resourceHashesImpl(consumer -> readResourceImpl(path, bufferSize, consumer), algorithms, checksums);
+	}
+	
+	/**
+	 * Hashes a stream with multiple algorithms reading its content only once
+	 *
+	 * @param stream     the content stream
+	 * @param algorithms all the hash algorithms
+	 * @param checksums  all the checksums to update
+	 * @param bufferSize the size of each chunk read from the stream
+	 * @return an object with all the generated hashes
+	 * @throws NoSuchAlgorithmException error if some algorithm not exists
+	 * @throws IOException              error to read stream content
+	 */
+	protected static @NotNull UResourceHashResult resourceHashesImpl(@NotNull InputStream stream,
+		@NotNull Collection<String> algorithms, @NotNull Collection<? extends Checksum> checksums, int bufferSize) throws
+		IOException, NoSuchAlgorithmException {
+		// We use automatic closing of Java resources
+		try (stream) {
+			return resourceHashesImpl(consumer -> readStreamImpl(stream, bufferSize, consumer),
+									  algorithms, checksums);
+		}
+	}
+	
+	/**
+	 * Hashes a resource asynchronously. The errors to open or read the resource
+	 * are never thrown, they are used to complete the returned future.
+	 *
+	 * @param path      the resource location
+	 * @param algorithm hash algorithm
+	 * @param executor  the executor that runs the read handlers or {@code null} to use the default one
+	 * @return a future completed with the resource hash
+	 */
+	protected static @NotNull CompletableFuture<byte[]> resourceHashAsyncImpl(@NotNull Path path,
+		@NotNull String algorithm, @Nullable ExecutorService executor) {
+		UObject.requireNotNull(path, "path");
+		UObject.requireNotNull(algorithm, "algorithm");
+		// Temporal variables
+		AsynchronousFileChannel channel = null;
+		try {
+			MessageDigest digest = MessageDigest.getInstance(algorithm);
+			channel = AsynchronousFileChannel.open(path, Set.of(StandardOpenOption.READ), executor);
+			return UAsyncHashTask.start(channel, digest, asyncBufferPool);
+		} catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+			// Some file systems (like zip or jrt) do not support asynchronous channels
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException suppressed) {
+					e.addSuppressed(suppressed);
+				}
+			}
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+	
+	/**
+	 * Combines all filters into a single filter. All filters must be valid so that
+	 * the element is accepted.
+	 *
+	 * @param predicates the filters to combine
+	 * @param <T>        generic member type
+	 * @return a filter with all the conditions
+	 */
+	@SafeVarargs
+	protected static <T> @NotNull Predicate<T> combineFilters(Predicate<T> @NotNull ... predicates) {
+		return it -> {
+			for (var predicate : predicates) {
+				if (!predicate.test(it)) return false;
+			}
+			return true;
 		};
 	}
 	
+	/**
+	 * Hashes a resource with multiple algorithms. The reader passes every chunk of the
+	 * resource to the given consumer, and each chunk is used to update all the digests
+	 * and checksums, so the resource content is read only once.
+	 *
+	 * @param reader     action used to read all the resource content
+	 * @param algorithms all the hash algorithms
+	 * @param checksums  all the checksums to update
+	 * @return an object with all the generated hashes
+	 * @throws NoSuchAlgorithmException error if some algorithm not exists
+	 * @throws IOException              error to read resource content
+	 */
+	private static @NotNull UResourceHashResult resourceHashesImpl(
+		UEmptyFunErr.@NotNull UEmptyFunErr1<UEmptyFunErr.UEmptyFunErr1<ByteBuffer, IOException>, IOException> reader,
+		@NotNull Collection<String> algorithms, @NotNull Collection<? extends Checksum> checksums) throws IOException,
+		NoSuchAlgorithmException {
+		UObject.requireNotNull(algorithms, "algorithms");
+		UObject.requireNotNull(checksums, "checksums");
+		if (algorithms.isEmpty() && checksums.isEmpty()) {
+			throw new IllegalArgumentException("At least one algorithm or checksum is required");
+		}
+		// Temporal variables
+		Map<String, MessageDigest> digests = new LinkedHashMap<>();
+		Map<String, Checksum> checksumMap = new LinkedHashMap<>();
+		long[] size = {0L};
+		
+		for (var algorithm : algorithms) {
+			UObject.requireNotNull(algorithm, "algorithm");
+			if (!digests.containsKey(algorithm)) digests.put(algorithm, MessageDigest.getInstance(algorithm));
+		}
+		for (var checksum : checksums) {
+			UObject.requireNotNull(checksum, "checksum");
+			String name = checksumName(checksum);
+			if (checksumMap.containsKey(name)) {
+				throw new IllegalArgumentException(String.format("Duplicated checksum type: %s", name));
+			}
+			checksum.reset();
+			checksumMap.put(name, checksum);
+		}
+		
+		// Every consumer receives its own view of the chunk, because
+		// updating a digest moves the buffer position.
+		reader.invoke(buffer -> {
+			for (var digest : digests.values()) {
+				digest.update(buffer.duplicate());
+			}
+			for (var checksum : checksumMap.values()) {
+				checksum.update(buffer.duplicate());
+			}
+			size[0] += buffer.remaining();
+		});
+		
+		// Generate the result
+		Map<String, byte[]> hashResult = new LinkedHashMap<>();
+		Map<String, Long> checksumResult = new LinkedHashMap<>();
+		digests.forEach((name, digest) -> hashResult.put(name, digest.digest()));
+		checksumMap.forEach((name, checksum) -> checksumResult.put(name, checksum.getValue()));
+		return new UResourceHashResult(hashResult, checksumResult, size[0]);
+	}
+	
+	/**
+	 * Gets the name used to identify a checksum
+	 *
+	 * @param checksum the checksum to inspect
+	 * @return the simple name of the checksum class
+	 */
+	private static @NotNull String checksumName(@NotNull Checksum checksum) {
+		String name = checksum.getClass().getSimpleName();
+		// Anonymous classes do not have a simple name
+		return name.isEmpty() ? checksum.getClass().getName() : name;
+	}
+	
 	/**
 	 * Gets the file module within a {@link URI} object for a {@code jrt:/} filesystem
 	 *
@@ -0,0 +1,148 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.filesystem.UResourceEntry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator that walks lazily a directory tree, reading the attributes of every element only once.
+ * <p>
+ * Only the directories that are being walked are kept open, so the memory does not depend on the
+ * size of the tree. Unlike {@link Files#walk(Path, java.nio.file.FileVisitOption...)}, the elements
+ * removed while the tree is walked are skipped instead of stopping the iteration. Symbolic links
+ * are not followed.
+ */
+public final class UResourceTreeIterator implements Iterator<UResourceEntry>, AutoCloseable {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * All the directories that are being walked
+	 */
+	private final Deque<DirectoryStream<Path>> streams = new ArrayDeque<>();
+	
+	/**
+	 * The content of every directory that is being walked
+	 */
+	private final Deque<Iterator<Path>> pending = new ArrayDeque<>();
+	
+	/**
+	 * The next element or {@code null} if it has not been read
+	 */
+	private UResourceEntry next;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param root the base element of the tree
+	 * @throws IOException error if the base element cannot be read
+	 */
+	public UResourceTreeIterator(@NotNull Path root) throws IOException {
+		UObject.requireNotNull(root, "root");
+		next = UResourceEntry.of(root, LinkOption.NOFOLLOW_LINKS);
+		if (next.isDirectory()) openImpl(root);
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns {@code true} if the iteration has more elements.
+	 *
+	 * @return {@code true} if the iteration has more elements
+	 * @throws UncheckedIOException error if some directory cannot be read
+	 */
+	@Override
+	public boolean hasNext() {
+		if (next != null) return true;
+		try {
+			while (!pending.isEmpty()) {
+				Iterator<Path> children = pending.peek();
+				if (!children.hasNext()) {
+					pending.pop();
+					streams.pop().close();
+					continue;
+				}
+			
+				Path child = children.next();
+				UResourceEntry entry;
+				try {
+					entry = UResourceEntry.of(child, LinkOption.NOFOLLOW_LINKS);
+					if (entry.isDirectory()) openImpl(child);
+				} catch (NoSuchFileException e) {
+					// The element was removed while the tree was walked
+					continue;
+				}
+				next = entry;
+				return true;
+			}
+		} catch (IOException e) {
+			close();
+			throw new UncheckedIOException(e);
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the next element in the iteration.
+	 *
+	 * @return the next element
+	 */
+	@Override
+	public UResourceEntry next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		UResourceEntry result = next;
+		next = null;
+		return result;
+	}
+	
+	/**
+	 * Closes all the directories that are being walked
+	 */
+	@Override
+	public void close() {
+		pending.clear();
+		while (!streams.isEmpty()) {
+			try {
+				streams.pop().close();
+			} catch (IOException ignore) {
+			}
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Opens a directory to walk its content
+	 *
+	 * @param directory the directory to open
+	 * @throws IOException error if the directory cannot be opened
+	 */
+	private void openImpl(@NotNull Path directory) throws IOException {
+		DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+		streams.push(stream);
+		pending.push(stream.iterator());
+	}
+	
+}
@@ -0,0 +1,213 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.function.UFun;
+
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Iterator that returns the elements of a directory tree while it is walked in parallel.
+ * <p>
+ * Every subdirectory is read by its own {@link UResourceWalkTask}, and the tasks publish the
+ * elements in small batches as soon as they are found. The batches are stored in a bounded
+ * queue, so when the consumer is slower than the workers, the workers wait instead of filling
+ * the memory with the complete tree (back-pressure). The iterator must be closed if it is not
+ * consumed completely, otherwise the workers are never released.
+ *
+ * @param <T> generic result type
+ */
+public final class UResourceWalkIterator<T> implements Iterator<T>, AutoCloseable {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Maximum number of batches waiting to be consumed for every worker
+	 */
+	private static final int BATCHES_PER_WORKER = 4;
+	
+	/**
+	 * Marker published when all the tasks have finished. It is a unique instance,
+	 * so it is never confused with an empty batch.
+	 */
+	private static final List<Object> END_MARKER = Collections.unmodifiableList(new ArrayList<>(0));
+	
+	/**
+	 * All the batches that are waiting to be consumed
+	 */
+	private final BlockingQueue<List<?>> batches;
+	
+	/**
+	 * Workers used to walk the tree
+	 */
+	private final ForkJoinPool pool;
+	
+	/**
+	 * The batch that is being consumed
+	 */
+	private Iterator<?> current = List.of().iterator();
+	
+	/**
+	 * The error that stopped the walk or {@code null} if there is no error
+	 */
+	private volatile Throwable failure;
+	
+	/**
+	 * Determines if the iterator was already closed
+	 */
+	private volatile boolean closed;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor. The walk starts immediately.
+	 *
+	 * @param root        the elements found before the walk (usually the base directory)
+	 * @param directory   base directory
+	 * @param depth       remaining levels that can be traversed
+	 * @param parallelism the number of workers used to walk the tree
+	 * @param mapper      function used to convert every found element
+	 * @param filter      filter applied to every found element
+	 * @param descend     filter that determines which subdirectories are walked
+	 * @throws IllegalArgumentException error if {@code parallelism} is less than or equal to zero
+	 */
+	public UResourceWalkIterator(@NotNull List<T> root, @NotNull Path directory, int depth, int parallelism,
+		@NotNull UFun.UFun2<T, Path, BasicFileAttributes> mapper, @NotNull Predicate<T> filter,
+		@NotNull Predicate<Path> descend) {
+		UObject.requireNotNull(root, "root");
+		if (parallelism <= 0) throw new IllegalArgumentException("The parallelism must be greater than zero");
+		this.batches = new ArrayBlockingQueue<>(parallelism * BATCHES_PER_WORKER + 1);
+		this.pool = new ForkJoinPool(parallelism, ownerPool -> {
+			// Workers must not keep the application alive if the iterator is abandoned
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(ownerPool);
+			thread.setDaemon(true);
+			return thread;
+		}, null, false);
+		
+		// Temporal variables
+		var task = new UResourceWalkTask<>(directory, depth, mapper, filter, descend, this::publish);
+		
+		if (!root.isEmpty()) batches.add(root);
+		pool.execute(() -> {
+			try {
+				task.invoke();
+			} catch (Throwable e) {
+				if (!closed) failure = e;
+			} finally {
+				publishImpl(END_MARKER);
+			}
+		});
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns {@code true} if the iteration has more elements.
+	 *
+	 * @return {@code true} if the iteration has more elements
+	 * @throws UncheckedIOException error if some directory cannot be read
+	 */
+	@Override
+	public boolean hasNext() {
+		while (!current.hasNext()) {
+			if (closed) return false;
+			List<?> batch;
+			try {
+				batch = batches.take();
+			} catch (InterruptedException e) {
+				close();
+				Thread.currentThread().interrupt();
+				throw new UncheckedIOException(new InterruptedIOException(e.getMessage()));
+			}
+			
+			if (batch == END_MARKER) {
+				close();
+				rethrowImpl();
+				return false;
+			}
+			current = batch.iterator();
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the next element in the iteration.
+	 *
+	 * @return the next element
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public T next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		return (T) current.next();
+	}
+	
+	/**
+	 * Stops all the workers. The elements that have not been consumed are discarded.
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		pool.shutdownNow();
+		batches.clear();
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Publishes a batch of elements. The worker waits while the queue is full.
+	 *
+	 * @param batch the found elements
+	 * @throws CancellationException error if the iterator was closed
+	 */
+	private void publish(@NotNull List<T> batch) {
+		if (!publishImpl(batch)) throw new CancellationException("The walk was closed");
+	}
+	
+	/**
+	 * Adds a batch to the queue. The current thread waits while the queue is full.
+	 *
+	 * @param batch the batch to add
+	 * @return {@code true} if the batch was added or {@code false} if the iterator was closed
+	 */
+	private boolean publishImpl(@NotNull List<?> batch) {
+		try {
+			while (!closed) {
+				if (batches.offer(batch, 100, TimeUnit.MILLISECONDS)) return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+	
+	/**
+	 * Throws the error that stopped the walk, if there is one
+	 *
+	 * @throws UncheckedIOException error if some directory cannot be read
+	 */
+	private void rethrowImpl() {
+		Throwable error = failure;
+		if (error == null) return;
+		
+		if (error instanceof RuntimeException) throw (RuntimeException) error;
+		if (error instanceof Error) throw (Error) error;
+		throw new IllegalStateException(error);
+	}
+	
+}
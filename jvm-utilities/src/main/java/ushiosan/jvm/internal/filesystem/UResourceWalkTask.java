@@ -0,0 +1,141 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.function.UFun;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Task used to walk a directory tree in parallel. Each subdirectory is processed
+ * by its own task, so the work is distributed through the {@link java.util.concurrent.ForkJoinPool}
+ * that executes the root task.
+ * <p>
+ * The attributes of every element are read only once and are passed to the mapper
+ * function, so the results can contain the metadata without additional filesystem calls.
+ * The results are not kept by the task: they are published in small batches as soon as
+ * they are found, so the consumer can process them while the tree is being walked.
+ *
+ * @param <T> generic result type
+ */
+public final class UResourceWalkTask<T> extends RecursiveAction {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Maximum number of elements published together
+	 */
+	private static final int BATCH_SIZE = 256;
+	
+	/**
+	 * The directory analyzed by this task
+	 */
+	private final Path directory;
+	
+	/**
+	 * Remaining levels that can be traversed
+	 */
+	private final int depth;
+	
+	/**
+	 * Function used to convert every found element
+	 */
+	private final UFun.UFun2<T, Path, BasicFileAttributes> mapper;
+	
+	/**
+	 * Filter applied to every found element
+	 */
+	private final Predicate<T> filter;
+	
+	/**
+	 * Filter that determines which subdirectories are walked
+	 */
+	private final Predicate<Path> descend;
+	
+	/**
+	 * Action that receives every batch of found elements
+	 */
+	private final Consumer<List<T>> sink;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param directory the directory to analyze
+	 * @param depth     remaining levels that can be traversed
+	 * @param mapper    function used to convert every found element
+	 * @param filter    filter applied to every found element
+	 * @param descend   filter that determines which subdirectories are walked
+	 * @param sink      action that receives every batch of found elements
+	 */
+	public UResourceWalkTask(@NotNull Path directory, int depth, @NotNull UFun.UFun2<T, Path, BasicFileAttributes> mapper,
+		@NotNull Predicate<T> filter, @NotNull Predicate<Path> descend, @NotNull Consumer<List<T>> sink) {
+		UObject.requireNotNull(directory, "directory");
+		UObject.requireNotNull(mapper, "mapper");
+		UObject.requireNotNull(filter, "filter");
+		UObject.requireNotNull(descend, "descend");
+		UObject.requireNotNull(sink, "sink");
+		this.directory = directory;
+		this.depth = depth;
+		this.mapper = mapper;
+		this.filter = filter;
+		this.descend = descend;
+		this.sink = sink;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The main computation performed by this task.
+	 */
+	@Override
+	protected void compute() {
+		// Temporal variables
+		List<T> items = new ArrayList<>();
+		List<UResourceWalkTask<T>> children = new ArrayList<>();
+		
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path child : stream) {
+				// Symbolic links are not followed, the same as Files.walk(...)
+				var attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				T item = mapper.invoke(child, attributes);
+				
+				if (filter.test(item)) items.add(item);
+				if (depth > 1 && attributes.isDirectory() && descend.test(child)) {
+					children.add(new UResourceWalkTask<>(child, depth - 1, mapper, filter, descend, sink));
+				}
+				
+				// The elements are published before the directory is completely read
+				if (items.size() >= BATCH_SIZE) {
+					sink.accept(items);
+					items = new ArrayList<>();
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (!items.isEmpty()) sink.accept(items);
+		
+		// Process all subdirectories
+		if (!children.isEmpty()) invokeAll(children);
+	}
+	
+}
@@ -0,0 +1,162 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Result of analyzing a single file in a duplicate scan. It contains the
+ * digest of the complete file and the fingerprints of all its chunks.
+ */
+public final class UScannedResource {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Empty fingerprints array
+	 */
+	private static final long[] EMPTY_FINGERPRINTS = new long[0];
+	
+	/**
+	 * Empty lengths array
+	 */
+	private static final int[] EMPTY_LENGTHS = new int[0];
+	
+	/**
+	 * The file location
+	 */
+	private final Path path;
+	
+	/**
+	 * The file size in bytes
+	 */
+	private final long size;
+	
+	/**
+	 * The digest of the complete file or {@code null} if the file was not hashed
+	 */
+	private byte[] digest;
+	
+	/**
+	 * The fingerprint of every chunk
+	 */
+	private long[] fingerprints = EMPTY_FINGERPRINTS;
+	
+	/**
+	 * The length of every chunk
+	 */
+	private int[] lengths = EMPTY_LENGTHS;
+	
+	/**
+	 * Number of valid chunks
+	 */
+	private int chunks;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param path the file location
+	 * @param size the file size in bytes
+	 */
+	public UScannedResource(@NotNull Path path, long size) {
+		UObject.requireNotNull(path, "path");
+		this.path = path;
+		this.size = size;
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The file location
+	 *
+	 * @return the file location
+	 */
+	public @NotNull Path path() {
+		return path;
+	}
+	
+	/**
+	 * The file size in bytes
+	 *
+	 * @return the file size
+	 */
+	public long size() {
+		return size;
+	}
+	
+	/**
+	 * The digest of the complete file
+	 *
+	 * @return the file digest or {@code null} if the file was not hashed
+	 */
+	public byte @Nullable [] digest() {
+		return digest;
+	}
+	
+	/**
+	 * Changes the digest of the complete file
+	 *
+	 * @param digest the file digest
+	 */
+	public void setDigest(byte @NotNull [] digest) {
+		UObject.requireNotNull(digest, "digest");
+		this.digest = digest;
+	}
+	
+	/**
+	 * Registers a new chunk of the file
+	 *
+	 * @param fingerprint the chunk fingerprint
+	 * @param length      the chunk length
+	 */
+	public void addChunk(long fingerprint, int length) {
+		if (chunks == fingerprints.length) {
+			int capacity = Math.max(8, chunks << 1);
+			fingerprints = Arrays.copyOf(fingerprints, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+		}
+		fingerprints[chunks] = fingerprint;
+		lengths[chunks++] = length;
+	}
+	
+	/**
+	 * Number of registered chunks
+	 *
+	 * @return the number of chunks
+	 */
+	public int chunks() {
+		return chunks;
+	}
+	
+	/**
+	 * The fingerprint of a chunk
+	 *
+	 * @param index the chunk index
+	 * @return the chunk fingerprint
+	 */
+	public long fingerprint(int index) {
+		return fingerprints[index];
+	}
+	
+	/**
+	 * The length of a chunk
+	 *
+	 * @param index the chunk index
+	 * @return the chunk length
+	 */
+	public int length(int index) {
+		return lengths[index];
+	}
+	
+}
@@ -0,0 +1,174 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+/**
+ * Constants and primitive encoders of the binary tree snapshot format.
+ * <p>
+ * A snapshot starts with a header ({@link #MAGIC}, {@link #VERSION} and the digest
+ * algorithm) followed by one record per element, sorted by location. Every record
+ * starts with the element kind, and the location only stores the characters that
+ * are different from the previous location (prefix compression). The numbers are
+ * stored as variable-length integers, so small values only use one byte. The
+ * snapshot ends with a {@link #KIND_END} record and the number of elements.
+ */
+public final class UTreeSnapshotFormat {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Signature of the snapshot files ({@code "UTS1"})
+	 */
+	public static final int MAGIC = 0x55545331;
+	
+	/**
+	 * Current format version
+	 */
+	public static final int VERSION = 1;
+	
+	/**
+	 * Record that marks the end of the snapshot
+	 */
+	public static final int KIND_END = 0;
+	
+	/**
+	 * Record of a regular file
+	 */
+	public static final int KIND_FILE = 1;
+	
+	/**
+	 * Record of a directory
+	 */
+	public static final int KIND_DIRECTORY = 2;
+	
+	/**
+	 * Record of any other element (symbolic links, devices, etc.)
+	 */
+	public static final int KIND_OTHER = 3;
+	
+	/**
+	 * This class cannot be instantiated directly
+	 */
+	private UTreeSnapshotFormat() {}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Compares two relative locations. The locations are compared character by
+	 * character, but the separator ({@code /}) is lower than any other character,
+	 * so a directory and all its content are always together (depth-first order).
+	 *
+	 * @param first  the first location
+	 * @param second the second location
+	 * @return a negative number, zero or a positive number if the first location
+	 * 	is lower, equal or greater than the second location
+	 */
+	public static int compareLocations(@NotNull String first, @NotNull String second) {
+		int length = Math.min(first.length(), second.length());
+		for (int i = 0; i < length; i++) {
+			char a = first.charAt(i);
+			char b = second.charAt(i);
+			if (a == b) continue;
+			
+			if (a == '/') return -1;
+			if (b == '/') return 1;
+			return a - b;
+		}
+		return first.length() - second.length();
+	}
+	
+	/**
+	 * Number of characters shared at the start of two locations
+	 *
+	 * @param first  the first location
+	 * @param second the second location
+	 * @return the length of the common prefix
+	 */
+	public static int sharedPrefix(@NotNull String first, @NotNull String second) {
+		int length = Math.min(first.length(), second.length());
+		int index = 0;
+		while (index < length && first.charAt(index) == second.charAt(index)) index++;
+		
+		// Never split a surrogate pair, the suffix must be a valid text
+		if (index > 0 && Character.isHighSurrogate(first.charAt(index - 1))) index--;
+		return index;
+	}
+	
+	/**
+	 * Writes a positive number with a variable length
+	 *
+	 * @param output the output where the number is written
+	 * @param value  the number to write
+	 * @throws IOException error if the number cannot be written
+	 */
+	public static void writeVarLong(@NotNull DataOutput output, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+	
+	/**
+	 * Writes a number (positive or negative) with a variable length
+	 *
+	 * @param output the output where the number is written
+	 * @param value  the number to write
+	 * @throws IOException error if the number cannot be written
+	 */
+	public static void writeSignedVarLong(@NotNull DataOutput output, long value) throws IOException {
+		writeVarLong(output, (value << 1) ^ (value >> 63));
+	}
+	
+	/**
+	 * Reads a positive number with a variable length
+	 *
+	 * @param input the input where the number is read
+	 * @return the read number
+	 * @throws IOException error if the number cannot be read or is not valid
+	 */
+	public static long readVarLong(@NotNull DataInput input) throws IOException {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int current = input.readUnsignedByte();
+			result |= (long) (current & 0x7F) << shift;
+			if ((current & 0x80) == 0) return result;
+		}
+		throw new StreamCorruptedException("Invalid variable-length number");
+	}
+	
+	/**
+	 * Reads a number (positive or negative) with a variable length
+	 *
+	 * @param input the input where the number is read
+	 * @return the read number
+	 * @throws IOException error if the number cannot be read or is not valid
+	 */
+	public static long readSignedVarLong(@NotNull DataInput input) throws IOException {
+		long value = readVarLong(input);
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	/**
+	 * Reads a positive number with a variable length that must fit in an {@code int}
+	 *
+	 * @param input the input where the number is read
+	 * @return the read number
+	 * @throws IOException error if the number cannot be read or is not valid
+	 */
+	public static int readVarInt(@NotNull DataInput input) throws IOException {
+		long value = readVarLong(input);
+		if (value < 0 || value > Integer.MAX_VALUE) throw new StreamCorruptedException("Invalid length: " + value);
+		return (int) value;
+	}
+	
+}
@@ -0,0 +1,150 @@
+package ushiosan.jvm.internal.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Directory node of a zip index. Every node stores the position of the entries
+ * located directly inside the directory and the nodes of its subdirectories.
+ * <p>
+ * The nodes are only modified while the index is being built, after that
+ * they can be shared between threads without synchronization.
+ */
+public final class UZipIndexNode {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Empty entry positions
+	 */
+	private static final int[] EMPTY_ENTRIES = new int[0];
+	
+	/**
+	 * All the subdirectories keyed by their name
+	 */
+	private final Map<String, UZipIndexNode> children = new HashMap<>();
+	
+	/**
+	 * Positions of the entries located directly inside the directory
+	 */
+	private int[] entries = EMPTY_ENTRIES;
+	
+	/**
+	 * Number of valid positions in the {@link #entries} array
+	 */
+	private int count;
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the subdirectory with the given name or creates it if not exists
+	 *
+	 * @param name the subdirectory name
+	 * @return the subdirectory node
+	 */
+	public @NotNull UZipIndexNode child(@NotNull String name) {
+		return children.computeIfAbsent(name, it -> new UZipIndexNode());
+	}
+	
+	/**
+	 * Gets the subdirectory with the given name
+	 *
+	 * @param name the subdirectory name
+	 * @return the subdirectory node or {@code null} if not exists
+	 */
+	public @Nullable UZipIndexNode find(@NotNull String name) {
+		return children.get(name);
+	}
+	
+	/**
+	 * Registers an entry located directly inside the directory
+	 *
+	 * @param position the entry position in the index
+	 */
+	public void add(int position) {
+		if (count == entries.length) {
+			entries = Arrays.copyOf(entries, Math.max(4, count << 1));
+		}
+		entries[count++] = position;
+	}
+	
+	/**
+	 * Removes the unused capacity of the node and all its subdirectories.
+	 * It must be called when the index is built.
+	 */
+	public void trim() {
+		if (entries.length != count) entries = Arrays.copyOf(entries, count);
+		for (var child : children.values()) {
+			child.trim();
+		}
+	}
+	
+	/**
+	 * Positions of the entries located directly inside the directory.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @return the positions of the entries, in ascending order
+	 */
+	public int @NotNull [] positions() {
+		return entries;
+	}
+	
+	/**
+	 * Positions of all the entries inside the directory and its subdirectories
+	 *
+	 * @return the positions of the entries, in ascending order
+	 */
+	public int @NotNull [] subtreePositions() {
+		if (children.isEmpty()) return entries;
+		
+		// Temporal variables
+		int[] result = new int[subtreeCount()];
+		int size = fill(result, 0);
+		
+		// The subdirectories can be mixed in the archive, so the positions are sorted again
+		Arrays.sort(result, 0, size);
+		return result;
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Number of entries inside the directory and its subdirectories
+	 *
+	 * @return the number of entries
+	 */
+	private int subtreeCount() {
+		int result = count;
+		for (var child : children.values()) {
+			result += child.subtreeCount();
+		}
+		return result;
+	}
+	
+	/**
+	 * Copies the positions of the directory and its subdirectories
+	 *
+	 * @param target the destination array
+	 * @param offset the first position to write
+	 * @return the position after the last written element
+	 */
+	private int fill(int @NotNull [] target, int offset) {
+		System.arraycopy(entries, 0, target, offset, count);
+		int result = offset + count;
+		for (var child : children.values()) {
+			result = child.fill(target, result);
+		}
+		return result;
+	}
+	
+}
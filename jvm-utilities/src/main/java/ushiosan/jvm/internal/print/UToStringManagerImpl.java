@@ -9,6 +9,7 @@ import ushiosan.jvm.collections.USet;
 import ushiosan.jvm.content.UPair;
 import ushiosan.jvm.function.UFun;
 import ushiosan.jvm.internal.print.components.*;
+import ushiosan.jvm.print.URecursionMode;
 import ushiosan.jvm.print.UToStringComponent;
 import ushiosan.jvm.print.UToStringManager;
 
@@ -60,6 +61,11 @@ public final class UToStringManagerImpl implements UToStringManager {
 	 */
 	private UToStringComponent[] components;
 	
+	/**
+	 * The mode used to detect the recursive calls
+	 */
+	private volatile URecursionMode recursionMode = URecursionMode.STACK_WALK;
+	
 	/* -----------------------------------------------------
 	 * Constructors
 	 * ----------------------------------------------------- */
@@ -163,6 +169,27 @@ public final class UToStringManagerImpl implements UToStringManager {
 			.orElseGet(object::toString);
 	}
 	
+	/**
+	 * The mode used to detect the recursive calls of the {@code toString} methods
+	 *
+	 * @return the recursion detection mode
+	 */
+	@Override
+	public @NotNull URecursionMode recursionMode() {
+		return recursionMode;
+	}
+	
+	/**
+	 * Changes the mode used to detect the recursive calls of the {@code toString} methods
+	 *
+	 * @param mode the recursion detection mode
+	 */
+	@Override
+	public void setRecursionMode(@NotNull URecursionMode mode) {
+		UObject.requireNotNull(mode, "mode");
+		recursionMode = mode;
+	}
+	
 	/* -----------------------------------------------------
 	 * Static methods
 	 * ----------------------------------------------------- */
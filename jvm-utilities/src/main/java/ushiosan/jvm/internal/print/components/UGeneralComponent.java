@@ -6,6 +6,7 @@ import ushiosan.jvm.collections.UArray;
 import ushiosan.jvm.error.URecursiveCallException;
 import ushiosan.jvm.function.UFun;
 import ushiosan.jvm.print.UToStringComponent;
+import ushiosan.jvm.print.URecursionMode;
 import ushiosan.jvm.reflection.UReflectionActions;
 import ushiosan.jvm.reflection.UReflectionOptions;
 
@@ -191,16 +192,25 @@ public final class UGeneralComponent implements UToStringComponent {
 			Method foundMethod = UReflectionActions
 				.findMethod(cls, TO_STRING_METHOD, options);
 			
-			// Check recursive call
-			if (foundMethod.getDeclaringClass() == cls) {
-				UReflectionActions
-					.checkRecursiveCall(cls, TO_STRING_METHOD);
+			UFun.UFun1<String, Object> toStringCall = UReflectionActions.methodGetter(foundMethod);
+			
+			// Only the classes that override the method can call it recursively
+			if (foundMethod.getDeclaringClass() != cls) return toStringCall.invoke(object);
+			if (manager().recursionMode() == URecursionMode.THREAD_GUARD) {
+				return UReflectionActions
+					.guardRecursiveCall(cls, TO_STRING_METHOD, () -> toStringCall.invoke(object));
 			}
 			
-			// Call toString method
-			foundMethod.setAccessible(true);
-			return UObject.cast(foundMethod.invoke(object), String.class);
-		} catch (Exception e) {
+			// Check recursive call
+			UReflectionActions
+				.checkRecursiveCall(cls, TO_STRING_METHOD);
+			return toStringCall.invoke(object);
+		} catch (VirtualMachineError | LinkageError e) {
+			// The state of the virtual machine cannot be represented as text
+			throw e;
+		} catch (Throwable e) {
+			// The generated calls do not wrap the errors of the target method, so
+			// other errors thrown by the object also use the generic representation
 			if (e instanceof URecursiveCallException) {
 				return String.format("E(@%X) %s", object.hashCode(),
 									 e.getMessage());
@@ -0,0 +1,590 @@
+package ushiosan.jvm.internal.reflection;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UClass;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.reflection.UFieldAccessor;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Reflective metadata of a class, computed only once per class.
+ * <p>
+ * The instances are stored in a {@link ClassValue}, so the metadata lives as long as the
+ * class and does not prevent its class loader from being unloaded. The member tables and
+ * their members are shared by all the lookups and must never be modified (not even their
+ * accessible flag, see {@link UMemberInvoker}). The hierarchy tables contain the
+ * declared members of the class followed by the declared members of every superclass
+ * (except {@link Object}), so the members of the first {@code n} levels of the inheritance
+ * stack are always a prefix of the table. The positions of the members are also indexed
+ * by name and by method signature, so the lookups of a single member do not need to check
+ * all the members.
+ * <p>
+ * The shared members are never returned to the users of the library, the public lookups
+ * return the copies generated by {@link #copyOf(Member)} or {@link #copyOf(Member[], IntFunction)}
+ * instead.
+ */
+public final class UClassMembers {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Maximum number of resolved methods stored per class
+	 */
+	private static final int RESOLVED_LIMIT = 256;
+	
+	/**
+	 * Empty positions array
+	 */
+	private static final int[] EMPTY_POSITIONS = new int[0];
+	
+	/**
+	 * Metadata of every inspected class
+	 */
+	private static final ClassValue<UClassMembers> MEMBERS_CACHE = new ClassValue<>() {
+		@Override
+		protected UClassMembers computeValue(Class<?> type) {
+			return new UClassMembers(type);
+		}
+	};
+	
+	/**
+	 * Declared methods of the class followed by the public methods that are not declared by the class
+	 */
+	private final Method[] localMethods;
+	
+	/**
+	 * Declared fields of the class followed by the public fields that are not declared by the class
+	 */
+	private final Field[] localFields;
+	
+	/**
+	 * Declared methods of the class and all its superclasses
+	 */
+	private final Method[] hierarchyMethods;
+	
+	/**
+	 * Declared fields of the class and all its superclasses
+	 */
+	private final Field[] hierarchyFields;
+	
+	/**
+	 * Position where the methods of every inheritance level end
+	 */
+	private final int[] methodLevels;
+	
+	/**
+	 * Position where the fields of every inheritance level end
+	 */
+	private final int[] fieldLevels;
+	
+	/**
+	 * Positions of the local methods grouped by name
+	 */
+	private final Map<String, int[]> localMethodNames;
+	
+	/**
+	 * Positions of the local fields grouped by name
+	 */
+	private final Map<String, int[]> localFieldNames;
+	
+	/**
+	 * Positions of the hierarchy methods grouped by name
+	 */
+	private final Map<String, int[]> hierarchyMethodNames;
+	
+	/**
+	 * Positions of the hierarchy fields grouped by name
+	 */
+	private final Map<String, int[]> hierarchyFieldNames;
+	
+	/**
+	 * Positions of the local methods grouped by signature
+	 */
+	private final Map<UMemberKey, int[]> localMethodSignatures;
+	
+	/**
+	 * Positions of the hierarchy methods grouped by signature
+	 */
+	private final Map<UMemberKey, int[]> hierarchyMethodSignatures;
+	
+	/**
+	 * Methods resolved for the runtime types of the arguments
+	 */
+	private final Map<UMemberKey, Method> resolvedMethods = new ConcurrentHashMap<>();
+	
+	/**
+	 * Accessors generated for the members declared by the class
+	 */
+	private final Map<UMemberKey, Object> invokers = new ConcurrentHashMap<>();
+	
+	/**
+	 * Default field accessor of the class
+	 */
+	private volatile UFieldAccessor<?> fieldAccessor;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param cls the class to inspect
+	 */
+	private UClassMembers(@NotNull Class<?> cls) {
+		// Temporal variables
+		Method[] declaredMethods = cls.getDeclaredMethods();
+		Field[] declaredFields = cls.getDeclaredFields();
+		Class<?> parent = cls.getSuperclass();
+		
+		localMethods = unionImpl(declaredMethods, cls.getMethods(), Method[]::new);
+		localFields = unionImpl(declaredFields, cls.getFields(), Field[]::new);
+		
+		// The parent tables are reused, so every class is inspected only once
+		if (parent == null || parent == Object.class) {
+			hierarchyMethods = declaredMethods;
+			hierarchyFields = declaredFields;
+			methodLevels = new int[]{declaredMethods.length};
+			fieldLevels = new int[]{declaredFields.length};
+		} else {
+			UClassMembers parentMembers = of(parent);
+			hierarchyMethods = concatImpl(declaredMethods, parentMembers.hierarchyMethods);
+			hierarchyFields = concatImpl(declaredFields, parentMembers.hierarchyFields);
+			methodLevels = levelsImpl(declaredMethods.length, parentMembers.methodLevels);
+			fieldLevels = levelsImpl(declaredFields.length, parentMembers.fieldLevels);
+		}
+		
+		localMethodNames = namesImpl(localMethods);
+		localFieldNames = namesImpl(localFields);
+		hierarchyMethodNames = namesImpl(hierarchyMethods);
+		hierarchyFieldNames = namesImpl(hierarchyFields);
+		localMethodSignatures = signaturesImpl(localMethods);
+		hierarchyMethodSignatures = signaturesImpl(hierarchyMethods);
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the metadata of a class. The metadata is computed only the first time.
+	 *
+	 * @param cls the class to inspect
+	 * @return the class metadata
+	 */
+	public static @NotNull UClassMembers of(@NotNull Class<?> cls) {
+		UObject.requireNotNull(cls, "cls");
+		return MEMBERS_CACHE.get(cls);
+	}
+	
+	/**
+	 * Generates a new copy of a shared member. The copy can be modified (e.g. its accessible
+	 * flag) without affecting the cached tables.
+	 *
+	 * @param member the member to copy
+	 * @param <T>    generic member type
+	 * @return a new copy of the member
+	 * @throws IllegalArgumentException error if the member is not a method or a field
+	 */
+	public static <T extends Member> @NotNull T copyOf(@NotNull T member) {
+		UObject.requireNotNull(member, "member");
+		// Temporal variables
+		Class<?> declaringClass = member.getDeclaringClass();
+		
+		try {
+			if (member instanceof Field) {
+				return UObject.cast(declaringClass.getDeclaredField(member.getName()));
+			}
+			if (member instanceof Method) {
+				Method method = (Method) member;
+				Method result = declaringClass.getDeclaredMethod(method.getName(), method.getParameterTypes());
+				if (result.equals(method)) return UObject.cast(result);
+				
+				// Bridge methods share the signature with the method that they override,
+				// so the exact method is searched by its return type
+				for (Method declared : declaringClass.getDeclaredMethods()) {
+					if (declared.equals(method)) return UObject.cast(declared);
+				}
+			}
+		} catch (NoSuchFieldException | NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+		throw new IllegalArgumentException(String.format("Cannot copy the member %s", member));
+	}
+	
+	/**
+	 * Generates new copies of multiple shared members. The members of every declaring class
+	 * are read only once, and the members that keep the declaration order (such as the
+	 * hierarchy tables) are matched by position, so no lookup table is required.
+	 *
+	 * @param members   the members to copy
+	 * @param generator function used to create the result array
+	 * @param <T>       generic member type
+	 * @return new copies of the members, in the same order
+	 * @throws IllegalArgumentException error if a member is not a method or a field
+	 */
+	public static <T extends Member> T @NotNull [] copyOf(T @NotNull [] members, @NotNull IntFunction<T[]> generator) {
+		UObject.requireNotNull(members, "members");
+		UObject.requireNotNull(generator, "generator");
+		// Temporal variables
+		T[] result = generator.apply(members.length);
+		Class<?> current = null;
+		Member[] declared = null;
+		Member[] copies = null;
+		int declaredCount = 0;
+		Map<Member, Member> lookup = null;
+		int cursor = 0;
+		
+		for (int i = 0; i < members.length; i++) {
+			Member member = members[i];
+			
+			// The copies are read again only when the declaring class changes
+			if (member.getDeclaringClass() != current) {
+				current = member.getDeclaringClass();
+				boolean field = member instanceof Field;
+				UClassMembers currentMembers = of(current);
+				// The declared members are always the first level of the hierarchy tables
+				declared = field ? currentMembers.hierarchyFields : currentMembers.hierarchyMethods;
+				declaredCount = field ? currentMembers.fieldLevels[0] : currentMembers.methodLevels[0];
+				copies = field ? current.getDeclaredFields() : current.getDeclaredMethods();
+				lookup = null;
+				cursor = 0;
+			}
+			
+			// Shared members are found by position, the rest by equality
+			while (cursor < declaredCount && declared[cursor] != member) cursor++;
+			Member copy;
+			if (cursor < declaredCount && cursor < copies.length && copies[cursor].equals(member)) {
+				copy = copies[cursor];
+			} else {
+				if (lookup == null) lookup = lookupImpl(copies);
+				copy = lookup.get(member);
+				cursor = 0;
+			}
+			
+			if (copy == null) throw new IllegalArgumentException(String.format("Cannot copy the member %s", member));
+			result[i] = UObject.cast(copy);
+		}
+		return result;
+	}
+	
+	/**
+	 * Declared and public methods of the class, without duplicates.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @return the methods of the class
+	 */
+	public Method @NotNull [] localMethods() {
+		return localMethods;
+	}
+	
+	/**
+	 * Declared and public fields of the class, without duplicates.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @return the fields of the class
+	 */
+	public Field @NotNull [] localFields() {
+		return localFields;
+	}
+	
+	/**
+	 * Declared methods of the class and all its superclasses.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @return the methods of the inheritance stack
+	 * @see #hierarchyMethodCount(int)
+	 */
+	public Method @NotNull [] hierarchyMethods() {
+		return hierarchyMethods;
+	}
+	
+	/**
+	 * Declared fields of the class and all its superclasses.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @return the fields of the inheritance stack
+	 * @see #hierarchyFieldCount(int)
+	 */
+	public Field @NotNull [] hierarchyFields() {
+		return hierarchyFields;
+	}
+	
+	/**
+	 * Positions of the local methods with the given name
+	 *
+	 * @param name the method name
+	 * @return the positions in {@link #localMethods()}, in ascending order
+	 */
+	public int @NotNull [] localMethodPositions(@NotNull String name) {
+		return localMethodNames.getOrDefault(name, EMPTY_POSITIONS);
+	}
+	
+	/**
+	 * Positions of the local fields with the given name
+	 *
+	 * @param name the field name
+	 * @return the positions in {@link #localFields()}, in ascending order
+	 */
+	public int @NotNull [] localFieldPositions(@NotNull String name) {
+		return localFieldNames.getOrDefault(name, EMPTY_POSITIONS);
+	}
+	
+	/**
+	 * Positions of the hierarchy methods with the given name
+	 *
+	 * @param name the method name
+	 * @return the positions in {@link #hierarchyMethods()}, in ascending order
+	 */
+	public int @NotNull [] hierarchyMethodPositions(@NotNull String name) {
+		return hierarchyMethodNames.getOrDefault(name, EMPTY_POSITIONS);
+	}
+	
+	/**
+	 * Positions of the hierarchy fields with the given name
+	 *
+	 * @param name the field name
+	 * @return the positions in {@link #hierarchyFields()}, in ascending order
+	 */
+	public int @NotNull [] hierarchyFieldPositions(@NotNull String name) {
+		return hierarchyFieldNames.getOrDefault(name, EMPTY_POSITIONS);
+	}
+	
+	/**
+	 * Positions of the local methods with the given signature
+	 *
+	 * @param name       the method name
+	 * @param parameters the parameter types of the method
+	 * @return the positions in {@link #localMethods()}, in ascending order
+	 */
+	public int @NotNull [] localMethodPositions(@NotNull String name, Class<?> @NotNull [] parameters) {
+		return localMethodSignatures.getOrDefault(new UMemberKey(name, parameters), EMPTY_POSITIONS);
+	}
+	
+	/**
+	 * Positions of the hierarchy methods with the given signature
+	 *
+	 * @param name       the method name
+	 * @param parameters the parameter types of the method
+	 * @return the positions in {@link #hierarchyMethods()}, in ascending order
+	 */
+	public int @NotNull [] hierarchyMethodPositions(@NotNull String name, Class<?> @NotNull [] parameters) {
+		return hierarchyMethodSignatures.getOrDefault(new UMemberKey(name, parameters), EMPTY_POSITIONS);
+	}
+	
+	/**
+	 * Gets a method previously resolved for the runtime types of the arguments
+	 *
+	 * @param key the resolution key
+	 * @return the resolved method or {@code null} if the key was not resolved
+	 */
+	public @Nullable Method resolvedMethod(@NotNull UMemberKey key) {
+		return resolvedMethods.get(key);
+	}
+	
+	/**
+	 * Stores a method resolved for the runtime types of the arguments. The number of
+	 * resolutions stored per class is limited, so the cache cannot grow indefinitely.
+	 *
+	 * @param key    the resolution key
+	 * @param method the resolved method
+	 */
+	public void cacheResolvedMethod(@NotNull UMemberKey key, @NotNull Method method) {
+		if (resolvedMethods.size() < RESOLVED_LIMIT) resolvedMethods.putIfAbsent(key, method);
+	}
+	
+	/**
+	 * Gets an accessor previously generated for a member declared by the class
+	 *
+	 * @param key the member key
+	 * @return the generated accessor or {@code null} if the accessor was not generated
+	 */
+	public @Nullable Object invoker(@NotNull UMemberKey key) {
+		return invokers.get(key);
+	}
+	
+	/**
+	 * Stores an accessor generated for a member declared by the class. Only one accessor
+	 * is stored per key, so concurrent generations always return the same instance.
+	 *
+	 * @param key     the member key
+	 * @param invoker the generated accessor
+	 * @return the stored accessor
+	 */
+	public @NotNull Object cacheInvoker(@NotNull UMemberKey key, @NotNull Object invoker) {
+		Object previous = invokers.putIfAbsent(key, invoker);
+		return previous == null ? invoker : previous;
+	}
+	
+	/**
+	 * Gets the default field accessor of the class
+	 *
+	 * @return the field accessor or {@code null} if the accessor was not created
+	 */
+	public @Nullable UFieldAccessor<?> fieldAccessor() {
+		return fieldAccessor;
+	}
+	
+	/**
+	 * Stores the default field accessor of the class
+	 *
+	 * @param accessor the field accessor
+	 */
+	public void cacheFieldAccessor(@NotNull UFieldAccessor<?> accessor) {
+		fieldAccessor = accessor;
+	}
+	
+	/**
+	 * Number of hierarchy methods that belong to the first levels of the inheritance stack
+	 *
+	 * @param maxDeep the number of levels or {@link UClass#FULL_CLASS_STACK} to include all the levels
+	 * @return the number of methods
+	 */
+	public int hierarchyMethodCount(int maxDeep) {
+		return levelEndImpl(methodLevels, maxDeep);
+	}
+	
+	/**
+	 * Number of hierarchy fields that belong to the first levels of the inheritance stack
+	 *
+	 * @param maxDeep the number of levels or {@link UClass#FULL_CLASS_STACK} to include all the levels
+	 * @return the number of fields
+	 */
+	public int hierarchyFieldCount(int maxDeep) {
+		return levelEndImpl(fieldLevels, maxDeep);
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Combines two member arrays ignoring the repeated members
+	 *
+	 * @param first     the first members
+	 * @param second    the second members
+	 * @param generator function used to create the result array
+	 * @param <T>       generic member type
+	 * @return an array with the members of both arrays
+	 */
+	private static <T extends Member> T @NotNull [] unionImpl(T @NotNull [] first, T @NotNull [] second,
+		@NotNull IntFunction<T[]> generator) {
+		Set<T> result = new LinkedHashSet<>(Arrays.asList(first));
+		result.addAll(Arrays.asList(second));
+		return result.toArray(generator.apply(result.size()));
+	}
+	
+	/**
+	 * Indexes the copies of the members by the members that they represent
+	 *
+	 * @param copies the copies of the members
+	 * @return the copies indexed by the shared members
+	 */
+	private static @NotNull Map<Member, Member> lookupImpl(Member @NotNull [] copies) {
+		Map<Member, Member> result = new HashMap<>(copies.length * 2);
+		
+		// Reflective members are equal to their copies
+		for (Member member : copies) result.put(member, member);
+		return result;
+	}
+	
+	/**
+	 * Groups the positions of the members by name
+	 *
+	 * @param members the members to group
+	 * @return the positions of every name, in ascending order
+	 */
+	private static @NotNull Map<String, int[]> namesImpl(Member @NotNull [] members) {
+		Map<String, int[]> result = new HashMap<>();
+		for (int i = 0; i < members.length; i++) {
+			int[] positions = result.get(members[i].getName());
+			if (positions == null) {
+				positions = new int[]{i};
+			} else {
+				positions = Arrays.copyOf(positions, positions.length + 1);
+				positions[positions.length - 1] = i;
+			}
+			result.put(members[i].getName(), positions);
+		}
+		return result;
+	}
+	
+	/**
+	 * Groups the positions of the methods by signature
+	 *
+	 * @param methods the methods to group
+	 * @return the positions of every signature, in ascending order
+	 */
+	private static @NotNull Map<UMemberKey, int[]> signaturesImpl(Method @NotNull [] methods) {
+		Map<UMemberKey, int[]> result = new HashMap<>();
+		for (int i = 0; i < methods.length; i++) {
+			UMemberKey key = new UMemberKey(methods[i].getName(), methods[i].getParameterTypes());
+			int[] positions = result.get(key);
+			if (positions == null) {
+				positions = new int[]{i};
+			} else {
+				positions = Arrays.copyOf(positions, positions.length + 1);
+				positions[positions.length - 1] = i;
+			}
+			result.put(key, positions);
+		}
+		return result;
+	}
+	
+	/**
+	 * Concatenates two member arrays. The members of different classes are never equal,
+	 * so no duplicate check is required.
+	 *
+	 * @param first  the first members
+	 * @param second the second members
+	 * @param <T>    generic member type
+	 * @return an array with the members of both arrays
+	 */
+	private static <T extends Member> T @NotNull [] concatImpl(T @NotNull [] first, T @NotNull [] second) {
+		T[] result = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+	
+	/**
+	 * Generates the level limits of a class from the limits of its parent
+	 *
+	 * @param count        the number of members declared by the class
+	 * @param parentLevels the level limits of the parent class
+	 * @return the level limits of the class
+	 */
+	private static int @NotNull [] levelsImpl(int count, int @NotNull [] parentLevels) {
+		int[] result = new int[parentLevels.length + 1];
+		result[0] = count;
+		for (int i = 0; i < parentLevels.length; i++) {
+			result[i + 1] = count + parentLevels[i];
+		}
+		return result;
+	}
+	
+	/**
+	 * Gets the position where the given number of levels end
+	 *
+	 * @param levels  the level limits
+	 * @param maxDeep the number of levels or {@link UClass#FULL_CLASS_STACK} to include all the levels
+	 * @return the end position
+	 */
+	private static int levelEndImpl(int @NotNull [] levels, int maxDeep) {
+		if (maxDeep <= UClass.FULL_CLASS_STACK || maxDeep >= levels.length) return levels[levels.length - 1];
+		return levels[maxDeep - 1];
+	}
+	
+}
@@ -0,0 +1,358 @@
+package ushiosan.jvm.internal.reflection;
+
+import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.function.UEmptyFun;
+import ushiosan.jvm.function.UFun;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Generates typed accessors for class members.
+ * <p>
+ * The public methods of the classes visible from this library are implemented with
+ * {@link LambdaMetafactory}, so the calls are as fast as a direct call once they are
+ * compiled. The other members are called through a {@link MethodHandle}, which avoids
+ * the access checks and the argument arrays of {@link Method#invoke(Object, Object...)}.
+ * The accessors are generated only once per member and cached with its declaring class.
+ * <p>
+ * The members are shared by all the reflective lookups, so they are never modified: the
+ * members that are not accessible from this library are converted through a private
+ * lookup of their declaring class instead of {@link Method#trySetAccessible()}.
+ * <p>
+ * The exceptions thrown by the members are never wrapped, even the checked exceptions.
+ */
+public final class UMemberInvoker {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Kind of the method getter accessors
+	 */
+	private static final int METHOD_GETTER = 0;
+	
+	/**
+	 * Kind of the field getter accessors
+	 */
+	private static final int FIELD_GETTER = 1;
+	
+	/**
+	 * Kind of the field setter accessors
+	 */
+	private static final int FIELD_SETTER = 2;
+	
+	/**
+	 * Empty parameter types array
+	 */
+	private static final Class<?>[] EMPTY_TYPES = new Class<?>[0];
+	
+	/**
+	 * Lookup used to generate all the accessors
+	 */
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	
+	/**
+	 * Generic getter type
+	 */
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	
+	/**
+	 * Generic setter type
+	 */
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	/**
+	 * This class cannot be instantiated directly
+	 */
+	private UMemberInvoker() {}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a function that calls a method without parameters. The function receives
+	 * the instance used to call the method, that is ignored by the static methods.
+	 *
+	 * @param method the method to call
+	 * @param <R>    the method result type
+	 * @param <T>    the instance type
+	 * @return the generated function
+	 * @throws IllegalAccessException   error if the method cannot be accessed
+	 * @throws IllegalArgumentException error if the method requires parameters or returns {@code void}
+	 */
+	public static <R, T> UFun.@NotNull UFun1<R, T> getter(@NotNull Method method) throws IllegalAccessException {
+		UObject.requireNotNull(method, "method");
+		if (method.getParameterCount() != 0) {
+			throw new IllegalArgumentException("The getter method cannot have parameters");
+		}
+		if (method.getReturnType() == void.class) {
+			throw new IllegalArgumentException("The getter method cannot return void");
+		}
+		// Temporal variables
+		UClassMembers members = UClassMembers.of(method.getDeclaringClass());
+		UMemberKey key = new UMemberKey(method.getName(), method.getParameterTypes(), METHOD_GETTER);
+		Object cached = members.invoker(key);
+		
+		if (cached != null) return UObject.cast(cached);
+		return UObject.cast(members.cacheInvoker(key, methodGetterImpl(method)));
+	}
+	
+	/**
+	 * Generates a function that reads the value of a field. The function receives
+	 * the instance used to read the field, that is ignored by the static fields.
+	 *
+	 * @param field the field to read
+	 * @param <R>   the field type
+	 * @param <T>   the instance type
+	 * @return the generated function
+	 * @throws IllegalAccessException error if the field cannot be accessed
+	 */
+	public static <R, T> UFun.@NotNull UFun1<R, T> getter(@NotNull Field field) throws IllegalAccessException {
+		UObject.requireNotNull(field, "field");
+		// Temporal variables
+		UClassMembers members = UClassMembers.of(field.getDeclaringClass());
+		UMemberKey key = new UMemberKey(field.getName(), EMPTY_TYPES, FIELD_GETTER);
+		Object cached = members.invoker(key);
+		
+		if (cached != null) return UObject.cast(cached);
+		MethodHandle handle = genericHandleImpl(unreflectGetterImpl(field), GETTER_TYPE);
+		UFun.UFun1<R, T> result = it -> {
+			try {
+				return UObject.cast((Object) handle.invokeExact((Object) it));
+			} catch (Throwable e) {
+				throw UMemberInvoker.<RuntimeException>rethrowImpl(e);
+			}
+		};
+		return UObject.cast(members.cacheInvoker(key, result));
+	}
+	
+	/**
+	 * Generates a function that changes the value of a field. The function receives
+	 * the instance used to write the field, that is ignored by the static fields.
+	 *
+	 * @param field the field to write
+	 * @param <T>   the instance type
+	 * @param <V>   the field type
+	 * @return the generated function
+	 * @throws IllegalAccessException error if the field cannot be accessed or is {@code final}
+	 */
+	public static <T, V> UEmptyFun.@NotNull UEmptyFun2<T, V> setter(@NotNull Field field) throws IllegalAccessException {
+		UObject.requireNotNull(field, "field");
+		// Temporal variables
+		UClassMembers members = UClassMembers.of(field.getDeclaringClass());
+		UMemberKey key = new UMemberKey(field.getName(), EMPTY_TYPES, FIELD_SETTER);
+		Object cached = members.invoker(key);
+		
+		if (cached != null) return UObject.cast(cached);
+		MethodHandle handle = genericHandleImpl(unreflectSetterImpl(field), SETTER_TYPE);
+		UEmptyFun.UEmptyFun2<T, V> result = (it, value) -> {
+			try {
+				handle.invokeExact((Object) it, (Object) value);
+			} catch (Throwable e) {
+				throw UMemberInvoker.<RuntimeException>rethrowImpl(e);
+			}
+		};
+		return UObject.cast(members.cacheInvoker(key, result));
+	}
+	
+	/**
+	 * Gets the variable handle of a field. Private fields are accessed through a private lookup
+	 * of their declaring class, so the package must be open to this library.
+	 *
+	 * @param field the field to convert
+	 * @return the variable handle of the field. The handle of a {@code final} field is read-only
+	 * @throws IllegalAccessException error if the field cannot be accessed
+	 */
+	public static @NotNull VarHandle varHandle(@NotNull Field field) throws IllegalAccessException {
+		UObject.requireNotNull(field, "field");
+		try {
+			return LOOKUP.unreflectVarHandle(field);
+		} catch (IllegalAccessException e) {
+			return privateLookupImpl(field.getDeclaringClass(), e).unreflectVarHandle(field);
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates the function of a getter method
+	 *
+	 * @param method the method to call
+	 * @return the generated function
+	 * @throws IllegalAccessException error if the method cannot be accessed
+	 */
+	private static @NotNull UFun.UFun1<Object, Object> methodGetterImpl(@NotNull Method method)
+		throws IllegalAccessException {
+		// Temporal variables
+		MethodHandle handle = unreflectImpl(method);
+		
+		// The generated class links the method directly, so the method must be visible
+		if (!Modifier.isStatic(method.getModifiers()) && isLinkableImpl(method)) {
+			try {
+				CallSite site = LambdaMetafactory.metafactory(LOOKUP, "invoke",
+															  MethodType.methodType(UFun.UFun1.class),
+															  GETTER_TYPE, handle, handle.type().wrap());
+				return UObject.cast(site.getTarget().invoke());
+			} catch (Throwable ignored) {
+				// The method handle is used instead
+			}
+		}
+		
+		MethodHandle generic = genericHandleImpl(handle, GETTER_TYPE);
+		return it -> {
+			try {
+				return generic.invokeExact(it);
+			} catch (Throwable e) {
+				throw UMemberInvoker.<RuntimeException>rethrowImpl(e);
+			}
+		};
+	}
+	
+	/**
+	 * Gets the handle of a method. A private lookup is used only when the method
+	 * is not accessible from this library.
+	 *
+	 * @param method the method to convert
+	 * @return the method handle
+	 * @throws IllegalAccessException error if the method cannot be accessed
+	 */
+	private static @NotNull MethodHandle unreflectImpl(@NotNull Method method) throws IllegalAccessException {
+		try {
+			return LOOKUP.unreflect(method);
+		} catch (IllegalAccessException e) {
+			return privateLookupImpl(method.getDeclaringClass(), e).unreflect(method);
+		}
+	}
+	
+	/**
+	 * Gets the getter handle of a field. A private lookup is used only when the field
+	 * is not accessible from this library.
+	 *
+	 * @param field the field to convert
+	 * @return the getter handle
+	 * @throws IllegalAccessException error if the field cannot be accessed
+	 */
+	private static @NotNull MethodHandle unreflectGetterImpl(@NotNull Field field) throws IllegalAccessException {
+		try {
+			return LOOKUP.unreflectGetter(field);
+		} catch (IllegalAccessException e) {
+			return privateLookupImpl(field.getDeclaringClass(), e).unreflectGetter(field);
+		}
+	}
+	
+	/**
+	 * Gets the setter handle of a field. A private lookup is used only when the field
+	 * is not accessible from this library.
+	 *
+	 * @param field the field to convert
+	 * @return the setter handle
+	 * @throws IllegalAccessException error if the field cannot be accessed or is {@code final}
+	 */
+	private static @NotNull MethodHandle unreflectSetterImpl(@NotNull Field field) throws IllegalAccessException {
+		try {
+			return LOOKUP.unreflectSetter(field);
+		} catch (IllegalAccessException e) {
+			if (Modifier.isFinal(field.getModifiers())) throw e;
+			return privateLookupImpl(field.getDeclaringClass(), e).unreflectSetter(field);
+		}
+	}
+	
+	/**
+	 * Gets a lookup with private access to the given class. The package of the class
+	 * must be open to this library.
+	 *
+	 * @param cls   the class to access
+	 * @param error the error thrown when the class is not open
+	 * @return the private lookup of the class
+	 * @throws IllegalAccessException error if the package of the class is not open to this library
+	 */
+	private static @NotNull MethodHandles.Lookup privateLookupImpl(@NotNull Class<?> cls,
+		@NotNull IllegalAccessException error) throws IllegalAccessException {
+		// Temporal variables
+		Module module = UMemberInvoker.class.getModule();
+		
+		if (!cls.getModule().isOpen(cls.getPackageName(), module)) throw error;
+		// The private lookup requires the module of the class to be readable
+		module.addReads(cls.getModule());
+		return MethodHandles.privateLookupIn(cls, LOOKUP);
+	}
+	
+	/**
+	 * Adapts a member handle to a generic type. The handles of static members
+	 * ignore the instance argument.
+	 *
+	 * @param handle the member handle
+	 * @param type   the generic type
+	 * @return the adapted handle
+	 */
+	private static @NotNull MethodHandle genericHandleImpl(@NotNull MethodHandle handle, @NotNull MethodType type) {
+		// Static members do not receive the instance
+		if (handle.type().parameterCount() < type.parameterCount()) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		return handle.asType(type);
+	}
+	
+	/**
+	 * Checks if a method can be linked by a class generated in this library
+	 *
+	 * @param method the method to check
+	 * @return {@code true} if the method can be linked or {@code false} otherwise
+	 */
+	private static boolean isLinkableImpl(@NotNull Method method) {
+		// Temporal variables
+		Class<?> cls = method.getDeclaringClass();
+		Module module = UMemberInvoker.class.getModule();
+		
+		if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(cls.getModifiers())) return false;
+		if (!module.canRead(cls.getModule()) || !cls.getModule().isExported(cls.getPackageName(), module)) {
+			return false;
+		}
+		return isVisibleImpl(cls) && isVisibleImpl(method.getReturnType());
+	}
+	
+	/**
+	 * Checks if a class can be resolved by name from the class loader of this library
+	 *
+	 * @param cls the class to check
+	 * @return {@code true} if the class is visible or {@code false} otherwise
+	 */
+	private static boolean isVisibleImpl(@NotNull Class<?> cls) {
+		// Temporal variables
+		ClassLoader target = cls.getClassLoader();
+		
+		if (target == null) return true;
+		for (ClassLoader loader = UMemberInvoker.class.getClassLoader(); loader != null; loader = loader.getParent()) {
+			if (loader == target) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Throws any error without wrapping it. The compiler considers the error as the
+	 * generic type, so the checked exceptions do not need to be declared.
+	 *
+	 * @param error the error to throw
+	 * @param <E>   the error type
+	 * @return this method never returns
+	 * @throws E always
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E extends Throwable> @NotNull E rethrowImpl(@NotNull Throwable error) throws E {
+		throw (E) error;
+	}
+	
+}
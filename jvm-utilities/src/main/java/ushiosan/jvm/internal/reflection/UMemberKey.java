@@ -0,0 +1,112 @@
+package ushiosan.jvm.internal.reflection;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
+
+import java.util.Arrays;
+
+/**
+ * Key used to index the members of a class by name and parameter types.
+ * <p>
+ * The parameter types array is not copied, so it must not be modified
+ * while the key is in use. The {@code flags} are used to distinguish the
+ * same signature resolved with different search options.
+ */
+public final class UMemberKey {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * The member name
+	 */
+	private final String name;
+	
+	/**
+	 * The parameter types of the member
+	 */
+	private final Class<?>[] types;
+	
+	/**
+	 * Additional information of the key
+	 */
+	private final int flags;
+	
+	/**
+	 * Precomputed hash code
+	 */
+	private final int hash;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Default constructor
+	 *
+	 * @param name  the member name
+	 * @param types the parameter types of the member
+	 * @param flags additional information of the key
+	 */
+	public UMemberKey(@NotNull String name, Class<?> @NotNull [] types, int flags) {
+		UObject.requireNotNull(name, "name");
+		UObject.requireNotNull(types, "types");
+		this.name = name;
+		this.types = types;
+		this.flags = flags;
+		this.hash = 31 * (31 * name.hashCode() + Arrays.hashCode(types)) + flags;
+	}
+	
+	/**
+	 * Constructor without additional information
+	 *
+	 * @param name  the member name
+	 * @param types the parameter types of the member
+	 */
+	public UMemberKey(@NotNull String name, Class<?> @NotNull [] types) {
+		this(name, types, 0);
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Indicates whether some other object is "equal to" this one.
+	 *
+	 * @param obj the reference object with which to compare.
+	 * @return {@code true} if this object is the same as the obj
+	 * 	argument; {@code false} otherwise.
+	 */
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		if (obj == null || !UObject.canCast(obj, getClass())) return false;
+		
+		UMemberKey other = UObject.cast(obj);
+		return hash == other.hash && flags == other.flags && name.equals(other.name) &&
+			   Arrays.equals(types, other.types);
+	}
+	
+	/**
+	 * Returns a hash code value for the object.
+	 *
+	 * @return a hash code value for this object.
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("%s%s", name, Arrays.toString(types));
+	}
+	
+}
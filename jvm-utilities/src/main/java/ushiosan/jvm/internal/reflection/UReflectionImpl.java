@@ -3,12 +3,10 @@ package ushiosan.jvm.internal.reflection;
 import org.intellij.lang.annotations.MagicConstant;
 import org.intellij.lang.annotations.RegExp;
 import org.jetbrains.annotations.NotNull;
-import ushiosan.jvm.UClass;
+import org.jetbrains.annotations.Nullable;
 import ushiosan.jvm.UNumber;
 import ushiosan.jvm.UObject;
 import ushiosan.jvm.collections.UArray;
-import ushiosan.jvm.collections.UList;
-import ushiosan.jvm.collections.USet;
 import ushiosan.jvm.content.UPair;
 import ushiosan.jvm.function.UFun;
 import ushiosan.jvm.internal.validators.UReflectionValidator;
@@ -16,15 +14,13 @@ import ushiosan.jvm.reflection.UReflectionOptions;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.Stack;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public abstract class UReflectionImpl extends UReflectionValidator {
 	
@@ -41,6 +37,13 @@ public abstract class UReflectionImpl extends UReflectionValidator {
 		UPair.make(UReflectionOptions::publicAccess, modifiers(Modifier.PUBLIC)),
 		UPair.make(UReflectionOptions::skipAbstract, modifiers(true, Modifier.ABSTRACT)));
 	
+	/**
+	 * Widening order of the primitive types, in the same order as {@link #PRIMITIVE_ARRAY_INDIVIDUAL}.
+	 * A primitive type can be widened to any type with a greater rank, except {@code char} that
+	 * only accepts itself and {@code boolean} that cannot be widened.
+	 */
+	private static final int[] PRIMITIVE_WIDENING_RANKS = {-1, 1, 0, 1, 2, 3, 4, 5};
+	
 	/* -----------------------------------------------------
 	 * Filter members
 	 * ----------------------------------------------------- */
@@ -48,6 +51,11 @@ public abstract class UReflectionImpl extends UReflectionValidator {
 	/**
 	 * Filters the methods of a class depending on the filters passed within the configuration
 	 * passed as a parameter.
+	 * <p>
+	 * The methods of every class are read only once and cached with the class, so
+	 * this method only applies the filters. The methods of the class are returned
+	 * before the methods of its superclasses. Every returned member is a new copy, so
+	 * it can be modified (e.g. made accessible) without affecting other lookups.
 	 *
 	 * @param cls     the class where you want to search for class members
 	 * @param options search options
@@ -57,29 +65,25 @@ public abstract class UReflectionImpl extends UReflectionValidator {
 		UObject.requireNotNull(cls, "cls");
 		UObject.requireNotNull(options, "options");
 		// Temporal variables
-		Stack<Class<?>> classStack = UClass.classStack(cls, options.maxDeepRecursive());
-		Set<Method> methodContainer = USet.makeMutable();
+		UClassMembers members = UClassMembers.of(cls);
 		
-		// Iterate all classes
-		for (Class<?> clsItem : classStack) {
-			var clsMethods = options.recursive() ? UList.<Method>make() :
-							 filterMembers(clsItem.getMethods(), options);
-			var clsDeclaredMethods = filterMembers(clsItem.getDeclaredMethods(),
-												   options);
-			
-			// Combine all methods (ignore equal methods)
-			Set<Method> uniqueMethods = UObject.cast(USet.combine(clsMethods, clsDeclaredMethods));
-			methodContainer = UObject.cast(USet.combine(methodContainer, uniqueMethods));
+		// Non-recursive searches include the inherited public methods
+		if (!options.recursive()) {
+			Method[] methods = members.localMethods();
+			return filterMembers(methods, methods.length, options, Method[]::new);
 		}
-		
-		// Generate array
-		return methodContainer
-			.toArray(Method[]::new);
+		return filterMembers(members.hierarchyMethods(), members.hierarchyMethodCount(options.maxDeep()),
+							 options, Method[]::new);
 	}
 	
 	/**
 	 * Filters the fields of a class depending on the filters passed within the configuration
 	 * passed as a parameter.
+	 * <p>
+	 * The fields of every class are read only once and cached with the class, so
+	 * this method only applies the filters. The fields of the class are returned
+	 * before the fields of its superclasses. Every returned member is a new copy, so
+	 * it can be modified (e.g. made accessible) without affecting other lookups.
 	 *
 	 * @param cls     the class where you want to search for class members
 	 * @param options search options
@@ -89,24 +93,158 @@ public abstract class UReflectionImpl extends UReflectionValidator {
 		UObject.requireNotNull(cls, "cls");
 		UObject.requireNotNull(options, "options");
 		// Temporal variables
-		Stack<Class<?>> classStack = UClass.classStack(cls, options.maxDeepRecursive());
-		Set<Field> fieldContainer = USet.makeMutable();
+		UClassMembers members = UClassMembers.of(cls);
 		
-		// Iterate all classes
-		for (Class<?> clsItem : classStack) {
-			var clsFields = options.recursive() ? UList.<Field>make() :
-							filterMembers(clsItem.getFields(), options);
-			var clsDeclaredFields = filterMembers(clsItem.getDeclaredFields(),
-												  options);
-			
-			// Combine all fields (ignore equal fields)
-			Set<Field> uniqueFields = UObject.cast(USet.combine(clsFields, clsDeclaredFields));
-			fieldContainer = UObject.cast(USet.combine(fieldContainer, uniqueFields));
+		// Non-recursive searches include the inherited public fields
+		if (!options.recursive()) {
+			Field[] fields = members.localFields();
+			return filterMembers(fields, fields.length, options, Field[]::new);
 		}
+		return filterMembers(members.hierarchyFields(), members.hierarchyFieldCount(options.maxDeep()),
+							 options, Field[]::new);
+	}
+	
+	/**
+	 * Filters the methods of a class with the given name depending on the filters passed
+	 * within the configuration passed as a parameter.
+	 * <p>
+	 * The methods are indexed by name, so only the methods with the given name are checked.
+	 *
+	 * @param cls     the class where you want to search for class members
+	 * @param name    the name of the methods
+	 * @param options search options
+	 * @return the methods found based on the filters passed.
+	 * @see #filterMethods(Class, UReflectionOptions)
+	 */
+	public static Method @NotNull [] filterMethods(@NotNull Class<?> cls, @NotNull String name,
+		@NotNull UReflectionOptions<Method> options) {
+		UObject.requireNotNull(cls, "cls");
+		UObject.requireNotNull(name, "name");
+		UObject.requireNotNull(options, "options");
+		// Temporal variables
+		UClassMembers members = UClassMembers.of(cls);
+		String memberName = name.trim();
 		
-		// Generate array
-		return fieldContainer
-			.toArray(Field[]::new);
+		if (!options.recursive()) {
+			Method[] methods = members.localMethods();
+			return filterMembers(methods, members.localMethodPositions(memberName), methods.length,
+								 options, Method[]::new);
+		}
+		return filterMembers(members.hierarchyMethods(), members.hierarchyMethodPositions(memberName),
+							 members.hierarchyMethodCount(options.maxDeep()), options, Method[]::new);
+	}
+	
+	/**
+	 * Filters the fields of a class with the given name depending on the filters passed
+	 * within the configuration passed as a parameter.
+	 * <p>
+	 * The fields are indexed by name, so only the fields with the given name are checked.
+	 *
+	 * @param cls     the class where you want to search for class members
+	 * @param name    the name of the fields
+	 * @param options search options
+	 * @return the fields found based on the filters passed.
+	 * @see #filterFields(Class, UReflectionOptions)
+	 */
+	public static Field @NotNull [] filterFields(@NotNull Class<?> cls, @NotNull String name,
+		@NotNull UReflectionOptions<Field> options) {
+		UObject.requireNotNull(cls, "cls");
+		UObject.requireNotNull(name, "name");
+		UObject.requireNotNull(options, "options");
+		// Temporal variables
+		UClassMembers members = UClassMembers.of(cls);
+		String memberName = name.trim();
+		
+		if (!options.recursive()) {
+			Field[] fields = members.localFields();
+			return filterMembers(fields, members.localFieldPositions(memberName), fields.length,
+								 options, Field[]::new);
+		}
+		return filterMembers(members.hierarchyFields(), members.hierarchyFieldPositions(memberName),
+							 members.hierarchyFieldCount(options.maxDeep()), options, Field[]::new);
+	}
+	
+	/**
+	 * Filters the methods of a class with the given signature depending on the filters passed
+	 * within the configuration passed as a parameter.
+	 * <p>
+	 * The methods are indexed by signature, so only the methods with the same name and the
+	 * same parameter types are checked.
+	 *
+	 * @param cls        the class where you want to search for class members
+	 * @param name       the name of the methods
+	 * @param parameters the exact parameter types of the methods
+	 * @param options    search options
+	 * @return the methods found based on the filters passed.
+	 * @see #filterMethods(Class, UReflectionOptions)
+	 */
+	public static Method @NotNull [] filterMethods(@NotNull Class<?> cls, @NotNull String name,
+		Class<?> @NotNull [] parameters, @NotNull UReflectionOptions<Method> options) {
+		UObject.requireNotNull(cls, "cls");
+		UObject.requireNotNull(name, "name");
+		UObject.requireNotNull(parameters, "parameters");
+		UObject.requireNotNull(options, "options");
+		// Temporal variables
+		UClassMembers members = UClassMembers.of(cls);
+		String memberName = name.trim();
+		
+		if (!options.recursive()) {
+			Method[] methods = members.localMethods();
+			return filterMembers(methods, members.localMethodPositions(memberName, parameters), methods.length,
+								 options, Method[]::new);
+		}
+		return filterMembers(members.hierarchyMethods(), members.hierarchyMethodPositions(memberName, parameters),
+							 members.hierarchyMethodCount(options.maxDeep()), options, Method[]::new);
+	}
+	
+	/* -----------------------------------------------------
+	 * Method resolution
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Searches the most specific method that can be invoked with arguments of the given types.
+	 * <p>
+	 * The runtime types of the arguments are always wrapped, so the wrapper types are
+	 * accepted by primitive parameters and the primitive widening is applied. The methods
+	 * with a fixed number of parameters are checked before the variable arity methods.
+	 * The result is cached with the class when the search does not use custom predicates.
+	 *
+	 * @param cls     the class where you want to search for the method
+	 * @param name    the name of the method
+	 * @param options search options
+	 * @param args    the types of the arguments. {@code null} elements represent {@code null} arguments
+	 * @return the most specific method
+	 * @throws NoSuchMethodException error if no method is applicable or more than one method
+	 *                               is the most specific
+	 */
+	protected static @NotNull Method resolveMethodImpl(@NotNull Class<?> cls, @NotNull String name,
+		@NotNull UReflectionOptions<Method> options, Class<?> @NotNull [] args) throws NoSuchMethodException {
+		UObject.requireNotNull(cls, "cls");
+		UObject.requireNotNull(name, "name");
+		UObject.requireNotNull(options, "options");
+		UObject.requireNotNull(args, "args");
+		// Temporal variables
+		UClassMembers members = UClassMembers.of(cls);
+		String memberName = name.trim();
+		boolean cacheable = options.predicates().isEmpty() && sameLoaderImpl(cls, args);
+		int flags = resolutionFlagsImpl(options);
+		
+		if (cacheable) {
+			Method cached = members.resolvedMethod(new UMemberKey(memberName, args, flags));
+			if (cached != null) return UClassMembers.copyOf(cached);
+		}
+		
+		Method[] candidates = filterMethods(cls, memberName, options);
+		Method result = mostSpecificImpl(candidates, args, false);
+		if (result == null) result = mostSpecificImpl(candidates, args, true);
+		if (result == null) {
+			throw new NoSuchMethodException(String.format("%s.%s%s", cls.getName(), memberName,
+														  Arrays.toString(args)));
+		}
+		
+		// The key keeps its own copy, because the arguments array can be modified by the caller
+		if (cacheable) members.cacheResolvedMethod(new UMemberKey(memberName, args.clone(), flags), result);
+		return UClassMembers.copyOf(result);
 	}
 	
 	/* -----------------------------------------------------
@@ -188,7 +326,8 @@ public abstract class UReflectionImpl extends UReflectionValidator {
 	 */
 	public static <T extends Member> @NotNull Predicate<T> named(@NotNull String name) {
 		UObject.requireNotNull(name, "name");
-		return it -> name.trim().contentEquals(it.getName());
+		String memberName = name.trim();
+		return it -> memberName.equals(it.getName());
 	}
 	
 	/**
@@ -381,33 +520,262 @@ public abstract class UReflectionImpl extends UReflectionValidator {
 	 * Filters the members of a class depending on the filters passed within the configuration
 	 * passed as a parameter.
 	 *
-	 * @param members all class members you want to filter
+	 * @param members   all class members you want to filter
+	 * @param length    the number of members (from the beginning of the array) to filter
+	 * @param options   search options
+	 * @param generator function used to create the result array
+	 * @return the members found based on the filters passed.
+	 */
+	private static <T extends Member> T @NotNull [] filterMembers(T @NotNull [] members, int length,
+		@NotNull UReflectionOptions<T> options, @NotNull IntFunction<T[]> generator) {
+		// Temporal variables
+		List<Predicate<T>> filters = memberFilters(options);
+		List<T> result = new ArrayList<>(length);
+		
+		for (int i = 0; i < length; i++) {
+			if (acceptMember(members[i], filters)) result.add(members[i]);
+		}
+		// All the members of every level can be returned, so they are copied by class
+		return UClassMembers.copyOf(result.toArray(generator.apply(result.size())), generator);
+	}
+	
+	/**
+	 * Filters some members of a class depending on the filters passed within the configuration
+	 * passed as a parameter.
+	 *
+	 * @param members   all class members
+	 * @param positions the positions of the members you want to filter, in ascending order
+	 * @param length    the number of members (from the beginning of the array) that can be returned
+	 * @param options   search options
+	 * @param generator function used to create the result array
+	 * @return the members found based on the filters passed.
+	 */
+	private static <T extends Member> T @NotNull [] filterMembers(T @NotNull [] members, int @NotNull [] positions,
+		int length, @NotNull UReflectionOptions<T> options, @NotNull IntFunction<T[]> generator) {
+		// Temporal variables
+		List<Predicate<T>> filters = memberFilters(options);
+		List<T> result = new ArrayList<>(positions.length);
+		
+		for (int position : positions) {
+			if (position >= length) break;
+			if (acceptMember(members[position], filters)) result.add(UClassMembers.copyOf(members[position]));
+		}
+		return result.toArray(generator.apply(result.size()));
+	}
+	
+	/**
+	 * Gets all the filters defined by the configuration
+	 *
 	 * @param options search options
-	 * @return the methods found based on the filters passed.
+	 * @return all the filters that a member must meet
 	 */
-	private static @NotNull <T extends Member> List<T> filterMembers(T @NotNull [] members,
-		@NotNull UReflectionOptions<T> options) {
+	private static <T extends Member> @NotNull List<Predicate<T>> memberFilters(@NotNull UReflectionOptions<T> options) {
 		// Temporal variables
-		Stream<T> memberStream = Arrays.stream(members);
+		List<Predicate<T>> result = new ArrayList<>();
 		
-		// Apply all filters
-		filter:
-		{
-			// Required filters
-			for (var filter : MEMBER_FILTER_ARRAY) {
-				if (filter.first.invoke(options)) {
-					memberStream = memberStream.filter(UObject.cast(filter.second));
+		// Required filters are checked first, because they are the cheapest
+		for (var filter : MEMBER_FILTER_ARRAY) {
+			if (filter.first.invoke(options)) result.add(UObject.cast(filter.second));
+		}
+		result.addAll(options.predicates());
+		return result;
+	}
+	
+	/**
+	 * Searches the most specific method from all the applicable methods
+	 *
+	 * @param candidates all the methods with the desired name
+	 * @param args       the types of the arguments
+	 * @param varargs    {@code true} to check the variable arity methods or
+	 *                   {@code false} to check the methods with fixed arity
+	 * @return the most specific method or {@code null} if no method is applicable
+	 * @throws NoSuchMethodException error if more than one method is the most specific
+	 */
+	private static @Nullable Method mostSpecificImpl(Method @NotNull [] candidates, Class<?> @NotNull [] args,
+		boolean varargs) throws NoSuchMethodException {
+		// Temporal variables
+		List<Method> applicable = new ArrayList<>();
+		
+		for (Method candidate : candidates) {
+			if (candidate.isBridge() || !isApplicableImpl(candidate, args, varargs)) continue;
+			// Overridden methods are ignored, the subclasses are always checked first
+			boolean overridden = false;
+			for (Method method : applicable) {
+				if (Arrays.equals(method.getParameterTypes(), candidate.getParameterTypes())) {
+					overridden = true;
+					break;
 				}
 			}
-			if (options.predicates().isEmpty()) break filter;
-			
-			// Iterate all filters
-			for (var filter : options.predicates()) {
-				memberStream = memberStream.filter(filter);
+			if (!overridden) applicable.add(candidate);
+		}
+		if (applicable.isEmpty()) return null;
+		
+		Method result = applicable.get(0);
+		for (Method method : applicable) {
+			if (isMoreSpecificImpl(method, result, args.length, varargs)) result = method;
+		}
+		for (Method method : applicable) {
+			if (method != result && !isMoreSpecificImpl(result, method, args.length, varargs)) {
+				throw new NoSuchMethodException(String.format("Ambiguous method call: %s and %s", result, method));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Checks if a method can be invoked with arguments of the given types
+	 *
+	 * @param method  the method to check
+	 * @param args    the types of the arguments
+	 * @param varargs {@code true} to check the method as a variable arity method
+	 * @return {@code true} if the method is applicable or {@code false} otherwise
+	 */
+	private static boolean isApplicableImpl(@NotNull Method method, Class<?> @NotNull [] args, boolean varargs) {
+		// Temporal variables
+		Class<?>[] parameters = method.getParameterTypes();
+		
+		if (!varargs) {
+			if (parameters.length != args.length) return false;
+			for (int i = 0; i < args.length; i++) {
+				if (!isAssignableImpl(parameters[i], args[i])) return false;
 			}
+			return true;
+		}
+		
+		if (!method.isVarArgs() || args.length < parameters.length - 1) return false;
+		for (int i = 0; i < args.length; i++) {
+			if (!isAssignableImpl(parameterTypeImpl(parameters, i, true), args[i])) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks if a method is more specific than other method. A method is more specific
+	 * when all its parameters can be passed to the other method.
+	 *
+	 * @param method  the method to check
+	 * @param other   the method to compare
+	 * @param count   the number of arguments
+	 * @param varargs {@code true} if the methods are compared as variable arity methods
+	 * @return {@code true} if the method is more specific or {@code false} otherwise
+	 */
+	private static boolean isMoreSpecificImpl(@NotNull Method method, @NotNull Method other, int count,
+		boolean varargs) {
+		// Temporal variables
+		Class<?>[] parameters = method.getParameterTypes();
+		Class<?>[] otherParameters = other.getParameterTypes();
+		int length = varargs ? Math.max(count, Math.max(parameters.length, otherParameters.length)) :
+					 parameters.length;
+		
+		for (int i = 0; i < length; i++) {
+			Class<?> target = parameterTypeImpl(otherParameters, i, varargs);
+			Class<?> source = parameterTypeImpl(parameters, i, varargs);
+			if (!isAssignableImpl(target, source)) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Gets the type of a parameter. The variable arity parameter is expanded to
+	 * the type of its elements.
+	 *
+	 * @param parameters all the parameter types
+	 * @param index      the parameter index
+	 * @param varargs    {@code true} to expand the last parameter
+	 * @return the type of the parameter
+	 */
+	private static @NotNull Class<?> parameterTypeImpl(Class<?> @NotNull [] parameters, int index, boolean varargs) {
+		if (!varargs || index < parameters.length - 1) return parameters[index];
+		return parameters[parameters.length - 1].getComponentType();
+	}
+	
+	/**
+	 * Checks if a value of the given type can be assigned to the target type
+	 *
+	 * @param target the target type
+	 * @param source the value type or {@code null} if the value is {@code null}
+	 * @return {@code true} if the value can be assigned or {@code false} otherwise
+	 */
+	private static boolean isAssignableImpl(@NotNull Class<?> target, @Nullable Class<?> source) {
+		if (source == null) return !target.isPrimitive();
+		if (target.isAssignableFrom(source)) return true;
+		
+		// Primitive types are boxed and wrapped types are unboxed
+		int sourceIndex = primitiveIndexImpl(source);
+		if (sourceIndex == -1) return false;
+		if (!target.isPrimitive()) {
+			return target.isAssignableFrom(PRIMITIVE_WRAPPED_CLASSES[sourceIndex]);
+		}
+		
+		int targetIndex = primitiveIndexImpl(target);
+		if (targetIndex == -1) return false;
+		if (targetIndex == sourceIndex) return true;
+		// Primitive widening
+		int sourceRank = PRIMITIVE_WIDENING_RANKS[sourceIndex];
+		int targetRank = PRIMITIVE_WIDENING_RANKS[targetIndex];
+		if (sourceRank == -1 || targetRank == -1 || target == char.class) return false;
+		return source == char.class || source == Character.class ? targetRank >= 2 : targetRank > sourceRank;
+	}
+	
+	/**
+	 * Gets the position of a primitive type or its wrapper class in {@link #PRIMITIVE_ARRAY_INDIVIDUAL}
+	 *
+	 * @param cls the type to check
+	 * @return the position of the primitive type or {@code -1} if the type is not primitive
+	 */
+	private static int primitiveIndexImpl(@NotNull Class<?> cls) {
+		int index = cls.isPrimitive() ? UArray.indexOf(PRIMITIVE_ARRAY_INDIVIDUAL, cls) :
+					UArray.indexOf(PRIMITIVE_WRAPPED_CLASSES, cls);
+		return index >= 0 && index < PRIMITIVE_ARRAY_INDIVIDUAL.length ? index : -1;
+	}
+	
+	/**
+	 * Checks if all the argument types are loaded by the class loader of the class or by the bootstrap
+	 * class loader. Other types are never cached, so the cache does not retain foreign class loaders.
+	 *
+	 * @param cls  the class where the method is searched
+	 * @param args the types of the arguments
+	 * @return {@code true} if all the types share the class loader or {@code false} otherwise
+	 */
+	private static boolean sameLoaderImpl(@NotNull Class<?> cls, Class<?> @NotNull [] args) {
+		// Temporal variables
+		ClassLoader loader = cls.getClassLoader();
+		
+		for (Class<?> arg : args) {
+			if (arg == null) continue;
+			ClassLoader argLoader = arg.getClassLoader();
+			if (argLoader != null && argLoader != loader) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Encodes the search options that modify the resolution of a method
+	 *
+	 * @param options search options
+	 * @return the options encoded as an integer
+	 */
+	private static int resolutionFlagsImpl(@NotNull UReflectionOptions<Method> options) {
+		// Temporal variables
+		int flags = options.recursive() ? 1 : 0;
+		
+		if (options.publicAccess()) flags |= 2;
+		if (options.skipAbstract()) flags |= 4;
+		return options.recursive() ? flags | (options.maxDeep() << 3) : flags;
+	}
+	
+	/**
+	 * Checks if a member meets all the filters
+	 *
+	 * @param member  the member to check
+	 * @param filters all the filters
+	 * @return {@code true} if the member meets all the filters or {@code false} otherwise
+	 */
+	private static <T extends Member> boolean acceptMember(@NotNull T member, @NotNull List<Predicate<T>> filters) {
+		for (var filter : filters) {
+			if (!filter.test(member)) return false;
 		}
-		return memberStream
-			.collect(Collectors.toUnmodifiableList());
+		return true;
 	}
 	
 }
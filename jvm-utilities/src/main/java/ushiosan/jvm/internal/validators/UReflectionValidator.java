@@ -1,14 +1,41 @@
 package ushiosan.jvm.internal.validators;
 
 import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.content.UPair;
 import ushiosan.jvm.error.URecursiveCallException;
+import ushiosan.jvm.function.UFunErr;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 public class UReflectionValidator extends UClassValidator {
 	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Walker used to inspect the call stack. It does not retain the class references,
+	 * so only the names of the frames are resolved.
+	 */
+	private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+	
+	/**
+	 * Methods that are being executed in the current thread through
+	 * {@link #guardRecursiveCall(Class, String, UFunErr)}
+	 */
+	private static final ThreadLocal<List<UPair<Class<?>, String>>> ACTIVE_CALLS =
+		ThreadLocal.withInitial(ArrayList::new);
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
 	/**
 	 * Checks if a recursive call is being made at a certain point in the program.
+	 * <p>
+	 * The call stack is walked lazily and the walk stops at the first matching frame.
 	 *
 	 * @param cls        the class that you want to parse to check for recursion
 	 * @param methodName the method that you want to search within the call stack
@@ -16,20 +43,71 @@ public class UReflectionValidator extends UClassValidator {
 	 *                                 several calls of the same method recursively.
 	 */
 	public static void checkRecursiveCall(@NotNull Class<?> cls, @NotNull String methodName) throws URecursiveCallException {
-		var traceElements = Thread.currentThread()
-			.getStackTrace();
-		var recursiveFilter = Arrays.stream(traceElements)
-			.filter(it -> it.getClassName().contentEquals(cls.getName()) &&
-						  it.getMethodName().contentEquals(methodName))
-			.findAny();
+		UObject.requireNotNull(cls, "cls");
+		UObject.requireNotNull(methodName, "methodName");
+		// Temporal variables
+		String className = cls.getName();
+		boolean recursive = STACK_WALKER.walk(frames -> frames
+			.anyMatch(it -> it.getMethodName().equals(methodName) &&
+							it.getClassName().equals(className)));
 		
 		// Check recursive call
-		if (recursiveFilter.isEmpty()) return;
+		if (!recursive) return;
 		// Launch error
-		var element = recursiveFilter.get();
-		throw new URecursiveCallException(String.format(
-			"A recursive call was detected when calling method \"%s\" of class \"%s\".",
-			element.getMethodName(), element.getClassName()));
+		throw new URecursiveCallException(recursiveCallMessage(className, methodName));
+	}
+	
+	/**
+	 * Executes an action and checks that the same method is not entered again from the action
+	 * in the current thread. Unlike {@link #checkRecursiveCall(Class, String)}, the call stack
+	 * is never inspected, so only the calls made through this method are detected.
+	 *
+	 * @param cls        the class of the guarded method
+	 * @param methodName the name of the guarded method
+	 * @param action     the action that calls the method
+	 * @param <R>        the action result type
+	 * @param <E>        the action error type
+	 * @return the action result
+	 * @throws URecursiveCallException error if the method is already being executed
+	 *                                 in the current thread
+	 * @throws E                       error if the action fails
+	 */
+	public static <R, E extends Throwable> R guardRecursiveCall(@NotNull Class<?> cls, @NotNull String methodName,
+		@NotNull UFunErr<R, E> action) throws URecursiveCallException, E {
+		UObject.requireNotNull(cls, "cls");
+		UObject.requireNotNull(methodName, "methodName");
+		UObject.requireNotNull(action, "action");
+		// Temporal variables
+		List<UPair<Class<?>, String>> calls = ACTIVE_CALLS.get();
+		
+		for (var call : calls) {
+			if (call.first == cls && call.second.equals(methodName)) {
+				throw new URecursiveCallException(recursiveCallMessage(cls.getName(), methodName));
+			}
+		}
+		
+		calls.add(UPair.make(cls, methodName));
+		try {
+			return action.invoke();
+		} finally {
+			calls.remove(calls.size() - 1);
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates the message of a recursive call error
+	 *
+	 * @param className  the class name
+	 * @param methodName the method name
+	 * @return the error message
+	 */
+	private static @NotNull String recursiveCallMessage(@NotNull String className, @NotNull String methodName) {
+		return String.format("A recursive call was detected when calling method \"%s\" of class \"%s\".",
+							 methodName, className);
 	}
 	
-}
\ No newline at end of file
+}
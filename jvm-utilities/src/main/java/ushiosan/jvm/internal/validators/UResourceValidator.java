@@ -4,14 +4,21 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import ushiosan.jvm.UObject;
 import ushiosan.jvm.collections.UArray;
+import ushiosan.jvm.function.UEmptyFunErr;
+import ushiosan.jvm.internal.filesystem.UDirectBufferPool;
 import ushiosan.jvm.platform.UArchitecture;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
 import java.util.Optional;
 
 public abstract class UResourceValidator {
@@ -40,6 +47,36 @@ public abstract class UResourceValidator {
 	 */
 	protected static final int FS_RESOURCE_BUFFER_SIZE_STANDARD = 4096;
 	
+	/**
+	 * Standard size for the chunks used to read large resources through
+	 * a {@link FileChannel}. Every chunk is read into a reusable direct buffer,
+	 * so the content is never copied into the java heap.
+	 */
+	protected static final int FS_RESOURCE_BUFFER_SIZE_CHANNEL = 1024 * 1024;
+	
+	/**
+	 * Resources smaller than this size are read with a regular heap buffer, because the
+	 * direct buffers are only worth it for large resources.
+	 */
+	protected static final long FS_RESOURCE_DIRECT_THRESHOLD = 256 * 1024;
+	
+	/**
+	 * Size of the direct buffers used by the asynchronous reads. The buffers
+	 * are reused between operations, so they are never released while pooled.
+	 */
+	protected static final int FS_RESOURCE_BUFFER_SIZE_ASYNC = 256 * 1024;
+	
+	/**
+	 * Default number of workers used by parallel operations
+	 */
+	protected static final int FS_DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * Direct buffers used to read large resources through a {@link FileChannel}
+	 */
+	protected static final UDirectBufferPool channelBufferPool =
+		new UDirectBufferPool(FS_RESOURCE_BUFFER_SIZE_CHANNEL, FS_DEFAULT_PARALLELISM * 2);
+	
 	/**
 	 * Hash Algorithm for {@link #resourceHashImpl(InputStream, String)} Function.
 	 * It must be remembered that 64-bit platforms work better with 64-bit algorithms
@@ -71,18 +108,8 @@ public abstract class UResourceValidator {
 	 */
 	protected static @NotNull String nameWithoutSlashesImpl(@NotNull String location) {
 		UObject.requireNotNull(location, "location");
-		String fileSeparator = String.valueOf(FS_STANDARD_FILE_SEPARATOR);
-		String cleanLocation = location.replaceAll("[/|\\\\]+", fileSeparator)
-			.trim();
-		
-		// We check that the location does not end with a slash
-		while (cleanLocation.endsWith(fileSeparator)) {
-			cleanLocation = cleanLocation.substring(0, cleanLocation.length() - 1);
-		}
-		
-		int lastSlashIndex = cleanLocation.lastIndexOf(FS_STANDARD_FILE_SEPARATOR);
-		return cleanLocation.substring(lastSlashIndex == UArray.INDEX_NOT_FOUND ?
-									   0 : lastSlashIndex + 1);
+		long region = nameRegionImpl(location);
+		return location.substring(regionStart(region), regionEnd(region));
 	}
 	
 	/**
@@ -100,15 +127,12 @@ public abstract class UResourceValidator {
 	 * @return the file base name
 	 */
 	protected static @NotNull String basenameImpl(@NotNull String location, boolean directory, boolean partial) {
-		String cleanLocation = nameWithoutSlashesImpl(location);
+		UObject.requireNotNull(location, "location");
+		long region = nameRegionImpl(location);
 		// Directories or the like do not contain extensions.
-		if (directory) return cleanLocation;
+		if (directory) return location.substring(regionStart(region), regionEnd(region));
 		
-		// Clean regular file name
-		int dotIndex = partial ? cleanLocation.indexOf(FS_EXTENSION_IDENTIFIER) :
-					   cleanLocation.lastIndexOf(FS_EXTENSION_IDENTIFIER);
-		return dotIndex == UArray.INDEX_NOT_FOUND ? cleanLocation :
-			   cleanLocation.substring(0, dotIndex);
+		return location.substring(regionStart(region), basenameEndImpl(location, region, partial));
 	}
 	
 	/**
@@ -124,23 +148,18 @@ public abstract class UResourceValidator {
 	 * @return all file extensions
 	 */
 	protected static String @NotNull [] allExtensionsImpl(@NotNull String location) {
+		UObject.requireNotNull(location, "location");
 		// Temporal variables
-		String basename = basenameImpl(location, false, false);
-		String cleanLocation = nameWithoutSlashesImpl(location);
-		int dotIndex = cleanLocation.indexOf(FS_EXTENSION_IDENTIFIER);
+		long region = nameRegionImpl(location);
+		int count = extensionCountImpl(location, region);
+		if (count == 0) return FS_EMPTY_EXTENSIONS;
 		
-		check:
-		{
-			// Check if FS_EXTENSION_IDENTIFIER exists
-			if (dotIndex == UArray.INDEX_NOT_FOUND) break check;
-			
-			// Generate result
-			String[] extensionChunks = cleanLocation.split("\\.");
-			return Arrays.stream(extensionChunks)
-				.filter(it -> !basename.contentEquals(it))
-				.toArray(String[]::new);
+		String[] result = new String[count];
+		for (int i = 0; i < count; i++) {
+			long extension = extensionRegionImpl(location, region, i);
+			result[i] = location.substring(regionStart(extension), regionEnd(extension));
 		}
-		return FS_EMPTY_EXTENSIONS;
+		return result;
 	}
 	
 	/**
@@ -160,6 +179,291 @@ public abstract class UResourceValidator {
 		return UArray.lastElement(extensions);
 	}
 	
+	/**
+	 * Locates the name of a resource inside its location, without generating
+	 * any intermediate string. The location separators are {@code /}, {@code \}
+	 * and {@code |}, the surrounding whitespaces are ignored, and the separators
+	 * at the end of the location are removed.
+	 *
+	 * @param location the file location to analyze
+	 * @return the region of the name, packed with {@link #regionOf(int, int)}
+	 */
+	protected static long nameRegionImpl(@NotNull CharSequence location) {
+		// Temporal variables
+		int start = 0;
+		int end = location.length();
+		
+		// Same behavior as String.trim() and the removal of the last slashes
+		while (start < end && location.charAt(start) <= ' ') start++;
+		while (end > start && location.charAt(end - 1) <= ' ') end--;
+		while (end > start && isSeparator(location.charAt(end - 1))) end--;
+		
+		for (int i = end - 1; i >= start; i--) {
+			if (!isSeparator(location.charAt(i))) continue;
+			start = i + 1;
+			break;
+		}
+		return regionOf(start, end);
+	}
+	
+	/**
+	 * Locates the end of the base name inside the resource name
+	 *
+	 * @param location the file location to analyze
+	 * @param name     the region of the name
+	 * @param partial  determines if the base name ends at the first or the last extension
+	 * @return the end of the base name (exclusive)
+	 */
+	protected static int basenameEndImpl(@NotNull CharSequence location, long name, boolean partial) {
+		// Temporal variables
+		int start = regionStart(name);
+		int end = regionEnd(name);
+		int dotIndex = partial ? indexOf(location, FS_EXTENSION_IDENTIFIER, start, end) :
+					   lastIndexOf(location, FS_EXTENSION_IDENTIFIER, start, end);
+		return dotIndex == UArray.INDEX_NOT_FOUND ? end : dotIndex;
+	}
+	
+	/**
+	 * Counts the extensions of the resource name. The name is divided by the dots,
+	 * the empty chunks at the end are ignored, and the chunks equal to the full
+	 * base name are not considered extensions.
+	 *
+	 * @param location the file location to analyze
+	 * @param name     the region of the name
+	 * @return the number of extensions
+	 */
+	protected static int extensionCountImpl(@NotNull CharSequence location, long name) {
+		// Temporal variables
+		int start = regionStart(name);
+		int end = trimDots(location, start, regionEnd(name));
+		if (indexOf(location, FS_EXTENSION_IDENTIFIER, start, regionEnd(name)) == UArray.INDEX_NOT_FOUND) return 0;
+		
+		int count = 0;
+		int chunkStart = start;
+		while (chunkStart < end) {
+			int chunkEnd = chunkEnd(location, chunkStart, end);
+			if (!isBasename(location, name, chunkStart, chunkEnd)) count++;
+			chunkStart = chunkEnd + 1;
+		}
+		return count;
+	}
+	
+	/**
+	 * Locates an extension of the resource name
+	 *
+	 * @param location the file location to analyze
+	 * @param name     the region of the name
+	 * @param index    the extension index
+	 * @return the region of the extension, packed with {@link #regionOf(int, int)}
+	 * @throws IndexOutOfBoundsException error if the extension not exists
+	 * @see #extensionCountImpl(CharSequence, long)
+	 */
+	protected static long extensionRegionImpl(@NotNull CharSequence location, long name, int index) {
+		// Temporal variables
+		int start = regionStart(name);
+		int end = trimDots(location, start, regionEnd(name));
+		int current = 0;
+		int chunkStart = start;
+		
+		if (indexOf(location, FS_EXTENSION_IDENTIFIER, start, regionEnd(name)) != UArray.INDEX_NOT_FOUND) {
+			while (chunkStart < end) {
+				int chunkEnd = chunkEnd(location, chunkStart, end);
+				if (!isBasename(location, name, chunkStart, chunkEnd) && current++ == index) {
+					return regionOf(chunkStart, chunkEnd);
+				}
+				chunkStart = chunkEnd + 1;
+			}
+		}
+		throw new IndexOutOfBoundsException(String.format("Extension %d out of bounds", index));
+	}
+	
+	/**
+	 * Locates the last extension of a resource name, without generating any
+	 * intermediate string. The located region is the same value returned by
+	 * {@link #extensionImpl(String[])} with the result of {@link #allExtensionsImpl(String)}.
+	 *
+	 * @param location the file location to analyze
+	 * @param start    the start of the resource name (inclusive)
+	 * @param end      the end of the resource name (exclusive)
+	 * @return the region of the extension, packed with {@link #regionOf(int, int)}, or
+	 * 	{@link UArray#INDEX_NOT_FOUND} if the name does not contain extensions
+	 */
+	protected static long extensionRegionImpl(@NotNull CharSequence location, int start, int end) {
+		// Temporal variables
+		long name = regionOf(start, end);
+		int limit = trimDots(location, start, end);
+		if (indexOf(location, FS_EXTENSION_IDENTIFIER, start, end) == UArray.INDEX_NOT_FOUND) {
+			return UArray.INDEX_NOT_FOUND;
+		}
+		
+		// The chunks are verified from the end, so usually only the last one is checked
+		int chunkEnd = limit;
+		while (chunkEnd > start) {
+			int dotIndex = lastIndexOf(location, FS_EXTENSION_IDENTIFIER, start, chunkEnd);
+			int chunkStart = dotIndex + 1;
+			if (dotIndex == UArray.INDEX_NOT_FOUND) chunkStart = start;
+			
+			if (!isBasename(location, name, chunkStart, chunkEnd)) return regionOf(chunkStart, chunkEnd);
+			if (dotIndex == UArray.INDEX_NOT_FOUND) break;
+			chunkEnd = dotIndex;
+		}
+		return UArray.INDEX_NOT_FOUND;
+	}
+	
+	/**
+	 * Packs the limits of a text region into a single value
+	 *
+	 * @param start the region start (inclusive)
+	 * @param end   the region end (exclusive)
+	 * @return the packed region
+	 */
+	protected static long regionOf(int start, int end) {
+		return ((long) start << 32) | (end & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Gets the start of a packed region
+	 *
+	 * @param region the packed region
+	 * @return the region start (inclusive)
+	 */
+	protected static int regionStart(long region) {
+		return (int) (region >>> 32);
+	}
+	
+	/**
+	 * Gets the end of a packed region
+	 *
+	 * @param region the packed region
+	 * @return the region end (exclusive)
+	 */
+	protected static int regionEnd(long region) {
+		return (int) region;
+	}
+	
+	/**
+	 * Reads all the content of a channel and passes each chunk to the consumer. Large channels
+	 * are read sequentially into a reusable direct buffer (in chunks of at most {@code bufferSize}
+	 * bytes), while small channels are read with a single heap buffer of (at most) {@code bufferSize} bytes.
+	 * <p>
+	 * The content is never mapped into memory, because the mappings are only released when
+	 * they are collected, and large scans would exhaust the mappings allowed per process.
+	 * The buffers passed to the consumer are only valid during the call and must not be stored.
+	 *
+	 * @param channel    the channel to read
+	 * @param bufferSize the size of each chunk
+	 * @param consumer   the action that receives every chunk
+	 * @throws IOException error to read channel content
+	 */
+	protected static void readChannelImpl(@NotNull FileChannel channel, int bufferSize,
+		UEmptyFunErr.@NotNull UEmptyFunErr1<ByteBuffer, IOException> consumer) throws IOException {
+		UObject.requireNotNull(channel, "channel");
+		if (bufferSize <= 0) throw new IllegalArgumentException("The buffer size must be greater than zero");
+		// Temporal variables
+		long size = channel.size();
+		
+		// Large channels reuse the pooled direct buffers
+		if (size >= FS_RESOURCE_DIRECT_THRESHOLD) {
+			ByteBuffer buffer = channelBufferPool.acquire();
+			int capacity = Math.min(bufferSize, buffer.capacity());
+			try {
+				while (channel.read(buffer.limit(capacity)) != UArray.INDEX_NOT_FOUND) {
+					buffer.flip();
+					consumer.invoke(buffer);
+					buffer.clear();
+				}
+			} finally {
+				channelBufferPool.release(buffer);
+			}
+			return;
+		}
+		
+		// Small channels (or channels without a known size) are read sequentially
+		int capacity = (int) Math.min(bufferSize, Math.max(size, FS_RESOURCE_BUFFER_SIZE_STANDARD));
+		ByteBuffer buffer = ByteBuffer.allocate(capacity);
+		while (channel.read(buffer) != UArray.INDEX_NOT_FOUND) {
+			buffer.flip();
+			consumer.invoke(buffer);
+			buffer.clear();
+		}
+	}
+	
+	/**
+	 * Reads all the content of a resource and passes each chunk to the consumer.
+	 * <p>
+	 * Only the resources of the default file system are read through a {@link FileChannel},
+	 * because other providers (zip archives, {@code jrt:/} images) may not support channels
+	 * or memory mapping. The other resources are read as a stream.
+	 *
+	 * @param path       the resource location
+	 * @param bufferSize the size of each chunk
+	 * @param consumer   the action that receives every chunk
+	 * @throws IOException error to read resource content
+	 * @see #readChannelImpl(FileChannel, int, UEmptyFunErr.UEmptyFunErr1)
+	 * @see #readStreamImpl(InputStream, int, UEmptyFunErr.UEmptyFunErr1)
+	 */
+	protected static void readResourceImpl(@NotNull Path path, int bufferSize,
+		UEmptyFunErr.@NotNull UEmptyFunErr1<ByteBuffer, IOException> consumer) throws IOException {
+		UObject.requireNotNull(path, "path");
+		if (bufferSize <= 0) throw new IllegalArgumentException("The buffer size must be greater than zero");
+		
+		if (path.getFileSystem() == FileSystems.getDefault()) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				readChannelImpl(channel, bufferSize, consumer);
+			}
+			return;
+		}
+		try (InputStream stream = Files.newInputStream(path)) {
+			readStreamImpl(stream, bufferSize, consumer);
+		}
+	}
+	
+	/**
+	 * Reads all the content of a stream and passes each chunk to the consumer.
+	 * <p>
+	 * The buffers passed to the consumer are only valid during the call and must not be stored.
+	 *
+	 * @param stream     the stream to read
+	 * @param bufferSize the size of each chunk
+	 * @param consumer   the action that receives every chunk
+	 * @throws IOException error to read stream content
+	 */
+	protected static void readStreamImpl(@NotNull InputStream stream, int bufferSize,
+		UEmptyFunErr.@NotNull UEmptyFunErr1<ByteBuffer, IOException> consumer) throws IOException {
+		UObject.requireNotNull(stream, "stream");
+		if (bufferSize <= 0) throw new IllegalArgumentException("The buffer size must be greater than zero");
+		// Temporal variables
+		byte[] content = new byte[bufferSize];
+		ByteBuffer buffer = ByteBuffer.wrap(content);
+		int count;
+		
+		while ((count = stream.read(content)) != UArray.INDEX_NOT_FOUND) {
+			buffer.limit(count);
+			consumer.invoke(buffer);
+			buffer.clear();
+		}
+	}
+	
+	/**
+	 * Get the hash of the given resource
+	 *
+	 * @param path       the resource location
+	 * @param algorithm  hash algorithm
+	 * @param bufferSize the size of each chunk read from the resource
+	 * @return the resource hash
+	 * @throws NoSuchAlgorithmException error if algorithm not exists
+	 * @throws IOException              error to read resource content
+	 * @see #readResourceImpl(Path, int, UEmptyFunErr.UEmptyFunErr1)
+	 */
+	protected static byte[] resourceHashImpl(@NotNull Path path, @NotNull String algorithm, int bufferSize) throws
+		IOException, NoSuchAlgorithmException {
+		UObject.requireNotNull(algorithm, "algorithm");
+		// Generate digest instance
+		MessageDigest digest = MessageDigest.getInstance(algorithm);
+		readResourceImpl(path, bufferSize, digest::update);
+		return digest.digest();
+	}
+	
 	/**
 	 * Get the hash of the given stream
 	 *
@@ -188,4 +492,98 @@ public abstract class UResourceValidator {
 		}
 	}
 	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Checks if the character is considered a location separator
+	 *
+	 * @param character the character to check
+	 * @return {@code true} if the character separates the location elements or {@code false} otherwise
+	 */
+	private static boolean isSeparator(char character) {
+		return character == FS_STANDARD_FILE_SEPARATOR || character == '\\' || character == '|';
+	}
+	
+	/**
+	 * Removes the dots at the end of a region. The empty chunks at the end of the
+	 * name are ignored (same behavior as {@link String#split(String)}).
+	 *
+	 * @param location the text to analyze
+	 * @param start    the region start (inclusive)
+	 * @param end      the region end (exclusive)
+	 * @return the new region end (exclusive)
+	 */
+	private static int trimDots(@NotNull CharSequence location, int start, int end) {
+		while (end > start && location.charAt(end - 1) == FS_EXTENSION_IDENTIFIER) end--;
+		return end;
+	}
+	
+	/**
+	 * Locates the end of the chunk that starts at the given position
+	 *
+	 * @param location the text to analyze
+	 * @param start    the chunk start (inclusive)
+	 * @param end      the region end (exclusive)
+	 * @return the chunk end (exclusive)
+	 */
+	private static int chunkEnd(@NotNull CharSequence location, int start, int end) {
+		int dotIndex = indexOf(location, FS_EXTENSION_IDENTIFIER, start, end);
+		return dotIndex == UArray.INDEX_NOT_FOUND ? end : dotIndex;
+	}
+	
+	/**
+	 * Checks if a chunk is equal to the full base name (the name without its last extension)
+	 *
+	 * @param location the text to analyze
+	 * @param name     the region of the name
+	 * @param start    the chunk start (inclusive)
+	 * @param end      the chunk end (exclusive)
+	 * @return {@code true} if the chunk is equal to the base name or {@code false} otherwise
+	 */
+	private static boolean isBasename(@NotNull CharSequence location, long name, int start, int end) {
+		// Temporal variables
+		int basenameStart = regionStart(name);
+		int basenameEnd = basenameEndImpl(location, name, false);
+		if (basenameEnd - basenameStart != end - start) return false;
+		
+		for (int i = 0; i < end - start; i++) {
+			if (location.charAt(basenameStart + i) != location.charAt(start + i)) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Finds the first occurrence of a character inside a region
+	 *
+	 * @param location  the text to analyze
+	 * @param character the character to find
+	 * @param start     the region start (inclusive)
+	 * @param end       the region end (exclusive)
+	 * @return the character position or {@link UArray#INDEX_NOT_FOUND} if not exists
+	 */
+	private static int indexOf(@NotNull CharSequence location, char character, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (location.charAt(i) == character) return i;
+		}
+		return UArray.INDEX_NOT_FOUND;
+	}
+	
+	/**
+	 * Finds the last occurrence of a character inside a region
+	 *
+	 * @param location  the text to analyze
+	 * @param character the character to find
+	 * @param start     the region start (inclusive)
+	 * @param end       the region end (exclusive)
+	 * @return the character position or {@link UArray#INDEX_NOT_FOUND} if not exists
+	 */
+	private static int lastIndexOf(@NotNull CharSequence location, char character, int start, int end) {
+		for (int i = end - 1; i >= start; i--) {
+			if (location.charAt(i) == character) return i;
+		}
+		return UArray.INDEX_NOT_FOUND;
+	}
+	
 }
@@ -0,0 +1,21 @@
+package ushiosan.jvm.print;
+
+/**
+ * Enumerated type for listing the modes used to detect the recursive
+ * calls of the {@code toString} methods
+ *
+ * @see UToStringManager#setRecursionMode(URecursionMode)
+ */
+public enum URecursionMode {
+	/**
+	 * Recursive calls are detected by searching the {@code toString} method
+	 * of the object within the call stack. This is the default mode.
+	 */
+	STACK_WALK,
+	
+	/**
+	 * Recursive calls are detected with a guard of the current thread, so the call stack
+	 * is never inspected. Only the calls made through the manager are detected.
+	 */
+	THREAD_GUARD
+}
@@ -2,6 +2,7 @@ package ushiosan.jvm.print;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import ushiosan.jvm.UObject;
 import ushiosan.jvm.internal.print.UToStringManagerImpl;
 
 public interface UToStringManager {
@@ -40,6 +41,29 @@ public interface UToStringManager {
 		return toString(object, false);
 	}
 	
+	/**
+	 * The mode used to detect the recursive calls of the {@code toString} methods.
+	 * The managers that do not support other modes always use {@link URecursionMode#STACK_WALK}.
+	 *
+	 * @return the recursion detection mode
+	 */
+	default @NotNull URecursionMode recursionMode() {
+		return URecursionMode.STACK_WALK;
+	}
+	
+	/**
+	 * Changes the mode used to detect the recursive calls of the {@code toString} methods
+	 *
+	 * @param mode the recursion detection mode
+	 * @throws UnsupportedOperationException error if the manager does not support the mode
+	 */
+	default void setRecursionMode(@NotNull URecursionMode mode) {
+		UObject.requireNotNull(mode, "mode");
+		if (mode != recursionMode()) {
+			throw new UnsupportedOperationException("Unsupported recursion mode: " + mode);
+		}
+	}
+	
 	/**
 	 * registers a new component to the handler instance
 	 *
@@ -0,0 +1,471 @@
+package ushiosan.jvm.reflection;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+import ushiosan.jvm.UObject;
+import ushiosan.jvm.internal.reflection.UClassMembers;
+import ushiosan.jvm.internal.reflection.UMemberInvoker;
+import ushiosan.jvm.internal.reflection.UReflectionImpl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled accessor of the instance fields of a class.
+ * <p>
+ * The fields are selected with {@link UReflectionImpl#filterFields(Class, UReflectionOptions)}
+ * and a {@link VarHandle} is created for every field only once, so reading and writing the
+ * fields does not pay the reflective access checks. Static and synthetic fields are always
+ * excluded. When a field hides a field of a superclass, the field of the class is used.
+ * <p>
+ * The bulk write operations skip the {@code final} fields, because their handles are read-only.
+ *
+ * @param <T> the instances type
+ */
+public final class UFieldAccessor<T> {
+	
+	/* -----------------------------------------------------
+	 * Properties
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generic getter type
+	 */
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	
+	/**
+	 * Generic setter type
+	 */
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	/**
+	 * The class of the instances
+	 */
+	private final Class<T> type;
+	
+	/**
+	 * All the accessed fields
+	 */
+	private final Field[] fields;
+	
+	/**
+	 * The names of all the accessed fields
+	 */
+	private final List<String> names;
+	
+	/**
+	 * The position of every field name
+	 */
+	private final Map<String, Integer> indexes;
+	
+	/**
+	 * The getter of every field
+	 */
+	private final MethodHandle[] getters;
+	
+	/**
+	 * The setter of every field. Read-only fields have no setter
+	 */
+	private final MethodHandle[] setters;
+	
+	/* -----------------------------------------------------
+	 * Constructors
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * This class cannot be instantiated directly
+	 *
+	 * @param type    the class of the instances
+	 * @param options the options used to select the fields
+	 * @throws IllegalAccessException error if any field cannot be accessed
+	 */
+	private UFieldAccessor(@NotNull Class<T> type, @NotNull UReflectionOptions<Field> options) throws
+		IllegalAccessException {
+		// Temporal variables
+		Field[] found = UReflectionImpl.filterFields(type, options);
+		int size = 0;
+		
+		// Static and synthetic fields are not part of the instances
+		for (Field field : found) {
+			if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) found[size++] = field;
+		}
+		
+		this.type = type;
+		this.fields = new Field[size];
+		this.getters = new MethodHandle[size];
+		this.setters = new MethodHandle[size];
+		this.indexes = new HashMap<>();
+		String[] fieldNames = new String[size];
+		
+		for (int i = 0; i < size; i++) {
+			VarHandle handle = UMemberInvoker.varHandle(found[i]);
+			fields[i] = found[i];
+			fieldNames[i] = found[i].getName();
+			getters[i] = handle.toMethodHandle(VarHandle.AccessMode.GET).asType(GETTER_TYPE);
+			if (handle.isAccessModeSupported(VarHandle.AccessMode.SET)) {
+				setters[i] = handle.toMethodHandle(VarHandle.AccessMode.SET).asType(SETTER_TYPE);
+			}
+			// The fields of the class are found before the fields of the superclasses
+			indexes.putIfAbsent(fieldNames[i], i);
+		}
+		this.names = List.of(fieldNames);
+	}
+	
+	/* -----------------------------------------------------
+	 * Methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the accessor of all the instance fields of a class, including the private fields
+	 * and the fields of the superclasses. The accessor is created only once per class.
+	 *
+	 * @param type the class of the instances
+	 * @param <T>  the instances type
+	 * @return the field accessor of the class
+	 * @throws IllegalAccessException error if any field cannot be accessed
+	 */
+	public static <T> @NotNull UFieldAccessor<T> of(@NotNull Class<T> type) throws IllegalAccessException {
+		UObject.requireNotNull(type, "type");
+		// Temporal variables
+		UClassMembers members = UClassMembers.of(type);
+		UFieldAccessor<?> cached = members.fieldAccessor();
+		
+		if (cached != null) return UObject.cast(cached);
+		UFieldAccessor<T> result = new UFieldAccessor<>(type, UReflectionOptions.generateForFields()
+			.setPublicAccessOnly(false));
+		members.cacheFieldAccessor(result);
+		return result;
+	}
+	
+	/**
+	 * Creates an accessor of the instance fields of a class that meet the given options.
+	 * Unlike {@link #of(Class)}, the accessor is not cached.
+	 *
+	 * @param type    the class of the instances
+	 * @param options the options used to select the fields
+	 * @param <T>     the instances type
+	 * @return the field accessor of the class
+	 * @throws IllegalAccessException error if any field cannot be accessed
+	 */
+	public static <T> @NotNull UFieldAccessor<T> of(@NotNull Class<T> type,
+		@NotNull UReflectionOptions<Field> options) throws IllegalAccessException {
+		UObject.requireNotNull(type, "type");
+		UObject.requireNotNull(options, "options");
+		return new UFieldAccessor<>(type, options);
+	}
+	
+	/**
+	 * The class of the instances
+	 *
+	 * @return the class of the instances
+	 */
+	public @NotNull Class<T> type() {
+		return type;
+	}
+	
+	/**
+	 * Number of accessed fields
+	 *
+	 * @return the number of fields
+	 */
+	public int size() {
+		return fields.length;
+	}
+	
+	/**
+	 * The names of all the accessed fields, in the same order as the field positions
+	 *
+	 * @return the names of the fields
+	 */
+	public @NotNull @Unmodifiable List<String> names() {
+		return names;
+	}
+	
+	/**
+	 * Gets an accessed field
+	 *
+	 * @param index the field position
+	 * @return the field at the given position
+	 * @throws IndexOutOfBoundsException error if the position is not valid
+	 */
+	public @NotNull Field field(int index) {
+		return fields[index];
+	}
+	
+	/**
+	 * Gets the position of a field
+	 *
+	 * @param name the field name
+	 * @return the field position or {@code -1} if the field is not accessed
+	 */
+	public int indexOf(@NotNull String name) {
+		UObject.requireNotNull(name, "name");
+		Integer index = indexes.get(name);
+		return index == null ? -1 : index;
+	}
+	
+	/**
+	 * Checks if a field can be changed
+	 *
+	 * @param index the field position
+	 * @return {@code true} if the field can be changed or {@code false} if the field is read-only
+	 * @throws IndexOutOfBoundsException error if the position is not valid
+	 */
+	public boolean isWritable(int index) {
+		return setters[index] != null;
+	}
+	
+	/**
+	 * Reads the value of a field
+	 *
+	 * @param instance the instance to read
+	 * @param index    the field position
+	 * @return the field value
+	 * @throws IndexOutOfBoundsException error if the position is not valid
+	 */
+	public @Nullable Object get(@NotNull T instance, int index) {
+		UObject.requireNotNull(instance, "instance");
+		return getImpl(instance, index);
+	}
+	
+	/**
+	 * Reads the value of a field
+	 *
+	 * @param instance the instance to read
+	 * @param name     the field name
+	 * @return the field value
+	 * @throws IllegalArgumentException error if the field is not accessed
+	 */
+	public @Nullable Object get(@NotNull T instance, @NotNull String name) {
+		UObject.requireNotNull(instance, "instance");
+		return getImpl(instance, requireIndexImpl(name));
+	}
+	
+	/**
+	 * Changes the value of a field
+	 *
+	 * @param instance the instance to write
+	 * @param index    the field position
+	 * @param value    the new field value
+	 * @throws IndexOutOfBoundsException error if the position is not valid
+	 * @throws IllegalArgumentException  error if the field is read-only
+	 * @throws ClassCastException        error if the value is not compatible with the field type
+	 */
+	public void set(@NotNull T instance, int index, @Nullable Object value) {
+		UObject.requireNotNull(instance, "instance");
+		if (setters[index] == null) {
+			throw new IllegalArgumentException("The field is read-only: " + fields[index].getName());
+		}
+		setImpl(instance, index, value);
+	}
+	
+	/**
+	 * Changes the value of a field
+	 *
+	 * @param instance the instance to write
+	 * @param name     the field name
+	 * @param value    the new field value
+	 * @throws IllegalArgumentException error if the field is not accessed or is read-only
+	 * @throws ClassCastException       error if the value is not compatible with the field type
+	 */
+	public void set(@NotNull T instance, @NotNull String name, @Nullable Object value) {
+		set(instance, requireIndexImpl(name), value);
+	}
+	
+	/**
+	 * Reads all the fields of an instance
+	 *
+	 * @param instance the instance to read
+	 * @return the values of all the fields, in the same order as the field positions
+	 */
+	public Object @NotNull [] toArray(@NotNull T instance) {
+		UObject.requireNotNull(instance, "instance");
+		// Temporal variables
+		Object[] result = new Object[fields.length];
+		
+		for (int i = 0; i < fields.length; i++) {
+			result[i] = getImpl(instance, i);
+		}
+		return result;
+	}
+	
+	/**
+	 * Reads all the fields of an instance. The hidden fields of the superclasses are not included.
+	 *
+	 * @param instance the instance to read
+	 * @return the values of all the fields by name, in the same order as the field positions
+	 */
+	public @NotNull Map<String, Object> toMap(@NotNull T instance) {
+		UObject.requireNotNull(instance, "instance");
+		// Temporal variables
+		Map<String, Object> result = new LinkedHashMap<>(indexes.size() * 2);
+		
+		for (int i = 0; i < fields.length; i++) {
+			if (indexes.get(names.get(i)) == i) result.put(names.get(i), getImpl(instance, i));
+		}
+		return result;
+	}
+	
+	/**
+	 * Changes all the writable fields of an instance
+	 *
+	 * @param instance the instance to write
+	 * @param values   the values of all the fields, in the same order as the field positions
+	 * @throws IllegalArgumentException error if the number of values is not the number of fields
+	 * @throws ClassCastException       error if a value is not compatible with its field type
+	 */
+	public void fromArray(@NotNull T instance, Object @NotNull [] values) {
+		UObject.requireNotNull(instance, "instance");
+		UObject.requireNotNull(values, "values");
+		if (values.length != fields.length) {
+			throw new IllegalArgumentException(
+				String.format("Expected %d values but %d were found", fields.length, values.length));
+		}
+		
+		for (int i = 0; i < fields.length; i++) {
+			if (setters[i] != null) setImpl(instance, i, values[i]);
+		}
+	}
+	
+	/**
+	 * Changes the writable fields of an instance that are contained in the map.
+	 * The entries that do not match any field are ignored.
+	 *
+	 * @param instance the instance to write
+	 * @param values   the values of the fields by name
+	 * @throws ClassCastException error if a value is not compatible with its field type
+	 */
+	public void fromMap(@NotNull T instance, @NotNull Map<String, ?> values) {
+		UObject.requireNotNull(instance, "instance");
+		UObject.requireNotNull(values, "values");
+		
+		for (var entry : values.entrySet()) {
+			Integer index = indexes.get(entry.getKey());
+			if (index != null && setters[index] != null) setImpl(instance, index, entry.getValue());
+		}
+	}
+	
+	/**
+	 * Copies all the writable fields from an instance to another instance of the same class
+	 *
+	 * @param source the instance to read
+	 * @param target the instance to write
+	 * @return the {@code target} instance
+	 */
+	public @NotNull T copy(@NotNull T source, @NotNull T target) {
+		UObject.requireNotNull(source, "source");
+		UObject.requireNotNull(target, "target");
+		
+		for (int i = 0; i < fields.length; i++) {
+			if (setters[i] != null) setImpl(target, i, getImpl(source, i));
+		}
+		return target;
+	}
+	
+	/**
+	 * Copies the fields from an instance to an instance of other class. Only the fields with
+	 * the same name and a compatible type are copied, so this method can be used to map objects
+	 * with the same structure.
+	 *
+	 * @param source         the instance to read
+	 * @param targetAccessor the field accessor of the other class
+	 * @param target         the instance to write
+	 * @param <V>            the other class type
+	 * @return the {@code target} instance
+	 */
+	public <V> @NotNull V copy(@NotNull T source, @NotNull UFieldAccessor<V> targetAccessor, @NotNull V target) {
+		UObject.requireNotNull(source, "source");
+		UObject.requireNotNull(targetAccessor, "targetAccessor");
+		UObject.requireNotNull(target, "target");
+		
+		for (int i = 0; i < fields.length; i++) {
+			int index = targetAccessor.indexOf(names.get(i));
+			if (index == -1 || targetAccessor.setters[index] == null) continue;
+			// Primitive types are compatible with their wrapper classes
+			Class<?> sourceType = MethodType.methodType(fields[i].getType()).wrap().returnType();
+			Class<?> targetType = MethodType.methodType(targetAccessor.fields[index].getType()).wrap().returnType();
+			if (!targetType.isAssignableFrom(sourceType)) continue;
+			
+			Object value = getImpl(source, i);
+			if (value == null && targetAccessor.fields[index].getType().isPrimitive()) continue;
+			targetAccessor.setImpl(target, index, value);
+		}
+		return target;
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Gets the position of a field
+	 *
+	 * @param name the field name
+	 * @return the field position
+	 * @throws IllegalArgumentException error if the field is not accessed
+	 */
+	private int requireIndexImpl(@NotNull String name) {
+		int index = indexOf(name);
+		if (index == -1) {
+			throw new IllegalArgumentException(String.format("Field not found: %s.%s", type.getName(), name));
+		}
+		return index;
+	}
+	
+	/**
+	 * Reads the value of a field without checking the arguments
+	 *
+	 * @param instance the instance to read
+	 * @param index    the field position
+	 * @return the field value
+	 */
+	private @Nullable Object getImpl(@NotNull Object instance, int index) {
+		try {
+			return getters[index].invokeExact(instance);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Changes the value of a field without checking the arguments
+	 *
+	 * @param instance the instance to write
+	 * @param index    the field position
+	 * @param value    the new field value
+	 */
+	private void setImpl(@NotNull Object instance, int index, @Nullable Object value) {
+		try {
+			setters[index].invokeExact(instance, value);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/* -----------------------------------------------------
+	 * Overrides methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Returns a string representation of the object.
+	 *
+	 * @return a string representation of the object.
+	 */
+	@Override
+	public @NotNull String toString() {
+		return String.format("%s%s", type.getName(), names);
+	}
+	
+}
@@ -1,6 +1,9 @@
 package ushiosan.jvm.reflection;
 
 import org.jetbrains.annotations.NotNull;
+import ushiosan.jvm.function.UEmptyFun;
+import ushiosan.jvm.function.UFun;
+import ushiosan.jvm.internal.reflection.UMemberInvoker;
 import ushiosan.jvm.internal.reflection.UReflectionImpl;
 
 import java.lang.reflect.Field;
@@ -32,12 +35,9 @@ public final class UReflectionActions extends UReflectionImpl {
 	public static @NotNull Method findMethod(@NotNull Class<?> cls, @NotNull String name,
 		@NotNull UReflectionOptions<Method> options, Class<?> @NotNull ... args) throws NoSuchMethodException {
 		// Temporal variables
-		Method[] clsMethods = filterMethods(cls, options);
-		return Arrays.stream(clsMethods)
-			.filter(named(name))
-			.filter(methodTypeParams(args))
-			.findFirst()
-			.orElseThrow(() -> new NoSuchMethodException(name));
+		Method[] clsMethods = filterMethods(cls, name, args, options);
+		if (clsMethods.length == 0) throw new NoSuchMethodException(name);
+		return clsMethods[0];
 	}
 	
 	/**
@@ -55,6 +55,38 @@ public final class UReflectionActions extends UReflectionImpl {
 		return findMethod(cls, name, UReflectionOptions.generateForMethods(), args);
 	}
 	
+	/**
+	 * Searches the most specific method that can be invoked with arguments of the given types.
+	 * Unlike {@link #findMethod(Class, String, UReflectionOptions, Class[])}, the parameter types
+	 * do not need to match exactly, so this method can be used with the runtime types of the arguments.
+	 *
+	 * @param cls      the class you want to search for
+	 * @param name     the name the member to search for (name only)
+	 * @param options  search options
+	 * @param argTypes the types of the arguments. {@code null} elements represent {@code null} arguments
+	 * @return the most specific method for the given arguments
+	 * @throws NoSuchMethodException error if no method is applicable or the call is ambiguous
+	 * @see ushiosan.jvm.UClass#toVarargTypes(Object...)
+	 */
+	public static @NotNull Method resolveMethod(@NotNull Class<?> cls, @NotNull String name,
+		@NotNull UReflectionOptions<Method> options, Class<?> @NotNull ... argTypes) throws NoSuchMethodException {
+		return resolveMethodImpl(cls, name, options, argTypes);
+	}
+	
+	/**
+	 * Searches the most specific method that can be invoked with arguments of the given types.
+	 *
+	 * @param cls      the class you want to search for
+	 * @param name     the name the member to search for (name only)
+	 * @param argTypes the types of the arguments. {@code null} elements represent {@code null} arguments
+	 * @return the most specific method for the given arguments
+	 * @throws NoSuchMethodException error if no method is applicable or the call is ambiguous
+	 */
+	public static @NotNull Method resolveMethod(@NotNull Class<?> cls, @NotNull String name,
+		Class<?> @NotNull ... argTypes) throws NoSuchMethodException {
+		return resolveMethod(cls, name, UReflectionOptions.generateForMethods(), argTypes);
+	}
+	
 	/**
 	 * Performs a search for a class member depending on the options passed as a parameter.
 	 *
@@ -69,9 +101,8 @@ public final class UReflectionActions extends UReflectionImpl {
 	public static @NotNull Field findField(@NotNull Class<?> cls, @NotNull String name,
 		@NotNull Class<?> type, @NotNull UReflectionOptions<Field> options) throws NoSuchFieldException {
 		// Temporal variables
-		Field[] clsFields = filterFields(cls, options);
+		Field[] clsFields = filterFields(cls, name, options);
 		return Arrays.stream(clsFields)
-			.filter(named(name))
 			.filter(fieldType(type))
 			.findFirst()
 			.orElseThrow(() -> new NoSuchFieldException(name));
@@ -92,4 +123,54 @@ public final class UReflectionActions extends UReflectionImpl {
 		return findField(cls, name, type, UReflectionOptions.generateForFields());
 	}
 	
+	/* -----------------------------------------------------
+	 * Invoker methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Generates a typed function that calls a method without parameters. The function is
+	 * generated only once per method and is much faster than {@link Method#invoke(Object, Object...)}.
+	 * Static methods ignore the instance passed to the function.
+	 *
+	 * @param method the method to call
+	 * @param <R>    the method result type
+	 * @param <T>    the instance type
+	 * @return a function that receives the instance and returns the method result
+	 * @throws IllegalAccessException   error if the method cannot be accessed
+	 * @throws IllegalArgumentException error if the method requires parameters or returns {@code void}
+	 */
+	public static <R, T> UFun.@NotNull UFun1<R, T> methodGetter(@NotNull Method method) throws
+		IllegalAccessException {
+		return UMemberInvoker.getter(method);
+	}
+	
+	/**
+	 * Generates a typed function that reads the value of a field. The function is
+	 * generated only once per field. Static fields ignore the instance passed to the function.
+	 *
+	 * @param field the field to read
+	 * @param <R>   the field type
+	 * @param <T>   the instance type
+	 * @return a function that receives the instance and returns the field value
+	 * @throws IllegalAccessException error if the field cannot be accessed
+	 */
+	public static <R, T> UFun.@NotNull UFun1<R, T> fieldGetter(@NotNull Field field) throws IllegalAccessException {
+		return UMemberInvoker.getter(field);
+	}
+	
+	/**
+	 * Generates a typed function that changes the value of a field. The function is
+	 * generated only once per field. Static fields ignore the instance passed to the function.
+	 *
+	 * @param field the field to write
+	 * @param <T>   the instance type
+	 * @param <V>   the field type
+	 * @return a function that receives the instance and the new value of the field
+	 * @throws IllegalAccessException error if the field cannot be accessed or is {@code final}
+	 */
+	public static <T, V> UEmptyFun.@NotNull UEmptyFun2<T, V> fieldSetter(@NotNull Field field) throws
+		IllegalAccessException {
+		return UMemberInvoker.setter(field);
+	}
+	
 }
@@ -2,6 +2,7 @@ module ushiosan.jvm.utilities.test {
 	requires java.net.http;
 	requires java.logging;
 	requires java.desktop;
+	requires jdk.management;
 	
 	requires ushiosan.jvm.utilities;
 	requires ushiosan.jvm.test;
@@ -13,7 +14,8 @@ module ushiosan.jvm.utilities.test {
 	
 	opens ushiosan.jvm.test.test to org.junit.platform.commons;
 	opens ushiosan.jvm.test.test.collections to org.junit.platform.commons;
+	opens ushiosan.jvm.test.test.filesystem to org.junit.platform.commons;
 	opens ushiosan.jvm.test.test.http to org.junit.platform.commons;
 	opens ushiosan.jvm.test.test.print to org.junit.platform.commons, ushiosan.jvm.utilities;
-	opens ushiosan.jvm.test.test.reflection to org.junit.platform.commons;
+	opens ushiosan.jvm.test.test.reflection to org.junit.platform.commons, ushiosan.jvm.utilities;
 }
\ No newline at end of file
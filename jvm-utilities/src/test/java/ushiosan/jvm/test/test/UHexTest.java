@@ -0,0 +1,144 @@
+package ushiosan.jvm.test.test;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ushiosan.jvm.UHex;
+import ushiosan.jvm.collections.UArray;
+import ushiosan.jvm.filesystem.UResource;
+import ushiosan.jvm.test.UTestUnit;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class UHexTest extends UTestUnit {
+	
+	/**
+	 * Number of iterations used to measure the encoders
+	 */
+	private static final int BENCHMARK_ITERATIONS = 100_000;
+	
+	/**
+	 * The name of the module where the tests are being done
+	 *
+	 * @return the module name
+	 */
+	@Override
+	public @NotNull String module() {
+		return Constants.LIB_MODULE;
+	}
+	
+	@Test
+	public void encodeTest() {
+		makeSection(() -> {
+			byte[] data = {0x00, 0x0F, (byte) 0xA5, 0x7F, (byte) 0x80, (byte) 0xFF};
+			char[] chars = new char[4 + data.length * 2];
+			ByteBuffer buffer = ByteBuffer.allocate(data.length * 2);
+			
+			UHex.encode(data, 0, data.length, chars, 4, true);
+			UHex.encode(ByteBuffer.wrap(data), buffer, false);
+			
+			// Assertions
+			Assertions.assertEquals("000fa57f80ff", UHex.toHexString(data));
+			Assertions.assertEquals("000FA57F80FF", UHex.toHexString(data, true));
+			Assertions.assertEquals("000fa57f80ff", new String(UHex.encode(data)));
+			Assertions.assertEquals("000FA57F80FF", new String(chars, 4, data.length * 2));
+			Assertions.assertEquals("hash: 000fa57f80ff",
+									UHex.encode(data, new StringBuilder("hash: "), false).toString());
+			Assertions.assertEquals("000fa57f80ff", new String(buffer.array(), StandardCharsets.US_ASCII));
+			Assertions.assertEquals("", UHex.toHexString(new byte[0]));
+			Assertions.assertThrows(IndexOutOfBoundsException.class,
+									() -> UHex.encode(data, 0, data.length, new char[4], 0, false));
+			
+			println("Lowercase: %s", UHex.toHexString(data));
+			println("Uppercase: %s", UHex.toHexString(data, true));
+		});
+	}
+	
+	@Test
+	public void decodeTest() {
+		makeSection(() -> {
+			byte[] data = new byte[256];
+			for (int i = 0; i < data.length; i++) data[i] = (byte) i;
+			byte[] destination = new byte[data.length + 2];
+			
+			// Assertions
+			Assertions.assertArrayEquals(data, UHex.decode(UHex.toHexString(data)));
+			Assertions.assertArrayEquals(data, UHex.decode(UHex.toHexString(data, true)));
+			Assertions.assertEquals(data.length, UHex.decode(UHex.toHexString(data), destination, 2));
+			Assertions.assertArrayEquals(data, Arrays.copyOfRange(destination, 2, destination.length));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> UHex.decode("abc"));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> UHex.decode("zz"));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> UHex.decode("0\u00e9"));
+			
+			println("Decoded bytes: %d", data.length);
+		});
+	}
+	
+	@Test
+	public void benchmarkTest() {
+		makeSection(() -> {
+			byte[] hash = new byte[32];
+			new Random(0).nextBytes(hash);
+			Function<byte[], String> legacy = it -> Arrays.stream(UArray.toObjectArray(it))
+				.map(item -> String.format("%02x", item))
+				.collect(Collectors.joining());
+			
+			// Both implementations must generate the same result
+			Assertions.assertEquals(legacy.apply(hash), UResource.resourceHashStr(hash));
+			
+			long[] legacyResult = measure(legacy, hash);
+			long[] tableResult = measure(UResource::resourceHashStr, hash);
+			
+			println("Legacy encoder: %8.1f ns/call | %6d bytes/call", legacyResult[0] / (double) BENCHMARK_ITERATIONS,
+					legacyResult[1] / BENCHMARK_ITERATIONS);
+			println("Table encoder:  %8.1f ns/call | %6d bytes/call", tableResult[0] / (double) BENCHMARK_ITERATIONS,
+					tableResult[1] / BENCHMARK_ITERATIONS);
+			if (legacyResult[1] >= 0 && tableResult[1] >= 0) {
+				Assertions.assertTrue(tableResult[1] < legacyResult[1], "The table encoder must allocate less memory");
+			}
+		});
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Measures the time and the memory allocated by the current thread
+	 *
+	 * @param encoder the encoder to measure
+	 * @param data    the data to encode
+	 * @return an array with the elapsed time (in nanoseconds) and the allocated
+	 * 	bytes (negative if the platform cannot measure allocations)
+	 */
+	private static long[] measure(@NotNull Function<byte[], String> encoder, byte @NotNull [] data) {
+		// Warm up
+		for (int i = 0; i < BENCHMARK_ITERATIONS; i++) encoder.apply(data);
+		
+		long startMemory = allocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < BENCHMARK_ITERATIONS; i++) encoder.apply(data);
+		long elapsed = System.nanoTime() - start;
+		long allocated = allocatedBytes() - startMemory;
+		
+		return new long[]{elapsed, startMemory < 0 ? -1 : allocated};
+	}
+	
+	/**
+	 * Gets the total memory allocated by the current thread
+	 *
+	 * @return the allocated bytes or {@code -1} if the platform cannot measure allocations
+	 */
+	private static long allocatedBytes() {
+		var bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+		return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+}
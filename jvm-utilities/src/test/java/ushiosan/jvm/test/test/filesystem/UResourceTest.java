@@ -0,0 +1,1471 @@
+package ushiosan.jvm.test.test.filesystem;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ushiosan.jvm.accumulator.UFileSizeAccumulator;
+import ushiosan.jvm.filesystem.UContentChunk;
+import ushiosan.jvm.filesystem.UContentChunker;
+import ushiosan.jvm.filesystem.UDirectoryIndex;
+import ushiosan.jvm.filesystem.UDirectorySize;
+import ushiosan.jvm.filesystem.UDuplicateReport;
+import ushiosan.jvm.filesystem.UDuplicateScanner;
+import ushiosan.jvm.filesystem.UFileSystemCacheMetrics;
+import ushiosan.jvm.filesystem.UFileSystemLease;
+import ushiosan.jvm.filesystem.UMerkleTree;
+import ushiosan.jvm.filesystem.UPathMatcher;
+import ushiosan.jvm.filesystem.UResource;
+import ushiosan.jvm.filesystem.UResourceChange;
+import ushiosan.jvm.filesystem.UResourceComparison;
+import ushiosan.jvm.filesystem.UResourceCopier;
+import ushiosan.jvm.filesystem.UResourceEntry;
+import ushiosan.jvm.filesystem.UResourceHashCache;
+import ushiosan.jvm.filesystem.UResourceHashResult;
+import ushiosan.jvm.filesystem.UResourceHasher;
+import ushiosan.jvm.filesystem.UResourceName;
+import ushiosan.jvm.filesystem.UTreeSnapshot;
+import ushiosan.jvm.filesystem.UTreeSnapshotReader;
+import ushiosan.jvm.filesystem.UZipIndex;
+import ushiosan.jvm.test.UTestUnit;
+import ushiosan.jvm.test.test.Constants;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+class UResourceTest extends UTestUnit {
+	
+	/**
+	 * Number of directories generated on each level of the test tree
+	 */
+	private static final int TREE_DIRECTORIES = 8;
+	
+	/**
+	 * Number of files generated inside each directory of the test tree
+	 */
+	private static final int TREE_FILES = 50;
+	
+	/**
+	 * Temporal directory used for all the tests
+	 */
+	private static Path treeRoot;
+	
+	/**
+	 * The name of the module where the tests are being done
+	 *
+	 * @return the module name
+	 */
+	@Override
+	public @NotNull String module() {
+		return Constants.LIB_MODULE;
+	}
+	
+	/* -----------------------------------------------------
+	 * Configuration methods
+	 * ----------------------------------------------------- */
+	
+	@BeforeAll
+	public static void generateTree() throws IOException {
+		treeRoot = Files.createTempDirectory("jvm-utilities-test");
+		
+		for (int i = 0; i < TREE_DIRECTORIES; i++) {
+			for (int j = 0; j < TREE_DIRECTORIES; j++) {
+				Path directory = Files.createDirectories(treeRoot.resolve("dir-" + i).resolve("sub-" + j));
+				for (int k = 0; k < TREE_FILES; k++) {
+					String extension = k % 2 == 0 ? ".txt" : ".bin";
+					Files.writeString(directory.resolve("file-" + k + extension), "content " + k);
+				}
+			}
+		}
+	}
+	
+	@AfterAll
+	public static void deleteTree() throws IOException {
+		deleteRecursively(treeRoot);
+	}
+	
+	/* -----------------------------------------------------
+	 * Test methods
+	 * ----------------------------------------------------- */
+	
+	@Test
+	public void resourceWalkParallelTest() throws IOException {
+		makeSectionError(() -> {
+			// Sequential walk
+			Set<Path> sequential;
+			try (Stream<Path> stream = UResource.resourceWalk(treeRoot, true)) {
+				sequential = stream.collect(Collectors.toSet());
+			}
+			
+			// Parallel walk
+			Set<Path> parallel = UResource.resourceWalkParallel(treeRoot, true)
+				.collect(Collectors.toSet());
+			
+			// Filtered walks
+			long txtSequential;
+			try (Stream<Path> stream = UResource.resourceWalk(treeRoot, true, UResource.regexPathOf("\\.txt$", false))) {
+				txtSequential = stream.count();
+			}
+			long txtParallel = UResource.resourceWalkParallel(treeRoot, true, 2, UResource.regexPathOf("\\.txt$", false))
+				.count();
+			
+			// Assertions
+			Assertions.assertEquals(sequential, parallel, "Both walks must find the same elements");
+			Assertions.assertEquals(txtSequential, txtParallel, "Both walks must apply the same filters");
+			Assertions.assertEquals(1L, UResource.resourceWalkParallel(treeRoot, false)
+				.filter(it -> it.equals(treeRoot))
+				.count(), "The root directory must be included");
+			
+			// The elements are returned while the tree is walked, so the walk can be stopped early
+			try (Stream<Path> stream = UResource.resourceWalkParallel(treeRoot, true, 2)) {
+				Assertions.assertEquals(10L, stream.limit(10).count());
+			}
+			
+			println("Elements: %d", parallel.size());
+		});
+	}
+	
+	@Test
+	public void pathMatcherTest() throws IOException {
+		makeSectionError(() -> {
+			// Temporal variables
+			String[] globs = {"dir-3/**.txt", "dir-{5,6}/sub-1/file-1?.bin", "dir-7/sub-[!0-5]/file-[0-2].*"};
+			UPathMatcher matcher = UPathMatcher.of(List.of(globs), List.of("dir-0/sub-0/file-4[0-9]\\.bin"));
+			List<PathMatcher> expected = Arrays.stream(globs)
+				.map(it -> FileSystems.getDefault().getPathMatcher("glob:" + it))
+				.collect(Collectors.toList());
+			
+			// Full walk filtered with the matchers of the platform
+			Set<Path> full;
+			try (Stream<Path> stream = UResource.resourceWalk(treeRoot, true)) {
+				full = stream.filter(it -> {
+					Path relative = treeRoot.relativize(it);
+					return expected.stream().anyMatch(matcher0 -> matcher0.matches(relative)) ||
+						   relative.toString().matches("dir-0/sub-0/file-4[0-9]\\.bin");
+				}).collect(Collectors.toSet());
+			}
+			
+			// Pruned walks
+			Set<Path> pruned;
+			try (Stream<Path> stream = UResource.resourceWalk(treeRoot, true, matcher)) {
+				pruned = stream.collect(Collectors.toSet());
+			}
+			Set<Path> parallel = UResource.resourceWalkParallel(treeRoot, true, 2, matcher)
+				.collect(Collectors.toSet());
+			
+			// Assertions
+			Assertions.assertEquals(TREE_DIRECTORIES * TREE_FILES / 2 + 10 + 3 * 2 + 5, full.size());
+			Assertions.assertEquals(full, pruned, "The matcher must behave like the platform globs");
+			Assertions.assertEquals(full, parallel, "Both walks must find the same elements");
+			Assertions.assertTrue(matcher.mayMatchUnder("dir-3/sub-4"));
+			Assertions.assertTrue(matcher.mayMatchUnder("dir-7/sub-6"));
+			Assertions.assertFalse(matcher.mayMatchUnder("dir-7/sub-5"));
+			Assertions.assertFalse(matcher.mayMatchUnder("dir-1"));
+			Assertions.assertFalse(matcher.mayMatchUnder("dir-5/sub-2"));
+			Assertions.assertFalse(UPathMatcher.globs().matches(""));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> UPathMatcher.globs("dir-{1,2"));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> UPathMatcher.globs("dir-[1"));
+			
+			// Back references keep their own groups when combined with other patterns
+			UPathMatcher references = UPathMatcher.of(List.of("docs/*.md"),
+													  List.of("(a+)/x", "dir-(\\d)/sub-\\1/.*", "(?<n>\\w)/\\k<n>"));
+			Assertions.assertTrue(references.matches("dir-3/sub-3/file-1.txt"));
+			Assertions.assertFalse(references.matches("dir-3/sub-4/file-1.txt"));
+			Assertions.assertTrue(references.matches("q/q"));
+			Assertions.assertTrue(references.matches("docs/readme.md"));
+			Assertions.assertTrue(references.mayMatchUnder("dir-2"));
+			Assertions.assertFalse(references.mayMatchUnder("dir-2/sub-1"));
+			Assertions.assertTrue(UPathMatcher.regexes("(a)\\1", "(b)\\1").matches("bb"));
+			
+			println("Matched: %d", pruned.size());
+		});
+	}
+	
+	@Test
+	public void directoryIndexTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path root = Files.createTempDirectory("jvm-utilities-index");
+			Files.createDirectories(root.resolve("config/nested"));
+			Files.writeString(root.resolve("config/app.properties"), "a=1");
+			Files.writeString(root.resolve("config/nested/db.properties"), "b=2");
+			Files.writeString(root.resolve("readme.md"), "readme");
+			
+			try (UDirectoryIndex index = UDirectoryIndex.open(root, 20, TimeUnit.MILLISECONDS)) {
+				// Initial scan
+				Assertions.assertEquals(6, index.size());
+				Assertions.assertEquals(2L, index.extensions("properties").count());
+				Assertions.assertEquals(1L, index.named("readme.md").count());
+				Assertions.assertEquals(1L, index.matching(UPathMatcher.globs("config/*/*.properties")).count());
+				Assertions.assertEquals(1L, index.matching(Pattern.compile("db\\..*"), false).count());
+				
+				// Incremental updates
+				CountDownLatch synced = new CountDownLatch(1);
+				index.addListener(it -> {
+					if (sameIndex(it, root)) synced.countDown();
+				});
+				Files.writeString(root.resolve("config/extra.properties"), "c=3");
+				Files.createDirectories(root.resolve("assets/images"));
+				Files.writeString(root.resolve("assets/images/logo.png"), "png");
+				Files.delete(root.resolve("config/nested/db.properties"));
+				Files.delete(root.resolve("config/nested"));
+				
+				Assertions.assertTrue(synced.await(10, TimeUnit.SECONDS), "The index must follow the filesystem");
+				Assertions.assertEquals(2L, index.extensions("properties").count());
+				Assertions.assertEquals(1L, index.extensions("png").count());
+				Assertions.assertTrue(index.entry(Path.of("assets/images")).isPresent());
+				Assertions.assertFalse(index.entry(Path.of("config/nested")).isPresent());
+				
+				// Targeted rescan
+				long generation = index.generation();
+				index.rescan(Path.of("config"));
+				Assertions.assertTrue(index.generation() > generation);
+				Assertions.assertTrue(sameIndex(index, root));
+				Assertions.assertThrows(IllegalArgumentException.class, () -> index.rescan(Path.of("..")));
+				
+				println("%s", index);
+			}
+			
+			// A continuous stream of events is applied with the maximum latency
+			Assertions.assertThrows(IllegalArgumentException.class,
+									() -> UDirectoryIndex.open(root, 200, 100, TimeUnit.MILLISECONDS));
+			try (UDirectoryIndex index = UDirectoryIndex.open(root, 300, 300, TimeUnit.MILLISECONDS)) {
+				CountDownLatch updated = new CountDownLatch(1);
+				Consumer<UDirectoryIndex> listener = it -> updated.countDown();
+				index.addListener(listener);
+				
+				// Every write arrives before the debounce time finishes
+				for (int i = 0; i < 200; i++) {
+					Files.writeString(root.resolve("stream.log"), "line " + i);
+					if (updated.await(50, TimeUnit.MILLISECONDS)) break;
+				}
+				Assertions.assertEquals(0L, updated.getCount(), "The events must not wait forever");
+				Assertions.assertTrue(index.removeListener(listener));
+				Assertions.assertFalse(index.removeListener(listener));
+			} finally {
+				deleteRecursively(root);
+			}
+		});
+	}
+	
+	@Test
+	public void treeSnapshotTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path root = Files.createTempDirectory("jvm-utilities-snapshot");
+			Path previous = Files.createTempFile("jvm-utilities", ".snapshot");
+			Path current = Files.createTempFile("jvm-utilities", ".snapshot");
+			
+			try {
+				// Snapshot of the shared tree
+				long count = UTreeSnapshot.write(treeRoot, previous, null);
+				Set<String> expected;
+				try (Stream<Path> stream = Files.walk(treeRoot)) {
+					expected = stream.filter(it -> !it.equals(treeRoot))
+						.map(it -> treeRoot.relativize(it).toString().replace(File.separatorChar, '/'))
+						.collect(Collectors.toSet());
+				}
+				Set<String> found = new HashSet<>();
+				try (UTreeSnapshotReader reader = UTreeSnapshot.read(previous)) {
+					reader.forEachRemaining(it -> found.add(it.location()));
+					Assertions.assertFalse(reader.algorithm().isPresent());
+				}
+				Assertions.assertEquals(expected.size(), count);
+				Assertions.assertEquals(expected, found);
+				Assertions.assertTrue(UTreeSnapshot.diff(previous, previous).isEmpty());
+				println("Snapshot: %d elements, %d bytes", count, Files.size(previous));
+				
+				// Changes detected with digests
+				Files.createDirectories(root.resolve("a/b"));
+				Files.writeString(root.resolve("a/b/same.txt"), "content");
+				Files.writeString(root.resolve("a/b/edited.txt"), "content");
+				Files.writeString(root.resolve("a/removed.txt"), "content");
+				Files.writeString(root.resolve("a-b.txt"), "content");
+				UTreeSnapshot.write(root, previous, "SHA-256");
+				
+				Files.setLastModifiedTime(root.resolve("a/b/same.txt"), FileTime.fromMillis(1000L));
+				Files.writeString(root.resolve("a/b/edited.txt"), "CONTENT");
+				Files.delete(root.resolve("a/removed.txt"));
+				Files.createDirectories(root.resolve("a/c"));
+				Files.writeString(root.resolve("a/c/added.txt"), "content");
+				UTreeSnapshot.write(root, current, "SHA-256");
+				
+				Map<String, UResourceChange> changes = UTreeSnapshot.diff(previous, current);
+				Map<String, UResourceChange> expectedChanges = new LinkedHashMap<>();
+				expectedChanges.put("a/b/edited.txt", UResourceChange.MODIFIED);
+				expectedChanges.put("a/c", UResourceChange.ADDED);
+				expectedChanges.put("a/c/added.txt", UResourceChange.ADDED);
+				expectedChanges.put("a/removed.txt", UResourceChange.REMOVED);
+				Assertions.assertEquals(new ArrayList<>(expectedChanges.entrySet()), new ArrayList<>(changes.entrySet()));
+				
+				// Digests of different algorithms are never compared
+				UTreeSnapshot.write(root, previous, "MD5");
+				Assertions.assertTrue(UTreeSnapshot.diff(previous, current).isEmpty());
+				
+				// Invalid content
+				Files.writeString(current, "invalid");
+				Assertions.assertThrows(IOException.class, () -> UTreeSnapshot.read(current));
+				println("Changes: %s", changes);
+			} finally {
+				Files.deleteIfExists(previous);
+				Files.deleteIfExists(current);
+				deleteRecursively(root);
+			}
+		});
+	}
+	
+	@Test
+	public void resourceCopierTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path target = Files.createTempDirectory("jvm-utilities-copy");
+			Path snapshot = Files.createTempFile("jvm-utilities", ".snapshot");
+			Path mirrorSnapshot = Files.createTempFile("jvm-utilities", ".snapshot");
+			Path links = Files.createTempDirectory("jvm-utilities-links");
+			UResourceCopier copier = UResourceCopier.generate()
+				.setParallelism(2);
+			int files = TREE_DIRECTORIES * TREE_DIRECTORIES * TREE_FILES;
+			
+			try {
+				// Full copy
+				long copied = copier.copy(treeRoot, target);
+				Assertions.assertEquals(files, copied);
+				println("Copy: %d files, %d bytes", copied, copier.bytesCopied());
+				
+				// Nothing changed, so every file is skipped
+				copier.resetStatistics();
+				Assertions.assertEquals(0L, copier.copy(treeRoot, target));
+				Assertions.assertEquals(files, copier.resourcesSkipped());
+				
+				// Mirror with digests and verification
+				Path changed = treeRoot.resolve("dir-1/sub-1/file-1.bin");
+				String original = Files.readString(changed);
+				Files.createDirectories(target.resolve("extra/nested"));
+				Files.writeString(target.resolve("extra/nested/file.txt"), "extra");
+				Files.writeString(target.resolve("dir-2/sub-2/file-2.txt"), "CONTENT 2");
+				copier.setComparison(UResourceComparison.DIGEST)
+					.setVerify(true)
+					.setPreserveTimes(false)
+					.resetStatistics();
+				
+				Assertions.assertEquals(1L, copier.mirror(treeRoot, target));
+				Assertions.assertEquals(3L, copier.resourcesDeleted());
+				Assertions.assertEquals(files - 1, copier.resourcesSkipped());
+				Assertions.assertEquals(original, Files.readString(changed));
+				
+				UTreeSnapshot.write(treeRoot, snapshot, "SHA-256");
+				UTreeSnapshot.write(target, mirrorSnapshot, "SHA-256");
+				try (var previous = Files.newInputStream(snapshot); var current = Files.newInputStream(mirrorSnapshot)) {
+					Assertions.assertEquals(0L, UTreeSnapshot.diff(previous, current, (location, change) -> {}));
+				}
+				
+				// Single files
+				Path single = target.resolve("single/copy.txt");
+				Assertions.assertEquals(1L, copier.copy(changed, single));
+				Assertions.assertEquals(original, Files.readString(single));
+				
+				// The source is never overwritten
+				copier.setComparison(UResourceComparison.ALWAYS);
+				Assertions.assertThrows(IllegalArgumentException.class, () -> copier.copy(changed, changed));
+				Assertions.assertThrows(IllegalArgumentException.class, () -> copier.mirror(treeRoot, treeRoot));
+				Assertions.assertThrows(IllegalArgumentException.class,
+										() -> copier.mirror(treeRoot, treeRoot.resolve("dir-1/nested")));
+				Assertions.assertEquals(original, Files.readString(changed));
+				Assertions.assertFalse(Files.exists(treeRoot.resolve("dir-1/nested")));
+				
+				// Symbolic links are copied as links and are not removed by the mirror
+				Files.writeString(links.resolve("file.txt"), "linked");
+				Files.createSymbolicLink(links.resolve("link.txt"), Path.of("file.txt"));
+				Path linksTarget = target.resolve("links");
+				copier.setComparison(UResourceComparison.METADATA)
+					.setPreserveTimes(true)
+					.resetStatistics();
+				
+				Assertions.assertEquals(2L, copier.mirror(links, linksTarget));
+				Assertions.assertTrue(Files.isSymbolicLink(linksTarget.resolve("link.txt")));
+				Assertions.assertEquals(Path.of("file.txt"), Files.readSymbolicLink(linksTarget.resolve("link.txt")));
+				Assertions.assertEquals("linked", Files.readString(linksTarget.resolve("link.txt")));
+				Assertions.assertEquals(0L, copier.mirror(links, linksTarget));
+				Assertions.assertEquals(0L, copier.resourcesDeleted());
+				Assertions.assertTrue(Files.isSymbolicLink(linksTarget.resolve("link.txt")));
+				
+				// No temporary file is left behind
+				try (Stream<Path> stream = Files.walk(target)) {
+					Assertions.assertTrue(stream.noneMatch(it -> it.getFileName().toString().endsWith(".tmp")));
+				}
+			} finally {
+				Files.deleteIfExists(snapshot);
+				Files.deleteIfExists(mirrorSnapshot);
+				deleteRecursively(links);
+				deleteRecursively(target);
+			}
+		});
+	}
+	
+	@Test
+	public void contentChunkerTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Random random = new Random(42L);
+			byte[] original = new byte[4 * 1024 * 1024];
+			random.nextBytes(original);
+			UContentChunker chunker = UContentChunker.generate()
+				.setAverageSize(16 * 1024);
+			
+			// Insert a few bytes in the middle of the content
+			byte[] shifted = new byte[original.length + 7];
+			int position = original.length / 2;
+			System.arraycopy(original, 0, shifted, 0, position);
+			System.arraycopy(original, position, shifted, position + 7, original.length - position);
+			
+			List<UContentChunk> originalChunks = new ArrayList<>();
+			List<UContentChunk> shiftedChunks = new ArrayList<>();
+			chunker.chunk(new ByteArrayInputStream(original), originalChunks::add);
+			chunker.chunk(new ByteArrayInputStream(shifted), shiftedChunks::add);
+			
+			// The chunks cover the whole content
+			long covered = 0L;
+			for (var chunk : originalChunks) {
+				Assertions.assertEquals(covered, chunk.offset());
+				Assertions.assertTrue(chunk.length() <= chunker.maximumSize());
+				covered += chunk.length();
+			}
+			Assertions.assertEquals(original.length, covered);
+			
+			// Only the chunks around the modification change
+			Set<Long> fingerprints = originalChunks.stream()
+				.map(UContentChunk::fingerprint)
+				.collect(Collectors.toSet());
+			long shared = shiftedChunks.stream()
+				.filter(it -> fingerprints.contains(it.fingerprint()))
+				.count();
+			long average = original.length / originalChunks.size();
+			Assertions.assertTrue(shared >= originalChunks.size() - 2);
+			Assertions.assertTrue(average > chunker.minimumSize() && average < chunker.averageSize() * 2L);
+			Path file = Files.write(Files.createTempFile("jvm-utilities", ".bin"), original);
+			try {
+				Assertions.assertEquals(originalChunks, chunker.chunks(file));
+			} finally {
+				Files.deleteIfExists(file);
+			}
+			println("Chunks: %d (average %d bytes), shared after insertion: %d", originalChunks.size(), average,
+					shared);
+			
+			Assertions.assertThrows(IllegalArgumentException.class, () -> chunker.setAverageSize(1000));
+		});
+	}
+	
+	@Test
+	public void duplicateScannerTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path directory = Files.createTempDirectory("jvm-utilities-duplicates");
+			Random random = new Random(7L);
+			byte[] content = new byte[512 * 1024];
+			random.nextBytes(content);
+			
+			try {
+				// Every file of the tree has the same content as 63 files
+				UDuplicateReport report = UDuplicateScanner.generate()
+					.setParallelism(2)
+					.scan(treeRoot);
+				int copies = TREE_DIRECTORIES * TREE_DIRECTORIES;
+				Assertions.assertEquals(TREE_FILES, report.duplicates().size());
+				Assertions.assertTrue(report.duplicates().stream().allMatch(it -> it.size() == copies));
+				Assertions.assertEquals((long) (copies - 1) * (10 * 9 + (TREE_FILES - 10) * 10), report.duplicateBytes());
+				println(report);
+				
+				// Files with the same size but different content are not duplicates
+				Files.write(directory.resolve("a.bin"), content);
+				Files.write(directory.resolve("b.bin"), content);
+				content[content.length / 2] ^= 1;
+				Files.write(directory.resolve("c.bin"), content);
+				Files.writeString(directory.resolve("unique.txt"), "unique");
+				Files.createFile(directory.resolve("empty.txt"));
+				
+				report = UDuplicateScanner.generate()
+					.setChunker(UContentChunker.generate().setAverageSize(16 * 1024))
+					.scan(directory);
+				Assertions.assertEquals(List.of(List.of(directory.resolve("a.bin"), directory.resolve("b.bin"))),
+										report.duplicates());
+				Assertions.assertEquals(4L, report.scannedFiles());
+				Assertions.assertEquals(content.length, report.duplicateBytes());
+				
+				// Most of the modified file is shared with the other files
+				Assertions.assertTrue(report.duplicateChunkBytes() > content.length * 2L - 64 * 1024);
+				Assertions.assertTrue(report.uniqueChunkCount() < report.chunkCount());
+				println(report);
+				
+				// A small chunk table only keeps a sample of the fingerprints
+				UDuplicateReport sampled = UDuplicateScanner.generate()
+					.setChunker(UContentChunker.generate().setAverageSize(16 * 1024))
+					.setChunkCapacity(16)
+					.scan(directory);
+				Assertions.assertTrue(sampled.chunkSampleRate() > 1L);
+				Assertions.assertEquals(report.chunkCount(), sampled.chunkCount());
+				Assertions.assertEquals(report.duplicates(), sampled.duplicates());
+				Assertions.assertTrue(sampled.duplicateChunkBytes() > 0L);
+				
+				// Without chunking, the file with a unique size is never read
+				report = UDuplicateScanner.generate()
+					.scan(directory, it -> it.path().toString().endsWith(".bin") || it.size() < 10);
+				Assertions.assertEquals(3L, report.hashedFiles());
+				Assertions.assertEquals(0L, report.chunkCount());
+				
+				// A file removed between both passes is skipped
+				Set<Path> visited = new HashSet<>();
+				report = UDuplicateScanner.generate()
+					.scan(directory, it -> {
+						if (!visited.add(it.path()) && it.path().endsWith("c.bin")) {
+							try {
+								Files.delete(it.path());
+							} catch (IOException e) {
+								throw new UncheckedIOException(e);
+							}
+						}
+						return true;
+					});
+				Assertions.assertEquals(4L, report.scannedFiles());
+				Assertions.assertEquals(2L, report.hashedFiles());
+				Assertions.assertEquals(1, report.duplicates().size());
+			} finally {
+				deleteRecursively(directory);
+			}
+		});
+	}
+	
+	@Test
+	public void resourceWalkAttributesTest() throws IOException {
+		makeSectionError(() -> {
+			// Temporal variables
+			var sequentialAccumulator = new UFileSizeAccumulator();
+			var entryAccumulator = new UFileSizeAccumulator();
+			Set<Path> sequential;
+			try (Stream<Path> stream = UResource.resourceWalk(treeRoot, true)) {
+				sequential = stream.collect(Collectors.toSet());
+			}
+			for (Path path : sequential) {
+				if (Files.isRegularFile(path)) sequentialAccumulator.push(path);
+			}
+			
+			// Attributes walks
+			List<UResourceEntry> entries = UResource.resourceWalkAttributes(treeRoot, true)
+				.peek(entryAccumulator::push)
+				.collect(Collectors.toList());
+			long txtEntries = UResource.resourceWalkAttributesParallel(treeRoot, true,
+																	   UResource.extensionsResourceEntryOf(false, "txt"))
+				.count();
+			
+			// Assertions
+			Assertions.assertEquals(sequential, entries.stream()
+				.map(UResourceEntry::path)
+				.collect(Collectors.toSet()), "Both walks must find the same elements");
+			Assertions.assertEquals(sequentialAccumulator.result(), entryAccumulator.result(),
+									"Both walks must have the same size");
+			Assertions.assertEquals(TREE_DIRECTORIES * TREE_DIRECTORIES * TREE_FILES / 2, txtEntries);
+			
+			UResourceEntry fileEntry = entries.stream()
+				.filter(UResourceEntry::isRegularFile)
+				.findFirst()
+				.orElseThrow();
+			Assertions.assertEquals(UResource.basename(fileEntry.path()), UResource.basename(fileEntry));
+			Assertions.assertEquals(UResource.extension(fileEntry.path()), UResource.extension(fileEntry));
+			
+			println("Elements:   %d", entries.size());
+			println("Total size: %d bytes", entryAccumulator.result());
+		});
+	}
+	
+	@Test
+	public void resourceSizeTreeTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			long directorySize = 10 * 9 + (TREE_FILES - 10) * 10;
+			List<Path> files;
+			try (Stream<Path> stream = UResource.resourceWalk(treeRoot, true)) {
+				files = stream.filter(Files::isRegularFile)
+					.collect(Collectors.toList());
+			}
+			
+			// Concurrent accumulators
+			var accumulator = new UFileSizeAccumulator();
+			files.parallelStream().forEach(accumulator::push);
+			Assertions.assertEquals(directorySize * TREE_DIRECTORIES * TREE_DIRECTORIES, (long) accumulator.result());
+			
+			// The elements pushed by location keep the size reported by the filesystem
+			accumulator.reset();
+			accumulator.push(treeRoot);
+			Assertions.assertEquals(Files.size(treeRoot), (long) accumulator.result());
+			
+			accumulator.reset();
+			IntStream.rangeClosed(1, 100_000).parallel().forEach(it -> accumulator.push((long) it));
+			Assertions.assertEquals(100_000L * 100_001L / 2, (long) accumulator.result());
+			
+			// Directory tree
+			UDirectorySize tree = UResource.resourceSizeTree(treeRoot, 2);
+			
+			Assertions.assertEquals(directorySize * TREE_DIRECTORIES * TREE_DIRECTORIES, tree.size());
+			Assertions.assertEquals(TREE_DIRECTORIES * TREE_DIRECTORIES * TREE_FILES, tree.files());
+			Assertions.assertEquals(TREE_DIRECTORIES + TREE_DIRECTORIES * TREE_DIRECTORIES, tree.directories());
+			Assertions.assertEquals(0L, tree.ownSize());
+			Assertions.assertEquals(TREE_DIRECTORIES, tree.children().size());
+			Assertions.assertEquals(treeRoot.resolve("dir-0"), tree.children().get(0).path());
+			Assertions.assertEquals(directorySize * TREE_DIRECTORIES, tree.children().get(3).size());
+			
+			UDirectorySize leaf = tree.find(Path.of("dir-2", "sub-5")).orElseThrow();
+			Assertions.assertEquals(treeRoot.resolve("dir-2/sub-5"), leaf.path());
+			Assertions.assertEquals(directorySize, leaf.ownSize());
+			Assertions.assertEquals(TREE_FILES, leaf.files());
+			Assertions.assertTrue(tree.find(Path.of("dir-2", "missing")).isEmpty());
+			Assertions.assertThrows(IOException.class, () -> UResource.resourceSizeTree(files.get(files.size() - 1)));
+			
+			println(tree);
+		});
+	}
+	
+	@Test
+	public void resourceHashTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			int[] fileSizes = {0, 1024, 1024 * 1024, 16 * 1024 * 1024};
+			Random random = new Random(0);
+			
+			for (int fileSize : fileSizes) {
+				Path file = Files.createTempFile("jvm-utilities-hash", ".bin");
+				byte[] content = new byte[fileSize];
+				random.nextBytes(content);
+				Files.write(file, content);
+				
+				// Stream hash
+				byte[] streamHash = UResource.resourceHash(Files.newInputStream(file), "SHA-256");
+				
+				// Channel hash
+				byte[] channelHash = UResource.resourceHash(file, "SHA-256");
+				
+				// Assertions
+				Assertions.assertArrayEquals(streamHash, channelHash, "Both hashes must be equal");
+				Assertions.assertArrayEquals(streamHash, UResource.resourceHash(file, "SHA-256", 4096),
+											 "The buffer size must not change the hash");
+				Assertions.assertArrayEquals(streamHash, UResource.resourceHash(file.toFile(), "SHA-256"),
+											 "Both hashes must be equal");
+				
+				Files.delete(file);
+			}
+		});
+	}
+	
+	@Test
+	public void resourceHashAsyncTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			int[] fileSizes = {0, 1024, 256 * 1024, 5 * 1024 * 1024 + 7};
+			Random random = new Random(1);
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			
+			try {
+				for (int fileSize : fileSizes) {
+					Path file = Files.createTempFile("jvm-utilities-hash", ".bin");
+					byte[] content = new byte[fileSize];
+					random.nextBytes(content);
+					Files.write(file, content);
+					
+					byte[] expected = UResource.resourceHash(file, "SHA-256");
+					Assertions.assertArrayEquals(expected, UResource.resourceHashAsync(file, "SHA-256").get());
+					Assertions.assertArrayEquals(expected, UResource.resourceHashAsync(file, "SHA-256", executor).get());
+					Files.delete(file);
+				}
+				
+				// Many concurrent hashes
+				List<Path> files;
+				try (Stream<Path> stream = UResource.resourceWalk(treeRoot, true)) {
+					files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+				}
+				List<CompletableFuture<byte[]>> futures = files.stream()
+					.map(it -> UResource.resourceHashAsync(it, "SHA-256", executor))
+					.collect(Collectors.toList());
+				CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+				
+				for (int i = 0; i < files.size(); i++) {
+					Assertions.assertArrayEquals(UResource.resourceHash(files.get(i), "SHA-256"), futures.get(i).get());
+				}
+				println("Asynchronous hashes: %d files", files.size());
+				
+				// The errors complete the futures
+				Path missing = treeRoot.resolve("missing.bin");
+				ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+																   () -> UResource.resourceHashAsync(missing).get());
+				Assertions.assertTrue(error.getCause() instanceof NoSuchFileException);
+				error = Assertions.assertThrows(ExecutionException.class,
+												() -> UResource.resourceHashAsync(files.get(0), "INVALID").get());
+				Assertions.assertTrue(error.getCause() instanceof NoSuchAlgorithmException);
+				
+				// The runtime image does not support asynchronous channels
+				Path runtime = FileSystems.getFileSystem(URI.create("jrt:/"))
+					.getPath("modules", "java.base", "java/lang/Object.class");
+				CompletableFuture<byte[]> unsupported = UResource.resourceHashAsync(runtime, "SHA-256");
+				error = Assertions.assertThrows(ExecutionException.class, unsupported::get);
+				Assertions.assertTrue(error.getCause() instanceof UnsupportedOperationException);
+			} finally {
+				executor.shutdownNow();
+			}
+		});
+	}
+	
+	@Test
+	public void resourceHashesTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path file = Files.createTempFile("jvm-utilities-hash", ".bin");
+			byte[] content = new byte[8 * 1024 * 1024];
+			new Random(0).nextBytes(content);
+			Files.write(file, content);
+			
+			// Separated reads
+			byte[] sha256 = UResource.resourceHash(file, "SHA-256");
+			byte[] sha512 = UResource.resourceHash(file, "SHA-512");
+			CRC32C crc = new CRC32C();
+			crc.update(Files.readAllBytes(file));
+			
+			// Single read
+			UResourceHashResult result = UResource.resourceHashes(file, List.of("SHA-256", "SHA-512"), new CRC32C());
+			UResourceHashResult streamResult = UResource.resourceHashes(Files.newInputStream(file),
+																		List.of("SHA-256"), new CRC32C());
+			
+			// Assertions
+			Assertions.assertArrayEquals(sha256, result.hash("SHA-256").orElseThrow());
+			Assertions.assertArrayEquals(sha512, result.hash("SHA-512").orElseThrow());
+			Assertions.assertEquals(crc.getValue(), result.checksum("CRC32C").orElseThrow());
+			Assertions.assertArrayEquals(sha256, streamResult.hash("SHA-256").orElseThrow());
+			Assertions.assertEquals(crc.getValue(), streamResult.checksum("CRC32C").orElseThrow());
+			Assertions.assertEquals(content.length, result.size());
+			Assertions.assertEquals(Set.of("SHA-256", "SHA-512", "CRC32C"), result.algorithms());
+			Assertions.assertEquals(List.of("SHA-256", "SHA-512", "CRC32C"), List.copyOf(result.algorithms()));
+			Assertions.assertEquals(List.of("SHA-512", "MD5", "SHA-256", "SHA-1"),
+									List.copyOf(UResource.resourceHashes(file, List.of("SHA-512", "MD5", "SHA-256", "SHA-1"))
+													.algorithms()));
+			Assertions.assertTrue(result.hash("MD5").isEmpty());
+			Assertions.assertThrows(IllegalArgumentException.class,
+									() -> UResource.resourceHashes(file, List.of(), new CRC32C(), new CRC32C()));
+			
+			println(result);
+			println("SHA-256: %s", result.hashStr("SHA-256").orElseThrow());
+			Files.delete(file);
+		});
+	}
+	
+	@Test
+	public void resourceHashFileSystemsTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path zip = Files.createTempFile("jvm-utilities-hash", ".zip");
+			byte[] content = new byte[1024 * 1024];
+			new Random(0).nextBytes(content);
+			
+			try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip))) {
+				output.putNextEntry(new ZipEntry("large.bin"));
+				output.write(content);
+				output.closeEntry();
+			}
+			
+			// Zip file system entries cannot be read through a file channel
+			try (FileSystem zipSystem = FileSystems.newFileSystem(zip, (ClassLoader) null)) {
+				Path entry = zipSystem.getPath("large.bin");
+				byte[] expected = UResource.resourceHash(new ByteArrayInputStream(content), "SHA-256");
+				UResourceHashResult result = UResource.resourceHashes(entry, List.of("SHA-256"));
+				
+				Assertions.assertArrayEquals(expected, UResource.resourceHash(entry, "SHA-256"));
+				Assertions.assertArrayEquals(expected, result.hash("SHA-256").orElseThrow());
+				Assertions.assertEquals(content.length, result.size());
+			}
+			
+			// Runtime image paths cannot be opened as file channels
+			Path runtime = FileSystems.getFileSystem(URI.create("jrt:/"))
+				.getPath("modules", "java.base", "java/lang/Object.class");
+			byte[] runtimeExpected = UResource.resourceHash(Files.newInputStream(runtime), "SHA-256");
+			Assertions.assertArrayEquals(runtimeExpected, UResource.resourceHash(runtime, "SHA-256"));
+			
+			println("Runtime hash: %s", UResource.resourceHashStr(runtimeExpected));
+			Files.delete(zip);
+		});
+	}
+	
+	@Test
+	public void resourceHasherTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			UResourceHasher hasher = UResourceHasher.generate()
+				.setAlgorithm("SHA-256")
+				.setParallelism(4)
+				.setQueueCapacity(8);
+			Map<Path, String> sequential = new HashMap<>();
+			
+			// Sequential hashes
+			try (Stream<Path> stream = UResource.resourceWalk(treeRoot, true)) {
+				for (Path path : stream.filter(Files::isRegularFile).collect(Collectors.toList())) {
+					sequential.put(path, UResource.resourceHashStr(UResource.resourceHash(path, "SHA-256")));
+				}
+			}
+			
+			// Concurrent hashes
+			Map<Path, String> concurrent;
+			try (var stream = hasher.hashTree(treeRoot, true)) {
+				concurrent = stream.collect(Collectors.toMap(it -> it.first, it -> UResource.resourceHashStr(it.second)));
+			}
+			
+			// Assertions
+			Assertions.assertEquals(sequential, concurrent, "Both operations must generate the same hashes");
+			Assertions.assertEquals(sequential.size(), hasher.resourcesProcessed());
+			Assertions.assertTrue(hasher.throughput() > 0.0);
+			
+			// Partial consumption releases the workers
+			try (var stream = hasher.hashTree(treeRoot, true)) {
+				Assertions.assertEquals(3L, stream.limit(3).count());
+			}
+			Assertions.assertThrows(UncheckedIOException.class, () -> {
+				try (var stream = hasher.hash(List.of(treeRoot.resolve("not-found")))) {
+					stream.count();
+				}
+			});
+			
+			println("Resources: %d", sequential.size());
+		});
+	}
+	
+	@Test
+	public void resourceHashCacheTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			UResourceHashCache cache = UResourceHashCache.make();
+			List<Path> files;
+			try (Stream<Path> stream = UResource.resourceWalk(treeRoot, true)) {
+				files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+			}
+			
+			// Cold cache
+			for (Path file : files) cache.hash(file, "SHA-256");
+			
+			// Warm cache
+			for (Path file : files) cache.hash(file, "SHA-256");
+			
+			Assertions.assertEquals(files.size(), cache.misses());
+			Assertions.assertEquals(files.size(), cache.hits());
+			
+			// Modified resources are hashed again
+			Path modified = Files.createTempFile("jvm-utilities-cache", ".txt");
+			Files.writeString(modified, "first content");
+			byte[] firstHash = cache.hash(modified, "SHA-256");
+			Files.writeString(modified, "second content with other size");
+			Assertions.assertArrayEquals(UResource.resourceHash(modified, "SHA-256"), cache.hash(modified, "SHA-256"));
+			Assertions.assertFalse(Arrays.equals(firstHash, cache.hash(modified, "SHA-256")));
+			Files.delete(modified);
+			
+			// Persistence
+			Path cacheFile = Files.createTempFile("jvm-utilities-cache", ".bin");
+			cache.save(cacheFile);
+			UResourceHashCache loaded = UResourceHashCache.make();
+			Assertions.assertEquals(cache.size(), loaded.load(cacheFile));
+			for (Path file : files) {
+				Assertions.assertArrayEquals(cache.hash(file, "SHA-256"), loaded.hash(file, "SHA-256"));
+			}
+			Assertions.assertEquals(0L, loaded.misses(), "All the entries must be restored");
+			
+			// Least recently used entries are removed
+			UResourceHashCache small = UResourceHashCache.make(2);
+			small.hash(files.get(0), "SHA-256");
+			small.hash(files.get(1), "SHA-256");
+			small.hash(files.get(0), "SHA-256");
+			small.hash(files.get(2), "SHA-256");
+			small.hash(files.get(0), "SHA-256");
+			small.hash(files.get(1), "SHA-256");
+			Assertions.assertEquals(2, small.size());
+			Assertions.assertEquals(2L, small.hits());
+			Assertions.assertEquals(4L, small.misses());
+			
+			println("Resources:  %d", files.size());
+			println("Cache file: %d bytes", Files.size(cacheFile));
+			Files.delete(cacheFile);
+		});
+	}
+	
+	@Test
+	public void merkleTreeTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path directory = Files.createTempDirectory("jvm-utilities-merkle");
+			Files.createDirectories(directory.resolve("a/b"));
+			Files.writeString(directory.resolve("a/one.txt"), "one");
+			Files.writeString(directory.resolve("a/b/two.txt"), "two");
+			Files.writeString(directory.resolve("three.txt"), "three");
+			
+			UMerkleTree original = UMerkleTree.build(directory, "SHA-256");
+			UMerkleTree incremental = UMerkleTree.build(directory, "SHA-256");
+			Assertions.assertArrayEquals(original.hash(), incremental.hash());
+			Assertions.assertEquals(3, original.resourceCount());
+			
+			// Modify the tree
+			Files.writeString(directory.resolve("a/one.txt"), "one modified");
+			Files.delete(directory.resolve("three.txt"));
+			Files.createDirectories(directory.resolve("c"));
+			Files.writeString(directory.resolve("c/four.txt"), "four");
+			incremental.update(directory.resolve("a/one.txt"), Path.of("three.txt"), directory.resolve("c"));
+			UMerkleTree rebuilt = UMerkleTree.build(directory, "SHA-256");
+			
+			// Assertions
+			Assertions.assertArrayEquals(rebuilt.hash(), incremental.hash(), "Incremental and full builds must be equal");
+			Assertions.assertFalse(Arrays.equals(original.hash(), incremental.hash()));
+			Assertions.assertArrayEquals(UResource.resourceHash(directory.resolve("a/one.txt"), "SHA-256"),
+										 incremental.hash(Path.of("a/one.txt")).orElseThrow());
+			Assertions.assertEquals(Map.of(Path.of("a/one.txt"), UResourceChange.MODIFIED,
+										   Path.of("three.txt"), UResourceChange.REMOVED,
+										   Path.of("c"), UResourceChange.ADDED), original.diff(incremental));
+			Assertions.assertTrue(incremental.diff(rebuilt).isEmpty());
+			
+			// Opposite comparisons from different threads
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			try {
+				CompletableFuture<Void> forward = CompletableFuture.runAsync(() -> {
+					for (int i = 0; i < 2000; i++) original.diff(incremental);
+				}, executor);
+				CompletableFuture<Void> backward = CompletableFuture.runAsync(() -> {
+					for (int i = 0; i < 2000; i++) incremental.diff(original);
+				}, executor);
+				CompletableFuture.allOf(forward, backward).get(30, TimeUnit.SECONDS);
+			} finally {
+				executor.shutdownNow();
+			}
+			
+			// Large tree
+			UMerkleTree large = UMerkleTree.build(treeRoot, "SHA-256");
+			byte[] largeHash = large.hash();
+			large.update(Path.of("dir-0", "sub-0", "file-0.txt"));
+			Assertions.assertArrayEquals(largeHash, large.hash());
+			
+			println(large);
+			println("Resources: %d", large.resourceCount());
+			
+			deleteRecursively(directory);
+		});
+	}
+	
+	@Test
+	public void fileSystemCacheTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path archive = Files.createTempFile("jvm-utilities-archive", ".jar");
+			try (var output = new ZipOutputStream(Files.newOutputStream(archive))) {
+				for (int i = 0; i < 10; i++) {
+					output.putNextEntry(new ZipEntry("entry-" + i + ".txt"));
+					output.write(("content " + i).getBytes());
+					output.closeEntry();
+				}
+			}
+			String archiveUri = "jar:" + archive.toUri();
+			UFileSystemCacheMetrics before = UResource.filesystemCacheMetrics();
+			
+			// All the resources share the same filesystem
+			Set<FileSystem> fileSystems = new HashSet<>();
+			for (int i = 0; i < 1000; i++) {
+				Path path = UResource.pathOf(URI.create(archiveUri + "!/entry-" + (i % 10) + ".txt"));
+				Assertions.assertEquals("content " + (i % 10), Files.readString(path));
+				fileSystems.add(path.getFileSystem());
+			}
+			UFileSystemCacheMetrics after = UResource.filesystemCacheMetrics();
+			FileSystem fileSystem = fileSystems.iterator().next();
+			
+			// Assertions
+			Assertions.assertEquals(1, fileSystems.size());
+			Assertions.assertEquals(1L, after.opened() - before.opened(), "The archive must be opened only once");
+			Assertions.assertEquals(1L, after.misses() - before.misses());
+			Assertions.assertEquals(999L, after.hits() - before.hits());
+			
+			// The idle eviction is disabled by default, so the paths remain valid
+			Assertions.assertEquals(UResource.FILESYSTEM_IDLE_DISABLED, UResource.filesystemIdleTimeout(TimeUnit.MILLISECONDS));
+			Assertions.assertEquals(0, UResource.evictIdleFilesystems());
+			Assertions.assertTrue(fileSystem.isOpen());
+			
+			// Filesystems resolved by paths are not referenced and are evicted once the idle timeout is enabled
+			UResource.setFilesystemIdleTimeout(0, TimeUnit.MILLISECONDS);
+			Assertions.assertEquals(1, UResource.evictIdleFilesystems());
+			Assertions.assertFalse(fileSystem.isOpen());
+			
+			// Leased filesystems are never evicted
+			FileSystem leased;
+			try (UFileSystemLease lease = UResource.acquireFileSystem(URI.create(archiveUri + "!/"))) {
+				leased = lease.fileSystem();
+				Assertions.assertEquals("content 1", Files.readString(lease.getPath("/entry-1.txt")));
+				Assertions.assertEquals(0, UResource.evictIdleFilesystems());
+				Assertions.assertTrue(leased.isOpen());
+			}
+			Assertions.assertEquals(1, UResource.evictIdleFilesystems());
+			Assertions.assertFalse(leased.isOpen());
+			
+			// Disposed filesystems are closed even if they are referenced
+			UFileSystemLease reopened = UResource.acquireFileSystem(URI.create(archiveUri + "!/"));
+			Assertions.assertTrue(reopened.fileSystem().isOpen());
+			UResource.disposeFilesystemsIf(it -> it == reopened.fileSystem());
+			Assertions.assertFalse(reopened.fileSystem().isOpen());
+			reopened.close();
+			Assertions.assertEquals(3L, UResource.filesystemCacheMetrics().closed() - before.closed());
+			
+			UResource.setFilesystemIdleTimeout(UResource.FILESYSTEM_IDLE_DISABLED, TimeUnit.MILLISECONDS);
+			println(UResource.filesystemCacheMetrics());
+			Files.delete(archive);
+		});
+	}
+	
+	@Test
+	public void resourcePredicatesTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			String[] names = {"a.txt", "txt.txt", "file.", "abc..", ".gitignore", "a.b.c", "noext", "dir/sub/x.TXT",
+							  "dir\\windows.txt", "spaces.txt ", "archive.tar.gz", "...", "x/y/", "x/ a.txt", "pipe|name.txt"};
+			
+			// The predicates produce the same results as the resource methods
+			for (String name : names) {
+				Path path = Path.of(name);
+				String expectedName = UResource.resourceName(path);
+				Optional<String> expectedExtension = UResource.extension(path);
+				
+				Assertions.assertTrue(UResource.namedPathOf(false, expectedName).test(path), name);
+				ZipEntry entry = new ZipEntry(name);
+				Assertions.assertTrue(UResource.namedEntryOf(false, UResource.resourceName(entry)).test(entry), name);
+				Assertions.assertTrue(UResource.namedFileOf(false, UResource.resourceName(new File(name)))
+										  .test(new File(name)), name);
+				for (String extension : List.of("txt", "gz", "c", "gitignore", "abc", "file", "TXT")) {
+					boolean expected = expectedExtension.isPresent() && expectedExtension.get().equals(extension);
+					Assertions.assertEquals(expected, UResource.extensionsPathOf(false, extension).test(path), name);
+					Assertions.assertEquals(!expected, UResource.extensionsPathOf(true, extension).test(path), name);
+				}
+			}
+			
+			// Directories never contain extensions
+			// The shared tree is always restored, so the other tests are not affected
+			Path directory = Files.createDirectories(treeRoot.resolve("directory.txt"));
+			try {
+				Assertions.assertFalse(UResource.extensionsPathOf(false, "txt").test(directory));
+				Assertions.assertFalse(UResource.extensionsEntryOf(false, "txt").test(new ZipEntry("directory.txt/")));
+				Assertions.assertFalse(UResource.extensionsFileOf(false, "txt").test(directory.toFile()));
+				Assertions.assertTrue(UResource.extensionsFileOf(false, "txt").test(new File("file.txt")));
+				Assertions.assertFalse(UResource.extensionsFileOf(false, "txt").test(new File("txt")));
+			} finally {
+				Files.deleteIfExists(directory);
+			}
+			
+			// Regular expressions
+			Assertions.assertTrue(UResource.regexPathOf("^file", false).test(Path.of("dir/file.txt")));
+			Assertions.assertFalse(UResource.regexPathOf("^file", true).test(Path.of("dir/file.txt")));
+			Assertions.assertTrue(UResource.regexFileOf("\\.txt$", false).test(new File("dir/file.txt")));
+			Assertions.assertTrue(UResource.regexEntryOf("^META-INF/", false).test(new ZipEntry("META-INF/MANIFEST.MF")));
+			
+			// Only the file name is matched, without trimming it or splitting it by other characters
+			Assertions.assertTrue(UResource.regexPathOf("^pipe\\|", false).test(Path.of("dir/pipe|name.txt")));
+			Assertions.assertTrue(UResource.regexPathOf("^ a", false).test(Path.of("x/ a.txt")));
+			Assertions.assertTrue(UResource.regexPathOf("txt $", false).test(Path.of("dir/spaces.txt ")));
+			Assertions.assertTrue(UResource.regexFileOf("^pipe\\|", false).test(new File("dir/pipe|name.txt")));
+			
+			Path spaced = Files.writeString(treeRoot.resolve(" a.txt"), "spaced");
+			try {
+				UResourceEntry spacedEntry = UResourceEntry.make(spaced, Files.readAttributes(spaced, BasicFileAttributes.class));
+				Assertions.assertTrue(UResource.regexResourceEntryOf("^ a", false).test(spacedEntry));
+				Assertions.assertTrue(UResource.namedResourceEntryOf(false, UResource.resourceName(spacedEntry)).test(spacedEntry));
+			} finally {
+				Files.deleteIfExists(spaced);
+			}
+			
+			// Combinations
+			Predicate<Path> combined = UResource.allOf(UResource.extensionsPathOf(false, "txt", "bin"),
+													   UResource.noneOf(UResource.namedPathOf(false, "skip.txt")),
+													   UResource.anyOf(UResource.regexPathOf("^a", false),
+																	   UResource.regexPathOf("^b", false)));
+			Assertions.assertTrue(combined.test(Path.of("dir/a.txt")));
+			Assertions.assertTrue(combined.test(Path.of("dir/b.bin")));
+			Assertions.assertFalse(combined.test(Path.of("dir/c.txt")));
+			Assertions.assertFalse(combined.test(Path.of("dir/a.jar")));
+			Assertions.assertFalse(UResource.allOf(combined, it -> false).test(Path.of("dir/a.txt")));
+			Assertions.assertTrue(UResource.<Path>allOf().test(Path.of("dir/a.txt")));
+			Assertions.assertFalse(UResource.<Path>anyOf().test(Path.of("dir/a.txt")));
+		});
+	}
+	
+	@Test
+	public void resourcePredicatesBenchmarkTest() {
+		makeSectionError(() -> {
+			// Temporal variables
+			List<Path> paths = IntStream.range(0, 10_000)
+				.mapToObj(it -> Path.of("directory/resource-" + it + ".bin"))
+				.collect(Collectors.toList());
+			Predicate<Path> filter = UResource.anyOf(UResource.extensionsPathOf(false, "txt", "class", "jar"),
+													 UResource.namedPathOf(false, "resource-1.txt", "module-info.class"));
+			paths.forEach(it -> it.toString().hashCode());
+			for (int i = 0; i < 20; i++) paths.forEach(filter::test);
+			
+			long memory = allocatedBytes();
+			long start = System.nanoTime();
+			long matches = 0;
+			for (int i = 0; i < 100; i++) {
+				for (Path path : paths) if (filter.test(path)) matches++;
+			}
+			long time = System.nanoTime() - start;
+			memory = allocatedBytes() - memory;
+			
+			Assertions.assertEquals(0L, matches);
+			println("Evaluations: %d, %.3f ms (%d bytes)", paths.size() * 100, time / 1e6, memory);
+		});
+	}
+	
+	@Test
+	public void resourceNameTest() {
+		makeSectionError(() -> {
+			// Temporal variables
+			Random random = new Random(13);
+			char[] alphabet = {'a', 'b', '.', '.', '/', '\\', '|', ' '};
+			List<String> locations = new ArrayList<>(List.of("build.gradle.kts", "example.file.java", ".gitignore",
+															 "x.x", "abc.", "abc..", "a..b", ".a.b", "dir/", "/", "",
+															 "  /home/user/file.txt  ", "C:\\Users\\file.tar.gz"));
+			for (int i = 0; i < 20_000; i++) {
+				char[] content = new char[random.nextInt(12)];
+				for (int j = 0; j < content.length; j++) content[j] = alphabet[random.nextInt(alphabet.length)];
+				locations.add(new String(content));
+			}
+			
+			// The view keeps the behavior of the previous implementation
+			for (String location : locations) {
+				UResourceName name = UResourceName.of(location);
+				String legacyName = legacyName(location);
+				String[] legacyExtensions = legacyExtensions(location);
+				
+				Assertions.assertEquals(legacyName, name.name(), location);
+				Assertions.assertEquals(legacyBasename(location, true), name.basename(true), location);
+				Assertions.assertEquals(legacyBasename(location, false), name.basename(false), location);
+				Assertions.assertEquals(List.of(legacyExtensions), List.of(name.allExtensions()), location);
+				Assertions.assertEquals(legacyExtensions.length, name.extensionCount(), location);
+				Assertions.assertEquals(legacyExtensions.length == 0 ? Optional.empty() :
+										Optional.of(legacyExtensions[legacyExtensions.length - 1]), name.extension(), location);
+				Assertions.assertEquals(legacyName, location.substring(name.nameStart(), name.nameEnd()));
+				if (location.contains("/")) continue;
+				Assertions.assertEquals(List.of(legacyExtensions), List.of(UResource.allExtensions(new ZipEntry(location))));
+			}
+			
+			UResourceName name = UResourceName.of("/home/user/build.gradle.kts");
+			Assertions.assertTrue(name.hasExtension("kts"));
+			Assertions.assertFalse(name.hasExtension("gradle"));
+			Assertions.assertEquals("gradle", name.location().subSequence(name.extensionStart(1), name.extensionEnd(1)));
+			Assertions.assertThrows(IndexOutOfBoundsException.class, () -> name.extensionStart(3));
+		});
+	}
+	
+	@Test
+	public void resourceNameBenchmarkTest() {
+		makeSectionError(() -> {
+			// Both sides answer the same query: does the location end with the "class" extension?
+			List<String> benchmark = IntStream.range(0, 100_000)
+				.mapToObj(it -> "/home/user/project/src/module-" + (it % 100) + "/Resource" + it + ".class")
+				.collect(Collectors.toList());
+			for (int i = 0; i < 3; i++) {
+				benchmark.forEach(it -> legacyHasExtension(it, "class"));
+				benchmark.forEach(it -> UResourceName.of(it).hasExtension("class"));
+			}
+			
+			long legacyMemory = allocatedBytes();
+			long legacyStart = System.nanoTime();
+			long legacyMatches = 0;
+			for (String location : benchmark) if (legacyHasExtension(location, "class")) legacyMatches++;
+			long legacyTime = System.nanoTime() - legacyStart;
+			legacyMemory = allocatedBytes() - legacyMemory;
+			
+			long currentMemory = allocatedBytes();
+			long currentStart = System.nanoTime();
+			long currentMatches = 0;
+			for (String location : benchmark) if (UResourceName.of(location).hasExtension("class")) currentMatches++;
+			long currentTime = System.nanoTime() - currentStart;
+			currentMemory = allocatedBytes() - currentMemory;
+			
+			Assertions.assertEquals(benchmark.size(), legacyMatches);
+			Assertions.assertEquals(legacyMatches, currentMatches);
+			println("Legacy hasExtension: %.3f ms (%d bytes)", legacyTime / 1e6, legacyMemory);
+			println("View hasExtension:   %.3f ms (%d bytes)", currentTime / 1e6, currentMemory);
+		});
+	}
+	
+	@Test
+	public void archiveHasherTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path archive = Files.createTempFile("jvm-utilities-hasher", ".jar");
+			Random random = new Random(7);
+			try (var output = new ZipOutputStream(Files.newOutputStream(archive))) {
+				output.putNextEntry(new ZipEntry("resources/"));
+				for (int i = 0; i < 64; i++) {
+					byte[] content = new byte[(i % 8 + 1) * 64 * 1024];
+					random.nextBytes(content);
+					output.putNextEntry(new ZipEntry("resources/entry-" + i + (i % 2 == 0 ? ".bin" : ".txt")));
+					output.write(content);
+					output.closeEntry();
+				}
+			}
+			UResourceHasher hasher = UResourceHasher.generate()
+				.setAlgorithm("SHA-256")
+				.setParallelism(4);
+			
+			try (ZipFile file = new ZipFile(archive.toFile())) {
+				// Sequential hashes
+				Map<String, String> sequential = new LinkedHashMap<>();
+				for (var entry : file.stream().filter(it -> !it.isDirectory()).collect(Collectors.toList())) {
+					sequential.put(entry.getName(), UResource.resourceHashStr(UResource.resourceHash(file, entry, "SHA-256")));
+				}
+				
+				// Concurrent hashes
+				Map<String, byte[]> concurrent = hasher.hashArchive(file);
+				Map<String, String> concurrentStr = new LinkedHashMap<>();
+				concurrent.forEach((key, value) -> concurrentStr.put(key, UResource.resourceHashStr(value)));
+				
+				// Assertions
+				Assertions.assertEquals(sequential, concurrentStr, "Both operations must generate the same hashes");
+				Assertions.assertEquals(List.copyOf(sequential.keySet()), List.copyOf(concurrent.keySet()));
+				Assertions.assertEquals(64L, hasher.resourcesProcessed());
+				
+				// Filtered entries
+				Map<String, byte[]> filtered = hasher.hashArchive(archive, UResource.extensionsEntryOf(false, "txt"));
+				Assertions.assertEquals(32, filtered.size());
+				Assertions.assertTrue(filtered.keySet().stream().allMatch(it -> it.endsWith(".txt")));
+				Assertions.assertThrows(NoSuchAlgorithmException.class,
+										() -> UResourceHasher.generate().setAlgorithm("NOT-FOUND").hashArchive(archive));
+				
+				println("Entries: %d", sequential.size());
+			}
+			Files.delete(archive);
+		});
+	}
+	
+	@Test
+	public void zipIndexTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Path archive = Files.createTempFile("jvm-utilities-index", ".jar");
+			String[] extensions = {"class", "properties", "txt"};
+			try (var output = new ZipOutputStream(Files.newOutputStream(archive))) {
+				output.putNextEntry(new ZipEntry("META-INF/"));
+				output.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+				output.putNextEntry(new ZipEntry("META-INF/services/example.Service"));
+				for (int i = 0; i < 3000; i++) {
+					String directory = "ushiosan/example/package" + (i % 30) + "/";
+					output.putNextEntry(new ZipEntry(directory + "Element" + i + "." + extensions[i % 3]));
+					output.write(i);
+					output.closeEntry();
+				}
+			}
+			
+			try (ZipFile file = new ZipFile(archive.toFile())) {
+				UZipIndex index = UZipIndex.of(archive);
+				
+				// The index is shared by all the requests
+				Assertions.assertSame(index, UZipIndex.of(archive));
+				Assertions.assertSame(index, UZipIndex.of(file));
+				Assertions.assertEquals(file.size(), index.size());
+				Assertions.assertTrue(index.contains("META-INF/MANIFEST.MF"));
+				Assertions.assertTrue(index.entry("META-INF/").orElseThrow().isDirectory());
+				Assertions.assertTrue(index.entry("META-INF/INDEX.LIST").isEmpty());
+				
+				// Prefix queries
+				Assertions.assertEquals(List.of("META-INF/MANIFEST.MF"),
+										index.directory("META-INF", false).map(ZipEntry::getName).collect(Collectors.toList()));
+				Assertions.assertEquals(2, index.directory("META-INF/", true).count());
+				Assertions.assertEquals(List.of("META-INF/"),
+										index.directory("", false).map(ZipEntry::getName).collect(Collectors.toList()));
+				Assertions.assertEquals(100, index.directory("ushiosan/example/package7", false).count());
+				Assertions.assertEquals(3000, index.directory("ushiosan", true).count());
+				Assertions.assertEquals(0, index.directory("ushiosan/missing", true).count());
+				Assertions.assertEquals(file.size(), index.directory("", true).count());
+				Assertions.assertEquals(file.stream().map(ZipEntry::getName).filter(it -> it.startsWith("ushiosan/"))
+											.collect(Collectors.toList()),
+										index.directory("ushiosan", true).map(ZipEntry::getName).collect(Collectors.toList()),
+										"The recursive queries must keep the archive order");
+				
+				// The returned entries are copies
+				index.entry("META-INF/MANIFEST.MF").orElseThrow().setComment("modified");
+				index.directory("META-INF", false).forEach(it -> it.setTime(0L));
+				Assertions.assertNull(index.entry("META-INF/MANIFEST.MF").orElseThrow().getComment());
+				Assertions.assertNotEquals(0L, index.entry("META-INF/MANIFEST.MF").orElseThrow().getTime());
+				
+				// Extension queries produce the same result as the linear filters
+				for (String extension : extensions) {
+					List<String> linear = file.stream()
+						.filter(it -> !it.isDirectory())
+						.filter(UResource.extensionsEntryOf(false, extension))
+						.map(ZipEntry::getName)
+						.collect(Collectors.toList());
+					List<String> indexed = index.extensions(extension)
+						.map(ZipEntry::getName)
+						.collect(Collectors.toList());
+					
+					Assertions.assertEquals(linear, indexed);
+				}
+				Assertions.assertEquals(file.stream().map(ZipEntry::getName).filter(it -> it.endsWith(".class") || it.endsWith(".txt"))
+											.collect(Collectors.toList()),
+										index.directory("ushiosan/example", true, "class", "txt").map(ZipEntry::getName)
+											.collect(Collectors.toList()));
+				Assertions.assertEquals(100, index.directory("ushiosan/example/package7", false, "properties").count());
+				Assertions.assertEquals(0, index.directory("ushiosan/example/package7", false, "class").count());
+				Assertions.assertTrue(index.allExtensions().containsAll(List.of(extensions)));
+			}
+			
+			// Modified archives are indexed again
+			UZipIndex index = UZipIndex.of(archive);
+			try (var output = new ZipOutputStream(Files.newOutputStream(archive))) {
+				output.putNextEntry(new ZipEntry("single.txt"));
+				output.closeEntry();
+			}
+			Files.setLastModifiedTime(archive, java.nio.file.attribute.FileTime.fromMillis(System.currentTimeMillis() + 5000));
+			UZipIndex updated = UZipIndex.of(archive);
+			Assertions.assertNotSame(index, updated);
+			Assertions.assertEquals(1, updated.size());
+			Assertions.assertTrue(UZipIndex.invalidate(archive));
+			
+			println(updated);
+			Files.delete(archive);
+		});
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Previous implementation of the resource name (used to verify the current behavior)
+	 *
+	 * @param location the file location to analyze
+	 * @return the file without the slashes
+	 */
+	private static @NotNull String legacyName(@NotNull String location) {
+		String cleanLocation = location.replaceAll("[/|\\\\]+", "/").trim();
+		while (cleanLocation.endsWith("/")) {
+			cleanLocation = cleanLocation.substring(0, cleanLocation.length() - 1);
+		}
+		return cleanLocation.substring(cleanLocation.lastIndexOf('/') + 1);
+	}
+	
+	/**
+	 * Previous implementation of the resource base name (used to verify the current behavior)
+	 *
+	 * @param location the file location to analyze
+	 * @param partial  returns the full or partial name
+	 * @return the file base name
+	 */
+	private static @NotNull String legacyBasename(@NotNull String location, boolean partial) {
+		String cleanLocation = legacyName(location);
+		int dotIndex = partial ? cleanLocation.indexOf('.') : cleanLocation.lastIndexOf('.');
+		return dotIndex == -1 ? cleanLocation : cleanLocation.substring(0, dotIndex);
+	}
+	
+	/**
+	 * Previous implementation of the resource extensions (used to verify the current behavior)
+	 *
+	 * @param location the file location to analyze
+	 * @return all file extensions
+	 */
+	private static String @NotNull [] legacyExtensions(@NotNull String location) {
+		String basename = legacyBasename(location, false);
+		String cleanLocation = legacyName(location);
+		if (cleanLocation.indexOf('.') == -1) return new String[0];
+		
+		return Arrays.stream(cleanLocation.split("\\."))
+			.filter(it -> !basename.contentEquals(it))
+			.toArray(String[]::new);
+	}
+	
+	/**
+	 * Previous way to check the last extension of a resource (used to compare the current behavior)
+	 *
+	 * @param location  the file location to analyze
+	 * @param extension the expected extension
+	 * @return {@code true} if the last extension is the expected extension or {@code false} otherwise
+	 */
+	private static boolean legacyHasExtension(@NotNull String location, @NotNull String extension) {
+		String[] extensions = legacyExtensions(location);
+		return extensions.length > 0 && extensions[extensions.length - 1].equals(extension);
+	}
+	
+	/**
+	 * Checks if the index contains the same elements as the filesystem
+	 *
+	 * @param index the index to check
+	 * @param root  the indexed directory
+	 * @return {@code true} if both contain the same elements or {@code false} otherwise
+	 * @throws UncheckedIOException error if the directory cannot be read
+	 */
+	private static boolean sameIndex(@NotNull UDirectoryIndex index, @NotNull Path root) {
+		try (Stream<Path> stream = Files.walk(root.toAbsolutePath().normalize())) {
+			return stream.collect(Collectors.toSet())
+				.equals(index.entries().map(UResourceEntry::path).collect(Collectors.toSet()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Deletes a directory tree, starting with the deepest elements
+	 *
+	 * @param root the directory to delete
+	 * @throws IOException error if some element cannot be deleted
+	 */
+	private static void deleteRecursively(@NotNull Path root) throws IOException {
+		try (Stream<Path> stream = Files.walk(root)) {
+			for (Path path : stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the total memory allocated by the current thread
+	 *
+	 * @return the allocated bytes or {@code -1} if the platform cannot measure allocations
+	 */
+	private static long allocatedBytes() {
+		var bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+		return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+}
@@ -6,12 +6,15 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import ushiosan.jvm.collections.UArray;
 import ushiosan.jvm.collections.UList;
+import ushiosan.jvm.print.URecursionMode;
 import ushiosan.jvm.print.UToStringComponent;
 import ushiosan.jvm.print.UToStringManager;
+import ushiosan.jvm.reflection.UReflectionActions;
 import ushiosan.jvm.test.UTestUnit;
 import ushiosan.jvm.test.test.Constants;
 
 import java.awt.*;
+import java.util.Arrays;
 import java.util.HashMap;
 
 class UToStringManagerTest extends UTestUnit {
@@ -146,6 +149,118 @@ class UToStringManagerTest extends UTestUnit {
 		});
 	}
 	
+	@Test
+	public void toStringObjectErrorTest() {
+		makeSection(() -> {
+			var manager = UToStringManager.getInstance();
+			var errorObj = new ErrorCallClass();
+			
+			try {
+				// Errors thrown by the object use the generic representation
+				Assertions.assertTrue(manager.toString(errorObj).startsWith("(@"), "Invalid error call");
+				manager.setRecursionMode(URecursionMode.THREAD_GUARD);
+				Assertions.assertTrue(manager.toString(errorObj).startsWith("(@"), "Invalid error call");
+			} finally {
+				manager.setRecursionMode(URecursionMode.STACK_WALK);
+			}
+			
+			// Errors of the virtual machine are never hidden
+			Assertions.assertThrows(OutOfMemoryError.class, () -> manager.toString(new FatalCallClass()));
+			
+			println(manager.toString(errorObj));
+		});
+	}
+	
+	@Test
+	public void toStringRecursionModeTest() {
+		makeSection(() -> {
+			// Temporal variables
+			var manager = UToStringManager.getInstance();
+			var recursiveObj = new RecursiveCallClass();
+			var anyObject = new Dimension(1000, 600);
+			
+			Assertions.assertThrows(IllegalArgumentException.class, () -> manager.setRecursionMode(null));
+			Assertions.assertEquals(URecursionMode.STACK_WALK, manager.recursionMode());
+			
+			try {
+				manager.setRecursionMode(URecursionMode.THREAD_GUARD);
+				Assertions.assertEquals(URecursionMode.THREAD_GUARD, manager.recursionMode());
+				Assertions.assertTrue(manager.toString(recursiveObj).startsWith("E("), "Invalid recursive call");
+				Assertions.assertEquals(manager.toString(anyObject), manager.toString(anyObject));
+			} finally {
+				manager.setRecursionMode(URecursionMode.STACK_WALK);
+			}
+			
+			// Managers without support for other modes keep the default mode
+			UToStringManager custom = new UToStringManager() {
+				@Override
+				public @NotNull String toString(Object object, boolean verbose) {
+					return String.valueOf(object);
+				}
+				
+				@Override
+				public void registerComponent(@NotNull UToStringComponent component) {
+				}
+				
+				@Override
+				public void removeComponent(@NotNull Class<? extends UToStringComponent> cls) {
+				}
+			};
+			Assertions.assertEquals(URecursionMode.STACK_WALK, custom.recursionMode());
+			custom.setRecursionMode(URecursionMode.STACK_WALK);
+			Assertions.assertThrows(UnsupportedOperationException.class,
+									() -> custom.setRecursionMode(URecursionMode.THREAD_GUARD));
+		});
+	}
+	
+	@Test
+	public void recursiveCallBenchmarkTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			var cls = RecursiveCallClass.class;
+			int iterations = 20_000;
+			
+			// The same query is made by all the strategies: the method is not in the
+			// stack, so every check has to inspect the complete call stack. The first
+			// round only warms up the code.
+			long legacyTime = 0L;
+			long walkTime = 0L;
+			long guardTime = 0L;
+			for (int round = 0; round < 2; round++) {
+				long legacyStart = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					Assertions.assertFalse(legacyRecursiveCall(cls, "toString"));
+				}
+				legacyTime = System.nanoTime() - legacyStart;
+				
+				long walkStart = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					UReflectionActions.checkRecursiveCall(cls, "toString");
+				}
+				walkTime = System.nanoTime() - walkStart;
+				
+				long guardStart = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					UReflectionActions.guardRecursiveCall(cls, "toString", () -> null);
+				}
+				guardTime = System.nanoTime() - guardStart;
+			}
+			
+			println("getStackTrace check: %.3f us", legacyTime / 1e3 / iterations);
+			println("StackWalker check:   %.3f us", walkTime / 1e3 / iterations);
+			println("Thread guard:        %.3f us", guardTime / 1e3 / iterations);
+		});
+	}
+	
+	/**
+	 * Recursive call check used before the {@link StackWalker} implementation
+	 */
+	private static boolean legacyRecursiveCall(@NotNull Class<?> cls, @NotNull String methodName) {
+		return Arrays.stream(Thread.currentThread().getStackTrace())
+			.anyMatch(it -> it.getClassName().contentEquals(cls.getName()) &&
+							it.getMethodName().contentEquals(methodName));
+	}
+	
 	@Test
 	public void toStringCollectionTest() {
 		makeSection(() -> {
@@ -196,4 +311,22 @@ class UToStringManagerTest extends UTestUnit {
 		
 	}
 	
+	public static class ErrorCallClass {
+		
+		@Override
+		public String toString() {
+			throw new AssertionError("toString error");
+		}
+		
+	}
+	
+	public static class FatalCallClass {
+		
+		@Override
+		public String toString() {
+			throw new OutOfMemoryError("toString error");
+		}
+		
+	}
+	
 }
\ No newline at end of file
@@ -1,7 +1,12 @@
 package ushiosan.jvm.test.test.reflection;
 
 import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import ushiosan.jvm.UClass;
+import ushiosan.jvm.function.UEmptyFun;
+import ushiosan.jvm.function.UFun;
+import ushiosan.jvm.reflection.UFieldAccessor;
 import ushiosan.jvm.reflection.UReflectionActions;
 import ushiosan.jvm.reflection.UReflectionOptions;
 import ushiosan.jvm.test.UTestUnit;
@@ -9,6 +14,17 @@ import ushiosan.jvm.test.test.Constants;
 
 import javax.swing.*;
 import java.awt.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 public class UReflectionActionsTest extends UTestUnit {
 	
@@ -37,4 +53,281 @@ public class UReflectionActionsTest extends UTestUnit {
 		});
 	}
 	
-}
\ No newline at end of file
+	@Test
+	@SuppressWarnings("deprecation")
+	public void filterMembersTest() throws ReflectiveOperationException {
+		makeSectionError(() -> {
+			// Temporal variables
+			Class<?>[] classes = {JWindow.class, JButton.class, ArrayList.class, String.class};
+			int[] depths = {UClass.FULL_CLASS_STACK, UClass.ALONE_CLASS_STACK, 2, 3};
+			
+			// The cached tables must contain the same members as the inheritance stack
+			for (Class<?> cls : classes) {
+				for (int depth : depths) {
+					for (boolean recursive : new boolean[]{true, false}) {
+						var methodOptions = UReflectionOptions.generateForMethods()
+							.setRecursive(recursive)
+							.setMaxDeep(depth)
+							.setPublicAccessOnly(false);
+						var fieldOptions = UReflectionOptions.generateForFields()
+							.setRecursive(recursive)
+							.setMaxDeep(depth);
+						
+						Assertions.assertEquals(legacyMembers(cls, methodOptions, Class::getMethods, Class::getDeclaredMethods),
+												Set.of(UReflectionActions.filterMethods(cls, methodOptions)));
+						Assertions.assertEquals(legacyMembers(cls, fieldOptions, Class::getFields, Class::getDeclaredFields),
+												Set.of(UReflectionActions.filterFields(cls, fieldOptions)));
+						
+						// Lookups by name
+						Set<Method> named = legacyMembers(cls, methodOptions, Class::getMethods, Class::getDeclaredMethods);
+						named.removeIf(it -> !it.getName().equals("toString"));
+						Assertions.assertEquals(named, Set.of(UReflectionActions.filterMethods(cls, "toString", methodOptions)));
+					}
+				}
+			}
+			
+			// The class methods are found before the inherited ones
+			var options = UReflectionOptions.generateForMethods();
+			Method found = UReflectionActions.findMethod(JButton.class, "getUIClassID", options);
+			Assertions.assertEquals(JButton.class, found.getDeclaringClass());
+			
+			// The returned members are copies, so changing them does not affect other lookups
+			var privateOptions = UReflectionOptions.generateForFields()
+				.setPublicAccessOnly(false);
+			Field field = UReflectionActions.findField(SampleEntity.class, "name", String.class, privateOptions);
+			field.setAccessible(true);
+			Field other = UReflectionActions.findField(SampleEntity.class, "name", String.class, privateOptions);
+			Assertions.assertEquals(field, other);
+			Assertions.assertNotSame(field, other);
+			Assertions.assertFalse(other.isAccessible());
+			Assertions.assertFalse(UReflectionActions.filterFields(SampleEntity.class, privateOptions)[0].isAccessible());
+			found.setAccessible(true);
+			Assertions.assertFalse(UReflectionActions.findMethod(JButton.class, "getUIClassID", options).isAccessible());
+			
+			// Repeated lookups only apply the filters
+			int iterations = 10_000;
+			long legacyStart = System.nanoTime();
+			for (int i = 0; i < iterations / 10; i++) {
+				legacyMembers(JWindow.class, options, Class::getMethods, Class::getDeclaredMethods);
+			}
+			long legacyTime = (System.nanoTime() - legacyStart) * 10;
+			long cachedStart = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				UReflectionActions.findMethod(JWindow.class, "getSize", options);
+			}
+			long cachedTime = System.nanoTime() - cachedStart;
+			
+			println("Legacy lookups: %.3f ms", legacyTime / 1e6);
+			println("Cached lookups: %.3f ms", cachedTime / 1e6);
+		});
+	}
+	
+	@Test
+	public void resolveMethodTest() throws NoSuchMethodException {
+		makeSectionError(() -> {
+			// Exact lookups use the signature index
+			Assertions.assertEquals(String.class.getMethod("indexOf", int.class),
+									UReflectionActions.findMethod(String.class, "indexOf", int.class));
+			Assertions.assertEquals(String.class.getMethod("indexOf", String.class, int.class),
+									UReflectionActions.findMethod(String.class, "indexOf", String.class, int.class));
+			Assertions.assertThrows(NoSuchMethodException.class,
+									() -> UReflectionActions.findMethod(String.class, "indexOf", long.class));
+			
+			// Runtime types resolve the most specific overload
+			Method appendInt = UReflectionActions.resolveMethod(StringBuilder.class, "append", Integer.class);
+			Method appendString = UReflectionActions.resolveMethod(StringBuilder.class, "append", String.class);
+			Method maxLong = UReflectionActions.resolveMethod(Math.class, "max", Integer.class, long.class);
+			Method format = UReflectionActions.resolveMethod(String.class, "format", UClass.toVarargTypes("%s %s", 1, "a"));
+			
+			Assertions.assertEquals(StringBuilder.class.getMethod("append", int.class), appendInt);
+			Assertions.assertEquals(StringBuilder.class.getMethod("append", String.class), appendString);
+			Assertions.assertEquals(Math.class.getMethod("max", long.class, long.class), maxLong);
+			Assertions.assertEquals(String.class.getMethod("format", String.class, Object[].class), format);
+			Assertions.assertEquals(appendInt, UReflectionActions.resolveMethod(StringBuilder.class, "append", Integer.class));
+			Assertions.assertNotSame(appendInt, UReflectionActions.resolveMethod(StringBuilder.class, "append", Integer.class));
+			
+			println("Resolved methods: %s, %s, %s, %s", appendInt, appendString, maxLong, format);
+			
+			// Ambiguous or invalid calls
+			Assertions.assertThrows(NoSuchMethodException.class,
+									() -> UReflectionActions.resolveMethod(StringBuilder.class, "append", (Class<?>) null));
+			Assertions.assertThrows(NoSuchMethodException.class,
+									() -> UReflectionActions.resolveMethod(String.class, "charAt", String.class));
+		});
+	}
+	
+	@Test
+	@SuppressWarnings("deprecation")
+	public void memberInvokerTest() throws Exception {
+		makeSectionError(() -> {
+			// Temporal variables
+			Method lengthMethod = UReflectionActions.findMethod(String.class, "length");
+			Method sizeMethod = UReflectionActions.findMethod(Dimension.class, "getSize");
+			UFun.UFun1<Integer, String> length = UReflectionActions.methodGetter(lengthMethod);
+			UFun.UFun1<Dimension, Dimension> size = UReflectionActions.methodGetter(sizeMethod);
+			
+			Assertions.assertEquals(5, (int) length.invoke("hello"));
+			Assertions.assertEquals(new Dimension(2, 3), size.invoke(new Dimension(2, 3)));
+			Assertions.assertSame(length, UReflectionActions.methodGetter(lengthMethod));
+			Assertions.assertThrows(IllegalArgumentException.class,
+									() -> UReflectionActions.methodGetter(String.class.getMethod("charAt", int.class)));
+			
+			// Field accessors
+			Point point = new Point(3, 4);
+			UFun.UFun1<Integer, Point> x = UReflectionActions.fieldGetter(Point.class.getField("x"));
+			UEmptyFun.UEmptyFun2<Point, Integer> setX = UReflectionActions.fieldSetter(Point.class.getField("x"));
+			UFun.UFun1<Integer, Object> maxValue = UReflectionActions.fieldGetter(Integer.class.getField("MAX_VALUE"));
+			
+			setX.invoke(point, 10);
+			Assertions.assertEquals(10, (int) x.invoke(point));
+			Assertions.assertEquals(Integer.MAX_VALUE, (int) maxValue.invoke(null));
+			Assertions.assertThrows(IllegalAccessException.class,
+									() -> UReflectionActions.fieldSetter(Integer.class.getField("MAX_VALUE")));
+			
+			// Private members are accessed without changing the shared instances
+			SampleEntity entity = new SampleEntity();
+			var fieldOptions = UReflectionOptions.generateForFields()
+				.setPublicAccessOnly(false);
+			Field name = UReflectionActions.findField(SampleEntity.class, "name", String.class, fieldOptions);
+			UEmptyFun.UEmptyFun2<SampleEntity, String> setName = UReflectionActions.fieldSetter(name);
+			UFun.UFun1<String, SampleEntity> getName = UReflectionActions.fieldGetter(name);
+			
+			setName.invoke(entity, "shared");
+			Assertions.assertEquals("shared", getName.invoke(entity));
+			// The test class is a nestmate of the entity, so only the accessible flag is checked
+			Assertions.assertFalse(name.isAccessible());
+			Assertions.assertFalse(UReflectionActions.findField(SampleEntity.class, "name", String.class, fieldOptions)
+									   .isAccessible());
+			
+			// Generated calls against Method.invoke
+			int iterations = 1_000_000;
+			long checksum = 0L;
+			long reflectStart = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				checksum += (Integer) lengthMethod.invoke("hello");
+			}
+			long reflectTime = System.nanoTime() - reflectStart;
+			long generatedStart = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				checksum += length.invoke("hello");
+			}
+			long generatedTime = System.nanoTime() - generatedStart;
+			
+			Assertions.assertEquals(10L * iterations, checksum);
+			println("Method.invoke calls:  %.3f ms", reflectTime / 1e6);
+			println("Generated calls:      %.3f ms", generatedTime / 1e6);
+		});
+	}
+	
+	@Test
+	public void fieldAccessorTest() throws IllegalAccessException {
+		makeSectionError(() -> {
+			// Temporal variables
+			UFieldAccessor<SampleEntity> accessor = UFieldAccessor.of(SampleEntity.class);
+			SampleEntity entity = new SampleEntity();
+			
+			Assertions.assertSame(accessor, UFieldAccessor.of(SampleEntity.class));
+			Assertions.assertEquals(List.of("name", "age", "id"), accessor.names());
+			Assertions.assertFalse(accessor.isWritable(accessor.indexOf("id")));
+			
+			// Single field access
+			accessor.set(entity, "name", "Ushiosan");
+			accessor.set(entity, accessor.indexOf("age"), 30);
+			Assertions.assertEquals("Ushiosan", accessor.get(entity, "name"));
+			Assertions.assertArrayEquals(new Object[]{"Ushiosan", 30, 7L}, accessor.toArray(entity));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> accessor.set(entity, "id", 1L));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> accessor.get(entity, "unknown"));
+			Assertions.assertThrows(ClassCastException.class, () -> accessor.set(entity, "age", "30"));
+			
+			// Bulk operations
+			SampleEntity copy = accessor.copy(entity, new SampleEntity());
+			Assertions.assertEquals(accessor.toMap(entity), accessor.toMap(copy));
+			accessor.fromMap(copy, Map.of("age", 31, "unknown", 0));
+			Assertions.assertEquals(Map.of("name", "Ushiosan", "age", 31, "id", 7L), accessor.toMap(copy));
+			accessor.fromArray(copy, new Object[]{"Other", 5, 0L});
+			Assertions.assertArrayEquals(new Object[]{"Other", 5, 7L}, accessor.toArray(copy));
+			
+			// Objects of other classes with the same structure
+			UFieldAccessor<SampleDto> dtoAccessor = UFieldAccessor.of(SampleDto.class);
+			SampleDto dto = accessor.copy(entity, dtoAccessor, new SampleDto());
+			Assertions.assertEquals(Map.of("name", "Ushiosan", "age", 30, "id", 7L), dtoAccessor.toMap(dto));
+			
+			// Hidden fields of the superclasses
+			UFieldAccessor<SampleChild> childAccessor = UFieldAccessor.of(SampleChild.class);
+			SampleChild child = new SampleChild();
+			childAccessor.set(child, "name", "Child");
+			Assertions.assertEquals(List.of("name", "score", "name", "age", "id"), childAccessor.names());
+			Assertions.assertEquals(List.of("name", "score", "age", "id"), List.copyOf(childAccessor.toMap(child).keySet()));
+			Assertions.assertNull(childAccessor.get(child, 2));
+			
+			println("Field accessor: %s", accessor);
+			println("Entity values:  %s", accessor.toMap(entity));
+		});
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal methods
+	 * ----------------------------------------------------- */
+	
+	/**
+	 * Collects the members of a class the same way as the original implementation,
+	 * reading the members of every class of the inheritance stack again.
+	 *
+	 * @param cls      the class to inspect
+	 * @param options  search options
+	 * @param members  function used to get the public members of a class
+	 * @param declared function used to get the declared members of a class
+	 * @param <T>      generic member type
+	 * @return all the members that meet the options
+	 */
+	private static <T extends Member> @NotNull Set<T> legacyMembers(@NotNull Class<?> cls,
+		@NotNull UReflectionOptions<T> options, @NotNull Function<Class<?>, T[]> members,
+		@NotNull Function<Class<?>, T[]> declared) {
+		Set<T> result = new HashSet<>();
+		for (Class<?> item : UClass.classStack(cls, options.maxDeepRecursive())) {
+			List<T> candidates = new ArrayList<>(Arrays.asList(declared.apply(item)));
+			if (!options.recursive()) candidates.addAll(Arrays.asList(members.apply(item)));
+			
+			for (T member : candidates) {
+				int modifiers = member.getModifiers();
+				if (options.publicAccess() && !Modifier.isPublic(modifiers)) continue;
+				if (options.skipAbstract() && Modifier.isAbstract(modifiers)) continue;
+				result.add(member);
+			}
+		}
+		return result;
+	}
+	
+	/* -----------------------------------------------------
+	 * Internal class
+	 * ----------------------------------------------------- */
+	
+	public static class SampleEntity {
+		
+		private String name;
+		
+		private int age;
+		
+		private final long id = 7L;
+		
+	}
+	
+	public static class SampleChild extends SampleEntity {
+		
+		private String name;
+		
+		private double score;
+		
+	}
+	
+	public static class SampleDto {
+		
+		private String name;
+		
+		private Integer age;
+		
+		private long id;
+		
+	}
+	
+}